@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import model.PortfolioEngine;
 import model.StockPortfolio;
 
 @SpringBootApplication
@@ -16,9 +17,16 @@ public class TraderGameApplication {
     
     @Bean
     public StockPortfolio stockPortfolio() {
-        return new StockPortfolio("My Stock Portfolio");
+        StockPortfolio stockPortfolio = new StockPortfolio("My Stock Portfolio");
+        stockPortfolio.setSnapshotPublishing(true); // requests read snapshots while other requests trade
+        return stockPortfolio;
     }
     
+    @Bean(destroyMethod = "shutdown")
+    public PortfolioEngine portfolioEngine(StockPortfolio stockPortfolio) {
+        return new PortfolioEngine(stockPortfolio); // the single writer of the portfolio
+    }
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -1,37 +1,51 @@
 package api.controller;
 
+import api.dto.OrderDTO;
 import api.dto.StockDTO;
 import api.dto.StockPortfolioDTO;
 import api.dto.StockTransactionDTO;
-import model.Stock;
+import model.Order;
+import model.OrderSide;
+import model.OrderType;
+import model.PortfolioEngine;
+import model.PortfolioSnapshot;
+import model.PriceHistory;
 import model.StockPortfolio;
+import model.StockSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/portfolio")
 public class StockPortfolioController {
 
+    private static final double STARTING_BALANCE = 5000;
+
     private final StockPortfolio stockPortfolio;
+    private final PortfolioEngine engine;
 
+    // Changes go through the engine's single writer; responses are built off the writer thread once it is done
     @Autowired
-    public StockPortfolioController(StockPortfolio stockPortfolio) {
+    public StockPortfolioController(StockPortfolio stockPortfolio, PortfolioEngine engine) {
         this.stockPortfolio = stockPortfolio;
+        this.engine = engine;
     }
 
+    // GET endpoints read the snapshot published after the last change, never the live portfolio
     @GetMapping
     public ResponseEntity<StockPortfolioDTO> getPortfolio() {
-        return ResponseEntity.ok(convertToDTO(stockPortfolio));
+        return ResponseEntity.ok(convertToDTO(stockPortfolio.getSnapshot()));
     }
 
     @GetMapping("/stocks")
     public ResponseEntity<List<StockDTO>> getStocks() {
-        List<StockDTO> stockDTOs = stockPortfolio.getStocks().stream()
+        List<StockDTO> stockDTOs = stockPortfolio.getSnapshot().getStockPortfolio().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(stockDTOs);
@@ -39,64 +53,118 @@ public class StockPortfolioController {
 
     @GetMapping("/pool")
     public ResponseEntity<List<StockDTO>> getStockPool() {
-        List<StockDTO> stockDTOs = stockPortfolio.getStockPool().stream()
+        List<StockDTO> stockDTOs = stockPortfolio.getSnapshot().getStockPool().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(stockDTOs);
     }
 
     @PostMapping("/buy")
-    public ResponseEntity<StockDTO> buyStock(@RequestBody StockTransactionDTO transaction) {
-        Stock stock = stockPortfolio.buyStock(transaction.getSymbol(), transaction.getQuantity());
-        if (stock != null) {
-            return ResponseEntity.ok(convertToDTO(stock));
-        } else {
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<StockDTO>> buyStock(@RequestBody StockTransactionDTO transaction) {
+        return engine.buyStock(transaction.getSymbol(), transaction.getQuantity()).thenApplyAsync(bought -> {
+            if (bought) {
+                StockSnapshot stock = stockPortfolio.getSnapshot().getHolding(transaction.getSymbol());
+                return ResponseEntity.ok(convertToDTO(stock));
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     @PostMapping("/sell")
-    public ResponseEntity<StockDTO> sellStock(@RequestBody StockTransactionDTO transaction) {
-        Stock stock = stockPortfolio.sellStock(transaction.getSymbol(), transaction.getQuantity());
-        if (stock != null) {
-            return ResponseEntity.ok(convertToDTO(stock));
-        } else {
-            return ResponseEntity.badRequest().build();
+    public CompletableFuture<ResponseEntity<StockDTO>> sellStock(@RequestBody StockTransactionDTO transaction) {
+        return engine.sellStock(transaction.getSymbol(), transaction.getQuantity()).thenApplyAsync(sold -> {
+            if (sold) {
+                PortfolioSnapshot snapshot = stockPortfolio.getSnapshot();
+                StockSnapshot stock = snapshot.getHolding(transaction.getSymbol());
+                return ResponseEntity.ok(convertToDTO(stock != null ? stock
+                        : snapshot.getStockFromPool(transaction.getSymbol())));
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    @PostMapping("/orders")
+    public CompletableFuture<ResponseEntity<OrderDTO>> placeOrder(@RequestBody OrderDTO request) {
+        OrderSide side;
+        OrderType type;
+        try {
+            side = OrderSide.valueOf(request.getSide().toUpperCase());
+            type = OrderType.valueOf(request.getType().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        // orders change as they fill, so they are read on the writer thread
+        return engine.submit(p -> {
+            Order order = p.placeOrder(request.getSymbol(), side, type, request.getPrice(), request.getQuantity());
+            return order == null ? null : convertToDTO(order);
+        }).thenApply(order -> order != null ? ResponseEntity.ok(order) : ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/orders")
+    public CompletableFuture<ResponseEntity<List<OrderDTO>>> getOpenOrders() {
+        return engine.submit(p -> p.getOpenOrders().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList())).thenApply(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/orders/{orderId}")
+    public CompletableFuture<ResponseEntity<Void>> cancelOrder(@PathVariable long orderId) {
+        return engine.cancelOrder(orderId).thenApply(cancelled -> cancelled
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build());
     }
 
     @PostMapping("/progress-day")
-    public ResponseEntity<StockPortfolioDTO> progressDay() {
-        stockPortfolio.progressDay();
-        return ResponseEntity.ok(convertToDTO(stockPortfolio));
+    public CompletableFuture<ResponseEntity<StockPortfolioDTO>> progressDay() {
+        return engine.progressDay()
+                .thenApplyAsync(day -> ResponseEntity.ok(convertToDTO(stockPortfolio.getSnapshot())));
     }
 
     @PostMapping("/reset")
-    public ResponseEntity<StockPortfolioDTO> resetPortfolio() {
-        // Create a new portfolio with the same name
-        String name = stockPortfolio.getName();
-        // We can't directly reset the portfolio since it's a bean, so we'll clear it
-        stockPortfolio.getStocks().clear();
-        stockPortfolio.getStockPool().clear();
-        stockPortfolio.resetCash();
-        stockPortfolio.resetTradingDay();
-        
-        return ResponseEntity.ok(convertToDTO(stockPortfolio));
+    public CompletableFuture<ResponseEntity<StockPortfolioDTO>> resetPortfolio() {
+        // The portfolio is a bean, so it is reset in place, by the engine's writer like any other change
+        return engine.submit(p -> {
+            for (Order order : p.getOpenOrders()) {
+                p.cancelOrder(order.getOrderId());
+            }
+            p.sellAllStock();
+            p.setStockPortfolioBalance(STARTING_BALANCE);
+            p.setRealizedPNL(0);
+            p.setPnlHistory(new PriceHistory());
+            p.setTradingDay(0);
+            return null;
+        }).thenApplyAsync(reset -> ResponseEntity.ok(convertToDTO(stockPortfolio.getSnapshot())));
     }
 
-    private StockDTO convertToDTO(Stock stock) {
+    private StockDTO convertToDTO(StockSnapshot stock) {
         return new StockDTO(
-                stock.getSymbol(),
-                stock.getName(),
+                stock.getStockCode(),
+                stock.getStockName(),
                 stock.getCurrentPrice(),
-                stock.getPriceChange(),
-                stock.getQuantity(),
+                stock.getStockDailyVariation(),
+                stock.getSharesOwned(),
                 new ArrayList<>(stock.getPriceHistory())
         );
     }
 
-    private StockPortfolioDTO convertToDTO(StockPortfolio portfolio) {
-        List<StockDTO> stockDTOs = portfolio.getStocks().stream()
+    private OrderDTO convertToDTO(Order order) {
+        return new OrderDTO(
+                order.getOrderId(),
+                order.getStockCode(),
+                order.getSide().name(),
+                order.getType().name(),
+                order.getPrice(),
+                order.getShares(),
+                order.getStatus().name(),
+                order.getFilledShares(),
+                order.getFillPrice()
+        );
+    }
+
+    private StockPortfolioDTO convertToDTO(PortfolioSnapshot portfolio) {
+        List<StockDTO> stockDTOs = portfolio.getStockPortfolio().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
 
@@ -105,13 +173,13 @@ public class StockPortfolioController {
                 .collect(Collectors.toList());
 
         return new StockPortfolioDTO(
-                portfolio.getName(),
+                portfolio.getStockPortfolioName(),
                 portfolio.getTradingDay(),
-                portfolio.getCash(),
+                portfolio.getStockPortfolioBalance(),
                 portfolio.getPortfolioValue(),
                 stockDTOs,
                 poolDTOs,
-                new ArrayList<>(portfolio.getPnlHistory())
+                new ArrayList<>(portfolio.getPnLHistory())
         );
     }
 } 
\ No newline at end of file
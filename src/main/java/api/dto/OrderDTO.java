@@ -0,0 +1,102 @@
+package api.dto;
+
+public class OrderDTO {
+    private long orderId;
+    private String symbol;
+    private String side;
+    private String type;
+    private double price;
+    private int quantity;
+    private String status;
+    private int filledQuantity;
+    private double fillPrice;
+    
+    public OrderDTO() {
+    }
+    
+    public OrderDTO(long orderId, String symbol, String side, String type, double price, int quantity,
+                    String status, int filledQuantity, double fillPrice) {
+        this.orderId = orderId;
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.price = price;
+        this.quantity = quantity;
+        this.status = status;
+        this.filledQuantity = filledQuantity;
+        this.fillPrice = fillPrice;
+    }
+    
+    // Getters and Setters
+    public long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+    
+    public String getSide() {
+        return side;
+    }
+    
+    public void setSide(String side) {
+        this.side = side;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public double getPrice() {
+        return price;
+    }
+    
+    public void setPrice(double price) {
+        this.price = price;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public int getFilledQuantity() {
+        return filledQuantity;
+    }
+    
+    public void setFilledQuantity(int filledQuantity) {
+        this.filledQuantity = filledQuantity;
+    }
+    
+    public double getFillPrice() {
+        return fillPrice;
+    }
+    
+    public void setFillPrice(double fillPrice) {
+        this.fillPrice = fillPrice;
+    }
+}
@@ -0,0 +1,97 @@
+package model;
+
+/*
+Represents the outcome of backtesting a strategy: the portfolio's equity (balance plus the market value of its
+holdings) before and after the run, the largest drop of its equity from a previous peak, and how much it traded.
+Turnover is the value traded over the run divided by the average equity.
+ */
+public class BacktestResult {
+
+    private final String strategyName;
+    private final int days;
+    private final double startingEquity;
+    private final double finalEquity;
+    private final double maxDrawdown;
+    private final double maxDrawdownPercent;
+    private final double tradedValue;
+    private final double averageEquity;
+    private final int trades;
+    private final long elapsedNanos;
+
+    // REQUIRES: days > 0
+    // EFFECTS: constructs the result of a backtest
+    public BacktestResult(String strategyName, int days, double startingEquity, double finalEquity,
+                          double maxDrawdown, double maxDrawdownPercent, double tradedValue, double averageEquity,
+                          int trades, long elapsedNanos) {
+        this.strategyName = strategyName;
+        this.days = days;
+        this.startingEquity = startingEquity;
+        this.finalEquity = finalEquity;
+        this.maxDrawdown = maxDrawdown;
+        this.maxDrawdownPercent = maxDrawdownPercent;
+        this.tradedValue = tradedValue;
+        this.averageEquity = averageEquity;
+        this.trades = trades;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // EFFECTS: returns the name of the strategy backtested
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    // EFFECTS: returns the number of days backtested
+    public int getDays() {
+        return this.days;
+    }
+
+    // EFFECTS: returns the portfolio's equity before the first day
+    public double getStartingEquity() {
+        return this.startingEquity;
+    }
+
+    // EFFECTS: returns the portfolio's equity after the last day
+    public double getFinalEquity() {
+        return this.finalEquity;
+    }
+
+    // EFFECTS: returns the profit (or loss, if negative) over the run
+    public double getPnL() {
+        return this.finalEquity - this.startingEquity;
+    }
+
+    // EFFECTS: returns the largest drop of the equity from a previous peak
+    public double getMaxDrawdown() {
+        return this.maxDrawdown;
+    }
+
+    // EFFECTS: returns the largest drop of the equity from a previous peak, as a fraction of that peak
+    public double getMaxDrawdownPercent() {
+        return this.maxDrawdownPercent;
+    }
+
+    // EFFECTS: returns the total value of the shares bought and sold
+    public double getTradedValue() {
+        return this.tradedValue;
+    }
+
+    // EFFECTS: returns the traded value divided by the average equity (0 if the average equity is not positive)
+    public double getTurnover() {
+        return this.averageEquity > 0 ? this.tradedValue / this.averageEquity : 0;
+    }
+
+    // EFFECTS: returns the number of buys and sells executed
+    public int getTrades() {
+        return this.trades;
+    }
+
+    // EFFECTS: returns how long the run took, in nanoseconds
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    // EFFECTS: returns the throughput of the run, in strategy-days per millisecond
+    public double getDaysPerMillisecond() {
+        return this.elapsedNanos == 0 ? 0 : this.days * 1e6 / this.elapsedNanos;
+    }
+}
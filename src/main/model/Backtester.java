@@ -0,0 +1,206 @@
+package model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents a backtester running a trading strategy for a portfolio. Each day the strategy reads the market through a
+read-only view and sends its decisions, which the portfolio executes as buyStock and sellStock calls, then the
+portfolio progresses the day. Days are drawn by the market's price model, or replayed from given price paths.
+The view addresses stocks by index and the backtester only keeps running totals, so no memory is allocated per
+decision or per day beyond what the portfolio itself needs.
+ */
+public class Backtester {
+
+    private StockPortfolio portfolio;
+    private Strategy strategy;
+    private StrategyView view;
+    private List<Stock> pool; // the market's pool, as of the start of the run
+    private Map<String, Integer> poolIndex; // index of each pool stock by code, as of the start of the run
+    private double tradedValue;
+    private int trades;
+    private double peakEquity;
+    private double maxDrawdown;
+    private double maxDrawdownPercent;
+    private double equitySum; // sum of the equity after each day
+
+    // EFFECTS: constructs a backtester running strategy for portfolio
+    public Backtester(StockPortfolio portfolio, Strategy strategy) {
+        this.portfolio = portfolio;
+        this.strategy = strategy;
+        this.view = new StrategyView();
+    }
+
+    // EFFECTS: returns the portfolio the strategy trades for
+    public StockPortfolio getPortfolio() {
+        return this.portfolio;
+    }
+
+    // EFFECTS: returns the strategy being backtested
+    public Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    // REQUIRES: days > 0
+    // MODIFIES: this, the strategy, the portfolio and its market
+    // EFFECTS: runs the strategy for the given number of days, drawn by the market's price model, and returns the
+    // outcome
+    public BacktestResult run(int days) {
+        long start = System.nanoTime();
+        startRun();
+        double startingEquity = this.peakEquity;
+        for (int day = 0; day < days; day++) {
+            this.strategy.onDay(this.view, this.view);
+            this.portfolio.progressDay();
+            recordEquity(this.view.getEquity());
+        }
+        return new BacktestResult(this.strategy.getName(), days, startingEquity, this.view.getEquity(),
+                this.maxDrawdown, this.maxDrawdownPercent, this.tradedValue, this.equitySum / days, this.trades,
+                System.nanoTime() - start);
+    }
+
+    // REQUIRES: paths have days left to replay
+    // MODIFIES: this, the strategy, the portfolio and its market, paths
+    // EFFECTS: runs the strategy over every day left in the given price paths and returns the outcome; the market's
+    // price model is restored afterwards
+    public BacktestResult run(PricePathModel paths) {
+        Market market = this.portfolio.getMarket();
+        PriceModel previous = market.getPriceModel();
+        market.setPriceModel(paths);
+        try {
+            return run(paths.getRemainingDays());
+        } finally {
+            market.setPriceModel(previous);
+        }
+    }
+
+    // MODIFIES: this, the strategy
+    // EFFECTS: resets the running totals and indexes the pool, then lets the strategy prepare
+    private void startRun() {
+        this.pool = this.portfolio.getStockPool();
+        this.poolIndex = new HashMap<>();
+        for (int i = 0; i < pool.size(); i++) {
+            this.poolIndex.put(pool.get(i).getStockCode(), i);
+        }
+        this.tradedValue = 0;
+        this.trades = 0;
+        this.peakEquity = this.view.getEquity();
+        this.maxDrawdown = 0;
+        this.maxDrawdownPercent = 0;
+        this.equitySum = 0;
+        this.strategy.onStart(this.view);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the equity after a day to the running totals and drawdowns
+    private void recordEquity(double equity) {
+        this.equitySum += equity;
+        if (equity > this.peakEquity) {
+            this.peakEquity = equity;
+        } else {
+            double drawdown = this.peakEquity - equity;
+            this.maxDrawdown = Math.max(this.maxDrawdown, drawdown);
+            if (this.peakEquity > 0) {
+                this.maxDrawdownPercent = Math.max(this.maxDrawdownPercent, drawdown / this.peakEquity);
+            }
+        }
+    }
+
+    /*
+    The strategy's view of the market and of the portfolio, through which it also trades.
+     */
+    private class StrategyView implements MarketView, TradeSink {
+
+        @Override
+        public int getTradingDay() {
+            return portfolio.getTradingDay();
+        }
+
+        @Override
+        public MarketRegime getMarketRegime() {
+            return portfolio.getMarketRegime();
+        }
+
+        @Override
+        public int getStockCount() {
+            return pool.size();
+        }
+
+        @Override
+        public int indexOf(String code) {
+            Integer index = poolIndex.get(code);
+            return index == null ? -1 : index;
+        }
+
+        @Override
+        public String getStockCode(int stock) {
+            return pool.get(stock).getStockCode();
+        }
+
+        @Override
+        public String getStockSector(int stock) {
+            return pool.get(stock).getStockSector();
+        }
+
+        @Override
+        public double getPrice(int stock) {
+            return pool.get(stock).getCurrentPrice();
+        }
+
+        @Override
+        public double getDailyVariation(int stock) {
+            return pool.get(stock).getStockDailyVariation();
+        }
+
+        @Override
+        public double getClose(int stock, int daysAgo) {
+            PriceHistory history = pool.get(stock).getPriceHistory();
+            return history.priceAt(history.getDayCount() - 1 - daysAgo);
+        }
+
+        @Override
+        public double getIndicatorValue(int stock, String name) {
+            Indicator indicator = pool.get(stock).getIndicator(name);
+            return indicator == null ? Double.NaN : indicator.getValue();
+        }
+
+        @Override
+        public int getSharesOwned(int stock) {
+            Stock holding = portfolio.getStockFromPortfolio(pool.get(stock).getStockCode());
+            return holding == null ? 0 : holding.getSharesOwned();
+        }
+
+        @Override
+        public double getBalance() {
+            return portfolio.getStockPortfolioBalance();
+        }
+
+        @Override
+        public double getEquity() {
+            return portfolio.getStockPortfolioBalance() + portfolio.getSectorExposure().getTotal();
+        }
+
+        @Override
+        public boolean buy(int stock, int shares) {
+            Stock s = pool.get(stock);
+            return traded(portfolio.buyStock(s.getStockCode(), shares), s, shares);
+        }
+
+        @Override
+        public boolean sell(int stock, int shares) {
+            Stock s = pool.get(stock);
+            return traded(portfolio.sellStock(s.getStockCode(), shares), s, shares);
+        }
+
+        // MODIFIES: Backtester.this
+        // EFFECTS: adds a trade of shares of s to the traded value if it was executed; returns executed
+        private boolean traded(boolean executed, Stock s, int shares) {
+            if (executed) {
+                tradedValue += s.getCurrentPrice() * shares;
+                trades++;
+            }
+            return executed;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package model;
+
+/*
+Represents the Bollinger bands of a stock's price: the simple moving average of its last n prices (the middle band,
+which is the indicator's value), and the bands k standard deviations of those prices above and below it.
+ */
+public class BollingerBands implements Indicator {
+
+    private int period;
+    private double width; // standard deviations between the middle band and the outer bands
+    private RollingWindow window;
+
+    // REQUIRES: period > 0, width > 0
+    // EFFECTS: constructs the bands of the last period prices, width standard deviations apart from their average
+    public BollingerBands(int period, double width) {
+        this.period = period;
+        this.width = width;
+        this.window = new RollingWindow(period);
+    }
+
+    @Override
+    public String getName() {
+        return "BB(" + period + ", " + width + ")";
+    }
+
+    @Override
+    public void update(double price) {
+        window.add(price);
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    // EFFECTS: returns the middle band, or NaN if the bands are not ready
+    @Override
+    public double getValue() {
+        return isReady() ? window.mean() : Double.NaN;
+    }
+
+    // EFFECTS: returns the upper band, or NaN if the bands are not ready
+    public double getUpperBand() {
+        return isReady() ? window.mean() + width * window.standardDeviation() : Double.NaN;
+    }
+
+    // EFFECTS: returns the lower band, or NaN if the bands are not ready
+    public double getLowerBand() {
+        return isReady() ? window.mean() - width * window.standardDeviation() : Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        window.clear();
+    }
+
+}
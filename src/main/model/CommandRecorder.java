@@ -0,0 +1,10 @@
+package model;
+
+/*
+Represents where a portfolio records the commands it executes, such as an append-only journal.
+ */
+public interface CommandRecorder {
+
+    // EFFECTS: records command, which the portfolio has just executed
+    void record(JournalCommand command);
+}
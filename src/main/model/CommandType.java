@@ -0,0 +1,16 @@
+package model;
+
+/*
+Represents the type of a command recorded in a portfolio's journal: each type is one kind of action that changes the
+portfolio.
+ */
+public enum CommandType {
+    BUY,
+    SELL,
+    PROGRESS,
+    CREATE_STOCK,
+    LOAN,
+    PLACE_ORDER,
+    CANCEL_ORDER,
+    COST_BASIS
+}
@@ -0,0 +1,13 @@
+package model;
+
+/*
+Represents how a sale picks the lots of a position it sells from:
+ - FIFO sells the oldest lots first
+ - LIFO sells the most recent lots first
+ - AVERAGE_COST merges every buy into a single lot at the average price paid per share
+ */
+public enum CostBasisMethod {
+    FIFO,
+    LIFO,
+    AVERAGE_COST
+}
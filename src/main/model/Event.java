@@ -1,6 +1,5 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
 
 /**
@@ -14,7 +13,13 @@ public class Event {
 
     // EFFECTS: creates a new Event with log date and a description
     public Event(String description) {
-        this.logDate = Calendar.getInstance().getTime();
+        this.logDate = new Date();
+        this.logDesc = description;
+    }
+
+    // EFFECTS: creates an Event logged at the given date, such as an event read back from a journal
+    public Event(String description, Date logDate) {
+        this.logDate = new Date(logDate.getTime());
         this.logDesc = description;
     }
 
@@ -1,46 +1,300 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  Represents a log of events in the Trader Simulator Application.
     Uses the Singleton Design Pattern to ensure that there is only
     one EventLog in the application, providing global access to its instance.
+ The log is a fixed-capacity ring buffer, so its memory stays the same however long the application runs. Any number
+ of threads log events and poll them (for instance to write them to disk) at once without locks: each event gets the
+ next sequence number, and the slot of a sequence number is only ever replaced by an event with a higher one. When
+ the events not yet polled fill the buffer, a new event either overwrites the oldest of them or is dropped, as set by
+ the log's overflow policy; both are counted. Iterating reads the events still in the buffer without stopping anyone
+ from logging.
+ The application's log holds 16384 events and overwrites the oldest; the system properties
+ tradergame.eventlog.capacity (up to 2^30) and tradergame.eventlog.policy (OVERWRITE or DROP) change that; a value
+ that is not valid is ignored.
  */
 
 public class EventLog  implements Iterable<Event> {
 
-    private static EventLog log;
-    private Collection<Event> events;
+    public enum OverflowPolicy {
+        OVERWRITE, // a new event replaces the oldest event not yet polled
+        DROP // a new event is dropped
+    }
+
+    private static final int DEFAULT_CAPACITY = 16384;
+    private static final int MAX_CAPACITY = 1 << 30; // the largest power of two an int holds
+    private static final String CAPACITY_PROPERTY = "tradergame.eventlog.capacity";
+    private static final String POLICY_PROPERTY = "tradergame.eventlog.policy";
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask; // capacity - 1; the slot of sequence number n is n & mask
+    private final OverflowPolicy policy;
+    private final AtomicLong head; // sequence number of the next event logged
+    private final AtomicLong tail; // sequence number of the next event polled
+    private final AtomicLong clearedUpTo; // events before this sequence number are no longer iterated
+    private final LongAdder dropped;
+    private final LongAdder overwritten;
 
-    // EFFECTS: creates a new Event Log
-    private EventLog() {
-        events = new ArrayList<Event>();
+    // EFFECTS: creates a new Event Log, separate from the application's, holding capacity events rounded up to a
+    // power of two, with the given overflow policy; throws IllegalArgumentException unless 0 < capacity <= 2^30
+    public EventLog(int capacity, OverflowPolicy policy) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Event log capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        this.slots = new AtomicReferenceArray<>(size == capacity ? size : size << 1);
+        this.mask = slots.length() - 1;
+        this.policy = policy;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.clearedUpTo = new AtomicLong();
+        this.dropped = new LongAdder();
+        this.overwritten = new LongAdder();
     }
 
     // EFFECTS: gets singleton instance of the Event Log for application
     public static EventLog getInstance() {
-        if (log == null) {
-            log = new EventLog();
+        return Holder.LOG;
+    }
+
+    // EFFECTS: returns the number of events the log holds
+    public int getCapacity() {
+        return this.slots.length();
+    }
+
+    // EFFECTS: returns what happens to a new event when the events not yet polled fill the log
+    public OverflowPolicy getOverflowPolicy() {
+        return this.policy;
+    }
+
+    // EFFECTS: returns the number of events logged so far, not counting those dropped
+    public long getLoggedCount() {
+        return this.head.get();
+    }
+
+    // EFFECTS: returns the number of events dropped because the log was full
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    // EFFECTS: returns the number of events overwritten before they were polled
+    public long getOverwrittenCount() {
+        return this.overwritten.sum();
+    }
+
+    // EFFECTS: logs new Event into the Event Log; returns false if it was dropped because the log was full
+    public boolean logEvent(Event e) {
+        long sequence;
+        if (this.policy == OverflowPolicy.DROP) {
+            sequence = claimIfRoom();
+            if (sequence < 0) {
+                dropped.increment();
+                return false;
+            }
+        } else {
+            sequence = head.getAndIncrement();
+            discardUpTo(sequence - slots.length());
         }
-        return log;
+        publish(new Entry(sequence, e));
+        return true;
     }
 
-    // EFFECTS: logs new Event into the Event Log
-    public void logEvent(Event e) {
-        events.add(e);
+    // MODIFIES: this
+    // EFFECTS: removes and returns the oldest event not yet polled, or null if there is none (or it is still being
+    // logged)
+    public Event poll() {
+        while (true) {
+            long next = tail.get();
+            if (next >= head.get()) {
+                return null;
+            }
+            Entry entry = slots.get(slot(next));
+            if (entry == null || entry.sequence < next) {
+                return null;
+            }
+            if (entry.sequence == next && tail.compareAndSet(next, next + 1)) {
+                return entry.event;
+            }
+        }
+    }
+
+    // MODIFIES: this, events
+    // EFFECTS: removes up to max events not yet polled, oldest first, adds them to events and returns how many
+    public int drainTo(Collection<? super Event> events, int max) {
+        int drained = 0;
+        Event e;
+        while (drained < max && (e = poll()) != null) {
+            events.add(e);
+            drained++;
+        }
+        return drained;
     }
 
     // EFFECTS: clears the current Event Log
     public void clear() {
-        events.clear();
+        long logged = head.get();
+        for (long cleared = clearedUpTo.get(); cleared < logged; cleared = clearedUpTo.get()) {
+            if (clearedUpTo.compareAndSet(cleared, logged)) {
+                break;
+            }
+        }
         logEvent(new Event("Cleared events log"));
     }
 
+    // EFFECTS: returns an iterator over the events still in the log, oldest first, logged before it was created and
+    // since the log was last cleared; events overwritten while iterating are skipped
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        long end = head.get();
+        long start = Math.max(clearedUpTo.get(), end - slots.length());
+        return new EventIterator(Math.max(start, 0), end);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next sequence number, claimed for a new event, or -1 if the events not yet polled fill
+    // the log
+    private long claimIfRoom() {
+        while (true) {
+            long next = head.get();
+            if (next - tail.get() >= slots.length()) {
+                return -1;
+            }
+            if (head.compareAndSet(next, next + 1)) {
+                return next;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: gives up on polling the events up to sequence number last, counting those not yet polled as
+    // overwritten
+    private void discardUpTo(long last) {
+        for (long next = tail.get(); next <= last; next = tail.get()) {
+            if (tail.compareAndSet(next, last + 1)) {
+                overwritten.add(last + 1 - next);
+                return;
+            }
+        }
     }
 
+    // MODIFIES: this
+    // EFFECTS: stores entry in its slot, unless an event with a higher sequence number is there already
+    private void publish(Entry entry) {
+        int slot = slot(entry.sequence);
+        while (true) {
+            Entry current = slots.get(slot);
+            if (current != null && current.sequence > entry.sequence) {
+                return;
+            }
+            if (slots.compareAndSet(slot, current, entry)) {
+                return;
+            }
+        }
+    }
+
+    // EFFECTS: returns the slot of the given sequence number
+    private int slot(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    // EFFECTS: returns the application's log, as configured by the system properties
+    private static EventLog fromSystemProperties() {
+        return fromProperties(System.getProperty(CAPACITY_PROPERTY), System.getProperty(POLICY_PROPERTY));
+    }
+
+    // EFFECTS: returns a log configured by the given property values, either of which may be null. A capacity that
+    // is not a number between 1 and 2^30, or a policy that is not an overflow policy's name, falls back to the
+    // default, so a misconfigured property can't keep the application's log from being created.
+    static EventLog fromProperties(String capacity, String policy) {
+        return new EventLog(parseCapacity(capacity), parsePolicy(policy));
+    }
+
+    // EFFECTS: returns the capacity value holds, or the default capacity if it holds none that is valid
+    private static int parseCapacity(String value) {
+        if (value != null) {
+            try {
+                int capacity = Integer.parseInt(value.trim());
+                if (capacity > 0 && capacity <= MAX_CAPACITY) {
+                    return capacity;
+                }
+            } catch (NumberFormatException e) {
+                // falls back to the default
+            }
+        }
+        return DEFAULT_CAPACITY;
+    }
+
+    // EFFECTS: returns the overflow policy named by value, or OVERWRITE if it names none
+    private static OverflowPolicy parsePolicy(String value) {
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            if (value != null && policy.name().equalsIgnoreCase(value.trim())) {
+                return policy;
+            }
+        }
+        return OverflowPolicy.OVERWRITE;
+    }
+
+    /*
+    Holds the application's log, created the first time it is asked for; class initialization makes that safe.
+     */
+    private static class Holder {
+        private static final EventLog LOG = fromSystemProperties();
+    }
+
+    /*
+    An event and its sequence number.
+     */
+    private static final class Entry {
+        private final long sequence;
+        private final Event event;
+
+        Entry(long sequence, Event event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    /*
+    Iterates over the events with sequence numbers in a range that are still in their slots.
+     */
+    private class EventIterator implements Iterator<Event> {
+        private long next; // the sequence number of the next event to look for
+        private final long end;
+        private Event found; // the next event, once found
+
+        EventIterator(long start, long end) {
+            this.next = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (found == null && next < end) {
+                Entry entry = slots.get(slot(next));
+                if (entry != null && entry.sequence == next) {
+                    found = entry.event;
+                }
+                next++;
+            }
+            return found != null;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Event e = found;
+            found = null;
+            return e;
+        }
+    }
 }
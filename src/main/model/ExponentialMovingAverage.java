@@ -0,0 +1,52 @@
+package model;
+
+/*
+Represents the exponential moving average of a stock's price over a period of n days: each new price moves the
+average by 2 / (n + 1) of its distance to it. The average is seeded with the simple average of the first n prices.
+ */
+public class ExponentialMovingAverage implements Indicator {
+
+    private int period;
+    private double alpha;
+    private int count; // prices added, counted up to period
+    private double value;
+
+    // REQUIRES: period > 0
+    // EFFECTS: constructs the exponential moving average over period days
+    public ExponentialMovingAverage(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public String getName() {
+        return "EMA(" + period + ")";
+    }
+
+    @Override
+    public void update(double price) {
+        if (count < period) {
+            count++;
+            value += (price - value) / count; // running simple average of the first prices
+        } else {
+            value += alpha * (price - value);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count == period;
+    }
+
+    @Override
+    public double getValue() {
+        return isReady() ? value : Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        value = 0;
+    }
+
+}
@@ -0,0 +1,259 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents a multi-factor price model. Each day draws the returns of a few factors (say, the whole market and each
+sector) with the factors' volatilities and correlations, then each stock's variation is:
+    drift of the market regime + the stock's loadings . the factor returns + idiosyncratic volatility * noise
+Stocks load on the factors by sector, so stocks sharing factors move together.
+Correlated factor returns are drawn through the Cholesky factor of the factor covariance matrix. The factor is cached
+and only recomputed after a volatility or correlation changes, and factor returns are combined once per sector per
+day, so a day costs a few operations per stock however many stocks the market has.
+ */
+public class FactorPriceModel implements PriceModel {
+
+    private static final double MIN_VARIATION = -0.99; // a price never falls to zero
+
+    private double[] volatilities; // of each factor
+    private double[][] correlations; // between factors
+    private double[][] choleskyFactor; // of the factor covariance matrix, or null until recomputed
+    private int decompositions; // number of times the Cholesky factor was computed
+    private Map<String, double[]> sectorLoadings; // by sector
+    private double[] defaultLoadings; // for stocks in sectors without loadings of their own
+    private double idiosyncraticVolatility;
+    private double[] shocks; // independent standard normal draws, one per factor
+    private double[] factorReturns; // today's return of each factor
+    private Map<String, Double> systematicReturns; // today's factor-driven return of each sector drawn so far
+
+    // REQUIRES: every volatility and idiosyncraticVolatility is >= 0
+    // EFFECTS: constructs a model with uncorrelated factors of the given volatilities, in which no stock loads on
+    // any factor
+    public FactorPriceModel(double[] volatilities, double idiosyncraticVolatility) {
+        int factors = volatilities.length;
+        this.volatilities = volatilities.clone();
+        this.correlations = new double[factors][factors];
+        for (int i = 0; i < factors; i++) {
+            this.correlations[i][i] = 1;
+        }
+        this.sectorLoadings = new HashMap<>();
+        this.defaultLoadings = new double[factors];
+        this.idiosyncraticVolatility = idiosyncraticVolatility;
+        this.shocks = new double[factors];
+        this.factorReturns = new double[factors];
+        this.systematicReturns = new HashMap<>();
+    }
+
+    // REQUIRES: every volatility is >= 0
+    // EFFECTS: returns a model with a market factor (factor 0) followed by one factor per sector, in order. Stocks
+    // of each sector load fully on the market factor and on their sector's factor; stocks of other sectors only
+    // load on the market factor.
+    public static FactorPriceModel marketAndSectors(List<String> sectors, double marketVolatility,
+                                                    double sectorVolatility, double idiosyncraticVolatility) {
+        double[] volatilities = new double[sectors.size() + 1];
+        Arrays.fill(volatilities, sectorVolatility);
+        volatilities[0] = marketVolatility;
+        FactorPriceModel model = new FactorPriceModel(volatilities, idiosyncraticVolatility);
+        double[] marketOnly = new double[volatilities.length];
+        marketOnly[0] = 1;
+        model.setDefaultLoadings(marketOnly);
+        for (int i = 0; i < sectors.size(); i++) {
+            double[] loadings = marketOnly.clone();
+            loadings[i + 1] = 1;
+            model.setSectorLoadings(sectors.get(i), loadings);
+        }
+        return model;
+    }
+
+    // EFFECTS: returns the number of factors
+    public int getFactors() {
+        return this.volatilities.length;
+    }
+
+    // EFFECTS: returns the volatility of the given factor
+    public double getVolatility(int factor) {
+        return this.volatilities[factor];
+    }
+
+    // EFFECTS: returns the correlation between two factors
+    public double getCorrelation(int factor, int other) {
+        return this.correlations[factor][other];
+    }
+
+    // EFFECTS: returns the loadings of stocks in the given sector on each factor
+    public double[] getLoadings(String sector) {
+        return this.sectorLoadings.getOrDefault(sector, this.defaultLoadings).clone();
+    }
+
+    // EFFECTS: returns the volatility of each stock's own noise
+    public double getIdiosyncraticVolatility() {
+        return this.idiosyncraticVolatility;
+    }
+
+    // EFFECTS: returns the number of times the Cholesky factor was computed
+    public int getDecompositions() {
+        return this.decompositions;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the lower-triangular Cholesky factor L of the factor covariance matrix (L times its transpose
+    // is the covariance matrix), computing it if a parameter changed since it was last computed; throws
+    // IllegalArgumentException if the factor correlations are not positive semi-definite
+    public double[][] getCholeskyFactor() {
+        double[][] factor = choleskyFactor();
+        double[][] copy = new double[factor.length][];
+        for (int i = 0; i < factor.length; i++) {
+            copy[i] = factor[i].clone();
+        }
+        return copy;
+    }
+
+    // REQUIRES: volatility >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the volatility of the given factor
+    public void setVolatility(int factor, double volatility) {
+        this.volatilities[factor] = volatility;
+        this.choleskyFactor = null;
+    }
+
+    // REQUIRES: factor != other, -1 <= correlation <= 1
+    // MODIFIES: this
+    // EFFECTS: sets the correlation between two factors
+    public void setCorrelation(int factor, int other, double correlation) {
+        this.correlations[factor][other] = correlation;
+        this.correlations[other][factor] = correlation;
+        this.choleskyFactor = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the loadings of stocks in the given sector on each factor; throws IllegalArgumentException if
+    // there is not one loading per factor
+    public void setSectorLoadings(String sector, double[] loadings) {
+        this.sectorLoadings.put(sector, checkLoadings(loadings));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the loadings of stocks in sectors without loadings of their own; throws IllegalArgumentException
+    // if there is not one loading per factor
+    public void setDefaultLoadings(double[] loadings) {
+        this.defaultLoadings = checkLoadings(loadings);
+    }
+
+    // REQUIRES: idiosyncraticVolatility >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the volatility of each stock's own noise
+    public void setIdiosyncraticVolatility(double idiosyncraticVolatility) {
+        this.idiosyncraticVolatility = idiosyncraticVolatility;
+    }
+
+    // MODIFIES: this, random, the random sources of stocks
+    // EFFECTS: draws today's factor returns from random, then each stock's variation around the regime's mean
+    // variation, drawing its noise from the stock's random source; throws IllegalArgumentException if the factor
+    // correlations are not positive semi-definite
+    @Override
+    public void nextVariations(List<Stock> stocks, MarketRegime regime, RandomSource random, double[] variations) {
+        drawFactorReturns(random);
+        double drift = (regime.getMinVariation() + regime.getMaxVariation()) / 2;
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock s = stocks.get(i);
+            double noise = this.idiosyncraticVolatility * standardNormal(s.getRandomSource());
+            variations[i] = Math.max(drift + systematicReturn(s.getStockSector()) + noise, MIN_VARIATION);
+        }
+    }
+
+    // MODIFIES: this, random
+    // EFFECTS: draws today's correlated factor returns, and forgets the sectors' returns of the previous day
+    private void drawFactorReturns(RandomSource random) {
+        double[][] factor = choleskyFactor();
+        for (int j = 0; j < shocks.length; j++) {
+            shocks[j] = standardNormal(random);
+        }
+        for (int i = 0; i < factorReturns.length; i++) {
+            double sum = 0;
+            for (int j = 0; j <= i; j++) {
+                sum += factor[i][j] * shocks[j];
+            }
+            factorReturns[i] = sum;
+        }
+        this.systematicReturns.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns today's factor-driven return of stocks in the given sector
+    private double systematicReturn(String sector) {
+        Double cached = this.systematicReturns.get(sector);
+        if (cached == null) {
+            double[] loadings = this.sectorLoadings.getOrDefault(sector, this.defaultLoadings);
+            double sum = 0;
+            for (int j = 0; j < loadings.length; j++) {
+                sum += loadings[j] * factorReturns[j];
+            }
+            cached = sum;
+            this.systematicReturns.put(sector, cached);
+        }
+        return cached;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the cached Cholesky factor of the factor covariance matrix, computing it first if needed;
+    // throws IllegalArgumentException if the factor correlations are not positive semi-definite
+    private double[][] choleskyFactor() {
+        if (this.choleskyFactor == null) {
+            int n = volatilities.length;
+            double[][] covariance = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    covariance[i][j] = correlations[i][j] * volatilities[i] * volatilities[j];
+                }
+            }
+            this.choleskyFactor = decompose(covariance);
+            this.decompositions++;
+        }
+        return this.choleskyFactor;
+    }
+
+    // REQUIRES: covariance is square and symmetric
+    // EFFECTS: returns the lower-triangular Cholesky factor of covariance; a zero pivot gives a zero column, so
+    // factors with no volatility are allowed. Throws IllegalArgumentException if covariance is not positive
+    // semi-definite.
+    static double[][] decompose(double[][] covariance) {
+        int n = covariance.length;
+        double[][] factor = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = covariance[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= factor[i][k] * factor[j][k];
+                }
+                if (i == j) {
+                    if (sum < -1e-12) {
+                        throw new IllegalArgumentException("Factor covariance is not positive semi-definite");
+                    }
+                    factor[i][i] = Math.sqrt(Math.max(sum, 0));
+                } else {
+                    factor[i][j] = factor[j][j] == 0 ? 0 : sum / factor[j][j];
+                }
+            }
+        }
+        return factor;
+    }
+
+    // EFFECTS: returns a copy of loadings; throws IllegalArgumentException if there is not one loading per factor
+    private double[] checkLoadings(double[] loadings) {
+        if (loadings.length != volatilities.length) {
+            throw new IllegalArgumentException("Expected " + volatilities.length + " loadings, got "
+                    + loadings.length);
+        }
+        return loadings.clone();
+    }
+
+    // MODIFIES: random
+    // EFFECTS: draws a standard normal value from random (Box-Muller transform)
+    private static double standardNormal(RandomSource random) {
+        double radius = Math.sqrt(-2 * Math.log(1 - random.nextDouble()));
+        return radius * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
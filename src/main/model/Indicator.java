@@ -0,0 +1,26 @@
+package model;
+
+/*
+Represents a technical indicator of a stock, maintained one daily price at a time: each new price updates the
+indicator in constant time and its value is read without scanning the price history. An indicator holds only the
+small, fixed-size state it needs (at most a ring buffer of its window).
+ */
+public interface Indicator {
+
+    // EFFECTS: returns the indicator's name, including its parameters (e.g. "SMA(20)")
+    String getName();
+
+    // MODIFIES: this
+    // EFFECTS: adds the next daily price
+    void update(double price);
+
+    // EFFECTS: returns true once enough prices were added for the value to be defined
+    boolean isReady();
+
+    // EFFECTS: returns the indicator's current value, or NaN if it is not ready
+    double getValue();
+
+    // MODIFIES: this
+    // EFFECTS: forgets every price added so far
+    void reset();
+}
@@ -0,0 +1,198 @@
+package model;
+
+/*
+Represents one action that changed a portfolio, as recorded in its journal: applying the commands a portfolio
+recorded, in order, to a copy of the portfolio taken before them brings the copy to the same state. A command holds
+everything its action needs to be repeated exactly, including the outcome of any random draw:
+ - BUY and SELL: the stock code and number of shares
+ - PROGRESS: the number of days and the seed the market was reseeded with
+ - CREATE_STOCK: the new stock's name, code, sector and first price
+ - LOAN: nothing (only granted loans are recorded)
+ - PLACE_ORDER: the stock code, side, order type, price and shares
+ - CANCEL_ORDER: the order id
+ - COST_BASIS: the cost basis method
+ */
+public class JournalCommand {
+
+    private CommandType type;
+    private String stockCode; // BUY, SELL, CREATE_STOCK, PLACE_ORDER
+    private String stockName; // CREATE_STOCK
+    private String stockSector; // CREATE_STOCK
+    private int amount; // shares (BUY, SELL, PLACE_ORDER) or days (PROGRESS)
+    private long number; // seed (PROGRESS) or order id (CANCEL_ORDER)
+    private double price; // first price (CREATE_STOCK) or order price (PLACE_ORDER)
+    private OrderSide side; // PLACE_ORDER
+    private OrderType orderType; // PLACE_ORDER
+    private CostBasisMethod method; // COST_BASIS
+
+    // EFFECTS: constructs a command of the given type with no arguments
+    private JournalCommand(CommandType type) {
+        this.type = type;
+    }
+
+    // EFFECTS: returns a command buying shares of the stock with the given code
+    public static JournalCommand buy(String code, int shares) {
+        JournalCommand command = new JournalCommand(CommandType.BUY);
+        command.stockCode = code;
+        command.amount = shares;
+        return command;
+    }
+
+    // EFFECTS: returns a command selling shares of the stock with the given code
+    public static JournalCommand sell(String code, int shares) {
+        JournalCommand command = new JournalCommand(CommandType.SELL);
+        command.stockCode = code;
+        command.amount = shares;
+        return command;
+    }
+
+    // EFFECTS: returns a command progressing the given number of days after reseeding the market with seed
+    public static JournalCommand progress(int days, long seed) {
+        JournalCommand command = new JournalCommand(CommandType.PROGRESS);
+        command.amount = days;
+        command.number = seed;
+        return command;
+    }
+
+    // EFFECTS: returns a command creating a new stock whose price history starts at firstPrice
+    public static JournalCommand createStock(String name, String code, String sector, double firstPrice) {
+        JournalCommand command = new JournalCommand(CommandType.CREATE_STOCK);
+        command.stockName = name;
+        command.stockCode = code;
+        command.stockSector = sector;
+        command.price = firstPrice;
+        return command;
+    }
+
+    // EFFECTS: returns a command granting a loan
+    public static JournalCommand loan() {
+        return new JournalCommand(CommandType.LOAN);
+    }
+
+    // EFFECTS: returns a command placing an order
+    public static JournalCommand placeOrder(String code, OrderSide side, OrderType type, double price, int shares) {
+        JournalCommand command = new JournalCommand(CommandType.PLACE_ORDER);
+        command.stockCode = code;
+        command.side = side;
+        command.orderType = type;
+        command.price = price;
+        command.amount = shares;
+        return command;
+    }
+
+    // EFFECTS: returns a command cancelling the order with the given id
+    public static JournalCommand cancelOrder(long orderId) {
+        JournalCommand command = new JournalCommand(CommandType.CANCEL_ORDER);
+        command.number = orderId;
+        return command;
+    }
+
+    // EFFECTS: returns a command setting the cost basis method
+    public static JournalCommand costBasis(CostBasisMethod method) {
+        JournalCommand command = new JournalCommand(CommandType.COST_BASIS);
+        command.method = method;
+        return command;
+    }
+
+    // EFFECTS: returns the command's type
+    public CommandType getType() {
+        return type;
+    }
+
+    // EFFECTS: returns the stock code
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    // EFFECTS: returns the new stock's name
+    public String getStockName() {
+        return stockName;
+    }
+
+    // EFFECTS: returns the new stock's sector
+    public String getStockSector() {
+        return stockSector;
+    }
+
+    // EFFECTS: returns the number of shares (BUY, SELL, PLACE_ORDER) or days (PROGRESS)
+    public int getAmount() {
+        return amount;
+    }
+
+    // EFFECTS: returns the seed (PROGRESS) or order id (CANCEL_ORDER)
+    public long getNumber() {
+        return number;
+    }
+
+    // EFFECTS: returns the first price (CREATE_STOCK) or order price (PLACE_ORDER)
+    public double getPrice() {
+        return price;
+    }
+
+    // EFFECTS: returns the order side
+    public OrderSide getSide() {
+        return side;
+    }
+
+    // EFFECTS: returns the order type
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
+    // EFFECTS: returns the cost basis method
+    public CostBasisMethod getMethod() {
+        return method;
+    }
+
+    // MODIFIES: portfolio
+    // EFFECTS: repeats this command's action on portfolio
+    public void applyTo(StockPortfolio portfolio) {
+        switch (type) {
+            case BUY:
+                portfolio.buyStock(stockCode, amount);
+                break;
+            case SELL:
+                sellFrom(portfolio);
+                break;
+            case PROGRESS:
+                portfolio.progressDays(amount, number);
+                break;
+            case CREATE_STOCK:
+                portfolio.createNewStock(new Stock(stockName, stockCode, stockSector, price));
+                break;
+            case LOAN:
+                portfolio.grantLoan();
+                break;
+            default:
+                applyOrderTo(portfolio);
+        }
+    }
+
+    // MODIFIES: portfolio
+    // EFFECTS: repeats this command's action on portfolio, for the commands about orders and cost basis
+    private void applyOrderTo(StockPortfolio portfolio) {
+        switch (type) {
+            case PLACE_ORDER:
+                portfolio.placeOrder(stockCode, side, orderType, price, amount);
+                break;
+            case CANCEL_ORDER:
+                portfolio.cancelOrder(number);
+                break;
+            default:
+                portfolio.setCostBasisMethod(method);
+        }
+    }
+
+    // MODIFIES: portfolio
+    // EFFECTS: sells the command's shares of its stock; selling every share held removes the stock from portfolio,
+    // as selling the whole stock did when the command was recorded
+    private void sellFrom(StockPortfolio portfolio) {
+        Stock held = portfolio.getStockFromPortfolio(stockCode);
+        if (held != null && held.getSharesOwned() == amount) {
+            portfolio.sellStock(stockCode);
+        } else {
+            portfolio.sellStock(stockCode, amount);
+        }
+    }
+
+}
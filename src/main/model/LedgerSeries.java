@@ -0,0 +1,59 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+Represents a value that changes from day to day, stored as the days it changed on and its value from each of them
+on. Changes are recorded in day order, so the value on any day is found by binary search over the changes.
+ */
+class LedgerSeries {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] days; // the days the value changed on, increasing
+    private double[] values; // the value from each of days on
+    private int size;
+
+    // EFFECTS: constructs a series that has never changed
+    LedgerSeries() {
+        this.days = new int[INITIAL_CAPACITY];
+        this.values = new double[INITIAL_CAPACITY];
+    }
+
+    // EFFECTS: returns the number of changes recorded
+    int size() {
+        return this.size;
+    }
+
+    // REQUIRES: day is no earlier than the last change recorded
+    // MODIFIES: this
+    // EFFECTS: records that the value is value from day on; a change on the same day as the last one replaces it
+    void record(int day, double value) {
+        if (size > 0 && days[size - 1] == day) {
+            values[size - 1] = value;
+            return;
+        }
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        days[size] = day;
+        values[size] = value;
+        size++;
+    }
+
+    // EFFECTS: returns the value on the given day, or 0 if it had not changed yet
+    double valueAt(int day) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] <= day) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high < 0 ? 0 : values[high];
+    }
+}
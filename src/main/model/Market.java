@@ -0,0 +1,541 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+Represents a stock market: the stocks that can be traded (the pool), their prices and price histories, and the
+market regime that drives their daily variations. A market advances its stocks once per trading day, then has
+every portfolio trading in it settle the day against the new prices.
+A StockPortfolio built on its own owns a market of its own. Many portfolios can share a single market instead:
+prices and histories are then stored once, however many portfolios trade, and each portfolio only stores its own
+holdings.
+Each stock's daily variation is drawn on its own, unless the market is given a price model drawing correlated
+variations for the whole pool.
+The market also keeps an index of each sector, updated as its stocks advance, so sector levels and returns are read
+without scanning the pool.
+ */
+public class Market {
+
+    private List<Stock> stockPool;
+    private Map<String, Stock> poolByCode; // index of stockPool by stock code
+    private Map<String, Stock> poolByName; // index of stockPool by stock name
+    private Map<Stock, Integer> poolPositions; // position of each stock in stockPool
+    private MarketColumns columns; // columnar market state; each stock in the pool is a view over one of its rows
+    private Map<String, SectorIndex> sectorIndices; // by sector, in the order sectors joined the pool
+    private List<SectorIndex> stockSectors; // the index of each stock's sector, aligned with stockPool
+    private MarketRegime marketRegime;
+    private RegimeTransitionMatrix regimeTransitions;
+    private ParallelProgression parallelProgression; // null when days are progressed sequentially
+    private PriceModel priceModel; // null when each stock's variation is drawn on its own
+    private RetentionPolicy historyRetention; // null when price histories are kept in full
+    private List<Supplier<Indicator>> indicatorFactories; // indicators every stock in the pool maintains
+    private RandomSource randomSource; // regime draws; each pool stock gets a stream split from it
+    private List<StockPortfolio> portfolios; // the portfolios trading in this market
+    private List<SnapshotChanges> snapshotChanges; // the changes of the portfolios publishing snapshots
+
+    // EFFECTS: constructs a market with the initial stock pool
+    public Market() {
+        this(new SplittableRandomSource());
+    }
+
+    // EFFECTS: constructs a market with the initial stock pool, seeded with seed
+    public Market(long seed) {
+        this(new SplittableRandomSource(seed));
+    }
+
+    // EFFECTS: constructs a market with the initial stock pool, drawing all of its random values from randomSource
+    public Market(RandomSource randomSource) {
+        this.randomSource = randomSource;
+        this.stockPool = new ArrayList<>();
+        this.poolByCode = new HashMap<>();
+        this.poolByName = new HashMap<>();
+        this.poolPositions = new HashMap<>();
+        this.columns = new MarketColumns();
+        this.sectorIndices = new LinkedHashMap<>();
+        this.stockSectors = new ArrayList<>();
+        this.portfolios = new ArrayList<>();
+        this.snapshotChanges = new ArrayList<>();
+        this.indicatorFactories = new ArrayList<>();
+        constructInitialStockPool();
+        this.marketRegime = MarketRegime.NEUTRAL;
+        this.regimeTransitions = RegimeTransitionMatrix.uniform();
+    }
+
+    // Getters:
+    // EFFECTS: returns the list of stocks in the pool
+    public List<Stock> getStockPool() {
+        return this.stockPool;
+    }
+
+    // EFFECTS: returns the stock in the pool with the given code, or null if there is none
+    public Stock getStock(String code) {
+        return this.poolByCode.get(code);
+    }
+
+    // EFFECTS: returns the columns holding the market state of the pool
+    MarketColumns getColumns() {
+        return this.columns;
+    }
+
+    // EFFECTS: returns the index of each sector in the pool, in the order sectors joined it (read-only view)
+    public Collection<SectorIndex> getSectorIndices() {
+        return Collections.unmodifiableCollection(this.sectorIndices.values());
+    }
+
+    // EFFECTS: returns the index of the given sector, or null if no stock in the pool is in it
+    public SectorIndex getSectorIndex(String sector) {
+        return this.sectorIndices.get(sector);
+    }
+
+    // EFFECTS: returns the market regime
+    public MarketRegime getMarketRegime() {
+        return this.marketRegime;
+    }
+
+    // EFFECTS: returns the transition matrix used to determine the next market regime
+    public RegimeTransitionMatrix getRegimeTransitions() {
+        return this.regimeTransitions;
+    }
+
+    // EFFECTS: returns the parallel progression mode, or null if days are progressed sequentially
+    public ParallelProgression getParallelProgression() {
+        return this.parallelProgression;
+    }
+
+    // EFFECTS: returns the price model drawing the pool's variations, or null if each stock is drawn on its own
+    public PriceModel getPriceModel() {
+        return this.priceModel;
+    }
+
+    // EFFECTS: returns the retention policy of the pool's price histories, or null if they are kept in full
+    public RetentionPolicy getHistoryRetention() {
+        return this.historyRetention;
+    }
+
+    // EFFECTS: returns the market's random source
+    public RandomSource getRandomSource() {
+        return this.randomSource;
+    }
+
+    // EFFECTS: returns the portfolios trading in this market
+    public List<StockPortfolio> getPortfolios() {
+        return this.portfolios;
+    }
+
+    // Setters:
+    // MODIFIES: this
+    // EFFECTS: sets the market regime
+    public void setMarketRegime(MarketRegime regime) {
+        this.marketRegime = regime;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the transition matrix used to determine the next market regime
+    public void setRegimeTransitions(RegimeTransitionMatrix regimeTransitions) {
+        this.regimeTransitions = regimeTransitions;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the parallel progression mode used to progress days; null progresses days sequentially
+    public void setParallelProgression(ParallelProgression parallelProgression) {
+        this.parallelProgression = parallelProgression;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the price model drawing the pool's variations; null draws each stock's variation on its own
+    // (see determineActualVariation). A price model draws the whole pool's variations of a day together, so days are
+    // progressed sequentially while one is set, even in parallel progression mode.
+    public void setPriceModel(PriceModel priceModel) {
+        this.priceModel = priceModel;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies a retention policy to the price history of every stock in the pool, including stocks added
+    // later; null keeps future days in full
+    public void setHistoryRetention(RetentionPolicy retention) {
+        this.historyRetention = retention;
+        for (Stock s : stockPool) {
+            s.getPriceHistory().setRetentionPolicy(retention);
+        }
+        for (SnapshotChanges changes : this.snapshotChanges) {
+            changes.markAllChanged();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: has every stock in the pool, including stocks added later, maintain a new indicator made by factory
+    // (replacing the stock's indicator with the same name, if any)
+    public void addIndicator(Supplier<Indicator> factory) {
+        this.indicatorFactories.add(factory);
+        for (Stock s : stockPool) {
+            s.addIndicator(factory.get());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the market's random source and gives every stock in the pool, in order, a new stream split from
+    // it
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+        for (Stock s : stockPool) {
+            s.setRandomSource(randomSource.split());
+        }
+    }
+
+    // Stock pool:
+    // MODIFIES: this
+    // EFFECTS: Creates initial stocks for the stock pool
+    public void constructInitialStockPool() {
+        Stock apple = new Stock("Apple", "AAPL", "Technology", randomSource.split());
+        Stock google = new Stock("Google", "GOOGL", "Technology", randomSource.split());
+        Stock meta = new Stock("Facebook", "META", "Technology", randomSource.split());
+        Stock pfizer = new Stock("Pfizer", "PFE", "Healthcare", randomSource.split());
+        Stock astraZeneca = new Stock("Astra Zeneca", "AZN", "Healthcare", randomSource.split());
+        Stock hsbc = new Stock("HSBC Holdings", "HSBC", "Financial", randomSource.split());
+        Stock jpMorgan = new Stock("JP Morgan Chase", "JPM", "Financial", randomSource.split());
+        Stock shell = new Stock("Shell PLC", "SHEL", "Energy", randomSource.split());
+        Stock exxon = new Stock("Exxon Mobil", "XOM", "Energy", randomSource.split());
+        Stock cocaCola = new Stock("Coca-Cola Company", "KO", "Consumer Goods", randomSource.split());
+        Stock pepsiCola = new Stock("Pepsi Cola", "PEP", "Consumer Goods", randomSource.split());
+        addStock(apple);
+        addStock(google);
+        addStock(meta);
+        addStock(pfizer);
+        addStock(astraZeneca);
+        addStock(hsbc);
+        addStock(jpMorgan);
+        addStock(shell);
+        addStock(exxon);
+        addStock(cocaCola);
+        addStock(pepsiCola);
+    }
+
+    // MODIFIES: this, stocks
+    // EFFECTS: replaces the stock pool with the given stocks, in order (a later stock replaces an earlier one with
+    // the same name)
+    public void loadStocks(Collection<Stock> stocks) {
+        int capacity = (int) (stocks.size() / 0.75f) + 1;
+        for (Stock s : this.stockPool) {
+            s.setPool(null);
+            if (s.getMarket() == this.columns) {
+                s.detachFromMarket();
+            }
+        }
+        markPoolReordered();
+        this.columns = new MarketColumns(stocks.size());
+        this.sectorIndices = new LinkedHashMap<>();
+        this.stockSectors = new ArrayList<>(stocks.size());
+        this.stockPool = new ArrayList<>(stocks.size());
+        this.poolByCode = new HashMap<>(capacity);
+        this.poolByName = new HashMap<>(capacity);
+        this.poolPositions = new HashMap<>(capacity);
+        for (Stock s : stocks) {
+            addStock(s);
+        }
+    }
+
+    // MODIFIES: this, stock
+    // EFFECTS: add Stock to pool, if it's already there, removes previous stock and re-adds. The stock draws its
+    // daily variations from a new stream split from this market's random source, and its row moves into this
+    // market's columns. The stock joins the index of its sector, as it is when added.
+    public void addStock(Stock stock) {
+        Stock previous = poolByName.remove(stock.getStockName());
+        if (previous != null) {
+            removeStock(previous);
+        }
+        stock.setRandomSource(randomSource.split());
+        stock.moveTo(this.columns);
+        if (this.historyRetention != null) {
+            stock.getPriceHistory().setRetentionPolicy(this.historyRetention);
+        }
+        for (Supplier<Indicator> factory : this.indicatorFactories) {
+            stock.addIndicator(factory.get());
+        }
+        SectorIndex index = this.sectorIndices.computeIfAbsent(stock.getStockSector(), SectorIndex::new);
+        index.addConstituent();
+        this.poolPositions.put(stock, this.stockPool.size());
+        this.stockPool.add(stock);
+        this.stockSectors.add(index);
+        this.poolByCode.put(stock.getStockCode(), stock);
+        this.poolByName.put(stock.getStockName(), stock);
+        stock.setPool(this);
+        markPoolReordered();
+    }
+
+    // MODIFIES: this, the portfolios trading in this market
+    // EFFECTS: given a stock's name, removes it from the pool and its sector's index (dropping the index once it has
+    // no constituents left), in constant time: the last stock of the pool takes its place. Its row leaves this
+    // market's columns. Once no stock with its code is left in the pool, the portfolios' resting orders for that code
+    // are cancelled.
+    public void removeStockWithName(String name) {
+        Stock stock = poolByName.remove(name);
+        if (stock != null) {
+            removeStock(stock);
+            if (!poolByCode.containsKey(stock.getStockCode())) {
+                for (StockPortfolio p : portfolios) {
+                    p.cancelOrders(stock.getStockCode());
+                }
+            }
+        }
+    }
+
+    // REQUIRES: stock is in the pool, no longer indexed by name
+    // MODIFIES: this
+    // EFFECTS: removes stock from the pool and its sector's index (dropping the index once it has no constituents
+    // left); its row leaves this market's columns
+    private void removeStock(Stock stock) {
+        SectorIndex index = removeFromPool(stock);
+        index.removeConstituent();
+        if (index.getConstituents() == 0) {
+            sectorIndices.remove(index.getSector(), index);
+        }
+        poolByCode.remove(stock.getStockCode(), stock);
+        if (stock.getMarket() == this.columns) {
+            stock.detachFromMarket();
+        }
+        stock.setPool(null);
+        markPoolReordered();
+    }
+
+    // REQUIRES: stock is in the pool
+    // MODIFIES: this
+    // EFFECTS: removes stock from the pool, moving the last stock of the pool into its position, and returns the
+    // index of its sector
+    private SectorIndex removeFromPool(Stock stock) {
+        int position = poolPositions.remove(stock);
+        int last = stockPool.size() - 1;
+        SectorIndex index = stockSectors.get(position);
+        if (position != last) {
+            Stock moved = stockPool.get(last);
+            stockPool.set(position, moved);
+            stockSectors.set(position, stockSectors.get(last));
+            poolPositions.put(moved, position);
+        }
+        stockPool.remove(last);
+        stockSectors.remove(last);
+        return index;
+    }
+
+    // Portfolios:
+    // MODIFIES: this
+    // EFFECTS: adds portfolio to the portfolios trading in this market, if it is not there yet
+    void addPortfolio(StockPortfolio portfolio) {
+        if (!this.portfolios.contains(portfolio)) {
+            this.portfolios.add(portfolio);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes portfolio from the portfolios trading in this market; it no longer settles the days this
+    // market progresses
+    public void removePortfolio(StockPortfolio portfolio) {
+        this.portfolios.remove(portfolio);
+        this.snapshotChanges.remove(portfolio.getSnapshotChanges());
+    }
+
+    // Snapshots:
+    // MODIFIES: this
+    // EFFECTS: starts or stops marking changes to the pool's stocks in changes
+    void trackSnapshotChanges(SnapshotChanges changes, boolean tracked) {
+        this.snapshotChanges.remove(changes);
+        if (tracked) {
+            this.snapshotChanges.add(changes);
+        }
+    }
+
+    // MODIFIES: the changes tracked
+    // EFFECTS: marks stock, which changed, in every change set tracked
+    void stockChanged(Stock stock) {
+        for (SnapshotChanges changes : this.snapshotChanges) {
+            changes.markChanged(stock);
+        }
+    }
+
+    // MODIFIES: the changes tracked
+    // EFFECTS: marks the pool as reordered in every change set tracked
+    private void markPoolReordered() {
+        for (SnapshotChanges changes : this.snapshotChanges) {
+            changes.markPoolReordered();
+        }
+    }
+
+    // EFFECTS: returns the position of stock in the pool, or -1 if it is not in the pool
+    int getPoolPosition(Stock stock) {
+        Integer position = this.poolPositions.get(stock);
+        return position == null ? -1 : position;
+    }
+
+    // Variations:
+    // MODIFIES: this
+    // EFFECTS: draws the next market regime from the regime transition matrix
+    public void determineMarketRegime() {
+        this.marketRegime = regimeTransitions.next(this.marketRegime, this.randomSource);
+    }
+
+    // MODIFIES: random
+    // EFFECTS: determines if the outlier effect will be applied, drawing from random
+    public boolean determineOutlierEffect(RandomSource random) {
+        double randomValue = random.nextDouble();
+        double trueThreshold = 0.05; // 5%
+        return randomValue < trueThreshold;
+    }
+
+    // MODIFIES: stock
+    // EFFECTS: determines actual variation of the given stock, drawing from the stock's own random source
+    public double determineActualVariation(Stock stock) {
+        return determineActualVariation(stock.getRandomSource());
+    }
+
+    // MODIFIES: random
+    // EFFECTS: determines actual stock variation, drawing from random
+    public double determineActualVariation(RandomSource random) {
+        double variationPercent;
+        if (determineOutlierEffect(random)) {
+            variationPercent = random.nextDouble(-1, 5);
+        } else {
+            MarketRegime regime = this.marketRegime;
+            variationPercent = random.nextDouble(regime.getMinVariation(), regime.getMaxVariation());
+        }
+        return variationPercent;
+    }
+
+    // Progression:
+    // MODIFIES: this, the portfolios trading in this market
+    // EFFECTS: proceeds to the next day: advances every stock in the pool, then every portfolio settles the day
+    public void progressDay() {
+        for (StockPortfolio p : portfolios) {
+            p.beforeMarketMoves();
+        }
+        advance(1);
+        for (StockPortfolio p : portfolios) {
+            p.settleDay();
+        }
+    }
+
+    // REQUIRES: n > 0
+    // MODIFIES: this, the portfolios trading in this market
+    // EFFECTS: proceeds n days at once, with the same effect as calling progressDay n times. The pool is advanced
+    // in passes as long as every portfolio allows (and no longer than the full-resolution window of the pool's price
+    // histories), then the portfolios settle all the days of a pass at once.
+    public void progressDays(int n) {
+        int days = 0;
+        while (days < n) {
+            int pass = n - days;
+            if (this.historyRetention != null) {
+                pass = Math.min(pass, this.historyRetention.getFullResolutionDays());
+            }
+            for (StockPortfolio p : portfolios) {
+                pass = p.maxDaysPerPass(pass);
+                p.beforeMarketMoves();
+            }
+            advance(pass);
+            for (StockPortfolio p : portfolios) {
+                p.settleDays(pass);
+            }
+            days += pass;
+        }
+    }
+
+    // REQUIRES: days > 0, days is no longer than the full-resolution window of any pool stock's price history
+    // MODIFIES: this
+    // EFFECTS: advances each stock in the pool through the given number of days, then moves the sector indices
+    // through the same days
+    void advance(int days) {
+        double[] previousCloses = new double[stockPool.size()];
+        for (int i = 0; i < previousCloses.length; i++) {
+            previousCloses[i] = stockPool.get(i).getPriceHistory().last();
+        }
+        if (this.parallelProgression != null && this.priceModel == null) {
+            this.parallelProgression.advanceAll(this.columns, days, this::determineActualVariation);
+            advanceMovedStocks(days);
+        } else {
+            advanceSequentially(days);
+        }
+        updateSectorIndices(previousCloses, days);
+    }
+
+    // REQUIRES: days > 0
+    // MODIFIES: this
+    // EFFECTS: advances each stock in the pool through the given number of days. Each day draws every stock's
+    // variation, advances the market columns in a single loop, then appends the new prices to the stocks' histories.
+    private void advanceSequentially(int days) {
+        double[] percentages = new double[this.columns.size()];
+        double[] variations = new double[stockPool.size()];
+        for (int day = 0; day < days; day++) {
+            drawVariations(variations);
+            for (int i = 0; i < variations.length; i++) {
+                Stock s = stockPool.get(i);
+                if (s.getMarket() == this.columns) {
+                    percentages[s.getRow()] = variations[i];
+                } else {
+                    s.advanceDay(variations[i]); // the stock's row was moved to another market
+                }
+            }
+            this.columns.advance(percentages);
+            for (Stock s : stockPool) {
+                if (s.getMarket() == this.columns) {
+                    s.addPriceToHistory();
+                }
+            }
+        }
+    }
+
+    // REQUIRES: days > 0
+    // MODIFIES: this
+    // EFFECTS: advances the stocks of the pool whose rows were moved to another market through the given number of
+    // days, one by one
+    private void advanceMovedStocks(int days) {
+        if (stockPool.size() == this.columns.size()) {
+            return;
+        }
+        for (Stock s : stockPool) {
+            if (s.getMarket() != this.columns) {
+                for (int day = 0; day < days; day++) {
+                    s.advanceDay(determineActualVariation(s));
+                }
+            }
+        }
+    }
+
+    // MODIFIES: this, variations
+    // EFFECTS: draws the next day's variation of each stock in the pool into variations, from the price model if one
+    // is set
+    private void drawVariations(double[] variations) {
+        if (this.priceModel != null) {
+            this.priceModel.nextVariations(stockPool, this.marketRegime, this.randomSource, variations);
+        } else {
+            for (int i = 0; i < variations.length; i++) {
+                variations[i] = determineActualVariation(stockPool.get(i));
+            }
+        }
+    }
+
+    // REQUIRES: each pool stock's price history holds at least the last days closes, previousCloses holds each pool
+    // stock's close before them
+    // MODIFIES: this, previousCloses
+    // EFFECTS: moves each sector index through the last days days, oldest first, from its constituents' closes
+    private void updateSectorIndices(double[] previousCloses, int days) {
+        for (int day = days; day > 0; day--) {
+            for (SectorIndex index : sectorIndices.values()) {
+                index.beginDay();
+            }
+            for (int i = 0; i < previousCloses.length; i++) {
+                PriceHistory prices = stockPool.get(i).getPriceHistory();
+                double close = prices.getDouble(prices.size() - day);
+                stockSectors.get(i).add(previousCloses[i], close);
+                previousCloses[i] = close;
+            }
+            for (SectorIndex index : sectorIndices.values()) {
+                index.endDay();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/*
+Represents the market state of a set of stocks, stored column by column: one primitive array per field (current
+price, buy price, shares owned, daily variation, potential profit, last close and whether the stock is held in a
+portfolio), indexed by row. Each Stock is a view over one row of a MarketColumns:
+ - a new stock gets a single-row MarketColumns of its own
+ - a stock added to a market's pool moves its row into the market's MarketColumns
+ - a holding bought in a shared market moves its row into its portfolio's holdings MarketColumns
+ - removing a row moves the last row into its place, so rows stay contiguous
+Advancing a day, and settling the profits of the held rows after it, are then single loops over contiguous arrays,
+with no pointers to chase. The columns of holdings don't keep their own prices: their profits are settled against the
+current prices of the rows' instruments.
+ */
+public class MarketColumns {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Stock[] stocks; // the stock viewing each row
+    private double[] currentPrices;
+    private double[] buyPrices;
+    private int[] sharesOwned;
+    private double[] dailyVariations;
+    private double[] potentialProfits;
+    private double[] lastCloses; // the last price in each row's price history
+    private boolean[] held; // true if the row's stock is held in a portfolio
+    private int heldRows;
+    private int size;
+    private final boolean holdings; // true if the rows are holdings, priced by their instruments
+
+    // EFFECTS: constructs an empty market
+    public MarketColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // REQUIRES: capacity >= 0
+    // EFFECTS: constructs an empty market able to hold capacity rows before growing
+    public MarketColumns(int capacity) {
+        this(capacity, false);
+    }
+
+    // EFFECTS: constructs empty columns of holdings, priced by their instruments
+    static MarketColumns forHoldings() {
+        return new MarketColumns(DEFAULT_CAPACITY, true);
+    }
+
+    // REQUIRES: capacity >= 0
+    // EFFECTS: constructs empty columns able to hold capacity rows before growing; the rows of holdings columns are
+    // priced by their instruments
+    private MarketColumns(int capacity, boolean holdings) {
+        this.holdings = holdings;
+        int length = Math.max(capacity, 1);
+        this.stocks = new Stock[length];
+        this.currentPrices = new double[length];
+        this.buyPrices = new double[length];
+        this.sharesOwned = new int[length];
+        this.dailyVariations = new double[length];
+        this.potentialProfits = new double[length];
+        this.lastCloses = new double[length];
+        this.held = new boolean[length];
+        this.size = 0;
+    }
+
+    // EFFECTS: returns the number of rows
+    public int size() {
+        return this.size;
+    }
+
+    // EFFECTS: returns the number of rows whose stocks are held in a portfolio
+    public int getHeldRows() {
+        return this.heldRows;
+    }
+
+    // REQUIRES: 0 <= row < size()
+    // EFFECTS: returns the stock viewing the given row
+    public Stock getStock(int row) {
+        return this.stocks[row];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a zeroed row viewed by stock and returns its index, growing the columns if needed
+    int addRow(Stock stock) {
+        if (size == stocks.length) {
+            grow(size + (size >> 1) + 1);
+        }
+        stocks[size] = stock;
+        currentPrices[size] = 0;
+        buyPrices[size] = 0;
+        sharesOwned[size] = 0;
+        dailyVariations[size] = 0;
+        potentialProfits[size] = 0;
+        lastCloses[size] = 0;
+        held[size] = false;
+        return size++;
+    }
+
+    // REQUIRES: 0 <= row < size()
+    // MODIFIES: this, the stock viewing the last row
+    // EFFECTS: removes row, moving the last row into its place
+    void removeRow(int row) {
+        setHeld(row, false);
+        int last = size - 1;
+        if (row != last) {
+            stocks[row] = stocks[last];
+            currentPrices[row] = currentPrices[last];
+            buyPrices[row] = buyPrices[last];
+            sharesOwned[row] = sharesOwned[last];
+            dailyVariations[row] = dailyVariations[last];
+            potentialProfits[row] = potentialProfits[last];
+            lastCloses[row] = lastCloses[last];
+            held[row] = held[last];
+            stocks[row].setRow(row);
+        }
+        stocks[last] = null;
+        size = last;
+    }
+
+    // REQUIRES: percentages.length >= size()
+    // MODIFIES: this
+    // EFFECTS: advances every row by one day: updates the current price by its percentage, then the potential
+    // profit and the daily variation against the last close. Price histories (and last closes) are left to the
+    // stocks to update.
+    void advance(double[] percentages) {
+        for (int i = 0; i < size; i++) {
+            double price = currentPrices[i];
+            price = price + (price * percentages[i]);
+            currentPrices[i] = price;
+            potentialProfits[i] = (price - buyPrices[i]) * sharesOwned[i];
+            dailyVariations[i] = (price - lastCloses[i]) / lastCloses[i];
+        }
+    }
+
+    // REQUIRES: days > 0, 0 <= row < size()
+    // MODIFIES: this, the stock viewing row
+    // EFFECTS: advances row through the given number of days, drawing each day's percentage from variation, and
+    // adds each day's price to the stock's history
+    void advanceRow(int row, int days, ToDoubleFunction<Stock> variation) {
+        Stock stock = stocks[row];
+        for (int day = 0; day < days; day++) {
+            double price = currentPrices[row];
+            price = price + (price * variation.applyAsDouble(stock));
+            currentPrices[row] = price;
+            potentialProfits[row] = (price - buyPrices[row]) * sharesOwned[row];
+            dailyVariations[row] = (price - lastCloses[row]) / lastCloses[row];
+            stock.addPriceToHistory();
+        }
+    }
+
+    // REQUIRES: 0 <= lo <= hi <= size()
+    // MODIFIES: this
+    // EFFECTS: updates the potential profit of the rows in [lo, hi) from their current price, buy price and shares
+    // owned, and returns the sum of the potential profits of the held rows among them, in row order
+    double settleProfits(int lo, int hi) {
+        double sum = 0;
+        for (int i = lo; i < hi; i++) {
+            double price = holdings ? stocks[i].getCurrentPrice() : currentPrices[i];
+            double profit = (price - buyPrices[i]) * sharesOwned[i];
+            potentialProfits[i] = profit;
+            if (held[i]) {
+                sum = sum + profit;
+            }
+        }
+        return sum;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows every column to capacity
+    private void grow(int capacity) {
+        stocks = Arrays.copyOf(stocks, capacity);
+        currentPrices = Arrays.copyOf(currentPrices, capacity);
+        buyPrices = Arrays.copyOf(buyPrices, capacity);
+        sharesOwned = Arrays.copyOf(sharesOwned, capacity);
+        dailyVariations = Arrays.copyOf(dailyVariations, capacity);
+        potentialProfits = Arrays.copyOf(potentialProfits, capacity);
+        lastCloses = Arrays.copyOf(lastCloses, capacity);
+        held = Arrays.copyOf(held, capacity);
+    }
+
+    // Row accessors, used by the Stock viewing each row
+
+    double getCurrentPrice(int row) {
+        return currentPrices[row];
+    }
+
+    void setCurrentPrice(int row, double price) {
+        currentPrices[row] = price;
+    }
+
+    double getBuyPrice(int row) {
+        return buyPrices[row];
+    }
+
+    void setBuyPrice(int row, double price) {
+        buyPrices[row] = price;
+    }
+
+    int getSharesOwned(int row) {
+        return sharesOwned[row];
+    }
+
+    void setSharesOwned(int row, int shares) {
+        sharesOwned[row] = shares;
+    }
+
+    double getDailyVariation(int row) {
+        return dailyVariations[row];
+    }
+
+    void setDailyVariation(int row, double variation) {
+        dailyVariations[row] = variation;
+    }
+
+    double getPotentialProfit(int row) {
+        return potentialProfits[row];
+    }
+
+    void setPotentialProfit(int row, double profit) {
+        potentialProfits[row] = profit;
+    }
+
+    double getLastClose(int row) {
+        return lastCloses[row];
+    }
+
+    void setLastClose(int row, double price) {
+        lastCloses[row] = price;
+    }
+
+    boolean isHeld(int row) {
+        return held[row];
+    }
+
+    void setHeld(int row, boolean isHeld) {
+        if (held[row] != isHeld) {
+            held[row] = isHeld;
+            heldRows += isHeld ? 1 : -1;
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Represents a market regime (the market's feeling). Each regime has a label, as shown to the user and stored in save
+files, and the range [minimum, maximum) that daily stock variations are drawn from while the market is in it.
+ */
+public enum MarketRegime {
+    VERY_CONFIDENT("Very Confident", 0.1, 0.3),
+    CONFIDENT("Confident", 0.05, 0.1),
+    NEUTRAL("Neutral", -0.05, 0.05),
+    AFRAID("Afraid", -0.1, -0.05),
+    VERY_AFRAID("Very Afraid", -0.3, -0.1);
+
+    private static final Map<String, MarketRegime> BY_LABEL = new HashMap<>();
+
+    static {
+        for (MarketRegime regime : values()) {
+            BY_LABEL.put(regime.label, regime);
+        }
+    }
+
+    private final String label;
+    private final double minVariation;
+    private final double maxVariation;
+
+    // EFFECTS: constructs a regime with a label and its range of daily variations
+    MarketRegime(String label, double minVariation, double maxVariation) {
+        this.label = label;
+        this.minVariation = minVariation;
+        this.maxVariation = maxVariation;
+    }
+
+    // EFFECTS: returns the regime's label
+    public String getLabel() {
+        return this.label;
+    }
+
+    // EFFECTS: returns the minimum daily variation of stocks in this regime
+    public double getMinVariation() {
+        return this.minVariation;
+    }
+
+    // EFFECTS: returns the maximum daily variation of stocks in this regime
+    public double getMaxVariation() {
+        return this.maxVariation;
+    }
+
+    // EFFECTS: returns the regime with the given label, or null if there is none
+    public static MarketRegime fromLabel(String label) {
+        return BY_LABEL.get(label);
+    }
+
+    @Override
+    public String toString() {
+        return this.label;
+    }
+}
@@ -0,0 +1,57 @@
+package model;
+
+/*
+Represents a read-only view of a market, as seen by a trading strategy through the portfolio it trades for. Stocks are
+addressed by their index in the market's pool, 0 to getStockCount() - 1, so a strategy can keep its own per-stock
+state in arrays and read the market without allocating.
+ */
+public interface MarketView {
+
+    // EFFECTS: returns the portfolio's current trading day
+    int getTradingDay();
+
+    // EFFECTS: returns the market regime
+    MarketRegime getMarketRegime();
+
+    // EFFECTS: returns the number of stocks in the pool
+    int getStockCount();
+
+    // EFFECTS: returns the index of the pool stock with the given code, or -1 if there is none
+    int indexOf(String code);
+
+    // REQUIRES: 0 <= stock < getStockCount()
+    // EFFECTS: returns the code of the given stock
+    String getStockCode(int stock);
+
+    // REQUIRES: 0 <= stock < getStockCount()
+    // EFFECTS: returns the sector of the given stock
+    String getStockSector(int stock);
+
+    // REQUIRES: 0 <= stock < getStockCount()
+    // EFFECTS: returns the current price of the given stock
+    double getPrice(int stock);
+
+    // REQUIRES: 0 <= stock < getStockCount()
+    // EFFECTS: returns the last daily variation of the given stock
+    double getDailyVariation(int stock);
+
+    // REQUIRES: 0 <= stock < getStockCount(), daysAgo >= 0
+    // EFFECTS: returns the close of the given stock daysAgo days before its last close (0 is the last close); throws
+    // IndexOutOfBoundsException if that day is no longer in the stock's price history
+    double getClose(int stock, int daysAgo);
+
+    // REQUIRES: 0 <= stock < getStockCount()
+    // EFFECTS: returns the value of the given stock's indicator with the given name, or NaN if the stock does not
+    // maintain it or it is not ready
+    double getIndicatorValue(int stock, String name);
+
+    // REQUIRES: 0 <= stock < getStockCount()
+    // EFFECTS: returns the number of shares of the given stock the portfolio owns
+    int getSharesOwned(int stock);
+
+    // EFFECTS: returns the portfolio's balance
+    double getBalance();
+
+    // EFFECTS: returns the portfolio's equity: its balance plus the market value of its holdings
+    double getEquity();
+}
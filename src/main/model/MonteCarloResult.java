@@ -0,0 +1,89 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+Represents the outcome distribution of a Monte Carlo simulation: the final total PnL and the final balance (after
+selling every holding) of each path, with their means and percentiles, and the probability that a path ends with
+less value than the portfolio has today.
+ */
+public class MonteCarloResult {
+
+    private final double[] sortedPnLs;
+    private final double[] sortedBalances;
+    private final double startingBalance;
+    private final double meanPnL;
+    private final double meanBalance;
+    private final double probabilityOfLoss;
+
+    // REQUIRES: pnls and balances are non-empty and have the same length
+    // MODIFIES: pnls, balances
+    // EFFECTS: constructs the result of a simulation from the outcome of each path; sorts pnls and balances in place
+    public MonteCarloResult(double[] pnls, double[] balances, double startingBalance) {
+        Arrays.sort(pnls);
+        Arrays.sort(balances);
+        this.sortedPnLs = pnls;
+        this.sortedBalances = balances;
+        this.startingBalance = startingBalance;
+        this.meanPnL = mean(pnls);
+        this.meanBalance = mean(balances);
+        int losses = 0;
+        while (losses < balances.length && balances[losses] < startingBalance) {
+            losses++;
+        }
+        this.probabilityOfLoss = (double) losses / balances.length;
+    }
+
+    // EFFECTS: returns the number of simulated paths
+    public int getNumPaths() {
+        return this.sortedPnLs.length;
+    }
+
+    // EFFECTS: returns the balance the portfolio would have today if every holding were sold
+    public double getStartingBalance() {
+        return this.startingBalance;
+    }
+
+    // EFFECTS: returns the mean final total PnL
+    public double getMeanPnL() {
+        return this.meanPnL;
+    }
+
+    // EFFECTS: returns the mean final balance
+    public double getMeanBalance() {
+        return this.meanBalance;
+    }
+
+    // EFFECTS: returns the fraction of paths whose final balance is below the starting balance
+    public double getProbabilityOfLoss() {
+        return this.probabilityOfLoss;
+    }
+
+    // REQUIRES: 0 <= percentile <= 100
+    // EFFECTS: returns the given percentile of the final total PnL (nearest rank)
+    public double getPnLPercentile(double percentile) {
+        return percentile(sortedPnLs, percentile);
+    }
+
+    // REQUIRES: 0 <= percentile <= 100
+    // EFFECTS: returns the given percentile of the final balance (nearest rank)
+    public double getBalancePercentile(double percentile) {
+        return percentile(sortedBalances, percentile);
+    }
+
+    // EFFECTS: returns the nearest-rank percentile of sorted values
+    private static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    // EFFECTS: returns the mean of values
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum = sum + value;
+        }
+        return sum / values.length;
+    }
+
+}
@@ -0,0 +1,96 @@
+package model;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/*
+Represents a Monte Carlo simulation of a stock portfolio's outcome. Each path takes the portfolio's current holdings
+forward a number of trading days, moving prices exactly like progressDay does, and records:
+ - the final total profit and loss of the holdings
+ - the final balance, if every holding were sold at the end of the path
+Holdings are copied once into primitive arrays; paths never copy or modify the portfolio's stocks. Paths run in
+parallel, each drawing from its own random source derived from the simulation seed and the path's index, so results
+only depend on the seed and no path's draws follow from another's.
+ */
+public class MonteCarloSimulation {
+
+    private final StockPortfolio stockPortfolio;
+    private final double[] startPrices;
+    private final double[] buyPrices;
+    private final int[] shares;
+    private final boolean[] moves; // false for held stocks outside the pool, whose price progressDay never updates
+    private final double startBalance;
+
+    // EFFECTS: constructs a simulation of the given portfolio's current holdings and balance
+    public MonteCarloSimulation(StockPortfolio stockPortfolio) {
+        List<Stock> held = stockPortfolio.getStockPortfolio();
+        int n = held.size();
+        this.stockPortfolio = stockPortfolio;
+        this.startPrices = new double[n];
+        this.buyPrices = new double[n];
+        this.shares = new int[n];
+        this.moves = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Stock s = held.get(i);
+            startPrices[i] = s.getCurrentPrice();
+            buyPrices[i] = s.getBuyPrice();
+            shares[i] = s.getSharesOwned();
+            moves[i] = stockPortfolio.getStockFromPool(s.getStockCode()) == s.getInstrument();
+        }
+        this.startBalance = stockPortfolio.getStockPortfolioBalance();
+    }
+
+    // EFFECTS: returns the balance the portfolio would have today if every holding were sold
+    public double getStartingBalance() {
+        return liquidationBalance(startPrices);
+    }
+
+    // REQUIRES: paths > 0, days >= 0
+    // EFFECTS: runs the given number of paths, each days long, and returns the distribution of their outcomes
+    public MonteCarloResult run(int paths, int days, long seed) {
+        double[] pnls = new double[paths];
+        double[] balances = new double[paths];
+        IntStream.range(0, paths).parallel().forEach(path -> {
+            RandomSource random = SplittableRandomSource.forIndex(seed, path);
+            double[] prices = simulatePath(days, random);
+            pnls[path] = totalPNL(prices);
+            balances[path] = liquidationBalance(prices);
+        });
+        return new MonteCarloResult(pnls, balances, getStartingBalance());
+    }
+
+    // MODIFIES: random
+    // EFFECTS: returns the price of each holding after days trading days
+    private double[] simulatePath(int days, RandomSource random) {
+        double[] prices = startPrices.clone();
+        for (int i = 0; i < prices.length; i++) {
+            if (moves[i]) {
+                double price = prices[i];
+                for (int day = 0; day < days; day++) {
+                    price = price + (price * stockPortfolio.determineActualVariation(random));
+                }
+                prices[i] = price;
+            }
+        }
+        return prices;
+    }
+
+    // EFFECTS: returns the total profit and loss of the holdings at the given prices
+    private double totalPNL(double[] prices) {
+        double totalPNL = 0;
+        for (int i = 0; i < prices.length; i++) {
+            totalPNL = totalPNL + (prices[i] - buyPrices[i]) * shares[i];
+        }
+        return totalPNL;
+    }
+
+    // EFFECTS: returns the balance after selling every holding at the given prices
+    private double liquidationBalance(double[] prices) {
+        double balance = startBalance;
+        for (int i = 0; i < prices.length; i++) {
+            balance = balance + prices[i] * shares[i];
+        }
+        return balance;
+    }
+
+}
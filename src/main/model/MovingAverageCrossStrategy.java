@@ -0,0 +1,79 @@
+package model;
+
+/*
+Represents a moving-average crossover strategy: it buys a fixed number of shares of a stock when the stock's short
+moving average rises above its long one, and sells every share it owns when the short average falls back below.
+Averages are kept per stock in arrays indexed like the market's pool, and updated with each day's close.
+ */
+public class MovingAverageCrossStrategy implements Strategy {
+
+    private int shortPeriod;
+    private int longPeriod;
+    private int sharesPerTrade;
+    private SimpleMovingAverage[] shortAverages; // by stock index
+    private SimpleMovingAverage[] longAverages; // by stock index
+
+    // REQUIRES: 0 < shortPeriod < longPeriod, sharesPerTrade > 0
+    // EFFECTS: constructs a strategy crossing averages over the given periods, buying sharesPerTrade at a time
+    public MovingAverageCrossStrategy(int shortPeriod, int longPeriod, int sharesPerTrade) {
+        this.shortPeriod = shortPeriod;
+        this.longPeriod = longPeriod;
+        this.sharesPerTrade = sharesPerTrade;
+    }
+
+    // EFFECTS: returns the strategy's name, e.g. "SMA cross(5/20)"
+    @Override
+    public String getName() {
+        return "SMA cross(" + shortPeriod + "/" + longPeriod + ")";
+    }
+
+    // EFFECTS: returns the period of the short moving average
+    public int getShortPeriod() {
+        return this.shortPeriod;
+    }
+
+    // EFFECTS: returns the period of the long moving average
+    public int getLongPeriod() {
+        return this.longPeriod;
+    }
+
+    // EFFECTS: returns the number of shares bought at a time
+    public int getSharesPerTrade() {
+        return this.sharesPerTrade;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts new moving averages for every stock of the market
+    @Override
+    public void onStart(MarketView market) {
+        int stocks = market.getStockCount();
+        this.shortAverages = new SimpleMovingAverage[stocks];
+        this.longAverages = new SimpleMovingAverage[stocks];
+        for (int i = 0; i < stocks; i++) {
+            shortAverages[i] = new SimpleMovingAverage(shortPeriod);
+            longAverages[i] = new SimpleMovingAverage(longPeriod);
+        }
+    }
+
+    // MODIFIES: this, trades
+    // EFFECTS: updates the averages with each stock's last close, then buys stocks not owned whose short average is
+    // above the long one and sells stocks owned whose short average is below it
+    @Override
+    public void onDay(MarketView market, TradeSink trades) {
+        for (int i = 0; i < shortAverages.length; i++) {
+            double price = market.getPrice(i);
+            shortAverages[i].update(price);
+            longAverages[i].update(price);
+            if (!longAverages[i].isReady()) {
+                continue;
+            }
+            int owned = market.getSharesOwned(i);
+            double spread = shortAverages[i].getValue() - longAverages[i].getValue();
+            if (spread > 0 && owned == 0) {
+                trades.buy(i, sharesPerTrade);
+            } else if (spread < 0 && owned > 0) {
+                trades.sell(i, owned);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+/*
+Represents a limit or stop order for a number of shares of a stock. An order has:
+ - an id, unique within its portfolio (lower ids were placed earlier)
+ - a stock code, side, type, price (the limit or stop price) and number of shares
+ - a status, and once filled the number of shares filled and the price they were filled at
+ */
+public class Order {
+
+    private final long orderId;
+    private final String stockCode;
+    private final OrderSide side;
+    private final OrderType type;
+    private final double price;
+    private final int shares;
+
+    private OrderStatus status;
+    private int filledShares;
+    private double fillPrice;
+
+    // REQUIRES: price > 0, shares > 0
+    // EFFECTS: constructs an open order
+    public Order(long orderId, String stockCode, OrderSide side, OrderType type, double price, int shares) {
+        this.orderId = orderId;
+        this.stockCode = stockCode;
+        this.side = side;
+        this.type = type;
+        this.price = price;
+        this.shares = shares;
+        this.status = OrderStatus.OPEN;
+    }
+
+    // EFFECTS: returns the order id
+    public long getOrderId() {
+        return this.orderId;
+    }
+
+    // EFFECTS: returns the code of the stock this order is for
+    public String getStockCode() {
+        return this.stockCode;
+    }
+
+    // EFFECTS: returns the order side
+    public OrderSide getSide() {
+        return this.side;
+    }
+
+    // EFFECTS: returns the order type
+    public OrderType getType() {
+        return this.type;
+    }
+
+    // EFFECTS: returns the limit or stop price
+    public double getPrice() {
+        return this.price;
+    }
+
+    // EFFECTS: returns the number of shares ordered
+    public int getShares() {
+        return this.shares;
+    }
+
+    // EFFECTS: returns the order status
+    public OrderStatus getStatus() {
+        return this.status;
+    }
+
+    // EFFECTS: returns the number of shares filled (0 unless the order is filled)
+    public int getFilledShares() {
+        return this.filledShares;
+    }
+
+    // EFFECTS: returns the price the order was filled at (0 unless the order is filled)
+    public double getFillPrice() {
+        return this.fillPrice;
+    }
+
+    // EFFECTS: returns true if this order triggers when the price is at or below its price (buy limits and sell
+    // stops), false if it triggers when the price is at or above it (sell limits and buy stops)
+    public boolean triggersAtOrBelow() {
+        return (this.side == OrderSide.BUY) == (this.type == OrderType.LIMIT);
+    }
+
+    // EFFECTS: returns true if this order triggers at marketPrice
+    public boolean triggersAt(double marketPrice) {
+        return triggersAtOrBelow() ? marketPrice <= this.price : marketPrice >= this.price;
+    }
+
+    // REQUIRES: order is open, 0 < filledShares <= getShares()
+    // MODIFIES: this
+    // EFFECTS: marks the order filled for filledShares shares at fillPrice
+    void fill(int filledShares, double fillPrice) {
+        this.status = OrderStatus.FILLED;
+        this.filledShares = filledShares;
+        this.fillPrice = fillPrice;
+    }
+
+    // REQUIRES: order is open
+    // MODIFIES: this
+    // EFFECTS: marks the order cancelled, or rejected if rejected is true
+    void close(boolean rejected) {
+        this.status = rejected ? OrderStatus.REJECTED : OrderStatus.CANCELLED;
+    }
+
+    // EFFECTS: returns a short description of the order, e.g. "#3 BUY 10 AAPL LIMIT 12.5"
+    @Override
+    public String toString() {
+        return "#" + orderId + " " + side + " " + shares + " " + stockCode + " " + type + " " + price;
+    }
+
+}
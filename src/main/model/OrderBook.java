@@ -0,0 +1,114 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents the resting limit and stop orders for one stock, in price-time priority. When the stock's price moves,
+the triggered orders are taken out of the book in execution order: sell stops, sell limits, buy limits, then buy
+stops (sells first, so their proceeds can pay for the buys), each in price-time priority. Placing, cancelling and
+matching an order take O(log n) in the number of price levels.
+ */
+public class OrderBook {
+
+    private final String stockCode;
+    private final PriceLevels buyLimits;
+    private final PriceLevels sellLimits;
+    private final PriceLevels buyStops;
+    private final PriceLevels sellStops;
+    private final Map<Long, Order> ordersById;
+
+    // EFFECTS: constructs an empty book for the stock with the given code
+    public OrderBook(String stockCode) {
+        this.stockCode = stockCode;
+        this.buyLimits = new PriceLevels(true);
+        this.sellLimits = new PriceLevels(false);
+        this.buyStops = new PriceLevels(false);
+        this.sellStops = new PriceLevels(true);
+        this.ordersById = new HashMap<>();
+    }
+
+    // EFFECTS: returns the code of the stock this book is for
+    public String getStockCode() {
+        return this.stockCode;
+    }
+
+    // EFFECTS: returns the number of resting orders
+    public int size() {
+        return this.ordersById.size();
+    }
+
+    // EFFECTS: returns true if there are no resting orders
+    public boolean isEmpty() {
+        return this.ordersById.isEmpty();
+    }
+
+    // EFFECTS: returns the resting order with the given id, or null if there is none
+    public Order getOrder(long orderId) {
+        return this.ordersById.get(orderId);
+    }
+
+    // EFFECTS: returns the highest buy limit price, or NaN if there are no buy limit orders
+    public double getBestBid() {
+        return this.buyLimits.getBestPrice();
+    }
+
+    // EFFECTS: returns the lowest sell limit price, or NaN if there are no sell limit orders
+    public double getBestAsk() {
+        return this.sellLimits.getBestPrice();
+    }
+
+    // REQUIRES: order is open, for this book's stock, and not already in the book
+    // MODIFIES: this
+    // EFFECTS: adds order to the book, behind the orders already resting at its price
+    public void add(Order order) {
+        levelsOf(order).add(order);
+        this.ordersById.put(order.getOrderId(), order);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the resting order with the given id and returns it, or returns null if there is none
+    public Order remove(long orderId) {
+        Order order = this.ordersById.remove(orderId);
+        if (order != null) {
+            levelsOf(order).remove(order);
+        }
+        return order;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every order that triggers at marketPrice and returns them, in execution order
+    public List<Order> match(double marketPrice) {
+        List<Order> triggered = new ArrayList<>();
+        sellStops.pollTriggered(marketPrice, triggered);
+        sellLimits.pollTriggered(marketPrice, triggered);
+        buyLimits.pollTriggered(marketPrice, triggered);
+        buyStops.pollTriggered(marketPrice, triggered);
+        for (Order order : triggered) {
+            this.ordersById.remove(order.getOrderId());
+        }
+        return triggered;
+    }
+
+    // EFFECTS: returns all resting orders: buy limits, sell limits, buy stops, then sell stops, each in price-time
+    // priority
+    public List<Order> getOrders() {
+        List<Order> orders = new ArrayList<>(size());
+        orders.addAll(buyLimits.getOrders());
+        orders.addAll(sellLimits.getOrders());
+        orders.addAll(buyStops.getOrders());
+        orders.addAll(sellStops.getOrders());
+        return orders;
+    }
+
+    // EFFECTS: returns the price levels the given order rests in
+    private PriceLevels levelsOf(Order order) {
+        if (order.getSide() == OrderSide.BUY) {
+            return order.getType() == OrderType.LIMIT ? buyLimits : buyStops;
+        }
+        return order.getType() == OrderType.LIMIT ? sellLimits : sellStops;
+    }
+
+}
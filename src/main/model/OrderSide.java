@@ -0,0 +1,9 @@
+package model;
+
+/*
+Represents the side of an order: buying shares of a stock, or selling shares already held.
+ */
+public enum OrderSide {
+    BUY,
+    SELL
+}
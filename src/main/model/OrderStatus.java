@@ -0,0 +1,13 @@
+package model;
+
+/*
+Represents the status of an order. An order is OPEN while it rests in an order book; it then ends FILLED when it
+executes, CANCELLED when it is withdrawn, or REJECTED when it triggers but cannot execute (insufficient balance
+for a buy, no shares held for a sell).
+ */
+public enum OrderStatus {
+    OPEN,
+    FILLED,
+    CANCELLED,
+    REJECTED
+}
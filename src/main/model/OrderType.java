@@ -0,0 +1,13 @@
+package model;
+
+/*
+Represents the type of a resting order:
+ - a LIMIT order executes once the price is at its limit price or better (at or below it for a buy, at or above it
+   for a sell)
+ - a STOP order executes once the price moves through its stop price (at or above it for a buy, at or below it for
+   a sell)
+ */
+public enum OrderType {
+    LIMIT,
+    STOP
+}
@@ -0,0 +1,119 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToDoubleFunction;
+
+/*
+Represents a parallel progression mode for a stock portfolio. Day progression is split across a ForkJoinPool, by
+ranges of rows of the market's columns:
+ - each row of the pool is advanced independently of the others
+ - the profits of the rows of held stocks are updated in parallel and reduced to the portfolio's total PnL
+Ranges no larger than the parallelism threshold are processed sequentially. Ranges are always split at the same
+points, so the PnL reduction adds the same values in the same order on every run.
+ */
+public class ParallelProgression {
+
+    private final ForkJoinPool forkJoinPool;
+    private final int threshold;
+
+    // REQUIRES: threshold > 0
+    // EFFECTS: constructs a parallel progression running on the common ForkJoinPool, splitting row ranges
+    // larger than threshold
+    public ParallelProgression(int threshold) {
+        this(ForkJoinPool.commonPool(), threshold);
+    }
+
+    // REQUIRES: threshold > 0
+    // EFFECTS: constructs a parallel progression running on forkJoinPool, splitting row ranges larger than
+    // threshold
+    public ParallelProgression(ForkJoinPool forkJoinPool, int threshold) {
+        this.forkJoinPool = forkJoinPool;
+        this.threshold = threshold;
+    }
+
+    // EFFECTS: returns the parallelism threshold
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    // EFFECTS: returns the ForkJoinPool used for progression
+    public ForkJoinPool getForkJoinPool() {
+        return this.forkJoinPool;
+    }
+
+    // REQUIRES: days > 0
+    // MODIFIES: columns
+    // EFFECTS: advances every row of columns through the given number of days, drawing each day's variation of a
+    // row's stock from variation
+    public void advanceAll(MarketColumns columns, int days, ToDoubleFunction<Stock> variation) {
+        forkJoinPool.invoke(new AdvanceTask(columns, 0, columns.size(), days, variation));
+    }
+
+    // MODIFIES: columns
+    // EFFECTS: updates the profit / loss of every row of columns and returns the sum of those of the held rows
+    public double updateProfits(MarketColumns columns) {
+        return forkJoinPool.invoke(new ProfitTask(columns, 0, columns.size()));
+    }
+
+    /*
+    Advances the rows in [lo, hi) through a number of days.
+     */
+    private class AdvanceTask extends RecursiveAction {
+        private final MarketColumns columns;
+        private final int lo;
+        private final int hi;
+        private final int days;
+        private final ToDoubleFunction<Stock> variation;
+
+        AdvanceTask(MarketColumns columns, int lo, int hi, int days, ToDoubleFunction<Stock> variation) {
+            this.columns = columns;
+            this.lo = lo;
+            this.hi = hi;
+            this.days = days;
+            this.variation = variation;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= threshold) {
+                for (int row = lo; row < hi; row++) {
+                    columns.advanceRow(row, days, variation);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new AdvanceTask(columns, lo, mid, days, variation),
+                        new AdvanceTask(columns, mid, hi, days, variation));
+            }
+        }
+    }
+
+    /*
+    Updates the profits of the rows in [lo, hi) and returns the sum of those of the held rows.
+     */
+    private class ProfitTask extends RecursiveTask<Double> {
+        private final MarketColumns columns;
+        private final int lo;
+        private final int hi;
+
+        ProfitTask(MarketColumns columns, int lo, int hi) {
+            this.columns = columns;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Double compute() {
+            if (hi - lo <= threshold) {
+                return columns.settleProfits(lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            ProfitTask left = new ProfitTask(columns, lo, mid);
+            left.fork();
+            double right = new ProfitTask(columns, mid, hi).compute();
+            return left.join() + right;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Represents a grid sweep: every combination of the values given to each parameter. Configurations are numbered like
+the digits of a number, the last parameter changing fastest.
+ */
+public class ParameterGrid implements ParameterSpace {
+
+    private List<String> names;
+    private List<double[]> values; // of each parameter, in the order of names
+
+    // EFFECTS: constructs a grid with no parameters, holding a single empty configuration
+    public ParameterGrid() {
+        this.names = new ArrayList<>();
+        this.values = new ArrayList<>();
+    }
+
+    // REQUIRES: values is non-empty
+    // MODIFIES: this
+    // EFFECTS: adds a parameter taking each of the given values
+    public void addParameter(String name, double... values) {
+        this.names.add(name);
+        this.values.add(values.clone());
+    }
+
+    @Override
+    public List<String> getNames() {
+        return Collections.unmodifiableList(this.names);
+    }
+
+    @Override
+    public long size() {
+        long size = 1;
+        for (double[] parameterValues : values) {
+            size *= parameterValues.length;
+        }
+        return size;
+    }
+
+    @Override
+    public double[] get(long index) {
+        double[] configuration = new double[values.size()];
+        long rest = index;
+        for (int i = configuration.length - 1; i >= 0; i--) {
+            double[] parameterValues = values.get(i);
+            configuration[i] = parameterValues[(int) (rest % parameterValues.length)];
+            rest /= parameterValues.length;
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,21 @@
+package model;
+
+import java.util.List;
+
+/*
+Represents the configurations of a parameter sweep. Each configuration gives a value to every parameter and is
+addressed by its index, so a sweep can visit configurations one at a time without ever listing them all.
+ */
+public interface ParameterSpace {
+
+    // EFFECTS: returns the names of the parameters, in order
+    List<String> getNames();
+
+    // EFFECTS: returns the number of configurations
+    long size();
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the value of each parameter in the configuration with the given index, in the order of
+    // getNames(); the same index always gives the same configuration
+    double[] get(long index);
+}
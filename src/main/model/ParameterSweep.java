@@ -0,0 +1,70 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/*
+Represents a parameter sweep: backtesting a strategy with every configuration of a parameter space against the same
+price paths. Configurations are spread across the threads of a ForkJoinPool. Each one gets a fresh portfolio, built
+with event logging already turned off so that not even its setup reaches the shared EventLog, and its own replay of
+the shared paths, which are only ever read.
+Configurations are generated from their index as they are run and each result is handed to a sink as soon as it is
+ready, so memory use does not grow with the number of configurations.
+ */
+public class ParameterSweep {
+
+    private PricePathModel paths;
+    private Supplier<StockPortfolio> portfolios;
+    private Function<double[], Strategy> strategies;
+    private ForkJoinPool forkJoinPool;
+
+    // EFFECTS: constructs a sweep over paths, running on the common ForkJoinPool; see the constructor below
+    public ParameterSweep(PricePathModel paths, Supplier<StockPortfolio> portfolios,
+                          Function<double[], Strategy> strategies) {
+        this(ForkJoinPool.commonPool(), paths, portfolios, strategies);
+    }
+
+    // EFFECTS: constructs a sweep over paths, running on forkJoinPool. portfolios makes the fresh portfolio of a
+    // configuration, with event logging turned off before anything else is done to it, and whose pool should start
+    // at the paths' first closes; strategies makes the strategy of a configuration from its parameter values.
+    public ParameterSweep(ForkJoinPool forkJoinPool, PricePathModel paths, Supplier<StockPortfolio> portfolios,
+                          Function<double[], Strategy> strategies) {
+        this.forkJoinPool = forkJoinPool;
+        this.paths = paths;
+        this.portfolios = portfolios;
+        this.strategies = strategies;
+    }
+
+    // EFFECTS: returns the ForkJoinPool configurations run on
+    public ForkJoinPool getForkJoinPool() {
+        return this.forkJoinPool;
+    }
+
+    // REQUIRES: the paths have days to replay
+    // EFFECTS: backtests the strategy made from parameters on a fresh portfolio over every day of the paths; throws
+    // IllegalStateException if the portfolio made for it logs events
+    public BacktestResult runConfiguration(double[] parameters) {
+        StockPortfolio portfolio = portfolios.get();
+        if (portfolio.isEventLogging()) {
+            throw new IllegalStateException("Sweep portfolios must be built with event logging turned off");
+        }
+        return new Backtester(portfolio, strategies.apply(parameters)).run(paths.newReplay());
+    }
+
+    // REQUIRES: the paths have days to replay
+    // MODIFIES: sink
+    // EFFECTS: backtests every configuration of space in parallel, handing each result to sink as it finishes, and
+    // returns the number of configurations run
+    public long run(ParameterSpace space, SweepResultSink sink) {
+        forkJoinPool.submit(() -> LongStream.range(0, space.size()).parallel().forEach(index -> {
+            double[] parameters = space.get(index);
+            BacktestResult result = runConfiguration(parameters);
+            synchronized (sink) {
+                sink.accept(index, parameters, result);
+            }
+        })).join();
+        return space.size();
+    }
+}
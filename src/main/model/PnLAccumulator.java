@@ -0,0 +1,39 @@
+package model;
+
+/*
+Represents a running total of the potential profits of the stocks held in a portfolio. Held stocks report every
+change to their potential profit, so the total can be read in constant time. During a bulk day progression the
+total is suspended (stock changes are ignored) and then resumed from an exact recomputation.
+ */
+class PnLAccumulator {
+
+    private double total;
+    private boolean suspended;
+
+    // EFFECTS: returns the running total
+    double getTotal() {
+        return this.total;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds delta to the running total, unless the total is suspended
+    void add(double delta) {
+        if (!this.suspended) {
+            this.total += delta;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ignores changes until the total is resumed
+    void suspend() {
+        this.suspended = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the running total to exactTotal and starts tracking changes again
+    void resume(double exactTotal) {
+        this.total = exactTotal;
+        this.suspended = false;
+    }
+
+}
@@ -0,0 +1,326 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/*
+Represents the single writer of a portfolio: every change to the portfolio is submitted as a command, from any
+thread, and one writer thread executes the commands in the order they were queued. The portfolio is only ever
+touched by the writer thread, so it needs no locks, and the caller of each command gets a future of its result.
+The writer takes the commands queued up while it was busy as one batch: it executes them back to back and publishes
+a single snapshot of the portfolio after the batch (if the portfolio publishes snapshots), then completes their
+futures, so a caller reading the portfolio's snapshot once its future completes sees the command's effect.
+The queue is a lock-free multi-producer, single-consumer queue: producers append with a compare-and-set, so they
+don't queue up behind a lock shared with each other and with the writer, and an idle writer parks until a producer
+unparks it. The queue is bounded by a semaphore of free slots: submitting blocks only while the queue is full, so
+producers are held back to the writer's pace.
+If a command throws an Error, or publishing the snapshot of a batch fails, every command of the batch fails with it
+and the writer stops, rejecting the commands still queued; getFailure tells why. An interrupt of the writer shuts
+the engine down.
+ */
+public class PortfolioEngine {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int DEFAULT_MAX_BATCH = 64;
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50); // how often an idle writer wakes
+
+    private final StockPortfolio portfolio;
+    private final Queue<Command<?>> commands;
+    private final Semaphore freeSlots; // one permit per command the queue still has room for
+    private final int maxBatch;
+    private final Thread writer;
+    private volatile boolean idle; // true while the writer may park, waiting for a command
+    private volatile boolean shutdown; // true once no more commands are accepted
+    private volatile boolean terminated; // true once the writer has stopped taking commands
+    private volatile Throwable failure; // what stopped the writer, if it failed
+    private volatile long commandsExecuted;
+    private volatile long batchesExecuted;
+
+    // EFFECTS: constructs and starts the writer of portfolio, queueing up to 1024 commands and executing up to 64
+    // per batch
+    public PortfolioEngine(StockPortfolio portfolio) {
+        this(portfolio, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    // REQUIRES: capacity > 0, maxBatch > 0
+    // EFFECTS: constructs and starts the writer of portfolio, queueing up to capacity commands and executing up to
+    // maxBatch per batch; from now on portfolio must only be changed through this engine
+    public PortfolioEngine(StockPortfolio portfolio, int capacity, int maxBatch) {
+        this.portfolio = portfolio;
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.freeSlots = new Semaphore(capacity);
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::runWriter, "portfolio-writer-" + portfolio.getStockPortfolioName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // EFFECTS: returns the portfolio this engine writes to; read it through its snapshots
+    public StockPortfolio getPortfolio() {
+        return this.portfolio;
+    }
+
+    // EFFECTS: returns the number of commands executed so far
+    public long getCommandsExecuted() {
+        return this.commandsExecuted;
+    }
+
+    // EFFECTS: returns the number of batches executed so far
+    public long getBatchesExecuted() {
+        return this.batchesExecuted;
+    }
+
+    // EFFECTS: returns true if the engine no longer accepts commands
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    // EFFECTS: returns true once the writer has stopped taking commands
+    public boolean isTerminated() {
+        return this.terminated;
+    }
+
+    // EFFECTS: returns the Error thrown by a command, or the failure publishing a snapshot, that stopped the writer,
+    // or null if it did not fail
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues action to be applied to the portfolio by the writer thread, waiting while the queue is full,
+    // and returns the future of its result. The future fails with the exception action throws, or with
+    // RejectedExecutionException if the engine is shut down. Actions run on the writer thread, so they must not
+    // wait for other commands of this engine; callbacks attached to the future without an executor also run there.
+    public <T> CompletableFuture<T> submit(Function<StockPortfolio, T> action) {
+        Command<T> command = new Command<>(action);
+        if (this.shutdown) {
+            reject(command);
+            return command.future;
+        }
+        try {
+            freeSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.future.completeExceptionally(e);
+            return command.future;
+        }
+        commands.offer(command);
+        if (this.terminated && commands.remove(command)) {
+            freeSlots.release();
+            reject(command);
+        } else if (this.idle) {
+            LockSupport.unpark(writer);
+        }
+        return command.future;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues command to be applied to the portfolio, as if recorded in its journal
+    public CompletableFuture<Void> submit(JournalCommand command) {
+        return submit(p -> {
+            command.applyTo(p);
+            return null;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues buying shares of the stock with the given code; see StockPortfolio.buyStock
+    public CompletableFuture<Boolean> buyStock(String code, int shares) {
+        return submit(p -> p.buyStock(code, shares));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues selling shares of the stock with the given code; see StockPortfolio.sellStock
+    public CompletableFuture<Boolean> sellStock(String code, int shares) {
+        return submit(p -> p.sellStock(code, shares));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues progressing the portfolio to the next day; the future holds the new trading day
+    public CompletableFuture<Integer> progressDay() {
+        return submit(p -> {
+            p.progressDay();
+            return p.getTradingDay();
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues a loan request; see StockPortfolio.requestLoanReturnVal
+    public CompletableFuture<Boolean> requestLoan() {
+        return submit(StockPortfolio::requestLoanReturnVal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues creating a new business; see StockPortfolio.createNewStock
+    public CompletableFuture<Boolean> createNewStock(String stockName, String stockCode, String stockSector) {
+        return submit(p -> p.createNewStock(stockName, stockCode, stockSector));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues placing an order; see StockPortfolio.placeOrder
+    public CompletableFuture<Order> placeOrder(String code, OrderSide side, OrderType type, double price, int shares) {
+        return submit(p -> p.placeOrder(code, side, type, price, shares));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues cancelling the resting order with the given id; see StockPortfolio.cancelOrder
+    public CompletableFuture<Boolean> cancelOrder(long orderId) {
+        return submit(p -> p.cancelOrder(orderId));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops accepting commands; the writer executes the commands already queued, then stops
+    public void shutdown() {
+        this.shutdown = true;
+        LockSupport.unpark(writer);
+    }
+
+    // EFFECTS: waits up to the given number of milliseconds for the writer to stop after a shutdown, and returns
+    // true if it has stopped
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        writer.join(millis);
+        return !writer.isAlive();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: executes batches of commands until shut down and every command queued is executed, or until a batch
+    // fails, then rejects the commands still queued
+    private void runWriter() {
+        List<Command<?>> batch = new ArrayList<>(maxBatch);
+        try {
+            while (this.failure == null && (!this.shutdown || !commands.isEmpty())) {
+                Command<?> first = nextCommand();
+                if (first != null) {
+                    batch.add(first);
+                    drainTo(batch);
+                    executeBatch(batch);
+                    batch.clear();
+                }
+            }
+        } finally {
+            this.terminated = true;
+            for (Command<?> command = commands.poll(); command != null; command = commands.poll()) {
+                freeSlots.release();
+                reject(command);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next command queued, or null if none was queued for a while. An interrupt of the writer
+    // shuts the engine down; the writer thread stays interrupted.
+    private Command<?> nextCommand() {
+        Command<?> command = commands.poll();
+        if (command == null) {
+            this.idle = true;
+            command = commands.poll();
+            if (command == null && !this.shutdown) {
+                LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+            }
+            this.idle = false;
+            if (Thread.currentThread().isInterrupted()) {
+                this.shutdown = true;
+            }
+        }
+        if (command != null) {
+            freeSlots.release();
+        }
+        return command;
+    }
+
+    // MODIFIES: this, batch
+    // EFFECTS: moves the commands queued into batch, until it holds maxBatch commands
+    private void drainTo(List<Command<?>> batch) {
+        while (batch.size() < maxBatch) {
+            Command<?> command = commands.poll();
+            if (command == null) {
+                return;
+            }
+            freeSlots.release();
+            batch.add(command);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: executes the commands of batch in order, publishes one snapshot of the portfolio, then completes the
+    // commands' futures. If a command throws an Error or the snapshot can't be published, every command of the batch
+    // fails with it instead and the writer stops.
+    private void executeBatch(List<Command<?>> batch) {
+        portfolio.setSnapshotsDeferred(true);
+        try {
+            for (Command<?> command : batch) {
+                command.execute(portfolio);
+            }
+            portfolio.setSnapshotsDeferred(false);
+            portfolio.publishSnapshot();
+        } catch (Throwable t) {
+            portfolio.setSnapshotsDeferred(false);
+            this.failure = t;
+            for (Command<?> command : batch) {
+                command.future.completeExceptionally(t);
+            }
+            return;
+        }
+        this.commandsExecuted += batch.size();
+        this.batchesExecuted++;
+        for (Command<?> command : batch) {
+            command.complete();
+        }
+    }
+
+    // EFFECTS: fails the future of command, as the engine is shut down or its writer failed
+    private void reject(Command<?> command) {
+        RejectedExecutionException rejected = new RejectedExecutionException(this.failure == null
+                ? "Portfolio engine is shut down" : "Portfolio engine stopped after a failure");
+        if (this.failure != null) {
+            rejected.initCause(this.failure);
+        }
+        command.future.completeExceptionally(rejected);
+    }
+
+    /*
+    A command queued for the writer, with the future of its result.
+     */
+    private static class Command<T> {
+
+        private final Function<StockPortfolio, T> action;
+        private final CompletableFuture<T> future;
+        private T result;
+        private RuntimeException failure;
+
+        // EFFECTS: constructs a command applying action
+        Command(Function<StockPortfolio, T> action) {
+            this.action = action;
+            this.future = new CompletableFuture<>();
+        }
+
+        // MODIFIES: this, portfolio
+        // EFFECTS: applies the action to portfolio, keeping its result or the exception it throws; Errors are left
+        // to the writer
+        void execute(StockPortfolio portfolio) {
+            try {
+                this.result = action.apply(portfolio);
+            } catch (RuntimeException e) {
+                this.failure = e;
+            }
+        }
+
+        // MODIFIES: this
+        // EFFECTS: completes the future with the result or failure of the command's execution
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
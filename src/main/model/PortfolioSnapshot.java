@@ -0,0 +1,223 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/*
+Represents the state of a portfolio as of one moment: its balance and profits, its holdings and the stocks of its pool.
+A snapshot never changes, so readers on any thread see a consistent state without locking the portfolio, however it
+changes after the snapshot was taken.
+Snapshots are taken one after the other. A snapshot shares with the one before it every stock that has not changed
+since, and the price histories of those that have, so taking one copies only what changed. The portfolio tells it what
+changed: when no stock did, the previous lists of stocks are shared as they are; when a few did, such as after a trade,
+the previous lists are copied and only those stocks are taken again. Only a day, which changes every stock, or a pool
+or holdings reordered, goes through every stock.
+ */
+public final class PortfolioSnapshot {
+
+    private final long version;
+    private final String stockPortfolioName;
+    private final int tradingDay;
+    private final double balance;
+    private final double totalPNL;
+    private final double realizedPNL;
+    private final MarketRegime marketRegime;
+    private final List<StockSnapshot> holdings;
+    private final List<StockSnapshot> pool;
+    private final SnapshotSeries pnlHistory;
+
+    // REQUIRES: holdings and pool are read-only
+    // EFFECTS: constructs the snapshot with the given version of portfolio, built of the given stock snapshots
+    private PortfolioSnapshot(long version, StockPortfolio portfolio, List<StockSnapshot> holdings,
+                              List<StockSnapshot> pool, SnapshotSeries pnlHistory) {
+        this.version = version;
+        this.stockPortfolioName = portfolio.getStockPortfolioName();
+        this.tradingDay = portfolio.getTradingDay();
+        this.balance = portfolio.getStockPortfolioBalance();
+        this.totalPNL = portfolio.getRunningPNL();
+        this.realizedPNL = portfolio.getRealizedPNL();
+        this.marketRegime = portfolio.getMarketRegime();
+        this.holdings = holdings;
+        this.pool = pool;
+        this.pnlHistory = pnlHistory;
+    }
+
+    // REQUIRES: previous is null or the latest snapshot taken of portfolio; changes is what changed since previous,
+    // or null if it is not known
+    // EFFECTS: returns a snapshot of portfolio as it is now, sharing with previous what has not changed since
+    static PortfolioSnapshot take(StockPortfolio portfolio, PortfolioSnapshot previous, SnapshotChanges changes) {
+        List<StockSnapshot> holdings;
+        List<StockSnapshot> pool;
+        if (previous == null || changes == null || changes.isAllChanged()) {
+            Map<PriceHistory, SnapshotSeries> series = new IdentityHashMap<>();
+            List<StockSnapshot> previousHoldings = previous == null ? Collections.emptyList() : previous.holdings;
+            List<StockSnapshot> previousPool = previous == null ? Collections.emptyList() : previous.pool;
+            addSeries(previousHoldings, series);
+            addSeries(previousPool, series);
+            holdings = snapshots(portfolio.getStockPortfolio(), previousHoldings, series);
+            pool = snapshots(portfolio.getStockPool(), previousPool, series);
+        } else {
+            Map<PriceHistory, SnapshotSeries> series = new IdentityHashMap<>();
+            holdings = changed(portfolio.getStockPortfolio(), previous.holdings, changes.isHoldingsReordered(),
+                    changes, portfolio::getHoldingPosition, series);
+            pool = changed(portfolio.getStockPool(), previous.pool, changes.isPoolReordered(), changes,
+                    portfolio.getMarket()::getPoolPosition, series);
+        }
+        SnapshotSeries pnlHistory = SnapshotSeries.of(portfolio.getPnLHistory(),
+                previous == null ? null : previous.pnlHistory);
+        long version = previous == null ? 1 : previous.version + 1;
+        return new PortfolioSnapshot(version, portfolio, holdings, pool, pnlHistory);
+    }
+
+    // EFFECTS: returns the series of each price history of the given stock snapshots
+    private static Map<PriceHistory, SnapshotSeries> seriesOf(List<StockSnapshot> stocks) {
+        Map<PriceHistory, SnapshotSeries> series = new IdentityHashMap<>();
+        addSeries(stocks, series);
+        return series;
+    }
+
+    // MODIFIES: series
+    // EFFECTS: maps each price history of the given stock snapshots to its series
+    private static void addSeries(List<StockSnapshot> stocks, Map<PriceHistory, SnapshotSeries> series) {
+        for (StockSnapshot s : stocks) {
+            SnapshotSeries history = s.getPriceSeries();
+            series.put(history.getSource(), history);
+        }
+    }
+
+    // MODIFIES: series
+    // EFFECTS: returns the read-only snapshots of stocks, reusing the snapshot at the same position in previous for
+    // each stock that has not changed; the series of each price history is taken once and shared by every stock with
+    // it
+    private static List<StockSnapshot> snapshots(List<Stock> stocks, List<StockSnapshot> previous,
+                                                 Map<PriceHistory, SnapshotSeries> series) {
+        List<StockSnapshot> snapshots = new ArrayList<>(stocks.size());
+        for (int i = 0; i < stocks.size(); i++) {
+            StockSnapshot last = i < previous.size() ? previous.get(i) : null;
+            snapshots.add(snapshotOf(stocks.get(i), last, series));
+        }
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    // REQUIRES: unless reordered, stocks are in the same order as when previous was taken of them
+    // MODIFIES: series
+    // EFFECTS: returns the read-only snapshots of stocks. If they were reordered, every stock is compared with the
+    // snapshot at its position in previous. Otherwise, previous itself if none of the changed stocks is among stocks,
+    // or a copy of previous with the snapshots of the changed stocks taken again; positionOf gives the position among
+    // stocks of a changed stock, or -1 if it is not there.
+    private static List<StockSnapshot> changed(List<Stock> stocks, List<StockSnapshot> previous, boolean reordered,
+                                               SnapshotChanges changes, ToIntFunction<Stock> positionOf,
+                                               Map<PriceHistory, SnapshotSeries> series) {
+        if (reordered) {
+            return snapshots(stocks, previous, seriesOf(previous));
+        }
+        List<StockSnapshot> snapshots = null;
+        for (Stock stock : changes.getChanged()) {
+            int position = positionOf.applyAsInt(stock);
+            if (position >= 0) {
+                if (snapshots == null) {
+                    snapshots = new ArrayList<>(previous);
+                }
+                snapshots.set(position, snapshotOf(stocks.get(position), previous.get(position), series));
+            }
+        }
+        return snapshots == null ? previous : Collections.unmodifiableList(snapshots);
+    }
+
+    // MODIFIES: series
+    // EFFECTS: returns the snapshot of stock: last if it is still the snapshot of stock, a new snapshot otherwise.
+    // The series of stock's price history is taken from the one in series, or else from last's
+    private static StockSnapshot snapshotOf(Stock stock, StockSnapshot last, Map<PriceHistory, SnapshotSeries> series) {
+        PriceHistory history = stock.getPriceHistory();
+        SnapshotSeries previous = series.get(history);
+        if (previous == null && last != null) {
+            previous = last.getPriceSeries();
+        }
+        SnapshotSeries prices = SnapshotSeries.of(history, previous);
+        series.put(history, prices);
+        return last != null && last.matches(stock, prices) ? last : new StockSnapshot(stock, prices);
+    }
+
+    // EFFECTS: returns the number of snapshots taken of the portfolio up to and including this one
+    public long getVersion() {
+        return this.version;
+    }
+
+    // EFFECTS: returns the portfolio's name
+    public String getStockPortfolioName() {
+        return this.stockPortfolioName;
+    }
+
+    // EFFECTS: returns the trading day
+    public int getTradingDay() {
+        return this.tradingDay;
+    }
+
+    // EFFECTS: returns the portfolio's balance
+    public double getStockPortfolioBalance() {
+        return this.balance;
+    }
+
+    // EFFECTS: returns the profit and loss of the shares held
+    public double getTotalPNL() {
+        return this.totalPNL;
+    }
+
+    // EFFECTS: returns the profit realized by all sales so far
+    public double getRealizedPNL() {
+        return this.realizedPNL;
+    }
+
+    // EFFECTS: returns the market regime
+    public MarketRegime getMarketRegime() {
+        return this.marketRegime;
+    }
+
+    // EFFECTS: returns the balance plus the market value of the shares held
+    public double getPortfolioValue() {
+        double value = this.balance;
+        for (StockSnapshot s : holdings) {
+            value += s.getSharesOwned() * s.getCurrentPrice();
+        }
+        return value;
+    }
+
+    // EFFECTS: returns the stocks held (read-only)
+    public List<StockSnapshot> getStockPortfolio() {
+        return this.holdings;
+    }
+
+    // EFFECTS: returns the stocks of the pool (read-only)
+    public List<StockSnapshot> getStockPool() {
+        return this.pool;
+    }
+
+    // EFFECTS: returns the held stock with the given code, or null if it is not held
+    public StockSnapshot getHolding(String code) {
+        return find(this.holdings, code);
+    }
+
+    // EFFECTS: returns the stock of the pool with the given code, or null if there is none
+    public StockSnapshot getStockFromPool(String code) {
+        return find(this.pool, code);
+    }
+
+    // EFFECTS: returns the daily profits and losses, oldest first (read-only)
+    public List<Double> getPnLHistory() {
+        return this.pnlHistory;
+    }
+
+    // EFFECTS: returns the stock of stocks with the given code, or null if there is none
+    private static StockSnapshot find(List<StockSnapshot> stocks, String code) {
+        for (StockSnapshot s : stocks) {
+            if (s.getStockCode().equals(code)) {
+                return s;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,203 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+Represents a position in a stock, made of lots: each buy adds a lot of shares at the price paid, and each sale
+takes shares out of the lots picked by the position's cost basis method, realizing the difference between the sale
+price and the lots' prices. Lots are kept oldest first in a deque of primitive ring arrays, so a sale takes O(1)
+per lot it empties and O(1) for the lot it leaves partially sold, however many lots are open. The number of shares,
+total cost and realized profit are kept as running totals.
+ */
+public class Position {
+
+    private static final int[] NO_SHARES = new int[0];
+    private static final double[] NO_PRICES = new double[0];
+
+    private CostBasisMethod method;
+    private int[] lotShares;
+    private double[] lotPrices;
+    private int head; // position of the oldest lot in the ring arrays
+    private int lotCount;
+
+    private int shares;
+    private double costBasis; // total price paid for the shares in the open lots
+    private double realizedProfit;
+
+    // EFFECTS: constructs an empty FIFO position
+    public Position() {
+        this(CostBasisMethod.FIFO);
+    }
+
+    // EFFECTS: constructs an empty position using the given cost basis method
+    public Position(CostBasisMethod method) {
+        this.method = method;
+        this.lotShares = NO_SHARES;
+        this.lotPrices = NO_PRICES;
+    }
+
+    // EFFECTS: returns the cost basis method
+    public CostBasisMethod getMethod() {
+        return this.method;
+    }
+
+    // EFFECTS: returns the number of shares held
+    public int getShares() {
+        return this.shares;
+    }
+
+    // EFFECTS: returns the total price paid for the shares held
+    public double getCostBasis() {
+        return this.costBasis;
+    }
+
+    // EFFECTS: returns the average price paid per share held (the lot's price if there is a single lot), or 0 if
+    // no shares are held
+    public double getAverageCost() {
+        if (lotCount == 0) {
+            return 0;
+        }
+        return lotCount == 1 ? lotPrices[head] : costBasis / shares;
+    }
+
+    // EFFECTS: returns the profit realized by all sales so far
+    public double getRealizedProfit() {
+        return this.realizedProfit;
+    }
+
+    // EFFECTS: returns the number of open lots
+    public int getLotCount() {
+        return this.lotCount;
+    }
+
+    // REQUIRES: 0 <= i < getLotCount()
+    // EFFECTS: returns the number of shares left in the i-th lot, oldest first
+    public int getLotShares(int i) {
+        return lotShares[slot(i)];
+    }
+
+    // REQUIRES: 0 <= i < getLotCount()
+    // EFFECTS: returns the price paid per share in the i-th lot, oldest first
+    public double getLotPrice(int i) {
+        return lotPrices[slot(i)];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the cost basis method; switching to AVERAGE_COST merges the open lots into one
+    public void setMethod(CostBasisMethod method) {
+        this.method = method;
+        if (method == CostBasisMethod.AVERAGE_COST && lotCount > 1) {
+            double averageCost = getAverageCost();
+            int heldShares = this.shares;
+            clearLots();
+            pushLot(heldShares, averageCost);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: buys shares at price, adding a lot (or, for AVERAGE_COST, merging them into the single lot); throws
+    // IllegalArgumentException if shares is not positive
+    public void buy(int shares, double price) {
+        if (shares <= 0) {
+            throw new IllegalArgumentException("Lots must hold a positive number of shares: " + shares);
+        }
+        if (method == CostBasisMethod.AVERAGE_COST && lotCount == 1) {
+            double averageCost = (costBasis + shares * price) / (this.shares + shares);
+            int heldShares = this.shares + shares;
+            clearLots();
+            pushLot(heldShares, averageCost);
+        } else {
+            pushLot(shares, price);
+        }
+    }
+
+    // REQUIRES: 0 <= shares <= getShares()
+    // MODIFIES: this
+    // EFFECTS: sells shares at price out of the lots picked by the cost basis method and returns the profit
+    // realized by this sale
+    public double sell(int shares, double price) {
+        double cost = 0;
+        double profit = 0;
+        int remaining = shares;
+        boolean fromNewest = method == CostBasisMethod.LIFO;
+        while (remaining > 0) {
+            int slot = fromNewest ? slot(lotCount - 1) : head;
+            int taken = Math.min(remaining, lotShares[slot]);
+            cost += taken * lotPrices[slot];
+            profit += (price - lotPrices[slot]) * taken;
+            lotShares[slot] -= taken;
+            remaining -= taken;
+            if (lotShares[slot] == 0) {
+                removeEndLot(fromNewest);
+            }
+        }
+        this.shares -= shares;
+        this.costBasis = this.shares == 0 ? 0 : this.costBasis - cost;
+        this.realizedProfit += profit;
+        return profit;
+    }
+
+    // REQUIRES: shares >= 0
+    // MODIFIES: this
+    // EFFECTS: replaces the open lots with a single lot of shares at price (no lot if shares is 0); the realized
+    // profit is kept
+    public void reset(int shares, double price) {
+        clearLots();
+        if (shares > 0) {
+            pushLot(shares, price);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a lot of shares at price after the newest lot, growing the ring arrays if needed
+    private void pushLot(int shares, double price) {
+        if (lotCount == lotShares.length) {
+            int capacity = Math.max(4, lotCount + (lotCount >> 1));
+            int[] newShares = new int[capacity];
+            double[] newPrices = new double[capacity];
+            for (int i = 0; i < lotCount; i++) {
+                newShares[i] = lotShares[slot(i)];
+                newPrices[i] = lotPrices[slot(i)];
+            }
+            lotShares = newShares;
+            lotPrices = newPrices;
+            head = 0;
+        }
+        int slot = slot(lotCount);
+        lotShares[slot] = shares;
+        lotPrices[slot] = price;
+        lotCount++;
+        this.shares += shares;
+        this.costBasis += shares * price;
+    }
+
+    // REQUIRES: there is at least one lot
+    // MODIFIES: this
+    // EFFECTS: removes the newest lot if newest, otherwise the oldest
+    private void removeEndLot(boolean newest) {
+        if (!newest) {
+            head = slot(1);
+        }
+        lotCount--;
+        if (lotCount == 0) {
+            head = 0;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every lot
+    private void clearLots() {
+        Arrays.fill(lotShares, 0);
+        head = 0;
+        lotCount = 0;
+        shares = 0;
+        costBasis = 0;
+    }
+
+    // EFFECTS: returns the position in the ring arrays of the i-th lot, oldest first
+    private int slot(int i) {
+        int slot = head + i;
+        return slot < lotShares.length ? slot : slot - lotShares.length;
+    }
+
+}
@@ -0,0 +1,199 @@
+package model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/*
+Represents the history of a portfolio's balance and positions, indexed by trading day. The portfolio records every
+change as it happens, and a value as of day N is found by binary search over the changes of that value, so
+point-in-time queries take O(log days). Positions are valued with their stock's close on the day, read from the
+stock's price history.
+Every query is answered from the changes alone: valuing a range of days streams one value per day without rebuilding
+the portfolio as of each of them.
+ */
+public class PositionLedger {
+
+    private int firstDay; // the day the ledger started recording
+    private LedgerSeries balances;
+    private Map<String, PositionSeries> positions; // by stock code, in the order stocks were first held
+
+    // EFFECTS: constructs a ledger that starts recording on the given day
+    PositionLedger(int firstDay) {
+        restart(firstDay);
+    }
+
+    // EFFECTS: returns the day the ledger started recording; earlier days can't be queried
+    public int getFirstDay() {
+        return this.firstDay;
+    }
+
+    // EFFECTS: returns the codes of the stocks held at some point since the first day
+    public Set<String> getStockCodes() {
+        return Collections.unmodifiableSet(this.positions.keySet());
+    }
+
+    // EFFECTS: returns the balance at the end of the given day; throws IllegalArgumentException if the day is before
+    // the first day
+    public double getBalance(int day) {
+        checkDay(day);
+        return this.balances.valueAt(day);
+    }
+
+    // EFFECTS: returns the shares of the stock with the given code held at the end of the given day; throws
+    // IllegalArgumentException if the day is before the first day
+    public int getShares(String code, int day) {
+        checkDay(day);
+        PositionSeries position = this.positions.get(code);
+        return position == null ? 0 : (int) position.shares.valueAt(day);
+    }
+
+    // EFFECTS: returns the price paid for the shares of the stock with the given code held at the end of the given
+    // day; throws IllegalArgumentException if the day is before the first day
+    public double getCostBasis(String code, int day) {
+        checkDay(day);
+        PositionSeries position = this.positions.get(code);
+        return position == null ? 0 : position.costBasis.valueAt(day);
+    }
+
+    // EFFECTS: returns the profit realized by sales of the stock with the given code from the first day to the end
+    // of the given day; throws IllegalArgumentException if the day is before the first day
+    public double getRealizedProfit(String code, int day) {
+        checkDay(day);
+        PositionSeries position = this.positions.get(code);
+        return position == null ? 0 : position.realized.valueAt(day);
+    }
+
+    // EFFECTS: returns the PnL of the position in the stock with the given code at the end of the given day: the
+    // profit its shares held would make if sold at the day's close, plus the profit realized up to that day. Throws
+    // IllegalArgumentException if the day is before the first day, and IndexOutOfBoundsException if the day's close
+    // is not in the stock's price history.
+    public double getPositionPnL(String code, int day) {
+        PositionSeries position = this.positions.get(code);
+        int shares = getShares(code, day);
+        if (position == null) {
+            return 0;
+        }
+        double unrealized = shares == 0 ? 0 : shares * position.closeAt(day) - position.costBasis.valueAt(day);
+        return unrealized + position.realized.valueAt(day);
+    }
+
+    // EFFECTS: returns the value of the portfolio at the end of the given day: its balance plus the market value of
+    // the shares held, at the day's closes. Throws IllegalArgumentException if the day is before the first day, and
+    // IndexOutOfBoundsException if the close of a stock held is not in its price history.
+    public double getValue(int day) {
+        double value = getBalance(day);
+        for (PositionSeries position : positions.values()) {
+            double shares = position.shares.valueAt(day);
+            if (shares != 0) {
+                value += shares * position.closeAt(day);
+            }
+        }
+        return value;
+    }
+
+    // REQUIRES: from <= to
+    // EFFECTS: returns the value of the portfolio at the end of each day from day from to day to (inclusive), in
+    // order; values are computed lazily as the stream is consumed. Throws IllegalArgumentException if from is before
+    // the first day.
+    public DoubleStream getValueCurve(int from, int to) {
+        checkDay(from);
+        return IntStream.rangeClosed(from, to).mapToDouble(this::getValue);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets everything recorded; the ledger starts recording again on the given day
+    void restart(int day) {
+        this.firstDay = day;
+        this.balances = new LedgerSeries();
+        this.positions = new LinkedHashMap<>();
+    }
+
+    // REQUIRES: day is no earlier than the last change recorded
+    // MODIFIES: this
+    // EFFECTS: records the balance from the given day on
+    void recordBalance(int day, double balance) {
+        this.balances.record(day, balance);
+    }
+
+    // REQUIRES: day is no earlier than the last change recorded, day is the last day of the price history of the
+    // instrument of holding
+    // MODIFIES: this
+    // EFFECTS: records the shares of holding and the price paid for them from the given day on
+    void recordPosition(int day, Stock holding) {
+        PositionSeries position = series(day, holding);
+        position.shares.record(day, holding.getSharesOwned());
+        position.costBasis.record(day, holding.getPosition().getCostBasis());
+    }
+
+    // REQUIRES: day is no earlier than the last change recorded
+    // MODIFIES: this
+    // EFFECTS: records that no shares of the stock of holding are held from the given day on
+    void closePosition(int day, Stock holding) {
+        PositionSeries position = this.positions.get(holding.getStockCode());
+        if (position != null) {
+            position.shares.record(day, 0);
+            position.costBasis.record(day, 0);
+        }
+    }
+
+    // REQUIRES: day is no earlier than the last change recorded, day is the last day of the price history of the
+    // instrument of holding
+    // MODIFIES: this
+    // EFFECTS: adds profit to the profit realized by sales of holding from the given day on
+    void addRealizedProfit(int day, Stock holding, double profit) {
+        PositionSeries position = series(day, holding);
+        position.realizedTotal += profit;
+        position.realized.record(day, position.realizedTotal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the series of the position in the stock of holding, starting it if the stock was never held
+    private PositionSeries series(int day, Stock holding) {
+        PositionSeries position = this.positions.get(holding.getStockCode());
+        if (position == null) {
+            position = new PositionSeries(day, holding.getInstrument());
+            this.positions.put(holding.getStockCode(), position);
+        }
+        return position;
+    }
+
+    // EFFECTS: throws IllegalArgumentException if the day is before the first day
+    private void checkDay(int day) {
+        if (day < this.firstDay) {
+            throw new IllegalArgumentException("Day " + day + " is before the ledger's first day " + this.firstDay);
+        }
+    }
+
+    /*
+    The history of the position in one stock, and where to find the stock's closes.
+     */
+    private static class PositionSeries {
+
+        private Stock instrument;
+        private int historyStart; // the trading day of the first day in the instrument's price history
+        private LedgerSeries shares;
+        private LedgerSeries costBasis;
+        private LedgerSeries realized;
+        private double realizedTotal;
+
+        // REQUIRES: day is the last day of the price history of instrument
+        // EFFECTS: constructs the series of a position in instrument first held on the given day
+        PositionSeries(int day, Stock instrument) {
+            this.instrument = instrument;
+            this.historyStart = day - (instrument.getPriceHistory().getDayCount() - 1);
+            this.shares = new LedgerSeries();
+            this.costBasis = new LedgerSeries();
+            this.realized = new LedgerSeries();
+        }
+
+        // EFFECTS: returns the instrument's close on the given trading day; throws IndexOutOfBoundsException if it is
+        // not in the instrument's price history
+        double closeAt(int day) {
+            return instrument.getPriceHistory().priceAt(day - historyStart);
+        }
+    }
+}
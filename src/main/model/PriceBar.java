@@ -0,0 +1,55 @@
+package model;
+
+/*
+Represents an OHLC bar summarizing consecutive days of a history: the first day it covers, how many days it covers,
+and the opening, highest, lowest and closing values over those days.
+ */
+public class PriceBar {
+
+    private final int firstDay;
+    private final int days;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+
+    // EFFECTS: constructs a bar
+    public PriceBar(int firstDay, int days, double open, double high, double low, double close) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+    }
+
+    // EFFECTS: returns the first day covered by this bar
+    public int getFirstDay() {
+        return this.firstDay;
+    }
+
+    // EFFECTS: returns the number of days covered by this bar
+    public int getDays() {
+        return this.days;
+    }
+
+    // EFFECTS: returns the value on the first day
+    public double getOpen() {
+        return this.open;
+    }
+
+    // EFFECTS: returns the highest value
+    public double getHigh() {
+        return this.high;
+    }
+
+    // EFFECTS: returns the lowest value
+    public double getLow() {
+        return this.low;
+    }
+
+    // EFFECTS: returns the value on the last day
+    public double getClose() {
+        return this.close;
+    }
+}
@@ -0,0 +1,140 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Represents a bounded tier of OHLC bars of equal length, stored in parallel primitive ring arrays. Days (or finer
+bars) are merged into a building bar until it covers daysPerBar days, then the bar is completed. When the tier is
+full, its oldest bar is handed to the next, coarser tier (or dropped if there is none).
+ */
+class PriceBarTier {
+
+    private final int daysPerBar;
+    private final int capacity;
+    private final PriceBarTier next;
+
+    private final int[] firstDays;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private int head;
+    private int size;
+
+    private int buildingFirstDay;
+    private int buildingDays;
+    private double buildingOpen;
+    private double buildingHigh;
+    private double buildingLow;
+    private double buildingClose;
+
+    // REQUIRES: daysPerBar > 0, capacity >= 0
+    // EFFECTS: constructs an empty tier holding up to capacity bars of daysPerBar days, feeding evicted bars to next
+    PriceBarTier(int daysPerBar, int capacity, PriceBarTier next) {
+        this.daysPerBar = daysPerBar;
+        this.capacity = capacity;
+        this.next = next;
+        this.firstDays = new int[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+    }
+
+    // REQUIRES: bars are added in day order, with no gaps
+    // MODIFIES: this
+    // EFFECTS: merges a bar covering days [firstDay, firstDay + days) into the building bar, completing it once it
+    // covers daysPerBar days
+    void add(int firstDay, int days, double open, double high, double low, double close) {
+        if (buildingDays == 0) {
+            buildingFirstDay = firstDay;
+            buildingOpen = open;
+            buildingHigh = high;
+            buildingLow = low;
+        } else {
+            buildingHigh = Math.max(buildingHigh, high);
+            buildingLow = Math.min(buildingLow, low);
+        }
+        buildingClose = close;
+        buildingDays += days;
+        if (buildingDays >= daysPerBar) {
+            complete();
+        }
+    }
+
+    // REQUIRES: bars are in day order, with no gaps, and follow the bars already added
+    // MODIFIES: this
+    // EFFECTS: adds each of bars, as add does
+    void addAll(List<PriceBar> bars) {
+        for (PriceBar bar : bars) {
+            add(bar.getFirstDay(), bar.getDays(), bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the building bar into the ring, evicting the oldest bar to the next tier if the ring is full
+    private void complete() {
+        if (size == capacity) {
+            if (size == 0) {
+                pass(buildingFirstDay, buildingDays, buildingOpen, buildingHigh, buildingLow, buildingClose);
+                buildingDays = 0;
+                return;
+            }
+            pass(firstDays[head], daysPerBar, opens[head], highs[head], lows[head], closes[head]);
+            head = (head + 1) % capacity;
+            size--;
+        }
+        int slot = (head + size) % capacity;
+        firstDays[slot] = buildingFirstDay;
+        opens[slot] = buildingOpen;
+        highs[slot] = buildingHigh;
+        lows[slot] = buildingLow;
+        closes[slot] = buildingClose;
+        size++;
+        buildingDays = 0;
+    }
+
+    // EFFECTS: hands a bar to the next tier, if any
+    private void pass(int firstDay, int days, double open, double high, double low, double close) {
+        if (next != null) {
+            next.add(firstDay, days, open, high, low, close);
+        }
+    }
+
+    // EFFECTS: returns the closing value of the bar (completed or building) covering day, or NaN if no bar in this
+    // tier covers it
+    double closeAt(int day) {
+        if (buildingDays > 0 && day >= buildingFirstDay && day < buildingFirstDay + buildingDays) {
+            return buildingClose;
+        }
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int slot = (head + mid) % capacity;
+            if (day < firstDays[slot]) {
+                hi = mid - 1;
+            } else if (day >= firstDays[slot] + daysPerBar) {
+                lo = mid + 1;
+            } else {
+                return closes[slot];
+            }
+        }
+        return Double.NaN;
+    }
+
+    // EFFECTS: returns the bars of this tier, oldest first, including the building bar if it covers any days
+    List<PriceBar> getBars() {
+        List<PriceBar> bars = new ArrayList<>(size + 1);
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % capacity;
+            bars.add(new PriceBar(firstDays[slot], daysPerBar, opens[slot], highs[slot], lows[slot], closes[slot]));
+        }
+        if (buildingDays > 0) {
+            bars.add(new PriceBar(buildingFirstDay, buildingDays, buildingOpen, buildingHigh, buildingLow,
+                    buildingClose));
+        }
+        return bars;
+    }
+}
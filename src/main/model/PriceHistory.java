@@ -0,0 +1,271 @@
+package model;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*
+Represents a history of daily values (prices or profits and losses), stored in a growable primitive double array:
+ - values are appended at the end, one per trading day
+ - the List view is read-only and boxes values only when they are read
+ - values can be bulk copied out as a double array
+A history can be given a retention policy. It then keeps only the most recent days at full resolution, in a ring
+buffer, and rolls older days into weekly and monthly OHLC bars, so its memory stays bounded however many days are
+appended. The List view (and getDouble) then covers the days still at full resolution; priceAt answers for any
+day that is still covered by a bar. Re-applying the same policy keeps the history as it is, and applying another
+policy carries the bars over into the new policy's tiers.
+ */
+public class PriceHistory extends AbstractList<Double> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] values;
+    private int head; // position of the oldest full-resolution value in values
+    private int size;
+    private int firstDay; // day of the oldest full-resolution value
+
+    private RetentionPolicy retention; // null when every day is kept at full resolution
+    private PriceBarTier weeklyBars;
+    private PriceBarTier monthlyBars;
+
+    // EFFECTS: constructs an empty history
+    public PriceHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // REQUIRES: capacity >= 0
+    // EFFECTS: constructs an empty history able to hold capacity values before growing
+    public PriceHistory(int capacity) {
+        this.values = new double[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    // EFFECTS: constructs a history holding a copy of the given values
+    public PriceHistory(double[] values) {
+        this.values = Arrays.copyOf(values, Math.max(values.length, 1));
+        this.size = values.length;
+    }
+
+    // REQUIRES: retention != null, firstDay >= 0, the bars are in day order and the weekly bars follow the monthly
+    // bars, with no gaps
+    // EFFECTS: returns a history under retention holding the given bars, followed by values from firstDay on; bars
+    // and values that don't fit the policy are rolled over or dropped as if they had been appended
+    public static PriceHistory restore(RetentionPolicy retention, int firstDay, List<PriceBar> monthlyBars,
+                                       List<PriceBar> weeklyBars, double[] values) {
+        PriceHistory history = new PriceHistory();
+        history.firstDay = firstDay;
+        history.rebuild(retention, monthlyBars, weeklyBars, values);
+        return history;
+    }
+
+    // EFFECTS: returns a history holding a copy of the given values, in order; a copy of a PriceHistory keeps its
+    // retention policy, bars and first retained day
+    public static PriceHistory copyOf(List<Double> values) {
+        if (values instanceof PriceHistory) {
+            PriceHistory history = (PriceHistory) values;
+            if (history.retention != null) {
+                return restore(history.retention, history.firstDay, history.getMonthlyBars(),
+                        history.getWeeklyBars(), history.toDoubleArray());
+            }
+            PriceHistory copy = new PriceHistory(history.toDoubleArray());
+            copy.firstDay = history.firstDay;
+            return copy;
+        }
+        PriceHistory history = new PriceHistory(values.size());
+        for (Double value : values) {
+            history.append(value);
+        }
+        return history;
+    }
+
+    // EFFECTS: returns the retention policy, or null if every day is kept at full resolution
+    public RetentionPolicy getRetentionPolicy() {
+        return this.retention;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies a retention policy to this history, rolling the days that no longer fit at full resolution
+    // into bars and carrying the current bars over into the new policy's tiers; does nothing if the policy is the
+    // one already applied. null keeps every day appended from now on at full resolution and drops the bars.
+    public void setRetentionPolicy(RetentionPolicy retention) {
+        if (retention != null && retention.equals(this.retention)) {
+            return;
+        }
+        double[] retained = toDoubleArray();
+        if (retention == null) {
+            this.retention = null;
+            this.weeklyBars = null;
+            this.monthlyBars = null;
+            this.head = 0;
+            this.values = Arrays.copyOf(retained, Math.max(retained.length, DEFAULT_CAPACITY));
+            this.size = retained.length;
+            return;
+        }
+        rebuild(retention, getMonthlyBars(), getWeeklyBars(), retained);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: puts this history under retention, with new tiers holding the given bars, then appends retained
+    // from the first retained day on
+    private void rebuild(RetentionPolicy retention, List<PriceBar> monthly, List<PriceBar> weekly,
+                         double[] retained) {
+        this.retention = retention;
+        this.head = 0;
+        this.size = 0;
+        this.values = new double[retention.getFullResolutionDays()];
+        this.monthlyBars = new PriceBarTier(RetentionPolicy.DAYS_PER_MONTH, retention.getMonthlyBars(), null);
+        this.weeklyBars = new PriceBarTier(RetentionPolicy.DAYS_PER_WEEK, retention.getWeeklyBars(), monthlyBars);
+        monthlyBars.addAll(monthly);
+        weeklyBars.addAll(weekly);
+        for (double value : retained) {
+            append(value);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends value at the end of the history, growing the backing array if needed, or rolling the oldest
+    // full-resolution day into the weekly bars if the retention policy's window is full
+    public void append(double value) {
+        if (size == values.length) {
+            if (retention == null) {
+                values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+            } else {
+                double oldest = values[head];
+                weeklyBars.add(firstDay, 1, oldest, oldest, oldest, oldest);
+                head = slot(1);
+                firstDay++;
+                size--;
+            }
+        }
+        values[slot(size)] = value;
+        size++;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the value at index without boxing it
+    public double getDouble(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[slot(index)];
+    }
+
+    // REQUIRES: history is non-empty
+    // EFFECTS: returns the most recent value
+    public double last() {
+        return getDouble(size - 1);
+    }
+
+    // EFFECTS: returns the number of days appended so far, including those no longer at full resolution
+    public int getDayCount() {
+        return firstDay + size;
+    }
+
+    // EFFECTS: returns the first day still kept at full resolution; getDouble(i) is the value on day
+    // getFirstRetainedDay() + i
+    public int getFirstRetainedDay() {
+        return firstDay;
+    }
+
+    // EFFECTS: returns the value on the given day: exact if the day is kept at full resolution, otherwise the close
+    // of the weekly or monthly bar covering it; throws IndexOutOfBoundsException if the day was never appended or
+    // has been dropped
+    public double priceAt(int day) {
+        if (day >= firstDay && day < firstDay + size) {
+            return getDouble(day - firstDay);
+        }
+        double close = Double.NaN;
+        if (retention != null && day >= 0 && day < firstDay) {
+            close = weeklyBars.closeAt(day);
+            if (Double.isNaN(close)) {
+                close = monthlyBars.closeAt(day);
+            }
+        }
+        if (Double.isNaN(close)) {
+            throw new IndexOutOfBoundsException("Day: " + day + " is not in this history");
+        }
+        return close;
+    }
+
+    // EFFECTS: returns the weekly bars, oldest first (empty if there is no retention policy)
+    public List<PriceBar> getWeeklyBars() {
+        return retention == null ? Collections.emptyList() : weeklyBars.getBars();
+    }
+
+    // EFFECTS: returns the monthly bars, oldest first (empty if there is no retention policy)
+    public List<PriceBar> getMonthlyBars() {
+        return retention == null ? Collections.emptyList() : monthlyBars.getBars();
+    }
+
+    // EFFECTS: returns the retention of this history as JSON: its policy, first retained day and bars, or null if
+    // there is no retention policy (the full-resolution values are saved as the history's list)
+    public JSONObject retentionToJson() {
+        if (retention == null) {
+            return null;
+        }
+        JSONObject json = new JSONObject();
+        json.put("policy", retention.toJson());
+        json.put("first_day", firstDay);
+        json.put("weekly_bars", barsToJson(weeklyBars.getBars()));
+        json.put("monthly_bars", barsToJson(monthlyBars.getBars()));
+        return json;
+    }
+
+    // EFFECTS: returns bars as a JSON array
+    private static JSONArray barsToJson(List<PriceBar> bars) {
+        JSONArray jsonArray = new JSONArray();
+        for (PriceBar bar : bars) {
+            JSONObject json = new JSONObject();
+            json.put("first_day", bar.getFirstDay());
+            json.put("days", bar.getDays());
+            json.put("open", bar.getOpen());
+            json.put("high", bar.getHigh());
+            json.put("low", bar.getLow());
+            json.put("close", bar.getClose());
+            jsonArray.put(json);
+        }
+        return jsonArray;
+    }
+
+    // EFFECTS: returns a copy of all full-resolution values, in order
+    public double[] toDoubleArray() {
+        double[] copy = new double[size];
+        copyTo(0, size, copy, 0);
+        return copy;
+    }
+
+    // REQUIRES: 0 <= from <= to <= size(), dest has room for (to - from) values starting at destPos
+    // MODIFIES: dest
+    // EFFECTS: copies values in [from, to) into dest starting at destPos
+    public void copyTo(int from, int to, double[] dest, int destPos) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + size);
+        }
+        int start = slot(from);
+        int firstPart = Math.min(to - from, values.length - start);
+        System.arraycopy(values, start, dest, destPos, firstPart);
+        System.arraycopy(values, 0, dest, destPos + firstPart, to - from - firstPart);
+    }
+
+    // EFFECTS: returns the position in values of the full-resolution value at index
+    private int slot(int index) {
+        int slot = head + index;
+        return slot < values.length ? slot : slot - values.length;
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,84 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Represents one side of an order book for one order type: resting orders grouped into price levels, kept in
+price-time priority. Levels are sorted so the first level is the first to trigger (the highest price for orders
+that trigger at or below their price, the lowest for orders that trigger at or above it); each level keeps its
+orders in arrival order. Adding or removing an order and finding the triggered levels take O(log levels).
+ */
+class PriceLevels {
+
+    private final boolean triggersAtOrBelow;
+    private final TreeMap<Double, LinkedHashMap<Long, Order>> levels;
+    private int size;
+
+    // EFFECTS: constructs empty levels for orders that trigger at or below their price if triggersAtOrBelow,
+    // otherwise at or above it
+    PriceLevels(boolean triggersAtOrBelow) {
+        this.triggersAtOrBelow = triggersAtOrBelow;
+        this.levels = triggersAtOrBelow ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>();
+    }
+
+    // EFFECTS: returns the number of resting orders
+    int size() {
+        return this.size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds order at the back of its price level
+    void add(Order order) {
+        levels.computeIfAbsent(order.getPrice(), price -> new LinkedHashMap<>()).put(order.getOrderId(), order);
+        size++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes order, returns true if it was resting here
+    boolean remove(Order order) {
+        LinkedHashMap<Long, Order> level = levels.get(order.getPrice());
+        if (level == null || level.remove(order.getOrderId()) == null) {
+            return false;
+        }
+        if (level.isEmpty()) {
+            levels.remove(order.getPrice());
+        }
+        size--;
+        return true;
+    }
+
+    // MODIFIES: this, triggered
+    // EFFECTS: removes every order that triggers at marketPrice and adds them to triggered, in priority order
+    void pollTriggered(double marketPrice, List<Order> triggered) {
+        while (!levels.isEmpty()) {
+            Map.Entry<Double, LinkedHashMap<Long, Order>> best = levels.firstEntry();
+            double price = best.getKey();
+            if (triggersAtOrBelow ? marketPrice > price : marketPrice < price) {
+                return;
+            }
+            levels.pollFirstEntry();
+            triggered.addAll(best.getValue().values());
+            size -= best.getValue().size();
+        }
+    }
+
+    // EFFECTS: returns the price of the first level to trigger, or NaN if there are no orders
+    double getBestPrice() {
+        return levels.isEmpty() ? Double.NaN : levels.firstKey();
+    }
+
+    // EFFECTS: returns all resting orders, in priority order
+    List<Order> getOrders() {
+        List<Order> orders = new ArrayList<>(size);
+        for (LinkedHashMap<Long, Order> level : levels.values()) {
+            orders.addAll(level.values());
+        }
+        return orders;
+    }
+
+}
@@ -0,0 +1,17 @@
+package model;
+
+import java.util.List;
+
+/*
+Represents a model of daily stock variations that a market can be given in place of drawing each stock on its own.
+A price model draws the whole pool's variations for a day at once, so the variations of different stocks can be
+correlated.
+ */
+public interface PriceModel {
+
+    // REQUIRES: variations.length >= stocks.size()
+    // MODIFIES: variations, random, the random sources of stocks
+    // EFFECTS: draws the next day's variation of each stock in the given regime into variations, in the order of
+    // stocks. Market-wide draws come from random and each stock's own draws from the stock's random source.
+    void nextVariations(List<Stock> stocks, MarketRegime regime, RandomSource random, double[] variations);
+}
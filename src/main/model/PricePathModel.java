@@ -0,0 +1,123 @@
+package model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents a price model replaying given price paths, such as paths generated ahead of time or loaded from a save
+file, so that a strategy can be backtested many times over the same days. Each path is a stock's closes, day by day,
+starting with the close before the first replayed day. Each day moves every stock with a path to its next close;
+stocks without a path keep their price.
+Paths are never modified once the model is constructed, so many replays of the same paths, each with its own
+position, can share them across threads.
+ */
+public class PricePathModel implements PriceModel {
+
+    private Map<String, double[]> paths; // closes by stock code
+    private int days; // number of days every path covers
+    private int day; // number of days replayed so far
+    private Stock[] alignedStocks; // the stocks the aligned paths were looked up for, in order
+    private double[][] alignedPaths; // the path of each of alignedStocks, or null
+
+    // REQUIRES: every path holds at least one close
+    // EFFECTS: constructs a model replaying the given closes by stock code, as far as the shortest path goes
+    public PricePathModel(Map<String, double[]> paths) {
+        this.paths = new HashMap<>(paths);
+        this.days = Integer.MAX_VALUE;
+        for (double[] path : paths.values()) {
+            this.days = Math.min(this.days, path.length - 1);
+        }
+        if (paths.isEmpty()) {
+            this.days = 0;
+        }
+    }
+
+    // EFFECTS: constructs a replay of the paths of other, starting from their first day, sharing the paths with it
+    private PricePathModel(PricePathModel other) {
+        this.paths = other.paths;
+        this.days = other.days;
+    }
+
+    // REQUIRES: the stocks' price histories are kept in full
+    // EFFECTS: returns a model replaying the price histories of the given stocks from their first day
+    public static PricePathModel fromHistories(Collection<Stock> stocks) {
+        Map<String, double[]> paths = new HashMap<>();
+        for (Stock s : stocks) {
+            paths.put(s.getStockCode(), s.getPriceHistory().toDoubleArray());
+        }
+        return new PricePathModel(paths);
+    }
+
+    // EFFECTS: returns the number of days the paths cover
+    public int getDays() {
+        return this.days;
+    }
+
+    // EFFECTS: returns the number of days left to replay
+    public int getRemainingDays() {
+        return this.days - this.day;
+    }
+
+    // EFFECTS: returns the close on the given day of the stock with the given code, or NaN if it has no path
+    public double getClose(String code, int day) {
+        double[] path = this.paths.get(code);
+        return path == null ? Double.NaN : path[day];
+    }
+
+    // EFFECTS: returns a new replay of the same paths, starting from their first day; the paths are shared, not
+    // copied
+    public PricePathModel newReplay() {
+        return new PricePathModel(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts replaying the paths over from their first day
+    public void rewind() {
+        this.day = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: gives each stock the variation moving its current price to its path's next close (0 if it has no
+    // path); throws IllegalStateException if every day of the paths was already replayed
+    @Override
+    public void nextVariations(List<Stock> stocks, MarketRegime regime, RandomSource random, double[] variations) {
+        if (this.day >= this.days) {
+            throw new IllegalStateException("Price paths end after " + this.days + " days");
+        }
+        align(stocks);
+        this.day++;
+        for (int i = 0; i < alignedPaths.length; i++) {
+            double[] path = alignedPaths[i];
+            variations[i] = path == null ? 0 : path[this.day] / stocks.get(i).getCurrentPrice() - 1;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: looks up the path of each of stocks, unless the same stocks, in the same order, were looked up last
+    // time; the pool may be the same list with stocks removed, added or moved since, so stocks are compared one by one
+    private void align(List<Stock> stocks) {
+        if (isAligned(stocks)) {
+            return;
+        }
+        this.alignedStocks = stocks.toArray(new Stock[0]);
+        this.alignedPaths = new double[alignedStocks.length][];
+        for (int i = 0; i < alignedPaths.length; i++) {
+            alignedPaths[i] = this.paths.get(alignedStocks[i].getStockCode());
+        }
+    }
+
+    // EFFECTS: returns true if the paths were last aligned to the same stocks as stocks, in the same order
+    private boolean isAligned(List<Stock> stocks) {
+        if (this.alignedStocks == null || stocks.size() != this.alignedStocks.length) {
+            return false;
+        }
+        for (int i = 0; i < alignedStocks.length; i++) {
+            if (stocks.get(i) != alignedStocks[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Represents a random sweep: a given number of configurations, each drawing every parameter uniformly from its range.
+Configuration i only depends on the seed and i, so configurations can be drawn in any order, on any thread, and
+configurations are drawn independently of each other.
+ */
+public class RandomParameterSearch implements ParameterSpace {
+
+    private long size;
+    private long seed;
+    private List<String> names;
+    private List<double[]> ranges; // [minimum, maximum) of each parameter, in the order of names
+
+    // REQUIRES: size >= 0
+    // EFFECTS: constructs a search of size configurations drawn from seed, with no parameters yet
+    public RandomParameterSearch(long size, long seed) {
+        this.size = size;
+        this.seed = seed;
+        this.names = new ArrayList<>();
+        this.ranges = new ArrayList<>();
+    }
+
+    // REQUIRES: minimum < maximum
+    // MODIFIES: this
+    // EFFECTS: adds a parameter drawn from [minimum, maximum)
+    public void addParameter(String name, double minimum, double maximum) {
+        this.names.add(name);
+        this.ranges.add(new double[] {minimum, maximum});
+    }
+
+    @Override
+    public List<String> getNames() {
+        return Collections.unmodifiableList(this.names);
+    }
+
+    @Override
+    public long size() {
+        return this.size;
+    }
+
+    @Override
+    public double[] get(long index) {
+        RandomSource random = SplittableRandomSource.forIndex(seed, index);
+        double[] configuration = new double[ranges.size()];
+        for (int i = 0; i < configuration.length; i++) {
+            double[] range = ranges.get(i);
+            configuration[i] = random.nextDouble(range[0], range[1]);
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,30 @@
+package model;
+
+/*
+Represents a source of random numbers for the trading simulation. A random source can be split into an independent
+stream, so that each stock can draw its own variations without sharing state with other stocks or threads.
+ */
+public interface RandomSource {
+
+    // MODIFIES: this
+    // EFFECTS: returns a random double in [0, 1)
+    double nextDouble();
+
+    // REQUIRES: origin < bound
+    // MODIFIES: this
+    // EFFECTS: returns a random double in [origin, bound)
+    double nextDouble(double origin, double bound);
+
+    // REQUIRES: bound > 0
+    // MODIFIES: this
+    // EFFECTS: returns a random int in [0, bound)
+    int nextInt(int bound);
+
+    // MODIFIES: this
+    // EFFECTS: returns a random long
+    long nextLong();
+
+    // MODIFIES: this
+    // EFFECTS: returns a new, independent random source derived from this one
+    RandomSource split();
+}
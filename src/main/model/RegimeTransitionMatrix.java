@@ -0,0 +1,80 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+Represents a Markov transition matrix between market regimes. Row i holds the probabilities of moving from the
+regime with ordinal i to each regime, in ordinal order. Rows are stored as cumulative probabilities, so drawing the
+next regime takes a single random draw and at most one scan of a row.
+ */
+public class RegimeTransitionMatrix {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final double[][] cumulative;
+
+    // EFFECTS: returns a matrix in which every regime is equally likely to follow any regime
+    public static RegimeTransitionMatrix uniform() {
+        int n = MarketRegime.values().length;
+        double[][] probabilities = new double[n][n];
+        for (double[] row : probabilities) {
+            Arrays.fill(row, 1.0 / n);
+        }
+        return new RegimeTransitionMatrix(probabilities);
+    }
+
+    // EFFECTS: constructs a matrix from the given transition probabilities; throws IllegalArgumentException if
+    // the matrix is not square over all regimes, has a negative entry, or has a row that does not sum to 1
+    public RegimeTransitionMatrix(double[][] probabilities) {
+        int n = MarketRegime.values().length;
+        if (probabilities.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " rows, got " + probabilities.length);
+        }
+        this.cumulative = new double[n][];
+        for (int i = 0; i < n; i++) {
+            this.cumulative[i] = cumulativeRow(probabilities[i], n);
+        }
+    }
+
+    // EFFECTS: returns the probability of moving from one regime to another
+    public double getProbability(MarketRegime from, MarketRegime to) {
+        double[] row = cumulative[from.ordinal()];
+        int j = to.ordinal();
+        return j == 0 ? row[0] : row[j] - row[j - 1];
+    }
+
+    // MODIFIES: random
+    // EFFECTS: draws the regime that follows current
+    public MarketRegime next(MarketRegime current, RandomSource random) {
+        double[] row = cumulative[current.ordinal()];
+        double draw = random.nextDouble();
+        MarketRegime[] regimes = MarketRegime.values();
+        for (int j = 0; j < row.length - 1; j++) {
+            if (draw < row[j]) {
+                return regimes[j];
+            }
+        }
+        return regimes[row.length - 1];
+    }
+
+    // EFFECTS: returns the running sums of row; throws IllegalArgumentException if row is not a probability
+    // distribution over n regimes
+    private static double[] cumulativeRow(double[] row, int n) {
+        if (row.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " columns, got " + row.length);
+        }
+        double[] sums = new double[n];
+        double sum = 0;
+        for (int j = 0; j < n; j++) {
+            if (row[j] < 0) {
+                throw new IllegalArgumentException("Negative transition probability: " + row[j]);
+            }
+            sum += row[j];
+            sums[j] = sum;
+        }
+        if (Math.abs(sum - 1) > TOLERANCE) {
+            throw new IllegalArgumentException("Transition probabilities sum to " + sum + ", not 1");
+        }
+        return sums;
+    }
+}
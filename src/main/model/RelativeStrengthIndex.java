@@ -0,0 +1,70 @@
+package model;
+
+/*
+Represents the relative strength index of a stock's price over a period of n days, with Wilder's smoothing: the
+average gain and average loss of the daily changes are seeded with the simple averages of the first n changes, then
+each new change moves them by 1 / n. The index is 100 - 100 / (1 + average gain / average loss), between 0 and 100.
+ */
+public class RelativeStrengthIndex implements Indicator {
+
+    private int period;
+    private int changes; // daily changes added, counted up to period
+    private double previousPrice;
+    private double averageGain;
+    private double averageLoss;
+
+    // REQUIRES: period > 0
+    // EFFECTS: constructs the relative strength index over period days
+    public RelativeStrengthIndex(int period) {
+        this.period = period;
+        this.previousPrice = Double.NaN;
+    }
+
+    @Override
+    public String getName() {
+        return "RSI(" + period + ")";
+    }
+
+    @Override
+    public void update(double price) {
+        if (!Double.isNaN(previousPrice)) {
+            double change = price - previousPrice;
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+            if (changes < period) {
+                changes++;
+                averageGain += (gain - averageGain) / changes;
+                averageLoss += (loss - averageLoss) / changes;
+            } else {
+                averageGain += (gain - averageGain) / period;
+                averageLoss += (loss - averageLoss) / period;
+            }
+        }
+        previousPrice = price;
+    }
+
+    @Override
+    public boolean isReady() {
+        return changes == period;
+    }
+
+    @Override
+    public double getValue() {
+        if (!isReady()) {
+            return Double.NaN;
+        }
+        if (averageLoss == 0) {
+            return averageGain == 0 ? 50 : 100;
+        }
+        return 100 - 100 / (1 + averageGain / averageLoss);
+    }
+
+    @Override
+    public void reset() {
+        changes = 0;
+        previousPrice = Double.NaN;
+        averageGain = 0;
+        averageLoss = 0;
+    }
+
+}
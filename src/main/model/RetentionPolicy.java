@@ -0,0 +1,74 @@
+package model;
+
+import org.json.JSONObject;
+
+/*
+Represents a retention policy for a history of daily values. A history under a retention policy keeps:
+ - the most recent days at full resolution
+ - older days rolled into weekly OHLC bars (5 trading days each), up to a maximum number of bars
+ - days older still rolled into monthly OHLC bars (4 weeks each), up to a maximum number of bars
+Anything older than the oldest monthly bar is dropped, so the memory held by the history is bounded.
+ */
+public class RetentionPolicy {
+
+    public static final int DAYS_PER_WEEK = 5;
+    public static final int DAYS_PER_MONTH = 4 * DAYS_PER_WEEK;
+
+    private final int fullResolutionDays;
+    private final int weeklyBars;
+    private final int monthlyBars;
+
+    // REQUIRES: fullResolutionDays > 0, weeklyBars >= 0, monthlyBars >= 0
+    // EFFECTS: constructs a retention policy
+    public RetentionPolicy(int fullResolutionDays, int weeklyBars, int monthlyBars) {
+        if (fullResolutionDays <= 0 || weeklyBars < 0 || monthlyBars < 0) {
+            throw new IllegalArgumentException("Invalid retention policy: " + fullResolutionDays + " days, "
+                    + weeklyBars + " weekly bars, " + monthlyBars + " monthly bars");
+        }
+        this.fullResolutionDays = fullResolutionDays;
+        this.weeklyBars = weeklyBars;
+        this.monthlyBars = monthlyBars;
+    }
+
+    // EFFECTS: returns the number of most recent days kept at full resolution
+    public int getFullResolutionDays() {
+        return this.fullResolutionDays;
+    }
+
+    // EFFECTS: returns the maximum number of weekly bars kept
+    public int getWeeklyBars() {
+        return this.weeklyBars;
+    }
+
+    // EFFECTS: returns the maximum number of monthly bars kept
+    public int getMonthlyBars() {
+        return this.monthlyBars;
+    }
+
+    // EFFECTS: returns this policy as JSON
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("full_resolution_days", fullResolutionDays);
+        json.put("weekly_bars", weeklyBars);
+        json.put("monthly_bars", monthlyBars);
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        RetentionPolicy other = (RetentionPolicy) obj;
+        return fullResolutionDays == other.fullResolutionDays && weeklyBars == other.weeklyBars
+                && monthlyBars == other.monthlyBars;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * fullResolutionDays + weeklyBars) + monthlyBars;
+    }
+}
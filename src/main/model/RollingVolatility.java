@@ -0,0 +1,49 @@
+package model;
+
+/*
+Represents the rolling volatility of a stock's price: the standard deviation of its last n daily returns.
+ */
+public class RollingVolatility implements Indicator {
+
+    private int period;
+    private double previousPrice;
+    private RollingWindow returns;
+
+    // REQUIRES: period > 0
+    // EFFECTS: constructs the volatility of the last period daily returns
+    public RollingVolatility(int period) {
+        this.period = period;
+        this.previousPrice = Double.NaN;
+        this.returns = new RollingWindow(period);
+    }
+
+    @Override
+    public String getName() {
+        return "VOL(" + period + ")";
+    }
+
+    @Override
+    public void update(double price) {
+        if (!Double.isNaN(previousPrice)) {
+            returns.add((price - previousPrice) / previousPrice);
+        }
+        previousPrice = price;
+    }
+
+    @Override
+    public boolean isReady() {
+        return returns.isFull();
+    }
+
+    @Override
+    public double getValue() {
+        return isReady() ? returns.standardDeviation() : Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        previousPrice = Double.NaN;
+        returns.clear();
+    }
+
+}
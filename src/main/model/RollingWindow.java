@@ -0,0 +1,85 @@
+package model;
+
+/*
+Represents the last n values of a series, in a ring buffer, with their running sum and sum of squares so their mean
+and standard deviation are read in constant time. The sums are recomputed from the buffer each time it wraps around,
+so rounding errors do not build up however many values are added.
+ */
+class RollingWindow {
+
+    private double[] values;
+    private int head; // position of the oldest value
+    private int size;
+    private double sum;
+    private double sumOfSquares;
+
+    // REQUIRES: length > 0
+    // EFFECTS: constructs an empty window of the given length
+    RollingWindow(int length) {
+        this.values = new double[length];
+    }
+
+    // EFFECTS: returns true if the window holds length values
+    boolean isFull() {
+        return this.size == this.values.length;
+    }
+
+    // EFFECTS: returns the number of values in the window
+    int size() {
+        return this.size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds value to the window, dropping the oldest value if the window is full
+    void add(double value) {
+        if (isFull()) {
+            double oldest = this.values[this.head];
+            this.sum -= oldest;
+            this.sumOfSquares -= oldest * oldest;
+            this.values[this.head] = value;
+            this.head = this.head + 1 == this.values.length ? 0 : this.head + 1;
+        } else {
+            this.values[this.size] = value;
+            this.size++;
+        }
+        this.sum += value;
+        this.sumOfSquares += value * value;
+        if (this.head == 0 && isFull()) {
+            recomputeSums();
+        }
+    }
+
+    // REQUIRES: size() > 0
+    // EFFECTS: returns the mean of the values in the window
+    double mean() {
+        return this.sum / this.size;
+    }
+
+    // REQUIRES: size() > 0
+    // EFFECTS: returns the population standard deviation of the values in the window
+    double standardDeviation() {
+        double mean = mean();
+        return Math.sqrt(Math.max(0, this.sumOfSquares / this.size - mean * mean));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the window
+    void clear() {
+        this.head = 0;
+        this.size = 0;
+        this.sum = 0;
+        this.sumOfSquares = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: recomputes the running sums from the values in the window
+    private void recomputeSums() {
+        this.sum = 0;
+        this.sumOfSquares = 0;
+        for (int i = 0; i < this.size; i++) {
+            this.sum += this.values[i];
+            this.sumOfSquares += this.values[i] * this.values[i];
+        }
+    }
+
+}
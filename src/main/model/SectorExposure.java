@@ -0,0 +1,78 @@
+package model;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents the exposure of a portfolio's holdings to each sector: the market value (shares owned times current
+price) of the stocks it holds in that sector. Buys and sells adjust it by the value of the stock that changed, and a
+new trading day revalues it from the held stocks only, so reading it costs one entry per sector, however many stocks
+the market has.
+ */
+public class SectorExposure {
+
+    private Map<String, Double> exposureBySector; // in the order sectors were first held
+    private Map<Stock, Double> valueByStock; // the value each held stock contributes
+    private double total;
+
+    // EFFECTS: constructs an exposure with no holdings
+    public SectorExposure() {
+        this.exposureBySector = new LinkedHashMap<>();
+        this.valueByStock = new IdentityHashMap<>();
+    }
+
+    // EFFECTS: returns the market value held in the given sector (0 if none is)
+    public double getExposure(String sector) {
+        Double exposure = this.exposureBySector.get(sector);
+        return exposure == null ? 0 : exposure;
+    }
+
+    // EFFECTS: returns the market value held in each sector (read-only view)
+    public Map<String, Double> getExposures() {
+        return Collections.unmodifiableMap(this.exposureBySector);
+    }
+
+    // EFFECTS: returns the market value held across all sectors
+    public double getTotal() {
+        return this.total;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the value contributed by stock with its current market value
+    void update(Stock stock) {
+        double value = stock.getSharesOwned() * stock.getCurrentPrice();
+        Double previous = this.valueByStock.put(stock, value);
+        change(stock.getStockSector(), value - (previous == null ? 0 : previous));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the value contributed by stock, if any
+    void remove(Stock stock) {
+        Double previous = this.valueByStock.remove(stock);
+        if (previous != null) {
+            change(stock.getStockSector(), -previous);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: recomputes the exposure from the market values of the given held stocks
+    void revalue(List<Stock> held) {
+        this.exposureBySector.replaceAll((sector, exposure) -> 0.0);
+        this.valueByStock.clear();
+        this.total = 0;
+        for (Stock s : held) {
+            update(s);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds delta to the exposure of sector and to the total
+    private void change(String sector, double delta) {
+        this.exposureBySector.merge(sector, delta, Double::sum);
+        this.total += delta;
+    }
+
+}
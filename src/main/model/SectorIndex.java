@@ -0,0 +1,112 @@
+package model;
+
+/*
+Represents the index of one sector of a market, kept up to date as the market advances rather than recomputed from
+the sector's stocks on every read. An index has:
+ - the number of stocks in the sector (its constituents)
+ - an equal-weight level, moving each day by the average of the constituents' daily returns
+ - a price-weighted level, moving each day by the change in the sum of the constituents' closes
+ - the equal-weight and price-weighted returns of the last day
+Both levels start at BASE_LEVEL and are chain-linked day to day, so stocks joining or leaving the sector do not make
+the levels jump.
+ */
+public class SectorIndex {
+
+    public static final double BASE_LEVEL = 100;
+
+    private String sector;
+    private int constituents;
+    private double equalWeightLevel;
+    private double priceWeightedLevel;
+    private double equalWeightReturn;
+    private double priceWeightedReturn;
+
+    private int dayCount; // constituents reported for the day being accumulated
+    private double dayReturnSum;
+    private double dayPreviousSum;
+    private double dayCloseSum;
+
+    // EFFECTS: constructs the index of a sector with no constituents, at the base level
+    public SectorIndex(String sector) {
+        this.sector = sector;
+        this.equalWeightLevel = BASE_LEVEL;
+        this.priceWeightedLevel = BASE_LEVEL;
+    }
+
+    // EFFECTS: returns the sector's name
+    public String getSector() {
+        return this.sector;
+    }
+
+    // EFFECTS: returns the number of stocks in the sector
+    public int getConstituents() {
+        return this.constituents;
+    }
+
+    // EFFECTS: returns the equal-weight index level
+    public double getEqualWeightLevel() {
+        return this.equalWeightLevel;
+    }
+
+    // EFFECTS: returns the price-weighted index level
+    public double getPriceWeightedLevel() {
+        return this.priceWeightedLevel;
+    }
+
+    // EFFECTS: returns the average daily return of the constituents on the last day
+    public double getEqualWeightReturn() {
+        return this.equalWeightReturn;
+    }
+
+    // EFFECTS: returns the daily return of the sum of the constituents' closes on the last day
+    public double getPriceWeightedReturn() {
+        return this.priceWeightedReturn;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts a stock joining the sector
+    void addConstituent() {
+        this.constituents++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts a stock leaving the sector
+    void removeConstituent() {
+        this.constituents--;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts accumulating a new day
+    void beginDay() {
+        this.dayCount = 0;
+        this.dayReturnSum = 0;
+        this.dayPreviousSum = 0;
+        this.dayCloseSum = 0;
+    }
+
+    // REQUIRES: previousClose > 0
+    // MODIFIES: this
+    // EFFECTS: adds a constituent's previous and new close to the day being accumulated
+    void add(double previousClose, double close) {
+        this.dayCount++;
+        this.dayReturnSum += (close - previousClose) / previousClose;
+        this.dayPreviousSum += previousClose;
+        this.dayCloseSum += close;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the levels by the returns of the day accumulated; a day no constituent reported leaves them
+    // unchanged
+    void endDay() {
+        if (this.dayCount == 0) {
+            this.equalWeightReturn = 0;
+            this.priceWeightedReturn = 0;
+            return;
+        }
+        this.equalWeightReturn = this.dayReturnSum / this.dayCount;
+        this.priceWeightedReturn = (this.dayCloseSum - this.dayPreviousSum) / this.dayPreviousSum;
+        this.equalWeightLevel *= 1 + this.equalWeightReturn;
+        this.priceWeightedLevel *= 1 + this.priceWeightedReturn;
+    }
+
+}
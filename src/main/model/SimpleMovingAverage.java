@@ -0,0 +1,43 @@
+package model;
+
+/*
+Represents the simple moving average of a stock's price: the mean of its last n daily prices.
+ */
+public class SimpleMovingAverage implements Indicator {
+
+    private int period;
+    private RollingWindow window;
+
+    // REQUIRES: period > 0
+    // EFFECTS: constructs the moving average of the last period prices
+    public SimpleMovingAverage(int period) {
+        this.period = period;
+        this.window = new RollingWindow(period);
+    }
+
+    @Override
+    public String getName() {
+        return "SMA(" + period + ")";
+    }
+
+    @Override
+    public void update(double price) {
+        window.add(price);
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    @Override
+    public double getValue() {
+        return isReady() ? window.mean() : Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        window.clear();
+    }
+
+}
@@ -0,0 +1,87 @@
+package model;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/*
+Represents what changed in a portfolio's stocks since its last snapshot was taken, so the next snapshot only takes again
+what changed:
+ - the stocks changed one by one, such as by a trade or a price set by hand, each marked by the stock itself
+ - whether the pool or the holdings were reordered, by a stock joining or leaving them
+ - whether every stock changed at once, as when the market advances a day
+ */
+final class SnapshotChanges {
+
+    private final Set<Stock> changed; // by identity
+    private boolean poolReordered;
+    private boolean holdingsReordered;
+    private boolean allChanged;
+
+    // EFFECTS: constructs an empty set of changes
+    SnapshotChanges() {
+        this.changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    // EFFECTS: returns the stocks changed one by one (read-only)
+    Set<Stock> getChanged() {
+        return Collections.unmodifiableSet(this.changed);
+    }
+
+    // EFFECTS: returns true if the stocks of the pool were added, removed or moved
+    boolean isPoolReordered() {
+        return this.poolReordered;
+    }
+
+    // EFFECTS: returns true if the held stocks were added, removed or moved
+    boolean isHoldingsReordered() {
+        return this.holdingsReordered;
+    }
+
+    // EFFECTS: returns true if every stock may have changed
+    boolean isAllChanged() {
+        return this.allChanged;
+    }
+
+    // EFFECTS: returns true if nothing changed
+    boolean isEmpty() {
+        return !this.allChanged && !this.poolReordered && !this.holdingsReordered && this.changed.isEmpty();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks stock as changed; once every stock changed, only reads, so stocks advanced in parallel may mark
+    // themselves
+    void markChanged(Stock stock) {
+        if (!this.allChanged) {
+            this.changed.add(stock);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks the pool as reordered
+    void markPoolReordered() {
+        this.poolReordered = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks the holdings as reordered
+    void markHoldingsReordered() {
+        this.holdingsReordered = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks every stock as changed
+    void markAllChanged() {
+        this.allChanged = true;
+        this.changed.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets every change, once a snapshot took them
+    void clear() {
+        this.changed.clear();
+        this.poolReordered = false;
+        this.holdingsReordered = false;
+        this.allChanged = false;
+    }
+}
@@ -0,0 +1,101 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/*
+Represents the full-resolution values of a price or PnL history as of one snapshot, as a read-only list. A history only
+ever grows at its end, so the series of successive snapshots of the same history share one array: each series reads a
+range of it, and the next series appends the days added since after that range, where no earlier series reads. Under
+a retention policy the history also drops its oldest full-resolution days; the next series then starts that many
+values further into the array, so a sliding window is not copied again every day. A series is never changed once
+published; only values no published series reads are ever written.
+ */
+final class SnapshotSeries extends AbstractList<Double> implements RandomAccess {
+
+    private final PriceHistory source;
+    private final double[] values; // shared with the later series of source
+    private final int offset; // [offset, offset + size) of values are this series' values
+    private final int size;
+    private final int firstDay; // the first day of source kept at full resolution when this series was taken
+
+    // EFFECTS: constructs the series of the size values of values from offset on, taken from source
+    private SnapshotSeries(PriceHistory source, double[] values, int offset, int size, int firstDay) {
+        this.source = source;
+        this.values = values;
+        this.offset = offset;
+        this.size = size;
+        this.firstDay = firstDay;
+    }
+
+    // REQUIRES: previous is null or the latest series taken of its history
+    // MODIFIES: the array shared by previous, past its values
+    // EFFECTS: returns the series of history's full-resolution values: previous itself if history has not changed
+    // since; if previous is a series of history, the values previous still shares with it, followed by the values
+    // appended since; otherwise a copy of history
+    static SnapshotSeries of(PriceHistory history, SnapshotSeries previous) {
+        int size = history.size();
+        int firstDay = history.getFirstRetainedDay();
+        if (previous == null || previous.source != history || !previous.isPrefixOf(firstDay, size)) {
+            double[] values = new double[Math.max(size, 1)];
+            history.copyTo(0, size, values, 0);
+            return new SnapshotSeries(history, values, 0, size, firstDay);
+        }
+        if (previous.firstDay == firstDay && previous.size == size) {
+            return previous;
+        }
+        int dropped = firstDay - previous.firstDay;
+        int kept = previous.size - dropped;
+        double[] values = previous.values;
+        int offset = previous.offset + dropped;
+        if (offset + size > values.length) {
+            values = new double[2 * size];
+            System.arraycopy(previous.values, offset, values, 0, kept);
+            offset = 0;
+        }
+        history.copyTo(kept, size, values, offset + kept);
+        return new SnapshotSeries(history, values, offset, size, firstDay);
+    }
+
+    // EFFECTS: returns true if this series' values, less the days before firstDay, start the full-resolution values
+    // of its history, which now start on firstDay and hold size values
+    private boolean isPrefixOf(int firstDay, int size) {
+        int dropped = firstDay - this.firstDay;
+        return dropped >= 0 && dropped <= this.size && firstDay + size >= this.firstDay + this.size;
+    }
+
+    // EFFECTS: returns the history this series was taken of
+    PriceHistory getSource() {
+        return this.source;
+    }
+
+    // EFFECTS: returns the first day of the history kept at full resolution when this series was taken
+    public int getFirstDay() {
+        return this.firstDay;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // EFFECTS: returns the value at index without boxing it
+    public double getDouble(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[offset + index];
+    }
+
+    // EFFECTS: returns a copy of the values, in order
+    public double[] toDoubleArray() {
+        return Arrays.copyOfRange(values, offset, offset + size);
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/*
+Represents a random source backed by a SplittableRandom. Sources built from the same seed produce the same
+sequence of values, and so do the streams split from them, in the same order. A source can also be derived from a
+seed and an index, for work items that must draw the same values whichever order or thread they run in.
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final SplittableRandom random;
+
+    // EFFECTS: constructs an unseeded random source
+    public SplittableRandomSource() {
+        this(new SplittableRandom());
+    }
+
+    // EFFECTS: constructs a random source seeded with seed
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    // EFFECTS: returns a random source for the work item with the given index, only depending on seed and index;
+    // the seed and index are mixed together, so the sources of neighbouring indexes draw unrelated sequences (adding
+    // a multiple of SplittableRandom's gamma to the seed would only shift one sequence along another)
+    public static SplittableRandomSource forIndex(long seed, long index) {
+        return new SplittableRandomSource(mix64(seed + mix64(index + GOLDEN_GAMMA)));
+    }
+
+    // EFFECTS: returns z with its bits mixed by the MurmurHash3 64-bit finalizer (Stafford's variant 13)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // EFFECTS: constructs a random source drawing from random
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public double nextDouble(double origin, double bound) {
+        return random.nextDouble(origin, bound);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+
+}
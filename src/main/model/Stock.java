@@ -5,7 +5,6 @@ import org.json.JSONObject;
 import persistence.Writable;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /*
 Represents a Stock. A stock has some key fields like:
@@ -15,6 +14,14 @@ Represents a Stock. A stock has some key fields like:
  - a history of prices
  - daily change in price (%)
  - profit (predicted and realized)
+ - technical indicators, updated as prices are added to the history
+The current price, buy price, shares owned, daily variation and potential profit are not held by the stock itself:
+the stock is a view over one row of a MarketColumns, which holds them column by column.
+A stock is either an instrument, traded in a market, or a holding of an instrument by one portfolio of a shared
+market. A holding keeps only what the portfolio owns (shares, buy price, lots and profits) and reads everything
+else (description, prices, variation and history) from its instrument. That market data is shared by every
+portfolio of the market, so it can't be changed through a holding: only the instrument, advanced by its market,
+changes it.
  */
 public class Stock implements Writable {
 
@@ -25,86 +32,134 @@ public class Stock implements Writable {
     sold by the user in order to produce profit.
     */
 
+    private static final int MIN_ORIGINAL_PRICE = 5;
+    private static final int MAX_ORIGINAL_PRICE = 100;
+
     private String stockName;
     private String stockCode;
     private String stockSector;
 
-    private ArrayList<Double> priceHistory;
+    private PriceHistory priceHistory;
+    private Indicator[] indicators; // updated with every price added to priceHistory
 
     private double originalPrice;
-    private double currentPrice;
-    private int sharesOwned;
-    private double buyPrice;
     private double sellPrice;
     private double stockRealizedProfit;
-    private double stockPotentialProfit;
-    private double stockDailyVariation;
+
+    private MarketColumns market; // holds this stock's current price, buy price, shares, variation and profit
+    private int row; // this stock's row in market
+
+    private Stock instrument; // the stock this holds shares of; this stock itself unless it is a holding
+
+    private Position position; // the lots of shares owned; the market row holds their total and average cost
+    private RandomSource randomSource; // this stock's own stream of random draws
+    private PnLAccumulator pnlAccumulator; // running PnL total of the portfolio holding this stock, if any
+    private Market pool; // the market whose pool this stock is in, if any
+    private StockPortfolio holder; // the portfolio holding this stock, if any
 
     // Constructor
 
     // EFFECTS: Constructs a new Stock
     public Stock(String name,String code, String sector) {
+        this(name, code, sector, new SplittableRandomSource());
+    }
+
+    // REQUIRES: price > 0
+    // EFFECTS: Constructs a new Stock with the given original price
+    public Stock(String name, String code, String sector, double price) {
+        this(name, code, sector, price, new SplittableRandomSource());
+    }
+
+    // EFFECTS: Constructs a new Stock that draws its original price and daily variations from randomSource
+    public Stock(String name, String code, String sector, RandomSource randomSource) {
+        this(name, code, sector, randomSource.nextDouble(MIN_ORIGINAL_PRICE, MAX_ORIGINAL_PRICE), randomSource);
+    }
+
+    // EFFECTS: Constructs a new Stock with the given original price, drawing daily variations from randomSource
+    private Stock(String name, String code, String sector, double price, RandomSource randomSource) {
         this.stockName = name;
         this.stockCode = code;
         this.stockSector = sector;
+        this.randomSource = randomSource;
+        this.instrument = this;
 
-        double random;
-        int min = 5;
-        int max = 100;
-        random = ThreadLocalRandom.current().nextDouble(min, max);
-
-        this.originalPrice = random;
-        this.currentPrice = this.originalPrice;
-        priceHistory = new ArrayList<>();
-        priceHistory.add(this.originalPrice); // adds first price at index 0
-        this.sharesOwned = 0;
-        this.buyPrice = 0;
+        this.market = new MarketColumns(1);
+        this.row = market.addRow(this);
+
+        this.originalPrice = price;
+        this.market.setCurrentPrice(row, this.originalPrice);
+        priceHistory = new PriceHistory();
+        priceHistory.append(this.originalPrice); // adds first price at index 0
+        this.indicators = new Indicator[0];
+        this.market.setLastClose(row, this.originalPrice);
         this.sellPrice = 0;
         this.stockRealizedProfit = 0;
-        this.stockPotentialProfit = 0;
-        this.stockDailyVariation = 0;
+        this.position = new Position();
+    }
+
+    // EFFECTS: Constructs a holding of no shares of instrument, in a single-row market of its own
+    Stock(Stock instrument) {
+        this.instrument = instrument;
+        this.market = new MarketColumns(1);
+        this.row = market.addRow(this);
+        this.position = new Position();
     }
 
     // Getters
 
     // EFFECTS: returns the stock name
     public String getStockName() {
-        return this.stockName;
+        return this.instrument.stockName;
     }
 
     // EFFECTS: returns the stock code
     public String getStockCode() {
-        return this.stockCode;
+        return this.instrument.stockCode;
     }
 
     // EFFECTS: returns the stock sector
     public String getStockSector() {
-        return this.stockSector;
+        return this.instrument.stockSector;
     }
 
     // EFFECTS: returns the original price
     public double getOriginalPrice() {
-        return this.originalPrice;
+        return this.instrument.originalPrice;
     }
 
     // EFFECTS: returns the current price
     public double getCurrentPrice() {
-        return this.currentPrice;
+        return this.instrument.market.getCurrentPrice(instrument.row);
+    }
+
+    // EFFECTS: returns the price history (read-only view)
+    public PriceHistory getPriceHistory() {
+        return this.instrument.priceHistory;
+    }
+
+    // EFFECTS: returns the indicators maintained for this stock, in the order they were added
+    public List<Indicator> getIndicators() {
+        return Collections.unmodifiableList(Arrays.asList(this.instrument.indicators));
     }
 
-    // EFFECTS: returns the price history
-    public ArrayList<Double> getPriceHistory() {
-        return this.priceHistory;
+    // EFFECTS: returns the indicator maintained for this stock with the given name, or null if there is none
+    public Indicator getIndicator(String name) {
+        for (Indicator indicator : this.instrument.indicators) {
+            if (indicator.getName().equals(name)) {
+                return indicator;
+            }
+        }
+        return null;
     }
 
     // EFFECTS: returns the number of shares owned
     public int getSharesOwned() {
-        return this.sharesOwned;
+        return this.market.getSharesOwned(row);
     }
 
     // EFFECTS: returns the buy price
     public double getBuyPrice() {
-        return this.buyPrice;
+        return this.market.getBuyPrice(row);
     }
 
     // EFFECTS: returns the sell price
@@ -119,57 +174,104 @@ public class Stock implements Writable {
 
     // EFFECTS: returns the potential profit
     public double getStockPotentialProfit() {
-        return this.stockPotentialProfit;
+        return this.market.getPotentialProfit(row);
     }
 
     // EFFECTS: returns the daily variation
     public double getStockDailyVariation() {
-        return this.stockDailyVariation;
+        return this.instrument.market.getDailyVariation(instrument.row);
+    }
+
+    // EFFECTS: returns the random source this stock draws its variations from
+    public RandomSource getRandomSource() {
+        return this.instrument.randomSource;
+    }
+
+    // EFFECTS: returns the instrument this stock holds shares of; a stock that is not a holding is its own instrument
+    public Stock getInstrument() {
+        return this.instrument;
+    }
+
+    // EFFECTS: returns the position (lots of shares owned) in this stock
+    public Position getPosition() {
+        return this.position;
+    }
+
+    // EFFECTS: returns the market holding this stock's row
+    public MarketColumns getMarket() {
+        return this.market;
+    }
+
+    // EFFECTS: returns this stock's row in its market
+    public int getRow() {
+        return this.row;
     }
 
 
     // Setters
 
+    // EFFECTS: throws UnsupportedOperationException if this stock is a holding, whose market data belongs to its
+    // instrument
+    private void checkInstrument() {
+        if (this.instrument != this) {
+            throw new UnsupportedOperationException("Market data of " + getStockCode()
+                    + " can only be changed through its instrument");
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: sets the stock's name to given value
     public void setStockName(String name) {
+        checkInstrument();
         this.stockName = name;
+        markChanged();
     }
 
     // MODIFIES: this
     // EFFECTS: sets the stock's sector to given value
     public void setStockSector(String sector) {
+        checkInstrument();
         this.stockSector = sector;
+        markChanged();
     }
 
     // MODIFIES: this
     // EFFECTS: sets the stock's code to given value
     public void setStockCode(String code) {
+        checkInstrument();
         this.stockCode = code;
+        markChanged();
     }
 
     // MODIFIES: this
     // EFFECTS: sets the original price
     public void setOriginalPrice(Double price) {
+        checkInstrument();
         this.originalPrice = price;
     }
 
     // MODIFIES: this
     // EFFECTS: sets the current price
     public void setCurrentPrice(Double price) {
-        this.currentPrice = price;
+        checkInstrument();
+        this.market.setCurrentPrice(row, price);
+        markChanged();
     }
 
     // MODIFIES: this
-    // EFFECTS: sets the current price
+    // EFFECTS: sets the number of shares owned, as a single lot at the buy price
     public void setSharesOwned(int shares) {
-        this.sharesOwned = shares;
+        this.market.setSharesOwned(row, shares);
+        this.position.reset(shares, getBuyPrice());
+        markChanged();
     }
 
     // MODIFIES: this
     // EFFECTS: sets the stock's buy price to given value
     public void setBuyPrice(Double buyPrice) {
-        this.buyPrice = buyPrice;
+        this.market.setBuyPrice(row, buyPrice);
+        this.position.reset(getSharesOwned(), buyPrice);
+        markChanged();
     }
 
     // MODIFIES: this
@@ -187,66 +289,254 @@ public class Stock implements Writable {
     // MODIFIES: this
     // EFFECTS: sets the stock's potential profit to given value
     public void setStockPotentialProfit(Double potentialProfit) {
-        this.stockPotentialProfit = potentialProfit;
+        changePotentialProfit(potentialProfit);
     }
 
     // MODIFIES: this
     // EFFECTS: sets the stock's daily change to given value
     public void setStockDailyVariation(Double dailyVariation) {
-        this.stockDailyVariation = dailyVariation;
+        checkInstrument();
+        this.market.setDailyVariation(row, dailyVariation);
+        markChanged();
     }
 
     // MODIFIES: this
-    // EFFECTS: sets the stock's daily change to given value
-    public void setPriceHistory(ArrayList<Double> prices) {
+    // EFFECTS: sets the position in this stock; the shares owned and buy price become its shares and average cost
+    public void setPosition(Position position) {
+        this.position = position;
+        this.market.setSharesOwned(row, position.getShares());
+        if (position.getShares() > 0) {
+            this.market.setBuyPrice(row, position.getAverageCost());
+        }
+        markChanged();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the cost basis method later sales of this stock use
+    public void setCostBasisMethod(CostBasisMethod method) {
+        if (method != this.position.getMethod()) {
+            this.position.setMethod(method);
+            setPosition(this.position);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the random source this stock draws its variations from
+    public void setRandomSource(RandomSource randomSource) {
+        checkInstrument();
+        this.randomSource = randomSource;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the running PnL total this stock reports changes in its potential profit to; null stops
+    // reporting
+    void setPnLAccumulator(PnLAccumulator pnlAccumulator) {
+        this.pnlAccumulator = pnlAccumulator;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the stock's price history to given history
+    public void setPriceHistory(PriceHistory prices) {
+        checkInstrument();
         this.priceHistory = prices;
+        this.market.setLastClose(row, prices.isEmpty() ? getCurrentPrice() : prices.last());
+        for (Indicator indicator : this.indicators) {
+            feed(indicator);
+        }
+        markChanged();
+    }
+
+    // MODIFIES: this, indicator
+    // EFFECTS: maintains indicator for this stock from now on, replacing the indicator with the same name if there
+    // is one; the indicator is reset and fed the full-resolution price history first
+    public void addIndicator(Indicator indicator) {
+        removeIndicator(indicator.getName());
+        feed(indicator);
+        Indicator[] current = this.indicators;
+        Indicator[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = indicator;
+        this.indicators = added;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops maintaining the indicator with the given name, if there is one
+    public void removeIndicator(String name) {
+        checkInstrument();
+        Indicator[] current = this.indicators;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getName().equals(name)) {
+                Indicator[] removed = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, removed, i, current.length - i - 1);
+                this.indicators = removed;
+                return;
+            }
+        }
+    }
+
+    // MODIFIES: indicator
+    // EFFECTS: resets indicator and adds the full-resolution price history to it, oldest first
+    private void feed(Indicator indicator) {
+        indicator.reset();
+        PriceHistory prices = getPriceHistory();
+        for (int i = 0; i < prices.size(); i++) {
+            indicator.update(prices.getDouble(i));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the stock's price history to a copy of the given prices
+    public void setPriceHistory(List<Double> prices) {
+        setPriceHistory(PriceHistory.copyOf(prices));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the market whose pool this stock is in; null once it leaves the pool
+    void setPool(Market pool) {
+        this.pool = pool;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the portfolio holding this stock; null once it is no longer held
+    void setHolder(StockPortfolio holder) {
+        this.holder = holder;
+    }
+
+    // MODIFIES: the market whose pool this stock is in and the portfolio holding it
+    // EFFECTS: tells them this stock changed, so their next snapshots take it again
+    private void markChanged() {
+        if (this.pool != null) {
+            this.pool.stockChanged(this);
+        }
+        if (this.holder != null) {
+            this.holder.stockChanged(this);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks this stock's row as held in a portfolio, or not
+    void setHeld(boolean held) {
+        this.market.setHeld(row, held);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this stock's row, after its market moved it
+    void setRow(int row) {
+        this.row = row;
+    }
+
+    // MODIFIES: this, market, the market currently holding this stock's row
+    // EFFECTS: moves this stock's row into market, keeping its values
+    void moveTo(MarketColumns market) {
+        if (market == this.market) {
+            return;
+        }
+        int newRow = market.addRow(this);
+        market.setCurrentPrice(newRow, this.market.getCurrentPrice(row));
+        market.setBuyPrice(newRow, this.market.getBuyPrice(row));
+        market.setSharesOwned(newRow, this.market.getSharesOwned(row));
+        market.setDailyVariation(newRow, this.market.getDailyVariation(row));
+        market.setPotentialProfit(newRow, this.market.getPotentialProfit(row));
+        market.setLastClose(newRow, this.market.getLastClose(row));
+        market.setHeld(newRow, this.market.isHeld(row));
+        this.market.removeRow(row);
+        this.market = market;
+        this.row = newRow;
+    }
+
+    // MODIFIES: this, the market currently holding this stock's row
+    // EFFECTS: moves this stock's row into a single-row market of its own
+    void detachFromMarket() {
+        moveTo(new MarketColumns(1));
     }
 
     // Other methods:
 
     // REQUIRES: currentPrice is non-null
     // MODIFIES: this
-    // EFFECTS: adds current price to historical prices list for this stock
+    // EFFECTS: adds current price to historical prices list for this stock, and updates the stock's indicators with it
     public void addPriceToHistory() {
+        checkInstrument();
         double priceToAdd = this.getCurrentPrice(); // Remember first price is added in constructor
-        this.priceHistory.add(priceToAdd);
+        this.priceHistory.append(priceToAdd);
+        this.market.setLastClose(row, priceToAdd);
+        for (Indicator indicator : this.indicators) {
+            indicator.update(priceToAdd);
+        }
+        markChanged();
     }
 
     // MODIFIES: this
-    // EFFECTS: updates the current price based on a given percentage
+    // EFFECTS: updates the current price based on a given percentage, and the stock's profit / loss with it
     public void updatePrice(double percentage) {
+        checkInstrument();
         double newPrice = this.getCurrentPrice();
         newPrice = newPrice + (newPrice * percentage);
-        this.currentPrice = newPrice;
+        this.market.setCurrentPrice(row, newPrice);
+        markChanged();
+        updateProfitSoFar();
     }
 
     // MODIFIES: this
     // EFFECTS: updates the stock's profit / loss
     public void updateProfitSoFar() {
-        this.stockPotentialProfit = (this.currentPrice - this.buyPrice) * this.sharesOwned;
+        changePotentialProfit((getCurrentPrice() - getBuyPrice()) * getSharesOwned());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the potential profit and reports the change to the running PnL total, if any
+    private void changePotentialProfit(double potentialProfit) {
+        if (this.pnlAccumulator != null) {
+            this.pnlAccumulator.add(potentialProfit - getStockPotentialProfit());
+        }
+        this.market.setPotentialProfit(row, potentialProfit);
+        markChanged();
     }
 
     // MODIFIES: this
     // EFFECTS: compares yesterday's price with the current
     public void updateDailyVariation() {
-        this.stockDailyVariation = (this.currentPrice - this.priceHistory.get(priceHistory.size() - 1))
-                / this.priceHistory.get(priceHistory.size() - 1);
+        double previousPrice = getPriceHistory().last();
+        setStockDailyVariation((getCurrentPrice() - previousPrice) / previousPrice);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: advances this stock by one trading day: updates the price by percentage, then the daily variation
+    // and the price history
+    public void advanceDay(double percentage) {
+        updatePrice(percentage);
+        updateDailyVariation();
+        addPriceToHistory();
     }
 
     // REQUIRES: i > 0
     // MODIFIES: this
-    // EFFECTS: buys i shares, registers BuyPrice
+    // EFFECTS: buys i shares at the current price as a new lot; the buy price becomes the average price paid per
+    // share owned
     public void buyShares(int i) {
-        this.sharesOwned = i;
-        this.buyPrice = this.currentPrice;
+        this.position.buy(i, getCurrentPrice());
+        setPosition(this.position);
+        updateProfitSoFar();
     }
 
+    // REQUIRES: 0 <= i <= shares owned
     // MODIFIES: this
-    // EFFECTS: registers sellPrice, sets profit/loss for this stock, sets shares of this Stock to 0
-    public void sellShares() {
-        this.sellPrice = this.currentPrice;
-        this.stockRealizedProfit = (this.sellPrice - this.buyPrice) * this.sharesOwned;
-        this.sharesOwned = 0;
+    // EFFECTS: sells i shares at the current price out of the lots picked by the cost basis method: registers
+    // sellPrice, sets the profit/loss of this sale and keeps the remaining shares. Returns the price paid for the
+    // shares sold.
+    public double sellShares(int i) {
+        double costBefore = this.position.getCostBasis();
+        this.sellPrice = getCurrentPrice();
+        this.stockRealizedProfit = this.position.sell(i, this.sellPrice);
+        setPosition(this.position);
+        updateProfitSoFar();
+        return costBefore - this.position.getCostBasis();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: registers sellPrice, sets profit/loss for this stock, sets shares of this Stock to 0. Returns the
+    // price paid for the shares sold.
+    public double sellShares() {
+        return sellShares(getSharesOwned());
     }
 
     // TODO: create toJson() method in Stock class
@@ -254,19 +544,34 @@ public class Stock implements Writable {
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("name", stockName);
-        json.put("code", stockCode);
-        json.put("sector", stockSector);
-        json.put("original_price", originalPrice);
-        json.put("current_price", currentPrice);
-        json.put("shares_owned", sharesOwned);
-        json.put("buy_price", buyPrice);
+        json.put("name", getStockName());
+        json.put("code", getStockCode());
+        json.put("sector", getStockSector());
+        json.put("original_price", getOriginalPrice());
+        json.put("current_price", getCurrentPrice());
+        json.put("shares_owned", getSharesOwned());
+        json.put("buy_price", getBuyPrice());
         json.put("sell_price", sellPrice);
         json.put("realized_profit", stockRealizedProfit);
-        json.put("potential_profit", stockPotentialProfit);
-        json.put("daily_variation", stockDailyVariation);
-        json.put("price_history", priceHistory); //don't know it this will work, check back later.
+        json.put("potential_profit", getStockPotentialProfit());
+        json.put("daily_variation", getStockDailyVariation());
+        json.put("price_history", getPriceHistory()); //don't know it this will work, check back later.
+        json.put("price_history_retention", getPriceHistory().retentionToJson());
+        json.put("cost_basis_method", position.getMethod().name());
+        json.put("lots", lotsToJson());
         return json;
     }
 
+    // EFFECTS: returns the open lots of this stock's position as a JSON array, oldest first
+    private JSONArray lotsToJson() {
+        JSONArray jsonArray = new JSONArray();
+        for (int i = 0; i < position.getLotCount(); i++) {
+            JSONObject lot = new JSONObject();
+            lot.put("shares", position.getLotShares(i));
+            lot.put("price", position.getLotPrice(i));
+            jsonArray.put(lot);
+        }
+        return jsonArray;
+    }
+
 }
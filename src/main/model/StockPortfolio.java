@@ -5,28 +5,54 @@ import org.json.JSONObject;
 import persistence.Writable;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 /*
 Represents a StockPortfolio. A stock portfolio has some key fields:
  - a name
  - a list of stocks (the portfolio itself)
- - a pool of stocks (available stocks that can be bought)
+ - a market (the pool of available stocks that can be bought, and the market state that determines their
+   variation)
  - a balance (altered by buying and selling stocks)
  - a trading day (changes according to time progression)
- - a market state (determines variation of stock prices)
  - total Profit and Loss (determined by difference in buy and sell prices of all shares)
+ - its exposure to each sector (the market value of its holdings in that sector)
+A portfolio built on its own trades in a market of its own. Portfolios built on a shared market trade in it
+together: the market advances once per day for all of them, and each portfolio holds its stocks as holdings of the
+market's stocks, so it only stores the positions it has.
  */
 public class StockPortfolio implements Writable {
 
+    private static final double PNL_CHECK_TOLERANCE = 1e-9;
+
     private String stockPortfolioName;
     private List<Stock> stockPortfolio;
-    private List<Stock> stockPool;
+    private Map<String, Stock> portfolioByCode; // index of stockPortfolio by stock code
+    private Map<Stock, Integer> portfolioPositions; // position of each stock in stockPortfolio
+    private Market market; // the pool of stocks this portfolio trades, shared with other portfolios or its own
+    private boolean sharedMarket; // true if stocks are held as holdings of the market's stocks
+    private MarketColumns holdings; // columnar state of the holdings, when the market is shared
     private double stockPortfolioBalance;
     private int tradingDay;
-    private String marketState;
     private double totalPNL;
-    private ArrayList<Double> pnlHistory; // TODO: remove if breaks
+    private double realizedPNL; // profit realized by all sales so far
+    private CostBasisMethod costBasisMethod; // how sales pick the lots of held stocks they sell from
+    private PriceHistory pnlHistory;
+    private RetentionPolicy historyRetention; // null when price and PnL histories are kept in full
+    private PnLAccumulator pnlAccumulator; // running sum of the potential profits of held stocks
+    private SectorExposure sectorExposure; // market value of held stocks by sector
+    private PositionLedger ledger; // balance and positions by trading day
+    private boolean pnlCheckEnabled; // debug mode: cross-check the running PnL against a full recomputation
+    private RandomSource randomSource; // portfolio-wide draws; the market's own source unless the market is shared
+    private Map<String, OrderBook> orderBooks; // resting orders by stock code; books are dropped once empty
+    private Map<Long, Order> openOrders; // resting orders by id, in the order they were placed
+    private long nextOrderId;
+    private CommandRecorder recorder; // null when the commands executed are not recorded
+    private boolean eventLogging; // true if the actions taken are logged to the EventLog
+    private boolean snapshotPublishing; // true if a snapshot is published after every change
+    private AtomicReference<PortfolioSnapshot> snapshot; // the latest snapshot published, or null
+    private boolean snapshotsDeferred; // true while a batch of changes runs, which publishes once at its end
+    private SnapshotChanges snapshotChanges; // what changed since the latest snapshot published
 
     // Getters:
     // EFFECTS: returns the portfolio's name
@@ -39,6 +65,26 @@ public class StockPortfolio implements Writable {
         return totalPNL;
     }
 
+    // EFFECTS: returns the profit realized by all sales so far
+    public double getRealizedPNL() {
+        return this.realizedPNL;
+    }
+
+    // EFFECTS: returns the cost basis method sales of held stocks use
+    public CostBasisMethod getCostBasisMethod() {
+        return this.costBasisMethod;
+    }
+
+    // EFFECTS: returns the market value of the portfolio's holdings in each sector
+    public SectorExposure getSectorExposure() {
+        return this.sectorExposure;
+    }
+
+    // EFFECTS: returns the ledger of the portfolio's balance and positions by trading day
+    public PositionLedger getPositionLedger() {
+        return this.ledger;
+    }
+
     // EFFECTS: returns the list of stocks in the portfolio
     public List<Stock> getStockPortfolio() {
         return this.stockPortfolio;
@@ -46,7 +92,17 @@ public class StockPortfolio implements Writable {
 
     // EFFECTS: returns the list of stocks in the stock pool
     public List<Stock> getStockPool() {
-        return this.stockPool;
+        return this.market.getStockPool();
+    }
+
+    // EFFECTS: returns the market this portfolio trades in
+    public Market getMarket() {
+        return this.market;
+    }
+
+    // EFFECTS: returns true if this portfolio trades in a market shared with other portfolios
+    public boolean isSharedMarket() {
+        return this.sharedMarket;
     }
 
     // EFFECTS: returns portfolio balance
@@ -61,7 +117,17 @@ public class StockPortfolio implements Writable {
 
     // EFFECTS: returns market state
     public String getMarketState() {
-        return this.marketState;
+        return this.market.getMarketRegime().getLabel();
+    }
+
+    // EFFECTS: returns market regime
+    public MarketRegime getMarketRegime() {
+        return this.market.getMarketRegime();
+    }
+
+    // EFFECTS: returns the transition matrix used to determine the next market regime
+    public RegimeTransitionMatrix getRegimeTransitions() {
+        return this.market.getRegimeTransitions();
     }
 
     // EFFECTS: returns size of stock portfolio
@@ -69,8 +135,67 @@ public class StockPortfolio implements Writable {
         return this.stockPortfolio.size();
     }
 
-    // EFFECTS: gets PNL history
-    public ArrayList<Double> getPnLHistory() {
+    // EFFECTS: returns the parallel progression mode, or null if days are progressed sequentially
+    public ParallelProgression getParallelProgression() {
+        return this.market.getParallelProgression();
+    }
+
+    // EFFECTS: returns true if the running PnL total is cross-checked against a full recomputation
+    public boolean isPnLCheckEnabled() {
+        return this.pnlCheckEnabled;
+    }
+
+    // EFFECTS: returns true if the actions taken are logged to the EventLog
+    public boolean isEventLogging() {
+        return this.eventLogging;
+    }
+
+    // EFFECTS: returns true if a snapshot of the portfolio is published after every change
+    public boolean isSnapshotPublishing() {
+        return this.snapshotPublishing;
+    }
+
+    // EFFECTS: returns the latest snapshot of the portfolio. While snapshots are published this is the snapshot
+    // published after the last change, safe to read from any thread while the portfolio keeps changing; otherwise a
+    // snapshot is taken now, which only the thread changing the portfolio may do.
+    public PortfolioSnapshot getSnapshot() {
+        PortfolioSnapshot published = this.snapshot.get();
+        return published != null ? published : PortfolioSnapshot.take(this, null, null);
+    }
+
+    // EFFECTS: returns what changed since the latest snapshot published
+    SnapshotChanges getSnapshotChanges() {
+        return this.snapshotChanges;
+    }
+
+    // EFFECTS: returns the retention policy of the pool's price histories and the PnL history, or null if they are
+    // kept in full
+    public RetentionPolicy getHistoryRetention() {
+        return this.historyRetention;
+    }
+
+    // EFFECTS: returns the portfolio's random source
+    public RandomSource getRandomSource() {
+        return this.randomSource;
+    }
+
+    // EFFECTS: returns the resting orders of all stocks, in the order they were placed
+    public List<Order> getOpenOrders() {
+        return new ArrayList<>(this.openOrders.values());
+    }
+
+    // EFFECTS: returns the order book of the stock with the given code, or null if it has no resting orders
+    public OrderBook getOrderBook(String code) {
+        return this.orderBooks.get(code);
+    }
+
+    // EFFECTS: returns where the commands this portfolio executes are recorded, or null if they are not
+    public CommandRecorder getCommandRecorder() {
+        return this.recorder;
+    }
+
+    // EFFECTS: gets PNL history (read-only view)
+    public PriceHistory getPnLHistory() {
         return this.pnlHistory;
     }
 
@@ -81,22 +206,89 @@ public class StockPortfolio implements Writable {
         this.stockPortfolioName = name;
     }
 
+    // MODIFIES: this
+    // EFFECTS: records every command this portfolio executes from now on in recorder; null stops recording. While
+    // commands are recorded, each day progression reseeds the market from a seed drawn from this portfolio's random
+    // source, so the recorded commands repeat it exactly.
+    public void setCommandRecorder(CommandRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts or stops publishing a snapshot of the portfolio after every trade, order, loan and day settled,
+    // publishing one at once when starting; off by default, so that portfolios no one reads from other threads, such
+    // as those of backtests, don't pay for snapshots
+    public void setSnapshotPublishing(boolean enabled) {
+        this.snapshotPublishing = enabled;
+        this.market.trackSnapshotChanges(this.snapshotChanges, enabled);
+        this.snapshotChanges.clear();
+        this.snapshot.set(null);
+        publishSnapshot();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: defers publishing snapshots while deferred is true, so that a batch of changes publishes a single
+    // snapshot by calling publishSnapshot at its end
+    void setSnapshotsDeferred(boolean deferred) {
+        this.snapshotsDeferred = deferred;
+    }
+
     // MODIFIES: this
     // EFFECTS: sets this stock portfolio's balance
     public void setStockPortfolioBalance(double balance) {
         this.stockPortfolioBalance = balance;
+        this.ledger.recordBalance(this.tradingDay, balance);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the profit realized by all sales so far
+    public void setRealizedPNL(double pnl) {
+        this.realizedPNL = pnl;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the cost basis method sales of held stocks use, now and for stocks added later
+    public void setCostBasisMethod(CostBasisMethod method) {
+        this.costBasisMethod = method;
+        for (Stock s : this.stockPortfolio) {
+            s.setCostBasisMethod(method);
+        }
+        record(JournalCommand.costBasis(method));
     }
 
     // MODIFIES: this
-    // EFFECTS: sets this stock portfolio's trading day
+    // EFFECTS: sets this stock portfolio's trading day; the position ledger starts over from that day, with the
+    // current balance and positions
     public void setTradingDay(int day) {
         this.tradingDay = day;
+        this.ledger.restart(day);
+        this.ledger.recordBalance(day, this.stockPortfolioBalance);
+        for (Stock s : this.stockPortfolio) {
+            this.ledger.recordPosition(day, s);
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: sets this stock portfolio's market state
+    // EFFECTS: sets this stock portfolio's market state from its label; throws IllegalArgumentException if the
+    // label is not one of the market regimes' labels
     public void setMarketState(String state) {
-        this.marketState = state;
+        MarketRegime regime = MarketRegime.fromLabel(state);
+        if (regime == null) {
+            throw new IllegalArgumentException("Unknown market state: " + state);
+        }
+        this.market.setMarketRegime(regime);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this stock portfolio's market regime
+    public void setMarketRegime(MarketRegime regime) {
+        this.market.setMarketRegime(regime);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the transition matrix used to determine the next market regime
+    public void setRegimeTransitions(RegimeTransitionMatrix regimeTransitions) {
+        this.market.setRegimeTransitions(regimeTransitions);
     }
 
     // MODIFIES: this
@@ -106,80 +298,212 @@ public class StockPortfolio implements Writable {
     }
 
     // MODIFIES: this
-    // EFFECTS: sets the pnl history to informed array
-    public void setPnlHistory(ArrayList<Double> pnlHist) {
+    // EFFECTS: sets the parallel progression mode used to progress days; null progresses days sequentially
+    public void setParallelProgression(ParallelProgression parallelProgression) {
+        this.market.setParallelProgression(parallelProgression);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: enables or disables the debug cross-check of the running PnL total in calculateTotalPNL
+    public void setPnLCheckEnabled(boolean enabled) {
+        this.pnlCheckEnabled = enabled;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: enables or disables logging the actions taken to the EventLog; portfolios run by the thousand, such as
+    // those of a parameter sweep, turn it off
+    public void setEventLogging(boolean enabled) {
+        this.eventLogging = enabled;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the portfolio's random source; unless the market is shared, it becomes the market's random
+    // source too and every stock in the pool, in order, gets a new stream split from it
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+        if (!this.sharedMarket) {
+            this.market.setRandomSource(randomSource);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the pnl history to informed history
+    public void setPnlHistory(PriceHistory pnlHist) {
         this.pnlHistory = pnlHist;
+        if (this.historyRetention != null) {
+            this.pnlHistory.setRetentionPolicy(this.historyRetention);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the pnl history to a copy of informed list
+    public void setPnlHistory(List<Double> pnlHist) {
+        setPnlHistory(PriceHistory.copyOf(pnlHist));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies a retention policy to the price history of every stock in the pool (including stocks added
+    // later) and to the PnL history, bounding the memory they hold; null keeps future days in full
+    public void setHistoryRetention(RetentionPolicy retention) {
+        this.historyRetention = retention;
+        this.pnlHistory.setRetentionPolicy(retention);
+        this.market.setHistoryRetention(retention);
     }
 
     // EFFECTS: constructs new Portfolio
     public StockPortfolio(String name) {
+        this(name, new SplittableRandomSource());
+    }
+
+    // EFFECTS: constructs new Portfolio seeded with seed; portfolios built from the same seed and given the same
+    // actions evolve identically
+    public StockPortfolio(String name, long seed) {
+        this(name, new SplittableRandomSource(seed));
+    }
+
+    // EFFECTS: constructs new Portfolio drawing all of its random values from randomSource, trading in a market of
+    // its own
+    public StockPortfolio(String name, RandomSource randomSource) {
+        this(name, new Market(randomSource), randomSource, false);
+    }
+
+    // MODIFIES: market
+    // EFFECTS: constructs new Portfolio trading in the given market, shared with the other portfolios trading in it;
+    // the portfolio draws its own random values from a stream split from the market's
+    public StockPortfolio(String name, Market market) {
+        this(name, market, market.getRandomSource().split(), true);
+    }
+
+    // MODIFIES: market
+    // EFFECTS: constructs new Portfolio trading in market, drawing its own random values from randomSource
+    private StockPortfolio(String name, Market market, RandomSource randomSource, boolean sharedMarket) {
+        this.randomSource = randomSource;
+        this.pnlAccumulator = new PnLAccumulator();
+        this.sectorExposure = new SectorExposure();
         this.tradingDay = 0;
         this.stockPortfolioName = name;
         this.stockPortfolio = new ArrayList<>();
-        this.stockPool = new ArrayList<>();
-        constructInitialStockPool();
+        this.portfolioByCode = new HashMap<>();
+        this.portfolioPositions = new HashMap<>();
+        this.market = market;
+        this.sharedMarket = sharedMarket;
+        this.holdings = sharedMarket ? MarketColumns.forHoldings() : null;
+        this.orderBooks = new HashMap<>();
+        this.openOrders = new LinkedHashMap<>();
+        this.nextOrderId = 1;
+        this.costBasisMethod = CostBasisMethod.FIFO;
         this.stockPortfolioBalance = 5000; // each user starts with 5000 dollars
-        this.marketState = "Neutral";
-        this.pnlHistory = new ArrayList<>(); // TODO: remove if breaks something
+        this.ledger = new PositionLedger(0);
+        this.ledger.recordBalance(0, this.stockPortfolioBalance);
+        this.pnlHistory = new PriceHistory();
+        this.eventLogging = true;
+        this.snapshot = new AtomicReference<>();
+        this.snapshotChanges = new SnapshotChanges();
+        market.addPortfolio(this);
     }
 
+    // MODIFIES: this
     // EFFECTS: Creates initial stocks for the stock pool
     public void constructInitialStockPool() {
-        Stock apple = new Stock("Apple", "AAPL", "Technology");
-        Stock google = new Stock("Google", "GOOGL", "Technology");
-        Stock meta = new Stock("Facebook", "META", "Technology");
-        Stock pfizer = new Stock("Pfizer", "PFE", "Healthcare");
-        Stock astraZeneca = new Stock("Astra Zeneca", "AZN", "Healthcare");
-        Stock hsbc = new Stock("HSBC Holdings", "HSBC", "Financial");
-        Stock jpMorgan = new Stock("JP Morgan Chase", "JPM", "Financial");
-        Stock shell = new Stock("Shell PLC", "SHEL", "Energy");
-        Stock exxon = new Stock("Exxon Mobil", "XOM", "Energy");
-        Stock cocaCola = new Stock("Coca-Cola Company", "KO", "Consumer Goods");
-        Stock pepsiCola = new Stock("Pepsi Cola", "PEP", "Consumer Goods");
-        stockPool.add(apple);
-        stockPool.add(google);
-        stockPool.add(meta);
-        stockPool.add(pfizer);
-        stockPool.add(astraZeneca);
-        stockPool.add(hsbc);
-        stockPool.add(jpMorgan);
-        stockPool.add(shell);
-        stockPool.add(exxon);
-        stockPool.add(cocaCola);
-        stockPool.add(pepsiCola);
-    }
-
-    // MODIFIES: this
-    // EFFECTS: adds Stock to the portfolio
+        this.market.constructInitialStockPool();
+    }
+
+    // MODIFIES: this, stocks
+    // EFFECTS: replaces the stock pool with the given stocks, in order (a later stock replaces an earlier one with
+    // the same name). Held stocks stay in the portfolio. Used to load large instrument universes; the initial pool
+    // is built by constructInitialStockPool.
+    public void loadStockPool(Collection<Stock> stocks) {
+        this.market.loadStocks(stocks);
+        logEvent("Loaded a pool of " + getStockPool().size() + " stocks;");
+    }
+
+    // REQUIRES: if the market is shared, stock is not held by another portfolio
+    // MODIFIES: this, stock
+    // EFFECTS: adds Stock to the portfolio, unless that same Stock is already held; the stock's sales use this
+    // portfolio's cost basis method, its potential profit is added to the running PnL total and the stock reports
+    // later changes to it, and its market value counts towards its sector's exposure
     public void addStock(Stock stock) {
-        this.stockPortfolio.add(stock);
+        if (!this.portfolioPositions.containsKey(stock)) {
+            stock.setCostBasisMethod(this.costBasisMethod);
+            this.portfolioPositions.put(stock, this.stockPortfolio.size());
+            this.stockPortfolio.add(stock);
+            this.portfolioByCode.put(stock.getStockCode(), stock);
+            stock.setHeld(true);
+            stock.setHolder(this);
+            this.snapshotChanges.markHoldingsReordered();
+            this.pnlAccumulator.add(stock.getStockPotentialProfit());
+            stock.setPnLAccumulator(this.pnlAccumulator);
+            this.sectorExposure.update(stock);
+            this.ledger.recordPosition(this.tradingDay, stock);
+        }
     }
 
-    // MODIFIES: this
-    // EFFECTS: add Stock to pool, if it's already there, removes previous stock and re-adds
+    // MODIFIES: this, stock
+    // EFFECTS: add Stock to pool, if it's already there, removes previous stock and re-adds. The stock draws its
+    // daily variations from a new stream split from the market's random source, and its row moves into the
+    // market's columns.
     public void addStockToPool(Stock stock) {
-        List<String> poolStockNames = new ArrayList<String>();
-        for (Stock s : stockPool) {
-            poolStockNames.add(s.getStockName());
-        }
-        if (poolStockNames.contains(stock.getStockName())) {
-            removeStockFromPoolWithName(stock.getStockName());
-            this.stockPool.add(stock);
-        } else {
-            stockPool.add(stock);
-        }
+        this.market.addStock(stock);
     }
 
     // MODIFIES: this
-    // EFFECTS: given a stock, removes it from portfolio
+    // EFFECTS: given a stock, removes it from portfolio and its potential profit from the running PnL total, in
+    // constant time: the last stock of the portfolio takes its place. A holding's row leaves this portfolio's
+    // holdings columns.
     public void removeStock(Stock stock) {
-        this.stockPortfolio.remove(stock);
+        Integer position = stock == null ? null : this.portfolioPositions.remove(stock);
+        if (position != null) {
+            Stock last = this.stockPortfolio.remove(this.stockPortfolio.size() - 1);
+            if (last != stock) {
+                this.stockPortfolio.set(position, last);
+                this.portfolioPositions.put(last, position);
+            }
+            this.portfolioByCode.remove(stock.getStockCode(), stock);
+            stock.setHeld(false);
+            stock.setHolder(null);
+            this.snapshotChanges.markHoldingsReordered();
+            stock.setPnLAccumulator(null);
+            this.pnlAccumulator.add(-stock.getStockPotentialProfit());
+            this.sectorExposure.remove(stock);
+            this.ledger.closePosition(this.tradingDay, stock);
+            if (this.sharedMarket && stock.getMarket() == this.holdings) {
+                stock.detachFromMarket();
+            }
+        }
     }
 
-    // MODIFIES: this
-    // EFFECTS: given a stock's name, removes it from portfolio
+    // MODIFIES: this, the other portfolios trading in the market
+    // EFFECTS: given a stock's name, removes it from the pool; its row leaves the market's columns, and the resting
+    // orders for its code are cancelled once no stock with that code is left in the pool
     public void removeStockFromPoolWithName(String name) {
-        stockPool.removeIf(s -> Objects.equals(name, s.getStockName()));
+        this.market.removeStockWithName(name);
+    }
+
+    // EFFECTS: returns the stock in the pool with the given code, or null if there is none
+    public Stock getStockFromPool(String code) {
+        return this.market.getStock(code);
+    }
+
+    // EFFECTS: returns the stock held in the portfolio with the given code, or null if there is none
+    public Stock getStockFromPortfolio(String code) {
+        return portfolioByCode.get(code);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the stock this portfolio buys shares of instrument through: instrument itself in a market of
+    // its own; in a shared market, the holding of instrument already in the portfolio, or a new holding in this
+    // portfolio's holdings columns
+    private Stock holdingOf(Stock instrument) {
+        if (!this.sharedMarket) {
+            return instrument;
+        }
+        Stock held = this.portfolioByCode.get(instrument.getStockCode());
+        if (held != null && held.getInstrument() == instrument) {
+            return held;
+        }
+        Stock holding = new Stock(instrument);
+        holding.moveTo(this.holdings);
+        return holding;
     }
 
 
@@ -187,39 +511,46 @@ public class StockPortfolio implements Writable {
     // EFFECTS: creates a new stock using a given name, code and sector
     public boolean createNewStock(String stockName, String stockCode, String stockSector) {
         if (this.stockPortfolioBalance >= 1000) {
-            Stock newStock = new Stock(stockName, stockCode, stockSector);
-            newStock.setOriginalPrice(10.0);
-            newStock.setCurrentPrice(10.0);
-            newStock.buyShares(100);
-            this.addStock(newStock);
-            this.stockPool.add(newStock);
-            this.stockPortfolioBalance -= 1000;
-            EventLog.getInstance().logEvent(new Event("Created a new venture business: "
-                    + stockName + " (" + stockCode + ");"));
+            createNewStock(new Stock(stockName, stockCode, stockSector, randomSource.split()));
             return true;
         } else {
-            EventLog.getInstance().logEvent(new Event("Failed to create new business, insufficient funds;"));
+            logEvent("Failed to create new business, insufficient funds;");
             return false;
         }
     }
 
-    // REQUIRES: shares > 0
+    // REQUIRES: balance >= 1000
+    // MODIFIES: this, newStock
+    // EFFECTS: adds newStock to the pool at a price of 10 and buys 100 shares of it for 1000
+    void createNewStock(Stock newStock) {
+        double firstPrice = newStock.getPriceHistory().getDouble(0);
+        newStock.setOriginalPrice(10.0);
+        newStock.setCurrentPrice(10.0);
+        this.addStockToPool(newStock);
+        buyShares(newStock, 100);
+        changeBalance(-1000);
+        logEvent("Created a new venture business: " + newStock.getStockName() + " (" + newStock.getStockCode() + ");");
+        record(JournalCommand.createStock(newStock.getStockName(), newStock.getStockCode(),
+                newStock.getStockSector(), firstPrice));
+        publishSnapshot();
+    }
+
     // MODIFIES: this
-    // EFFECTS: buys n shares of the stock, registers buy price and adds stock to portfolio.
+    // EFFECTS: buys n shares of the stock as a new lot, registers buy price and adds stock to portfolio. Returns
+    // false if the code is incorrect, shares is not positive or the balance is insufficient.
     public boolean buyStock(String code, int shares) {
         boolean returnVal = false;
-        String desc = "Failed at buying stock (not enough balance or incorrect code);";
-        for (Stock s : this.stockPool) {
-            if (Objects.equals(s.getStockCode(), code)
-                    && (s.getCurrentPrice() * shares) < this.stockPortfolioBalance) {
-                s.buyShares(shares);
-                addStock(s);
-                stockPortfolioBalance -= s.getCurrentPrice() * shares;
-                desc = "Bought " + shares + " shares of a stock: " + code + ";";
-                returnVal = true;
-            }
+        String desc = "Failed at buying stock (not enough balance, incorrect code or shares);";
+        Stock s = this.market.getStock(code);
+        if (s != null && shares > 0 && (s.getCurrentPrice() * shares) < this.stockPortfolioBalance) {
+            buyShares(s, shares);
+            changeBalance(-s.getCurrentPrice() * shares);
+            desc = "Bought " + shares + " shares of a stock: " + code + ";";
+            returnVal = true;
+            record(JournalCommand.buy(code, shares));
+            publishSnapshot();
         }
-        EventLog.getInstance().logEvent(new Event(desc));
+        logEvent(desc);
         return returnVal;
     }
 
@@ -228,126 +559,130 @@ public class StockPortfolio implements Writable {
     // EFFECTS: given a certain stock code, sells all shares and adds/subtracts value from balance, sets the selling
     // price and removes stock from stock portfolio
     public boolean sellStock(String code) {
-        Stock toBeRemoved = null;
         boolean returnVal = false;
         String desc = "Failed at selling stock (not currently held);";
-        for (Stock s : this.stockPortfolio) {
-            if (Objects.equals(s.getStockCode(), code)) {
-                this.stockPortfolioBalance += s.getBuyPrice() * s.getSharesOwned();
-                s.sellShares();
-                this.stockPortfolioBalance += s.getStockRealizedProfit();
-                toBeRemoved = s;
-                desc = "Sold a stock: " + code + ";";
-                returnVal = true;
-            }
+        Stock s = this.portfolioByCode.get(code);
+        if (s != null) {
+            int shares = s.getSharesOwned();
+            sellShares(s, shares);
+            removeStock(s);
+            desc = "Sold a stock: " + code + ";";
+            returnVal = true;
+            record(JournalCommand.sell(code, shares));
+            publishSnapshot();
         }
-        removeStock(toBeRemoved);
-        EventLog.getInstance().logEvent(new Event(desc));
+        logEvent(desc);
         return returnVal;
     }
 
+    // REQUIRES: shares > 0
     // MODIFIES: this
-    // EFFECTS: returns market feeling, used to determine stock variation range and thus update prices
+    // EFFECTS: given a certain stock code, sells the given number of shares out of the lots picked by the cost basis
+    // method, adding the sale's value to the balance; the stock leaves the portfolio once no shares are left.
+    // Returns false if the stock is not held or fewer shares are held.
+    public boolean sellStock(String code, int shares) {
+        Stock s = this.portfolioByCode.get(code);
+        if (s == null || shares <= 0 || shares > s.getSharesOwned()) {
+            logEvent("Failed at selling stock (not enough shares held);");
+            return false;
+        }
+        sellShares(s, shares);
+        if (s.getSharesOwned() == 0) {
+            removeStock(s);
+        }
+        logEvent("Sold " + shares + " shares of a stock: " + code + ";");
+        record(JournalCommand.sell(code, shares));
+        publishSnapshot();
+        return true;
+    }
+
+    // REQUIRES: shares > 0, instrument is in the stock pool
+    // MODIFIES: this, instrument
+    // EFFECTS: buys shares of instrument at its current price as a new lot of its holding, adding the holding to the
+    // portfolio; the balance is left to the caller
+    private void buyShares(Stock instrument, int shares) {
+        Stock holding = holdingOf(instrument);
+        holding.buyShares(shares);
+        addStock(holding);
+        this.sectorExposure.update(holding);
+        this.ledger.recordPosition(this.tradingDay, holding);
+    }
+
+    // REQUIRES: s is held, 0 <= shares <= shares of s owned
+    // MODIFIES: this, s
+    // EFFECTS: sells shares of s, adding the price paid for them and the profit realized to the balance
+    private void sellShares(Stock s, int shares) {
+        changeBalance(s.sellShares(shares));
+        changeBalance(s.getStockRealizedProfit());
+        this.realizedPNL += s.getStockRealizedProfit();
+        this.sectorExposure.update(s);
+        this.ledger.recordPosition(this.tradingDay, s);
+        this.ledger.addRealizedProfit(this.tradingDay, s, s.getStockRealizedProfit());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns market feeling, used to determine stock variation range and thus update prices. The next
+    // regime is drawn from the regime transition matrix.
     public boolean determineMarketState() {
-        List<String> possibleStates = new ArrayList<>();
-        possibleStates.add("Very Confident");
-        possibleStates.add("Confident");
-        possibleStates.add("Neutral");
-        possibleStates.add("Afraid");
-        possibleStates.add("Very Afraid");
-
-        int randomIndex = getRandomIndex(possibleStates.size());
-        this.marketState = possibleStates.get(randomIndex);
+        this.market.determineMarketRegime();
         return true;
     }
 
     // EFFECTS: based on market feeling obtained, generate minimum value for Stock variations will be extracted.
     public double determineMinimumMarketRange(String marketState) {
-        double minVar = 0;
-        switch (marketState) {
-            case "Very Confident":
-                minVar = 0.1;
-                break;
-            case "Confident":
-                minVar = 0.05;
-                break;
-            case "Neutral":
-                minVar = -0.05;
-                break;
-            case "Afraid":
-                minVar = -0.1;
-                break;
-            case "Very Afraid":
-                minVar = -0.3;
-                break;
-        }
-        return minVar;
+        MarketRegime regime = MarketRegime.fromLabel(marketState);
+        return regime == null ? 0 : regime.getMinVariation();
     }
 
     // EFFECTS: based on market feeling obtained, generate maximum value for Stock variations will be extracted.
     public double determineMaximumMarketRange(String marketState) {
-        double maxVar = 0;
-        switch (marketState) {
-            case "Very Confident":
-                maxVar = 0.3;
-                break;
-            case "Confident":
-                maxVar = 0.1;
-                break;
-            case "Neutral":
-                maxVar = 0.05;
-                break;
-            case "Afraid":
-                maxVar = -0.05;
-                break;
-            case "Very Afraid":
-                maxVar = -0.1;
-                break;
-        }
-        return maxVar;
+        MarketRegime regime = MarketRegime.fromLabel(marketState);
+        return regime == null ? 0 : regime.getMaxVariation();
     }
 
     // EFFECTS: determines if the outlier effect will be applied.
     public boolean determineOutlierEffect() {
-        Random rand = new Random();
-        double randomValue = rand.nextDouble();
-        double trueThreshold = 0.05; // 5%
-        return randomValue < trueThreshold;
+        return determineOutlierEffect(this.randomSource);
+    }
+
+    // MODIFIES: random
+    // EFFECTS: determines if the outlier effect will be applied, drawing from random
+    public boolean determineOutlierEffect(RandomSource random) {
+        return this.market.determineOutlierEffect(random);
     }
 
     // EFFECTS: determines actual stock variation
     public double determineActualVariation() {
-        double variationPercent;
-        if (determineOutlierEffect()) {
-            variationPercent = ThreadLocalRandom.current().nextDouble(-1, 5);
-        } else {
-            String marketState = this.marketState;
-            double minVar = determineMinimumMarketRange(marketState);
-            double maxVar = determineMaximumMarketRange(marketState);
-            variationPercent = ThreadLocalRandom.current().nextDouble(minVar, maxVar);
-        }
-        return variationPercent;
+        return determineActualVariation(this.randomSource);
     }
 
-    // EFFECTS: generates a random index within an array's length
-    public static int getRandomIndex(int size) {
-        Random rand = new Random();
-        return rand.nextInt(size);
+    // MODIFIES: stock
+    // EFFECTS: determines actual variation of the given stock, drawing from the stock's own random source
+    public double determineActualVariation(Stock stock) {
+        return this.market.determineActualVariation(stock);
+    }
+
+    // MODIFIES: random
+    // EFFECTS: determines actual stock variation, drawing from random
+    public double determineActualVariation(RandomSource random) {
+        return this.market.determineActualVariation(random);
     }
 
     // MODIFIES: this
-    // EFFECTS: updates all prices in a pool of stocks
+    // EFFECTS: updates all prices in a pool of stocks; throws IllegalStateException if the market is shared
     public void updateAllPrices() {
-        for (Stock s : stockPool) {
-            double percentage = determineActualVariation();
+        checkOwnMarket();
+        for (Stock s : getStockPool()) {
+            double percentage = determineActualVariation(s);
             s.updatePrice(percentage);
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: updates historic data on stock prices
+    // EFFECTS: updates historic data on stock prices; throws IllegalStateException if the market is shared
     public void updateHistoricalPrices() {
-        for (Stock s : stockPool) {
+        checkOwnMarket();
+        for (Stock s : getStockPool()) {
             s.addPriceToHistory();
         }
     }
@@ -361,9 +696,11 @@ public class StockPortfolio implements Writable {
     }
 
     // MODIFIES: this
-    // EFFECTS: updates the stock variations for all stocks in the pool
+    // EFFECTS: updates the stock variations for all stocks in the pool; throws IllegalStateException if the market is
+    // shared
     public void updateStockVariations() {
-        for (Stock s : stockPool) {
+        checkOwnMarket();
+        for (Stock s : getStockPool()) {
             s.updateDailyVariation();
         }
     }
@@ -371,27 +708,345 @@ public class StockPortfolio implements Writable {
     // MODIFIES: this
     // EFFECTS: makes sure stock
 
-    // MODIFIES: this
-    // EFFECTS: proceeds to the next day, updates all: prices, profits, variations and historical price arrays
+    // MODIFIES: this, the market
+    // EFFECTS: proceeds to the next day, updates all: prices, profits, variations and historical price arrays, then
+    // executes the resting orders triggered by the new prices. Throws IllegalStateException if the market is shared:
+    // its days are progressed by the market itself (Market.progressDay), for every portfolio trading in it.
     public void progressDay() {
+        checkOwnMarket();
+        if (this.recorder != null) {
+            progressDays(1, this.randomSource.nextLong());
+        } else {
+            advanceDays(1);
+        }
+    }
+
+    // REQUIRES: n > 0
+    // MODIFIES: this, the market
+    // EFFECTS: proceeds n days at once, with the same effect on prices, profits, variations and historical price
+    // and PnL arrays as calling progressDay n times. Each stock in the pool is advanced through many days in a
+    // single pass (split across the parallel progression's ForkJoinPool, if set), then the daily PnLs are rebuilt
+    // from the new price histories; see maxDaysPerPass for how long passes are. Logs a single event. Throws
+    // IllegalStateException if the market is shared.
+    public void progressDays(int n) {
+        checkOwnMarket();
+        if (this.recorder != null) {
+            progressDays(n, this.randomSource.nextLong());
+        } else {
+            advanceDays(n);
+        }
+    }
+
+    // REQUIRES: n > 0
+    // MODIFIES: this, the market
+    // EFFECTS: reseeds the market with seed (each stock in the pool, in order, gets a new stream split from it),
+    // then proceeds n days; the same state and seed always lead to the same days. Throws IllegalStateException if
+    // the market is shared.
+    public void progressDays(int n, long seed) {
+        checkOwnMarket();
+        this.market.setRandomSource(new SplittableRandomSource(seed));
+        advanceDays(n);
+        record(JournalCommand.progress(n, seed));
+    }
+
+    // EFFECTS: throws IllegalStateException if the market is shared, since advancing it would move the prices of
+    // every other portfolio trading in it
+    private void checkOwnMarket() {
+        if (this.sharedMarket) {
+            throw new IllegalStateException("The days of a shared market are progressed by the market");
+        }
+    }
+
+    // REQUIRES: n > 0
+    // MODIFIES: this, the market
+    // EFFECTS: proceeds n days and logs them
+    private void advanceDays(int n) {
+        if (n == 1) {
+            this.market.progressDay();
+            logEvent("Progressed to day " + this.tradingDay + " of trading;");
+        } else {
+            this.market.progressDays(n);
+            logEvent("Progressed " + n + " days to day " + this.tradingDay
+                    + " of trading;");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: suspends the running PnL total while the market moves prices, which changes every stock
+    void beforeMarketMoves() {
+        this.pnlAccumulator.suspend();
+        this.snapshotChanges.markAllChanged();
+    }
+
+    // REQUIRES: the market advanced one day since beforeMarketMoves
+    // MODIFIES: this
+    // EFFECTS: settles the day the market advanced: executes the resting orders triggered by the new prices, then
+    // updates profits, resumes the running PnL total from an exact recomputation and revalues the sector exposure
+    void settleDay() {
         this.tradingDay += 1;
-        this.updateAllPrices();
-        this.updateStockProfits();
-        this.updateStockVariations();
-        this.updateHistoricalPrices();
+        this.matchOrders();
+        this.pnlAccumulator.resume(settleProfits());
         this.addPnLtoHistory();
-        EventLog.getInstance().logEvent(new Event("Progressed to day " + this.tradingDay + " of trading;"));
+        this.sectorExposure.revalue(stockPortfolio);
+        publishSnapshot();
     }
 
     // MODIFIES: this
-    // EFFECTS: calculates portfolio's cumulative profit or loss so far
+    // EFFECTS: updates the profits of the held stocks and returns their sum. The profits are settled in a single loop
+    // over the columns holding the held stocks' rows (split across the parallel progression's ForkJoinPool, if set);
+    // only if some held stock's row is elsewhere, such as a stock that left the pool, are the stocks walked one by one.
+    private double settleProfits() {
+        MarketColumns columns = heldColumns();
+        if (columns.getHeldRows() != this.stockPortfolio.size()) {
+            updateStockProfits();
+            return sumPotentialProfits();
+        }
+        ParallelProgression parallelProgression = this.market.getParallelProgression();
+        return parallelProgression == null ? columns.settleProfits(0, columns.size())
+                : parallelProgression.updateProfits(columns);
+    }
+
+    // EFFECTS: returns the columns the rows of held stocks are in: the holdings columns in a shared market, the
+    // market's columns otherwise
+    private MarketColumns heldColumns() {
+        return this.sharedMarket ? this.holdings : this.market.getColumns();
+    }
+
+    // REQUIRES: limit > 0
+    // EFFECTS: returns how many days, at most limit, the market may advance in a single pass before this portfolio
+    // settles them: no longer than the shortest full-resolution window of a held stock's price history, and a single
+    // day while orders are resting, so orders are matched every day
+    int maxDaysPerPass(int limit) {
+        if (!this.openOrders.isEmpty()) {
+            return 1;
+        }
+        int maxDays = limit;
+        for (Stock s : stockPortfolio) {
+            RetentionPolicy retention = s.getPriceHistory().getRetentionPolicy();
+            if (retention != null) {
+                maxDays = Math.min(maxDays, retention.getFullResolutionDays());
+            }
+        }
+        return maxDays;
+    }
+
+    // REQUIRES: the market advanced n days since beforeMarketMoves, n <= maxDaysPerPass(n)
+    // MODIFIES: this
+    // EFFECTS: settles the n days the market advanced in a single pass, rebuilding the daily PnLs from the new price
+    // histories
+    void settleDays(int n) {
+        matchOrders();
+        double[] pnlByDay = dailyProfits(n);
+        settleProfits();
+        for (double pnl : pnlByDay) {
+            this.pnlHistory.append(pnl);
+        }
+        this.pnlAccumulator.resume(pnlByDay[n - 1]);
+        this.totalPNL = pnlByDay[n - 1];
+        this.tradingDay += n;
+        this.sectorExposure.revalue(stockPortfolio);
+        publishSnapshot();
+    }
+
+    // EFFECTS: returns the total profit / loss of the held stocks at the end of each of the last n days, reading the
+    // held rows of the columns in order when every held stock has one
+    private double[] dailyProfits(int n) {
+        double[] pnlByDay = new double[n];
+        MarketColumns columns = heldColumns();
+        if (columns.getHeldRows() == this.stockPortfolio.size()) {
+            for (int row = 0; row < columns.size(); row++) {
+                if (columns.isHeld(row)) {
+                    addDailyProfits(columns.getStock(row), columns.getBuyPrice(row), columns.getSharesOwned(row),
+                            pnlByDay);
+                }
+            }
+        } else {
+            for (Stock s : stockPortfolio) {
+                addDailyProfits(s, s.getBuyPrice(), s.getSharesOwned(), pnlByDay);
+            }
+        }
+        return pnlByDay;
+    }
+
+    // MODIFIES: pnlByDay
+    // EFFECTS: adds the profit / loss of the given shares of s, bought at buyPrice, at the end of each of the last
+    // pnlByDay.length days to pnlByDay; stocks outside the pool did not move, so their profit is the same every day
+    private void addDailyProfits(Stock s, double buyPrice, int shares, double[] pnlByDay) {
+        PriceHistory prices = s.getPriceHistory();
+        boolean advanced = this.market.getStock(s.getStockCode()) == s.getInstrument();
+        int firstDay = prices.size() - pnlByDay.length;
+        for (int day = 0; day < pnlByDay.length; day++) {
+            double price = advanced ? prices.getDouble(firstDay + day) : s.getCurrentPrice();
+            pnlByDay[day] += (price - buyPrice) * shares;
+        }
+    }
+
+    // REQUIRES: price > 0, shares > 0
+    // MODIFIES: this
+    // EFFECTS: places a limit or stop order for a stock in the pool and returns it, or returns null if there is no
+    // stock in the pool with the given code or the price or shares are not positive. An order that triggers at the
+    // current price executes at once; otherwise it rests until a price move triggers it.
+    public Order placeOrder(String code, OrderSide side, OrderType type, double price, int shares) {
+        Stock s = this.market.getStock(code);
+        if (s == null || !(price > 0) || shares <= 0) {
+            logEvent("Failed at placing order (incorrect code, price or shares);");
+            return null;
+        }
+        Order order = new Order(this.nextOrderId++, code, side, type, price, shares);
+        OrderBook book = this.orderBooks.computeIfAbsent(code, OrderBook::new);
+        book.add(order);
+        this.openOrders.put(order.getOrderId(), order);
+        logEvent("Placed order " + order + ";");
+        matchOrders(s, book);
+        record(JournalCommand.placeOrder(code, side, type, price, shares));
+        publishSnapshot();
+        return order;
+    }
+
+    // REQUIRES: orderId is not the id of a resting order
+    // MODIFIES: this
+    // EFFECTS: rests a saved order again, without matching it, and returns it; orders placed later get larger ids
+    public Order restoreOrder(long orderId, String code, OrderSide side, OrderType type, double price, int shares) {
+        Order order = new Order(orderId, code, side, type, price, shares);
+        this.orderBooks.computeIfAbsent(code, OrderBook::new).add(order);
+        this.openOrders.put(orderId, order);
+        this.nextOrderId = Math.max(this.nextOrderId, orderId + 1);
+        return order;
+    }
+
+    // EFFECTS: returns the id the next order placed will get
+    public long getNextOrderId() {
+        return this.nextOrderId;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the id the next order placed will get
+    public void setNextOrderId(long nextOrderId) {
+        this.nextOrderId = nextOrderId;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: cancels the resting order with the given id, returns true if there was one
+    public boolean cancelOrder(long orderId) {
+        Order order = this.openOrders.remove(orderId);
+        if (order == null) {
+            logEvent("Failed at cancelling order (not resting);");
+            return false;
+        }
+        OrderBook book = this.orderBooks.get(order.getStockCode());
+        book.remove(orderId);
+        if (book.isEmpty()) {
+            this.orderBooks.remove(order.getStockCode());
+        }
+        order.close(false);
+        logEvent("Cancelled order " + order + ";");
+        record(JournalCommand.cancelOrder(orderId));
+        publishSnapshot();
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: cancels the resting orders for the given code, after the stock with that code left the pool
+    void cancelOrders(String code) {
+        OrderBook book = this.orderBooks.remove(code);
+        if (book == null) {
+            return;
+        }
+        for (Order order : book.getOrders()) {
+            this.openOrders.remove(order.getOrderId());
+            order.close(false);
+            logEvent("Cancelled order " + order + " (stock left the pool);");
+        }
+        publishSnapshot();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: executes the resting orders triggered by the current prices of the stocks in the pool
+    public void matchOrders() {
+        if (this.orderBooks.isEmpty()) {
+            return;
+        }
+        for (OrderBook book : new ArrayList<>(this.orderBooks.values())) {
+            Stock s = this.market.getStock(book.getStockCode());
+            if (s != null) {
+                matchOrders(s, book);
+            }
+        }
+    }
+
+    // MODIFIES: this, s, book
+    // EFFECTS: executes the orders in book triggered by the current price of s, in execution order; drops the book
+    // once it is empty
+    private void matchOrders(Stock s, OrderBook book) {
+        for (Order order : book.match(s.getCurrentPrice())) {
+            this.openOrders.remove(order.getOrderId());
+            boolean filled = order.getSide() == OrderSide.BUY ? executeBuy(s, order) : executeSell(s, order);
+            if (filled) {
+                logEvent("Filled order " + order + " at " + order.getFillPrice() + ";");
+            } else {
+                order.close(true);
+                logEvent("Rejected order " + order + ";");
+            }
+        }
+        if (book.isEmpty()) {
+            this.orderBooks.remove(book.getStockCode());
+        }
+    }
+
+    // MODIFIES: this, s, order
+    // EFFECTS: buys the order's shares of s at its current price as a new lot; returns false (and buys nothing) if
+    // the balance is insufficient
+    private boolean executeBuy(Stock s, Order order) {
+        double price = s.getCurrentPrice();
+        if (price * order.getShares() >= this.stockPortfolioBalance) {
+            return false;
+        }
+        buyShares(s, order.getShares());
+        changeBalance(-price * order.getShares());
+        order.fill(order.getShares(), price);
+        return true;
+    }
+
+    // MODIFIES: this, s, order
+    // EFFECTS: sells the order's shares of s (or all shares held, if fewer) at its current price, removing the
+    // holding of s from the portfolio once no shares are left; returns false if no shares of s are held
+    private boolean executeSell(Stock s, Order order) {
+        Stock held = this.portfolioByCode.get(s.getStockCode());
+        if (held == null || held.getInstrument() != s || held.getSharesOwned() == 0) {
+            return false;
+        }
+        int shares = Math.min(order.getShares(), held.getSharesOwned());
+        sellShares(held, shares);
+        if (held.getSharesOwned() == 0) {
+            removeStock(held);
+        }
+        order.fill(shares, held.getSellPrice());
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: calculates portfolio's cumulative profit or loss so far, reading the running PnL total. When the PnL
+    // check is enabled, throws IllegalStateException if the running total drifted from a full recomputation.
     public boolean calculateTotalPNL() {
+        double totalPNL = this.pnlAccumulator.getTotal();
+        if (this.pnlCheckEnabled) {
+            double exactPNL = sumPotentialProfits();
+            if (Math.abs(exactPNL - totalPNL) > PNL_CHECK_TOLERANCE * Math.max(1, Math.abs(exactPNL))) {
+                throw new IllegalStateException("Running PnL " + totalPNL + " differs from recomputed PnL "
+                        + exactPNL);
+            }
+        }
+        this.totalPNL =  totalPNL;
+        return true;
+    }
+
+    // EFFECTS: returns the sum of the potential profits of all stocks in the portfolio
+    private double sumPotentialProfits() {
         double totalPNL = 0;
         for (Stock s : this.getStockPortfolio()) {
             totalPNL = totalPNL + s.getStockPotentialProfit();
         }
-        this.totalPNL =  totalPNL;
-        return true;
+        return totalPNL;
     }
 
     // REQUIRES: portfolio is non-empty
@@ -410,53 +1065,113 @@ public class StockPortfolio implements Writable {
                 sellStock(code);
             }
 
-            EventLog.getInstance().logEvent(new Event("Sold all stocks;"));
+            logEvent("Sold all stocks;");
             return true;
         } else {
-            EventLog.getInstance().logEvent(new Event("Failed to sell all stock (no stocks held);"));
+            logEvent("Failed to sell all stock (no stocks held);");
             return false;
         }
     }
 
     // EFFECTS: returns current price of a stock given its code
     public double getPriceFromCode(String code) {
-        double toReturn = 0.0;
-        for (Stock s : this.getStockPool()) {
-            if (Objects.equals(s.getStockCode(), code)) {
-                toReturn = s.getCurrentPrice();
-            }
-        }
-        return toReturn;
+        Stock s = this.market.getStock(code);
+        return s == null ? 0.0 : s.getCurrentPrice();
     }
 
     // MODIFIES: this
     // EFFECTS: has a 25% chance of conceding a loan of $2000, if successful, returns true, if not, false
     public boolean requestLoanReturnVal() {
         String desc;
-        Random rand = new Random();
-        double randomValue = rand.nextDouble();
+        double randomValue = randomSource.nextDouble();
         double trueThreshold = 0.25;
         boolean chance = randomValue < trueThreshold;
         boolean returnValue;
 
         if (chance) {
-            this.stockPortfolioBalance += 2000;
+            grantLoan();
             returnValue = true;
             desc = "Successfully obtained a loan;";
         } else {
             returnValue = false;
             desc = "Failed at obtaining a loan;";
         }
-        EventLog.getInstance().logEvent(new Event(desc));
+        logEvent(desc);
         return returnValue;
     }
 
+    // MODIFIES: this
+    // EFFECTS: grants a loan of $2000
+    void grantLoan() {
+        changeBalance(2000);
+        record(JournalCommand.loan());
+        publishSnapshot();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: publishes a snapshot of the portfolio as it is now, if snapshots are published and not deferred,
+    // replacing the previous one in a single swap; the new snapshot shares with the previous one every stock that has
+    // not changed, and only takes again the stocks marked as changed since. Call it after changing the portfolio
+    // through its setters, such as after loading it.
+    public void publishSnapshot() {
+        if (this.snapshotPublishing && !this.snapshotsDeferred) {
+            this.snapshot.set(PortfolioSnapshot.take(this, this.snapshot.get(), this.snapshotChanges));
+            this.snapshotChanges.clear();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks stock, which changed, for the next snapshot, if snapshots are published
+    void stockChanged(Stock stock) {
+        if (this.snapshotPublishing) {
+            this.snapshotChanges.markChanged(stock);
+        }
+    }
+
+    // EFFECTS: returns the position in the portfolio of stock, or of the holding of stock if it is an instrument held
+    // in a shared market, or -1 if neither is held
+    int getHoldingPosition(Stock stock) {
+        Integer position = this.portfolioPositions.get(stock);
+        if (position == null && this.sharedMarket) {
+            Stock held = this.portfolioByCode.get(stock.getStockCode());
+            position = held != null && held.getInstrument() == stock ? this.portfolioPositions.get(held) : null;
+        }
+        return position == null ? -1 : position;
+    }
+
+    // EFFECTS: returns the running profit and loss of the shares held
+    double getRunningPNL() {
+        return this.pnlAccumulator.getTotal();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records command, if commands are recorded
+    private void record(JournalCommand command) {
+        if (this.recorder != null) {
+            this.recorder.record(command);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds delta to the balance and records the new balance in the position ledger
+    private void changeBalance(double delta) {
+        this.stockPortfolioBalance += delta;
+        this.ledger.recordBalance(this.tradingDay, this.stockPortfolioBalance);
+    }
+
+    // EFFECTS: logs an event with the given description to the EventLog, if event logging is enabled
+    private void logEvent(String description) {
+        if (this.eventLogging) {
+            EventLog.getInstance().logEvent(new Event(description));
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: adds current PNL to historical list of all PNLs so far for given portfolio
     public void addPnLtoHistory() {
         this.calculateTotalPNL();
         double pnl = this.getTotalPNL();
-        this.pnlHistory.add(pnl);
+        this.pnlHistory.append(pnl);
     }
 
     // EFFECTS: adds current PNL to historical list of all PNLs so far for given portfolio
@@ -470,7 +1185,7 @@ public class StockPortfolio implements Writable {
 
     public List<String> getAllStockCodesPool() {
         List<String> allStockNames = new ArrayList<>();
-        for (Stock s : this.stockPool) {
+        for (Stock s : getStockPool()) {
             allStockNames.add(s.getStockCode());
         }
         return allStockNames;
@@ -485,12 +1200,33 @@ public class StockPortfolio implements Writable {
         json.put("trading_day", tradingDay);
         json.put("balance", stockPortfolioBalance);
         json.put("total_pnl", totalPNL);
-        json.put("market_state", marketState);
+        json.put("realized_pnl", realizedPNL);
+        json.put("cost_basis_method", costBasisMethod.name());
+        json.put("market_state", getMarketState());
         json.put("name", stockPortfolioName);
         json.put("pnl_history", pnlHistory);
+        json.put("pnl_history_retention", pnlHistory.retentionToJson());
+        json.put("history_retention", historyRetention == null ? null : historyRetention.toJson());
+        json.put("next_order_id", nextOrderId);
+        json.put("open_orders", openOrdersToJson());
         return json;
     }
 
+    private JSONArray openOrdersToJson() {
+        JSONArray jsonArray = new JSONArray();
+        for (Order order : openOrders.values()) {
+            JSONObject json = new JSONObject();
+            json.put("id", order.getOrderId());
+            json.put("code", order.getStockCode());
+            json.put("side", order.getSide().name());
+            json.put("type", order.getType().name());
+            json.put("price", order.getPrice());
+            json.put("shares", order.getShares());
+            jsonArray.put(json);
+        }
+        return jsonArray;
+    }
+
     private JSONArray stockPortfolioToJson() {
         JSONArray jsonArray = new JSONArray();
 
@@ -503,7 +1239,7 @@ public class StockPortfolio implements Writable {
     private JSONArray stockPoolToJson() {
         JSONArray jsonArray = new JSONArray();
 
-        for (Stock s : stockPool) {
+        for (Stock s : getStockPool()) {
             jsonArray.put(s.toJson());
         }
         return jsonArray;
@@ -0,0 +1,97 @@
+package model;
+
+import java.util.List;
+import java.util.Objects;
+
+/*
+Represents a stock as of one portfolio snapshot: its prices, the position held in it and its price history. A snapshot
+never changes, so it can be read from any thread while the stock moves on.
+ */
+public final class StockSnapshot {
+
+    private final String stockName;
+    private final String stockCode;
+    private final String stockSector;
+    private final double currentPrice;
+    private final double dailyVariation;
+    private final double buyPrice;
+    private final int sharesOwned;
+    private final double potentialProfit;
+    private final SnapshotSeries priceHistory;
+
+    // EFFECTS: constructs the snapshot of stock, whose price history is taken as priceHistory
+    StockSnapshot(Stock stock, SnapshotSeries priceHistory) {
+        this.stockName = stock.getStockName();
+        this.stockCode = stock.getStockCode();
+        this.stockSector = stock.getStockSector();
+        this.currentPrice = stock.getCurrentPrice();
+        this.dailyVariation = stock.getStockDailyVariation();
+        this.buyPrice = stock.getBuyPrice();
+        this.sharesOwned = stock.getSharesOwned();
+        this.potentialProfit = stock.getStockPotentialProfit();
+        this.priceHistory = priceHistory;
+    }
+
+    // EFFECTS: returns the stock's name
+    public String getStockName() {
+        return this.stockName;
+    }
+
+    // EFFECTS: returns the stock's code
+    public String getStockCode() {
+        return this.stockCode;
+    }
+
+    // EFFECTS: returns the stock's sector
+    public String getStockSector() {
+        return this.stockSector;
+    }
+
+    // EFFECTS: returns the stock's price
+    public double getCurrentPrice() {
+        return this.currentPrice;
+    }
+
+    // EFFECTS: returns the stock's variation on the last day
+    public double getStockDailyVariation() {
+        return this.dailyVariation;
+    }
+
+    // EFFECTS: returns the average price paid for the shares held
+    public double getBuyPrice() {
+        return this.buyPrice;
+    }
+
+    // EFFECTS: returns the number of shares held
+    public int getSharesOwned() {
+        return this.sharesOwned;
+    }
+
+    // EFFECTS: returns the profit the shares held would make if sold at the current price
+    public double getStockPotentialProfit() {
+        return this.potentialProfit;
+    }
+
+    // EFFECTS: returns the full-resolution closes of the stock, oldest first (read-only)
+    public List<Double> getPriceHistory() {
+        return this.priceHistory;
+    }
+
+    // EFFECTS: returns the series the stock's price history was taken as
+    SnapshotSeries getPriceSeries() {
+        return this.priceHistory;
+    }
+
+    // EFFECTS: returns true if this is still the snapshot of stock, whose price history is taken as priceHistory
+    boolean matches(Stock stock, SnapshotSeries priceHistory) {
+        return this.priceHistory == priceHistory
+                && Objects.equals(this.stockCode, stock.getStockCode())
+                && this.currentPrice == stock.getCurrentPrice()
+                && this.dailyVariation == stock.getStockDailyVariation()
+                && this.buyPrice == stock.getBuyPrice()
+                && this.sharesOwned == stock.getSharesOwned()
+                && this.potentialProfit == stock.getStockPotentialProfit()
+                && Objects.equals(this.stockName, stock.getStockName())
+                && Objects.equals(this.stockSector, stock.getStockSector());
+    }
+}
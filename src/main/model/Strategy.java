@@ -0,0 +1,19 @@
+package model;
+
+/*
+Represents a trading strategy that can be backtested. Before the first day the strategy sees the market it will
+trade in, then each day, before the market moves, it reads the market and sends its buy and sell decisions.
+ */
+public interface Strategy {
+
+    // EFFECTS: returns the strategy's name, as reported in backtest results
+    String getName();
+
+    // MODIFIES: this
+    // EFFECTS: prepares the strategy for a new run on the given market, forgetting any previous run
+    void onStart(MarketView market);
+
+    // MODIFIES: this, trades
+    // EFFECTS: reads the market as of the last close and sends the day's decisions to trades
+    void onDay(MarketView market, TradeSink trades);
+}
@@ -0,0 +1,12 @@
+package model;
+
+/*
+Represents where a parameter sweep sends the result of each configuration as soon as it is backtested.
+ */
+public interface SweepResultSink {
+
+    // MODIFIES: this
+    // EFFECTS: takes the result of backtesting the configuration with the given index and parameter values; a sweep
+    // calls it from one thread at a time, in the order configurations finish
+    void accept(long index, double[] parameters, BacktestResult result);
+}
@@ -0,0 +1,73 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+Represents a generator of synthetic stock pools, used to load-test the simulator with large instrument universes.
+Each generated stock gets:
+ - a sector, drawn according to the given sector weights
+ - a unique code and name built from its index
+ - an original price drawn like a new Stock's
+Stocks are generated in parallel; stock i only depends on the seed and i, so the same seed always generates the
+same universe, and no stock's draws follow from another's.
+ */
+public class SyntheticUniverse {
+
+    private final String[] sectors;
+    private final double[] cumulativeWeights;
+
+    // EFFECTS: constructs a generator with the sectors of the initial stock pool, equally weighted
+    public SyntheticUniverse() {
+        this(defaultSectorWeights());
+    }
+
+    // REQUIRES: sectorWeights is non-empty, every weight is >= 0 and at least one is > 0
+    // EFFECTS: constructs a generator drawing sectors in proportion to the given weights
+    public SyntheticUniverse(Map<String, Double> sectorWeights) {
+        this.sectors = sectorWeights.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new double[sectors.length];
+        double sum = 0;
+        for (int i = 0; i < sectors.length; i++) {
+            sum += sectorWeights.get(sectors[i]);
+            cumulativeWeights[i] = sum;
+        }
+        for (int i = 0; i < sectors.length; i++) {
+            cumulativeWeights[i] /= sum;
+        }
+    }
+
+    // REQUIRES: size >= 0
+    // EFFECTS: returns size new stocks, in index order
+    public List<Stock> generate(int size, long seed) {
+        return IntStream.range(0, size).parallel()
+                .mapToObj(i -> generateStock(i, seed))
+                .collect(Collectors.toCollection(() -> new ArrayList<>(size)));
+    }
+
+    // EFFECTS: returns the stock with the given index
+    private Stock generateStock(int index, long seed) {
+        RandomSource random = SplittableRandomSource.forIndex(seed, index);
+        int sector = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        sector = Math.min(sector < 0 ? -sector - 1 : sector + 1, sectors.length - 1);
+        String code = String.format("SYN%07d", index);
+        return new Stock(sectors[sector] + " " + index, code, sectors[sector], random);
+    }
+
+    // EFFECTS: returns the sectors of the initial stock pool, equally weighted
+    private static Map<String, Double> defaultSectorWeights() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("Technology", 1.0);
+        weights.put("Healthcare", 1.0);
+        weights.put("Financial", 1.0);
+        weights.put("Energy", 1.0);
+        weights.put("Consumer Goods", 1.0);
+        return weights;
+    }
+
+}
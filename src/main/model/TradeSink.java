@@ -0,0 +1,18 @@
+package model;
+
+/*
+Represents where a trading strategy sends its decisions. Each decision is executed at once against the portfolio the
+strategy trades for, with the semantics of StockPortfolio's buyStock and sellStock.
+ */
+public interface TradeSink {
+
+    // REQUIRES: 0 <= stock < the number of stocks in the pool, shares > 0
+    // MODIFIES: this
+    // EFFECTS: buys shares of the given stock at its current price; returns false if the balance is too low
+    boolean buy(int stock, int shares);
+
+    // REQUIRES: 0 <= stock < the number of stocks in the pool, shares > 0
+    // MODIFIES: this
+    // EFFECTS: sells shares of the given stock at its current price; returns false if fewer shares are owned
+    boolean sell(int stock, int shares);
+}
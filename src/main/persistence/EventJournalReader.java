@@ -0,0 +1,202 @@
+package persistence;
+
+import model.Event;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+public class EventJournalReader {
+
+    /*
+    CLASS-LEVEL COMMENT: Event Journal Reader
+    Reads the events of a journal written by an EventJournalWriter, oldest segment first. The reader remembers where
+    it stopped, so reading again picks up the events written since: a single read scans the journal, and reading
+    repeatedly tails it while it is written, following it from segment to segment. Segments are read in large blocks
+    and records are decoded straight from the block. A record that is not complete yet, or that fails its CRC check,
+    stops the read of its segment; a segment is left for the next one only once the writer has moved on from it.
+    */
+
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private Path directory;
+    private long segmentIndex; // index of the segment being read, -1 before the first
+    private long offset; // position in the segment of the next record to read
+    private long eventsRead;
+    private boolean corrupt; // true once a record of the segment being read failed its checks
+    private ByteBuffer buffer;
+    private CRC32 crc;
+
+    // EFFECTS: constructs a reader of the journal in directory, starting at its oldest segment
+    public EventJournalReader(String directory) {
+        this.directory = Paths.get(directory);
+        this.segmentIndex = -1;
+        this.buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.crc = new CRC32();
+    }
+
+    // EFFECTS: returns the number of events read so far
+    public long getEventsRead() {
+        return this.eventsRead;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: hands every event written since the last read (or in the whole journal, on the first read) to
+    // consumer, in order, and returns how many there were; segments deleted before they were read are skipped.
+    // Throws IOException if the journal can't be read.
+    public long read(Consumer<? super Event> consumer) throws IOException {
+        long read = 0;
+        while (true) {
+            List<Long> segments = EventJournalWriter.segmentIndexes(directory);
+            Long current = currentSegment(segments);
+            if (current == null) {
+                return read;
+            }
+            boolean finished = !current.equals(segments.get(segments.size() - 1));
+            read += readSegment(consumer);
+            if (!finished) {
+                return read;
+            }
+            this.segmentIndex = current + 1;
+            this.offset = 0;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the journal as it is written, handing each event to consumer, until running returns false;
+    // waits pollMillis between reads that find no new events. Throws IOException if the journal can't be read.
+    public void tail(Consumer<? super Event> consumer, long pollMillis, BooleanSupplier running)
+            throws IOException, InterruptedException {
+        while (running.getAsBoolean()) {
+            if (read(consumer) == 0) {
+                Thread.sleep(pollMillis);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the index of the segment to read, moving to the next segment that still exists if the one
+    // being read was deleted, or null if there is none
+    private Long currentSegment(List<Long> segments) {
+        for (Long index : segments) {
+            if (index >= this.segmentIndex) {
+                if (index != this.segmentIndex) {
+                    this.segmentIndex = index;
+                    this.offset = 0;
+                }
+                return index;
+            }
+        }
+        return null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: hands the complete records of the current segment from the offset on to consumer, moving the offset
+    // past them, and returns how many there were
+    private long readSegment(Consumer<? super Event> consumer) throws IOException {
+        FileChannel channel = openSegment();
+        if (channel == null) {
+            return 0;
+        }
+        try {
+            long read = 0;
+            buffer.clear();
+            this.corrupt = false;
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    growBuffer();
+                }
+                int bytes = channel.read(buffer, offset + buffer.position());
+                buffer.flip();
+                read += decodeRecords(consumer);
+                buffer.compact();
+                if (bytes <= 0 || this.corrupt) {
+                    return read;
+                }
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    // EFFECTS: opens the current segment for reading, or returns null if it was deleted since the segments were
+    // listed (the next read moves on)
+    private FileChannel openSegment() throws IOException {
+        try {
+            return FileChannel.open(EventJournalWriter.segmentPath(directory, segmentIndex), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: hands the complete records at the start of the buffer to consumer, moving the buffer's position and
+    // the offset past them, and returns how many there were; stops at a record that fails its checks
+    private int decodeRecords(Consumer<? super Event> consumer) {
+        int records = 0;
+        int payloadBytes;
+        while ((payloadBytes = completePayloadBytes()) >= 0) {
+            Event event = decodeRecord(payloadBytes);
+            if (event == null) {
+                this.corrupt = true;
+                return records;
+            }
+            consumer.accept(event);
+            buffer.position(buffer.position() + EventJournalWriter.RECORD_HEADER_BYTES + payloadBytes);
+            this.offset += EventJournalWriter.RECORD_HEADER_BYTES + payloadBytes;
+            this.eventsRead++;
+            records++;
+        }
+        return records;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the payload length of the record at the buffer's position, or -1 if the buffer doesn't hold
+    // all of the record yet; marks the segment corrupt and returns -1 if the length is one no writer would have
+    // written
+    private int completePayloadBytes() {
+        if (buffer.remaining() < EventJournalWriter.RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        int payloadBytes = buffer.getInt(buffer.position());
+        if (payloadBytes < Long.BYTES || payloadBytes > EventJournalWriter.MAX_PAYLOAD_BYTES) {
+            this.corrupt = true;
+            return -1;
+        }
+        return buffer.remaining() < EventJournalWriter.RECORD_HEADER_BYTES + payloadBytes ? -1 : payloadBytes;
+    }
+
+    // EFFECTS: returns the event in the complete record at the buffer's position, whose payload is payloadBytes
+    // long, or null if the record fails its CRC check
+    private Event decodeRecord(int payloadBytes) {
+        int start = buffer.position();
+        int payload = start + EventJournalWriter.RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), payload, payloadBytes);
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+            return null;
+        }
+        String description = new String(buffer.array(), payload + Long.BYTES, payloadBytes - Long.BYTES,
+                StandardCharsets.UTF_8);
+        return new Event(description, new Date(buffer.getLong(payload)));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: doubles the buffer, keeping its content
+    private void growBuffer() {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        this.buffer = larger;
+    }
+}
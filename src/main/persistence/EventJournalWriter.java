@@ -0,0 +1,311 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+public class EventJournalWriter {
+
+    /*
+    CLASS-LEVEL COMMENT: Event Journal Writer
+    Writes the events of an EventLog to an append-only journal on disk, from a background thread of its own. The
+    thread polls the events in batches and writes each batch with a single write, so logging an event never waits for
+    the disk: if the writer falls behind, the log's overflow policy decides what happens to new events.
+    The journal is a directory of segment files, events-<index>.log, rolled over once a segment reaches its size
+    limit; the oldest segments can be deleted to bound the journal's size. Each record is the length of its payload,
+    the payload's CRC-32 and the payload: the event's date, in milliseconds, and its description, in UTF-8, cut so the
+    payload is at most MAX_PAYLOAD_BYTES. A record cut short by a crash fails its length or CRC check and ends its
+    segment.
+    Segments are forced to disk after every batch, at most once per interval, or only when closed, as set by the
+    writer's sync policy.
+    */
+
+    public enum SyncPolicy {
+        NEVER, // leave it to the operating system, forcing segments to disk only when they are closed
+        EVERY_BATCH,
+        INTERVAL // at most once per sync interval
+    }
+
+    static final String SEGMENT_PREFIX = "events-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final int RECORD_HEADER_BYTES = 8; // payload length and CRC-32
+    static final int MAX_PAYLOAD_BYTES = 1 << 20; // longer descriptions are cut to fit
+    private static final int DEFAULT_BATCH_SIZE = 512;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    private static final long IDLE_WAIT_NANOS = 2000000; // how long the writer waits when the log is empty
+
+    private EventLog log;
+    private Path directory;
+    private long segmentBytes; // size a segment is rolled over at
+    private int maxSegments; // segments kept; 0 keeps every segment
+    private int batchSize;
+    private SyncPolicy syncPolicy;
+    private long syncIntervalMillis;
+    private Thread writerThread;
+    private volatile boolean running;
+    private volatile IOException failure; // what stopped the writer thread, or null
+    private volatile long eventsWritten;
+    private volatile long batchesWritten;
+    private FileChannel segment;
+    private long segmentIndex;
+    private long segmentSize;
+    private long lastSyncMillis;
+    private ByteBuffer buffer;
+    private CRC32 crc;
+
+    // REQUIRES: segmentBytes > 0, maxSegments >= 0
+    // EFFECTS: constructs a writer of the events of log to segments in directory, rolled over at segmentBytes and
+    // keeping the newest maxSegments of them (every segment if 0); batches hold up to 512 events and segments are
+    // only forced to disk when closed
+    public EventJournalWriter(EventLog log, String directory, long segmentBytes, int maxSegments) {
+        this.log = log;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.syncPolicy = SyncPolicy.NEVER;
+        this.buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.crc = new CRC32();
+    }
+
+    // EFFECTS: returns the number of events written so far
+    public long getEventsWritten() {
+        return this.eventsWritten;
+    }
+
+    // EFFECTS: returns the number of batches written so far
+    public long getBatchesWritten() {
+        return this.batchesWritten;
+    }
+
+    // EFFECTS: returns the exception that stopped the writer thread, or null if it is still writing (or stopped
+    // without one)
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+    // EFFECTS: returns the sync policy
+    public SyncPolicy getSyncPolicy() {
+        return this.syncPolicy;
+    }
+
+    // REQUIRES: batchSize > 0, the writer is not started
+    // MODIFIES: this
+    // EFFECTS: sets the most events polled and written at once
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // REQUIRES: intervalMillis > 0 if policy is INTERVAL, the writer is not started
+    // MODIFIES: this
+    // EFFECTS: sets when segments are forced to disk; intervalMillis is only used by the INTERVAL policy
+    public void setSyncPolicy(SyncPolicy policy, long intervalMillis) {
+        this.syncPolicy = policy;
+        this.syncIntervalMillis = intervalMillis;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new segment after those already in the directory, creating the directory if needed and
+    // deleting the oldest segments beyond the number kept, and starts the writer thread; throws IOException if the
+    // segment can't be created
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segments = segmentIndexes(directory);
+        this.segmentIndex = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+        openSegment();
+        pruneSegments();
+        this.running = true;
+        this.writerThread = new Thread(this::writeEvents, "event-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the writer thread once it has written the events still in the log, then forces the segment to
+    // disk and closes it; throws IOException if writing failed at any point since the writer started
+    public void close() throws IOException {
+        if (this.writerThread == null) {
+            return;
+        }
+        this.running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.writerThread = null;
+        try {
+            segment.force(false);
+        } finally {
+            segment.close();
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes batches of events from the log until stopped, then writes the events left in the log; keeps
+    // the exception that stops it, if any
+    private void writeEvents() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        try {
+            while (this.running) {
+                if (log.drainTo(batch, batchSize) == 0) {
+                    syncIfDue();
+                    LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                } else {
+                    writeBatch(batch);
+                }
+            }
+            while (log.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        }
+    }
+
+    // MODIFIES: this, batch
+    // EFFECTS: appends the records of the events of batch to the journal with a single write per segment, rolling
+    // the segment over when it is full, then empties batch
+    private void writeBatch(List<Event> batch) throws IOException {
+        for (Event e : batch) {
+            byte[] description = e.getLogDescription().getBytes(StandardCharsets.UTF_8);
+            if (description.length > MAX_PAYLOAD_BYTES - Long.BYTES) {
+                description = Arrays.copyOf(description, MAX_PAYLOAD_BYTES - Long.BYTES);
+            }
+            int recordBytes = RECORD_HEADER_BYTES + Long.BYTES + description.length;
+            long size = segmentSize + buffer.position();
+            if (size > 0 && size + recordBytes > segmentBytes) {
+                flushBuffer();
+                rollSegment();
+            }
+            putRecord(e.getLogDate().getTime(), description, recordBytes);
+        }
+        flushBuffer();
+        this.eventsWritten += batch.size();
+        this.batchesWritten++;
+        batch.clear();
+        if (this.syncPolicy == SyncPolicy.EVERY_BATCH) {
+            sync();
+        } else {
+            syncIfDue();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the record of an event with the given date and description to the buffer
+    private void putRecord(long date, byte[] description, int recordBytes) {
+        if (buffer.remaining() < recordBytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + recordBytes));
+            buffer.flip();
+            larger.put(buffer);
+            this.buffer = larger;
+        }
+        int start = buffer.position();
+        int payloadBytes = recordBytes - RECORD_HEADER_BYTES;
+        buffer.putInt(payloadBytes).putInt(0).putLong(date).put(description);
+        crc.reset();
+        crc.update(buffer.array(), start + RECORD_HEADER_BYTES, payloadBytes);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the buffered records to the segment and empties the buffer
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            this.segmentSize += segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forces the segment to disk (unless the sync policy is NEVER), closes it and starts the next one,
+    // deleting the oldest segments beyond the number kept
+    private void rollSegment() throws IOException {
+        if (this.syncPolicy != SyncPolicy.NEVER) {
+            segment.force(false);
+        }
+        segment.close();
+        this.segmentIndex++;
+        openSegment();
+        pruneSegments();
+    }
+
+    // EFFECTS: deletes the oldest segments in the directory beyond the number kept, if there is a limit
+    private void pruneSegments() throws IOException {
+        if (this.maxSegments > 0) {
+            List<Long> segments = segmentIndexes(directory);
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segmentPath(directory, segments.get(i)));
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates the segment with the current index and opens it for appending
+    private void openSegment() throws IOException {
+        this.segment = FileChannel.open(segmentPath(directory, segmentIndex),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.segmentSize = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forces the segment to disk if the sync policy is INTERVAL and the interval has passed since the last
+    // time
+    private void syncIfDue() throws IOException {
+        if (this.syncPolicy == SyncPolicy.INTERVAL
+                && System.currentTimeMillis() - this.lastSyncMillis >= this.syncIntervalMillis) {
+            sync();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forces the segment to disk
+    private void sync() throws IOException {
+        segment.force(false);
+        this.lastSyncMillis = System.currentTimeMillis();
+    }
+
+    // EFFECTS: returns the path of the segment with the given index in directory
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    // EFFECTS: returns the indexes of the segments in directory, in increasing order; throws IOException if the
+    // directory can't be listed
+    static List<Long> segmentIndexes(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    indexes.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+}
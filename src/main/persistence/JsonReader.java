@@ -1,5 +1,12 @@
 package persistence;
 
+import model.CostBasisMethod;
+import model.OrderSide;
+import model.OrderType;
+import model.Position;
+import model.PriceBar;
+import model.PriceHistory;
+import model.RetentionPolicy;
 import model.Stock;
 import model.StockPortfolio;
 
@@ -10,6 +17,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 
@@ -25,7 +33,7 @@ public class JsonReader {
     private String stockName;
     private String stockCode;
     private String stockSector;
-    private ArrayList<Double> priceHistory;
+    private PriceHistory priceHistory;
     private double originalPrice;
     private double currentPrice;
     private int sharesOwned;
@@ -34,6 +42,7 @@ public class JsonReader {
     private double stockRealizedProfit;
     private double stockPotentialProfit;
     private double stockDailyVariation;
+    private Position position; // null if the stock was saved without its lots
 
     // MODIFIES: this
     // EFFECTS: constructs reader to read from source file
@@ -45,8 +54,18 @@ public class JsonReader {
     // EFFECTS: reads Stock Portfolio and returns it as JSONObject;
     // throws IOException if an error occurs reading data from file
     public StockPortfolio read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
+        return parse(readJson());
+    }
+
+    // EFFECTS: reads the source file as a JSON object and returns it;
+    // throws IOException if an error occurs reading data from file
+    public JSONObject readJson() throws IOException {
+        return new JSONObject(readFile(source));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses a Stock Portfolio from a JSON object read from a file and returns it
+    public StockPortfolio parse(JSONObject jsonObject) {
         return parseStockPortfolio(jsonObject);
     }
 
@@ -66,21 +85,32 @@ public class JsonReader {
     // EFFECTS: parses stockPortfolio from JSON object and returns it
     private StockPortfolio parseStockPortfolio(JSONObject jsonObject) {
         StockPortfolio stockPortfolio = new StockPortfolio("My Stock Portfolio");
+        JSONObject retention = jsonObject.optJSONObject("history_retention");
+        if (retention != null) {
+            stockPortfolio.setHistoryRetention(readRetentionPolicy(retention));
+        }
         addStocksToPool(stockPortfolio, jsonObject);
         addStocksToPortfolio(stockPortfolio, jsonObject);
         setRemainingFields(stockPortfolio, jsonObject);
+        addOpenOrders(stockPortfolio, jsonObject);
         return stockPortfolio;
     }
 
 
     // MODIFIES: this
-    // EFFECTS: Parse each stock from stock portfolio's stock portfolio
+    // EFFECTS: Parse each stock from stock portfolio's stock portfolio; a held stock that was saved in the stock pool
+    // too is the pool's stock
     private void addStocksToPortfolio(StockPortfolio stockPortfolio, JSONObject jsonObject) {
         JSONArray jsonArray = jsonObject.getJSONArray("stock_portfolio");
         for (Object json : jsonArray) {
             JSONObject nextEntry = (JSONObject) json;
-            addStockToPortfolio(stockPortfolio, nextEntry);
-            createNewStockFromJsonAddToPortfolio(stockPortfolio);
+            Stock pooled = stockPortfolio.getStockFromPool(nextEntry.getString("code"));
+            if (pooled != null && pooled.getSharesOwned() == nextEntry.getInt("shares_owned")) {
+                stockPortfolio.addStock(pooled);
+            } else {
+                addStockToPortfolio(stockPortfolio, nextEntry);
+                createNewStockFromJsonAddToPortfolio(stockPortfolio);
+            }
         }
     }
 
@@ -99,11 +129,8 @@ public class JsonReader {
         this.stockPotentialProfit = jsonObject.getDouble("potential_profit");
         this.stockDailyVariation = jsonObject.getDouble("daily_variation");
 
-        JSONArray priceHistoryArray = jsonObject.getJSONArray("price_history");
-        priceHistory = new ArrayList<>();
-        for (int i = 0; i < priceHistoryArray.length(); i++) {
-            priceHistory.add(priceHistoryArray.getDouble(i));
-        }
+        priceHistory = readHistory(jsonObject, "price_history");
+        this.position = readPosition(jsonObject);
     }
 
 
@@ -122,6 +149,9 @@ public class JsonReader {
         stock.setStockPotentialProfit(stockPotentialProfit);
         stock.setStockDailyVariation(stockDailyVariation);
         stock.setPriceHistory(priceHistory);
+        if (position != null) {
+            stock.setPosition(position);
+        }
 
         stockPortfolio.addStock(stock);
         stockPortfolio.addStockToPool(stock);
@@ -129,14 +159,16 @@ public class JsonReader {
 
 
     // MODIFIES: StockPortfolio
-    // EFFECTS: Parse each stock from stock portfolio's stock pool
+    // EFFECTS: Parse each stock from stock portfolio's stock pool, which replaces the initial pool, in order
     private void addStocksToPool(StockPortfolio stockPortfolio, JSONObject jsonObject) {
         JSONArray jsonArray = jsonObject.getJSONArray("stock_pool");
+        List<Stock> stocks = new ArrayList<>(jsonArray.length());
         for (Object json : jsonArray) {
             JSONObject nextEntry = (JSONObject) json;
             addStockToPool(stockPortfolio, nextEntry);
-            createNewStockFromJsonAddToPool(stockPortfolio);
+            stocks.add(createNewStockFromJson());
         }
+        stockPortfolio.getMarket().loadStocks(stocks);
     }
 
     // MODIFIES: Stock
@@ -154,15 +186,12 @@ public class JsonReader {
         this.stockPotentialProfit = jsonObject.getDouble("potential_profit");
         this.stockDailyVariation = jsonObject.getDouble("daily_variation");
 
-        JSONArray priceHistoryArray = jsonObject.getJSONArray("price_history");
-        priceHistory = new ArrayList<>();
-        for (int i = 0; i < priceHistoryArray.length(); i++) {
-            priceHistory.add(priceHistoryArray.getDouble(i));
-        }
+        priceHistory = readHistory(jsonObject, "price_history");
+        this.position = readPosition(jsonObject);
     }
 
-    // EFFECTS: set Stock's fields when going into the stock pool
-    private void createNewStockFromJsonAddToPool(StockPortfolio stockPortfolio) {
+    // EFFECTS: returns a new stock with the fields parsed for the stock pool
+    private Stock createNewStockFromJson() {
         Stock stock = new Stock("placeholder", "XYZ", "placeholder");
         stock.setStockName(stockName);
         stock.setStockCode(stockCode);
@@ -176,8 +205,10 @@ public class JsonReader {
         stock.setStockPotentialProfit(stockPotentialProfit);
         stock.setStockDailyVariation(stockDailyVariation);
         stock.setPriceHistory(priceHistory);
-
-        stockPortfolio.addStockToPool(stock);
+        if (position != null) {
+            stock.setPosition(position);
+        }
+        return stock;
     }
 
     // EFFECTS: sets remaining fields of the stock portfolio parsing from stored Json file
@@ -188,11 +219,7 @@ public class JsonReader {
         String marketState = jsonObject.getString("market_state");
         double totalPNL = jsonObject.getDouble("total_pnl");
 
-        JSONArray pnlHistoryArray = jsonObject.getJSONArray("pnl_history");
-        ArrayList<Double> pnlHistory = new ArrayList<>();
-        for (int i = 0; i < pnlHistoryArray.length(); i++) {
-            pnlHistory.add(pnlHistoryArray.getDouble(i));
-        }
+        PriceHistory pnlHistory = readHistory(jsonObject, "pnl_history");
 
         stockPortfolio.setStockPortfolioName(stockPortfolioName);
         stockPortfolio.setStockPortfolioBalance(stockPortfolioBalance);
@@ -200,6 +227,73 @@ public class JsonReader {
         stockPortfolio.setMarketState(marketState);
         stockPortfolio.setTotalPNL(totalPNL);
         stockPortfolio.setPnlHistory(pnlHistory);
+        stockPortfolio.setRealizedPNL(jsonObject.optDouble("realized_pnl", 0));
+        String method = jsonObject.optString("cost_basis_method", CostBasisMethod.FIFO.name());
+        stockPortfolio.setCostBasisMethod(CostBasisMethod.valueOf(method));
+    }
+
+    // MODIFIES: stockPortfolio
+    // EFFECTS: rests the saved open orders again, if any were saved, and restores the next order id
+    private void addOpenOrders(StockPortfolio stockPortfolio, JSONObject jsonObject) {
+        JSONArray orders = jsonObject.optJSONArray("open_orders");
+        if (orders != null) {
+            for (int i = 0; i < orders.length(); i++) {
+                JSONObject order = orders.getJSONObject(i);
+                stockPortfolio.restoreOrder(order.getLong("id"), order.getString("code"),
+                        OrderSide.valueOf(order.getString("side")), OrderType.valueOf(order.getString("type")),
+                        order.getDouble("price"), order.getInt("shares"));
+            }
+        }
+        stockPortfolio.setNextOrderId(jsonObject.optLong("next_order_id", stockPortfolio.getNextOrderId()));
+    }
+
+    // EFFECTS: parses a stock's lots from JSON into a new position, or returns null if they were not saved
+    private Position readPosition(JSONObject jsonObject) {
+        if (!jsonObject.has("lots")) {
+            return null;
+        }
+        String method = jsonObject.optString("cost_basis_method", CostBasisMethod.FIFO.name());
+        Position position = new Position(CostBasisMethod.valueOf(method));
+        JSONArray lots = jsonObject.getJSONArray("lots");
+        for (int i = 0; i < lots.length(); i++) {
+            JSONObject lot = lots.getJSONObject(i);
+            position.buy(lot.getInt("shares"), lot.getDouble("price"));
+        }
+        return position;
+    }
+
+    // EFFECTS: parses the array of doubles under key from JSON into a new history, in order, restoring its
+    // retention policy, first retained day and bars if they were saved under key + "_retention"
+    private PriceHistory readHistory(JSONObject jsonObject, String key) {
+        JSONArray jsonArray = jsonObject.getJSONArray(key);
+        double[] values = new double[jsonArray.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = jsonArray.getDouble(i);
+        }
+        JSONObject retention = jsonObject.optJSONObject(key + "_retention");
+        if (retention == null) {
+            return new PriceHistory(values);
+        }
+        return PriceHistory.restore(readRetentionPolicy(retention.getJSONObject("policy")),
+                retention.getInt("first_day"), readBars(retention.getJSONArray("monthly_bars")),
+                readBars(retention.getJSONArray("weekly_bars")), values);
+    }
+
+    // EFFECTS: parses a retention policy from JSON
+    private RetentionPolicy readRetentionPolicy(JSONObject jsonObject) {
+        return new RetentionPolicy(jsonObject.getInt("full_resolution_days"), jsonObject.getInt("weekly_bars"),
+                jsonObject.getInt("monthly_bars"));
+    }
+
+    // EFFECTS: parses an array of bars from JSON, in order
+    private List<PriceBar> readBars(JSONArray jsonArray) {
+        List<PriceBar> bars = new ArrayList<>(jsonArray.length());
+        for (int i = 0; i < jsonArray.length(); i++) {
+            JSONObject bar = jsonArray.getJSONObject(i);
+            bars.add(new PriceBar(bar.getInt("first_day"), bar.getInt("days"), bar.getDouble("open"),
+                    bar.getDouble("high"), bar.getDouble("low"), bar.getDouble("close")));
+        }
+        return bars;
     }
 
 }
@@ -0,0 +1,245 @@
+package persistence;
+
+import model.CommandRecorder;
+import model.CommandType;
+import model.CostBasisMethod;
+import model.JournalCommand;
+import model.OrderSide;
+import model.OrderType;
+import model.StockPortfolio;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class PortfolioJournal implements CommandRecorder {
+
+    /*
+    CLASS-LEVEL COMMENT: Portfolio Journal
+    Saves a stock portfolio as a JSON snapshot followed by an append-only binary journal of the commands it executed
+    since. Recording a command appends a few bytes to the journal instead of rewriting the whole portfolio. Every
+    snapshotInterval commands a new snapshot is taken and the journal starts over, which bounds replay time.
+    Each journal record is its sequence number, its command type and the command's arguments. A snapshot holds the
+    sequence number of the last command it includes, so records it already includes are skipped on replay, and a
+    record cut short by a crash ends the journal.
+    */
+
+    private static final String SEQUENCE_KEY = "journal_sequence";
+
+    private String snapshotPath;
+    private String journalPath;
+    private int snapshotInterval; // commands recorded between snapshots; 0 never snapshots automatically
+    private StockPortfolio portfolio; // the portfolio being recorded, or null
+    private DataOutputStream journal;
+    private long sequence; // sequence number of the last command recorded or replayed
+    private int commandsSinceSnapshot;
+    private long replayedCommands;
+    private long replayNanos;
+
+    // REQUIRES: snapshotInterval >= 0
+    // EFFECTS: constructs a journal keeping its snapshot and commands in the given files
+    public PortfolioJournal(String snapshotPath, String journalPath, int snapshotInterval) {
+        this.snapshotPath = snapshotPath;
+        this.journalPath = journalPath;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    // EFFECTS: returns the sequence number of the last command recorded or replayed
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    // EFFECTS: returns the number of commands applied by the last replay
+    public long getReplayedCommands() {
+        return this.replayedCommands;
+    }
+
+    // EFFECTS: returns the throughput of the last replay, in commands applied per second
+    public double getReplayCommandsPerSecond() {
+        return this.replayNanos == 0 ? 0 : this.replayedCommands * 1e9 / this.replayNanos;
+    }
+
+    // MODIFIES: this, portfolio
+    // EFFECTS: takes a snapshot of portfolio, then records every command it executes; throws IOException if the
+    // snapshot or journal can't be written
+    public void open(StockPortfolio portfolio) throws IOException {
+        close();
+        this.portfolio = portfolio;
+        snapshot();
+        portfolio.setCommandRecorder(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a snapshot of the portfolio being recorded and starts the journal over; throws IOException if
+    // the snapshot or journal can't be written
+    public void snapshot() throws IOException {
+        JSONObject json = this.portfolio.toJson();
+        json.put(SEQUENCE_KEY, this.sequence);
+        Path snapshot = Paths.get(this.snapshotPath);
+        Path temporary = Paths.get(this.snapshotPath + ".tmp");
+        Files.write(temporary, json.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (this.journal != null) {
+            this.journal.close();
+        }
+        this.journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.journalPath)));
+        this.commandsSinceSnapshot = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops recording the portfolio's commands and closes the journal; throws IOException if the journal
+    // can't be closed
+    public void close() throws IOException {
+        if (this.portfolio != null) {
+            this.portfolio.setCommandRecorder(null);
+            this.portfolio = null;
+        }
+        if (this.journal != null) {
+            this.journal.close();
+            this.journal = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends command to the journal, taking a new snapshot once snapshotInterval commands were recorded
+    // since the last one; throws UncheckedIOException if the journal can't be written
+    @Override
+    public void record(JournalCommand command) {
+        try {
+            this.sequence++;
+            this.journal.writeLong(this.sequence);
+            write(this.journal, command);
+            this.journal.flush();
+            this.commandsSinceSnapshot++;
+            if (this.snapshotInterval > 0 && this.commandsSinceSnapshot >= this.snapshotInterval) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rebuilds the portfolio from the snapshot and the commands recorded after it, and returns it; the
+    // portfolio is not recorded until it is opened. Throws IOException if the snapshot or journal can't be read.
+    public StockPortfolio replay() throws IOException {
+        JsonReader reader = new JsonReader(this.snapshotPath);
+        JSONObject json = reader.readJson();
+        StockPortfolio rebuilt = reader.parse(json);
+        this.sequence = json.optLong(SEQUENCE_KEY, 0);
+        this.replayedCommands = 0;
+        long start = System.nanoTime();
+        if (new File(this.journalPath).exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(this.journalPath)))) {
+                replay(in, rebuilt);
+            }
+        }
+        this.replayNanos = System.nanoTime() - start;
+        return rebuilt;
+    }
+
+    // MODIFIES: this, rebuilt
+    // EFFECTS: applies each complete record of in not included in the snapshot to rebuilt, in order
+    private void replay(DataInputStream in, StockPortfolio rebuilt) throws IOException {
+        try {
+            while (true) {
+                long recordSequence = in.readLong();
+                JournalCommand command = read(in);
+                if (recordSequence > this.sequence) {
+                    command.applyTo(rebuilt);
+                    this.sequence = recordSequence;
+                    this.replayedCommands++;
+                }
+            }
+        } catch (EOFException e) {
+            // end of the journal, or a record cut short
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes command's type and arguments to out
+    private static void write(DataOutputStream out, JournalCommand command) throws IOException {
+        out.writeByte(command.getType().ordinal());
+        switch (command.getType()) {
+            case BUY:
+            case SELL:
+                out.writeUTF(command.getStockCode());
+                out.writeInt(command.getAmount());
+                break;
+            case PROGRESS:
+                out.writeInt(command.getAmount());
+                out.writeLong(command.getNumber());
+                break;
+            case CREATE_STOCK:
+                out.writeUTF(command.getStockName());
+                out.writeUTF(command.getStockCode());
+                out.writeUTF(command.getStockSector());
+                out.writeDouble(command.getPrice());
+                break;
+            default:
+                writeOrderArguments(out, command);
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes the arguments of a command about orders, cost basis or loans to out
+    private static void writeOrderArguments(DataOutputStream out, JournalCommand command) throws IOException {
+        switch (command.getType()) {
+            case PLACE_ORDER:
+                out.writeUTF(command.getStockCode());
+                out.writeByte(command.getSide().ordinal());
+                out.writeByte(command.getOrderType().ordinal());
+                out.writeDouble(command.getPrice());
+                out.writeInt(command.getAmount());
+                break;
+            case CANCEL_ORDER:
+                out.writeLong(command.getNumber());
+                break;
+            case COST_BASIS:
+                out.writeByte(command.getMethod().ordinal());
+                break;
+            default:
+                break; // LOAN has no arguments
+        }
+    }
+
+    // MODIFIES: in
+    // EFFECTS: reads a command's type and arguments from in; throws EOFException if in ends first
+    private static JournalCommand read(DataInputStream in) throws IOException {
+        CommandType type = CommandType.values()[in.readUnsignedByte()];
+        switch (type) {
+            case BUY:
+                return JournalCommand.buy(in.readUTF(), in.readInt());
+            case SELL:
+                return JournalCommand.sell(in.readUTF(), in.readInt());
+            case PROGRESS:
+                return JournalCommand.progress(in.readInt(), in.readLong());
+            case CREATE_STOCK:
+                return JournalCommand.createStock(in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble());
+            case PLACE_ORDER:
+                return JournalCommand.placeOrder(in.readUTF(), OrderSide.values()[in.readUnsignedByte()],
+                        OrderType.values()[in.readUnsignedByte()], in.readDouble(), in.readInt());
+            case CANCEL_ORDER:
+                return JournalCommand.cancelOrder(in.readLong());
+            case COST_BASIS:
+                return JournalCommand.costBasis(CostBasisMethod.values()[in.readUnsignedByte()]);
+            default:
+                return JournalCommand.loan();
+        }
+    }
+
+}
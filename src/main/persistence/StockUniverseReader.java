@@ -0,0 +1,95 @@
+package persistence;
+
+import model.Stock;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class StockUniverseReader {
+
+    /*
+    CLASS-LEVEL COMMENT: Stock Universe Reader
+    Reads a universe of stocks from a local file, one stock per line, to load large stock pools. Each line is either:
+     - a JSON object with "name", "code", "sector" and, optionally, "price" fields (JSON lines), or
+     - comma-separated values: name,code,sector[,price] (CSV, no quoting)
+    Blank lines, lines starting with '#' and a CSV header line starting with "name," are skipped. Stocks without a
+    price get a random original price, like a new Stock; a given price must be positive and finite. The lines of the
+    file are parsed in parallel; stocks are returned in file order, and a line that can't be parsed is reported with
+    its line number.
+    */
+
+    private static final String CSV_HEADER = "name,";
+
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public StockUniverseReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads the stocks in the source file and returns them in file order;
+    // throws IOException if an error occurs reading data from file or a line cannot be parsed
+    public List<Stock> read() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(source), StandardCharsets.UTF_8);
+        try {
+            return IntStream.range(0, lines.size()).parallel()
+                    .filter(i -> isStockLine(lines.get(i).trim()))
+                    .mapToObj(i -> parseStock(lines.get(i).trim(), i + 1))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (RuntimeException e) {
+            throw new IOException("Couldn't parse stock universe from " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    // EFFECTS: returns true if the trimmed line describes a stock, rather than being blank, a comment or the header
+    private boolean isStockLine(String line) {
+        return !line.isEmpty() && !line.startsWith("#") && !line.startsWith(CSV_HEADER);
+    }
+
+    // EFFECTS: parses a stock from a JSON or CSV line; throws IllegalArgumentException, naming the line number, if
+    // the line is malformed or its price isn't positive and finite
+    private Stock parseStock(String line, int lineNumber) {
+        try {
+            return parseStock(line);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    // EFFECTS: parses a stock from a JSON or CSV line
+    private Stock parseStock(String line) {
+        if (line.startsWith("{")) {
+            JSONObject json = new JSONObject(line);
+            String name = json.getString("name");
+            String code = json.getString("code");
+            String sector = json.getString("sector");
+            return json.has("price") ? new Stock(name, code, sector, checkPrice(json.getDouble("price")))
+                    : new Stock(name, code, sector);
+        }
+        String[] fields = line.split(",", -1);
+        if (fields.length < 3 || fields.length > 4) {
+            throw new IllegalArgumentException("expected name,code,sector[,price] but got: " + line);
+        }
+        String name = fields[0].trim();
+        String code = fields[1].trim();
+        String sector = fields[2].trim();
+        return fields.length == 4 ? new Stock(name, code, sector, checkPrice(Double.parseDouble(fields[3].trim())))
+                : new Stock(name, code, sector);
+    }
+
+    // EFFECTS: returns price; throws IllegalArgumentException if it isn't positive and finite
+    private static double checkPrice(double price) {
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("expected a positive price but got: " + price);
+        }
+        return price;
+    }
+
+}
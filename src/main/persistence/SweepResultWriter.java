@@ -0,0 +1,131 @@
+package persistence;
+
+import model.BacktestResult;
+import model.SweepResultSink;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SweepResultWriter implements SweepResultSink {
+
+    /*
+    CLASS-LEVEL COMMENT: Sweep Result Writer
+    Writes the results of a parameter sweep to a file, one line per configuration, in the order configurations
+    finish: either as CSV, with a header naming the columns, or as JSON lines, one JSON object per line. Each line is
+    written as soon as its result arrives, so the file grows while the sweep runs and nothing is kept in memory.
+    */
+
+    public enum Format {
+        CSV,
+        JSON_LINES
+    }
+
+    private static final String[] RESULT_COLUMNS = {"strategy", "days", "pnl", "max_drawdown",
+        "max_drawdown_percent", "turnover", "trades", "final_equity"};
+
+    private String destination;
+    private Format format;
+    private List<String> parameterNames;
+    private PrintWriter writer;
+    private long resultsWritten;
+
+    // EFFECTS: constructs a writer of the results of a sweep over the parameters with the given names
+    public SweepResultWriter(String destination, Format format, List<String> parameterNames) {
+        this.destination = destination;
+        this.format = format;
+        this.parameterNames = new ArrayList<>(parameterNames);
+    }
+
+    // EFFECTS: returns the number of results written since the writer was opened
+    public long getResultsWritten() {
+        return this.resultsWritten;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the writer, starting a new file, and writes the CSV header if writing CSV; throws IOException
+    // if the destination file can't be opened for writing
+    public void open() throws IOException {
+        this.writer = new PrintWriter(new BufferedWriter(new FileWriter(destination)));
+        this.resultsWritten = 0;
+        if (this.format == Format.CSV) {
+            List<String> header = new ArrayList<>();
+            header.add("index");
+            header.addAll(parameterNames);
+            for (String column : RESULT_COLUMNS) {
+                header.add(column);
+            }
+            writer.println(String.join(",", header));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the line of a configuration's result
+    @Override
+    public void accept(long index, double[] parameters, BacktestResult result) {
+        if (this.format == Format.CSV) {
+            writer.println(toCsv(index, parameters, result));
+        } else {
+            writer.println(toJson(index, parameters, result).toString());
+        }
+        this.resultsWritten++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the lines still buffered and closes the writer; does nothing if the writer was never opened
+    public void close() {
+        if (this.writer != null) {
+            writer.close();
+        }
+    }
+
+    // EFFECTS: returns the CSV line of a configuration's result
+    private String toCsv(long index, double[] parameters, BacktestResult result) {
+        StringBuilder line = new StringBuilder();
+        line.append(index);
+        for (double parameter : parameters) {
+            line.append(',').append(parameter);
+        }
+        line.append(',').append(quote(result.getStrategyName()))
+                .append(',').append(result.getDays())
+                .append(',').append(result.getPnL())
+                .append(',').append(result.getMaxDrawdown())
+                .append(',').append(result.getMaxDrawdownPercent())
+                .append(',').append(result.getTurnover())
+                .append(',').append(result.getTrades())
+                .append(',').append(result.getFinalEquity());
+        return line.toString();
+    }
+
+    // EFFECTS: returns the JSON object of a configuration's result
+    private JSONObject toJson(long index, double[] parameters, BacktestResult result) {
+        JSONObject json = new JSONObject();
+        json.put("index", index);
+        JSONObject values = new JSONObject();
+        for (int i = 0; i < parameters.length; i++) {
+            values.put(parameterNames.get(i), parameters[i]);
+        }
+        json.put("parameters", values);
+        json.put(RESULT_COLUMNS[0], result.getStrategyName());
+        json.put(RESULT_COLUMNS[1], result.getDays());
+        json.put(RESULT_COLUMNS[2], result.getPnL());
+        json.put(RESULT_COLUMNS[3], result.getMaxDrawdown());
+        json.put(RESULT_COLUMNS[4], result.getMaxDrawdownPercent());
+        json.put(RESULT_COLUMNS[5], result.getTurnover());
+        json.put(RESULT_COLUMNS[6], result.getTrades());
+        json.put(RESULT_COLUMNS[7], result.getFinalEquity());
+        return json;
+    }
+
+    // EFFECTS: returns value as a CSV field, quoted if it holds a comma, a quote or a line break
+    private static String quote(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
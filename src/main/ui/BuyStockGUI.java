@@ -1,5 +1,8 @@
 package ui;
 
+import model.Order;
+import model.OrderSide;
+import model.OrderType;
 import model.StockPortfolio;
 
 import javax.swing.*;
@@ -20,14 +23,18 @@ public class BuyStockGUI extends JFrame implements ActionListener {
     // Buttons:
     JButton confirmButton;
     JComboBox possibleBuyStocks;
+    JComboBox<String> orderTypes;
     HeaderGUI headerBar = new HeaderGUI();
 
     // Labels:
     JLabel buyLabel;
     JLabel numberLabel;
+    JLabel orderTypeLabel;
+    JLabel priceLabel;
 
     // Fields:
     JTextField numberOfSharesField;
+    JTextField priceField;
 
 
     Color bgColor = new Color(50, 50, 50);
@@ -79,11 +86,32 @@ public class BuyStockGUI extends JFrame implements ActionListener {
         buyStockPanel.add(numberOfSharesField);
         buyStockPanel.add(Box.createRigidArea(space));
         buyStockPanel.add(Box.createRigidArea(space));
-        buyStockPanel.add(confirmButton);
+        buyStockPanel.add(createOrderPanel());
 
         return buyStockPanel;
     }
 
+    private JPanel createOrderPanel() {
+        JPanel orderPanel = new JPanel();
+        orderPanel.setBackground(bgColor2);
+        orderPanel.setLayout(new BoxLayout(orderPanel, BoxLayout.Y_AXIS));
+        orderPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        Dimension space = new Dimension(10, 10);
+
+        orderPanel.add(orderTypeLabel);
+        orderPanel.add(Box.createRigidArea(space));
+        orderPanel.add(orderTypes);
+        orderPanel.add(Box.createRigidArea(space));
+        orderPanel.add(priceLabel);
+        orderPanel.add(Box.createRigidArea(space));
+        orderPanel.add(priceField);
+        orderPanel.add(Box.createRigidArea(space));
+        orderPanel.add(Box.createRigidArea(space));
+        orderPanel.add(confirmButton);
+
+        return orderPanel;
+    }
+
     private void initComponents() {
         buyLabel = new JLabel("Please select a stock to buy:");
         buyLabel.setForeground(new Color(200, 200, 200));
@@ -107,6 +135,27 @@ public class BuyStockGUI extends JFrame implements ActionListener {
         confirmButton.setMinimumSize(new Dimension(250, 50));
         confirmButton.setMaximumSize(new Dimension(250, 50));
         confirmButton.addActionListener(this);
+
+        initOrderComponents();
+    }
+
+    // EFFECTS: initializes the order type dropdown and the limit / stop price field
+    private void initOrderComponents() {
+        orderTypeLabel = new JLabel("Please select an order type:");
+        orderTypeLabel.setForeground(new Color(200, 200, 200));
+        orderTypeLabel.setHorizontalAlignment(JLabel.CENTER);
+
+        orderTypes = new JComboBox<>(new String[] {"Market", "Limit", "Stop"});
+        orderTypes.setMinimumSize(new Dimension(300, 25));
+        orderTypes.setMaximumSize(new Dimension(300, 25));
+
+        priceLabel = new JLabel("Limit / stop price (not used for market orders):");
+        priceLabel.setForeground(new Color(200, 200, 200));
+        priceLabel.setHorizontalAlignment(JLabel.CENTER);
+
+        priceField = new JTextField();
+        priceField.setMinimumSize(new Dimension(300, 25));
+        priceField.setMaximumSize(new Dimension(300, 25));
     }
 
     private void recenterComponents() {
@@ -114,6 +163,10 @@ public class BuyStockGUI extends JFrame implements ActionListener {
         possibleBuyStocks.setAlignmentX(Component.CENTER_ALIGNMENT);
         numberLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         numberOfSharesField.setAlignmentX(Component.CENTER_ALIGNMENT);
+        orderTypeLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        orderTypes.setAlignmentX(Component.CENTER_ALIGNMENT);
+        priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        priceField.setAlignmentX(Component.CENTER_ALIGNMENT);
         confirmButton.setAlignmentX(Component.CENTER_ALIGNMENT);
     }
 
@@ -131,10 +184,32 @@ public class BuyStockGUI extends JFrame implements ActionListener {
         }
     }
 
+    // MODIFIES: this, stockPortfolio
+    // EFFECTS: places a limit or stop buy order and reports whether it was filled at once, is resting or failed
+    private void placeBuyOrderGUI(OrderType type) {
+        String toBuy = possibleBuyStocks.getSelectedItem().toString();
+        int numShares = Integer.parseInt(numberOfSharesField.getText());
+        double price = Double.parseDouble(priceField.getText());
+        Order order = stockPortfolio.placeOrder(toBuy, OrderSide.BUY, type, price, numShares);
+        if (order == null) {
+            JOptionPane.showMessageDialog(null, "Could not place order.",
+                    "Failed to Place Order", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "Order " + order + " is " + order.getStatus()
+                            + ", your balance is: $" + df.format(stockPortfolio.getStockPortfolioBalance()),
+                    "Order Placed!", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == confirmButton) {
-            buyStockGUI();
+            String type = orderTypes.getSelectedItem().toString();
+            if (type.equals("Market")) {
+                buyStockGUI();
+            } else {
+                placeBuyOrderGUI(OrderType.valueOf(type.toUpperCase()));
+            }
         }
     }
 
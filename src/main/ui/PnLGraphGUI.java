@@ -1,5 +1,6 @@
 package ui;
 
+import model.PriceHistory;
 import model.StockPortfolio;
 
 import javax.swing.*;
@@ -29,7 +30,7 @@ public class PnLGraphGUI extends JPanel {
 
     // Models: stock-portfolio and scores (holds all pnl values)
     final StockPortfolio stockPortfolio;
-    List<Double> pnlValues;
+    PriceHistory pnlValues;
 
     // Constructor
     public PnLGraphGUI(StockPortfolio stockPortfolio) {
@@ -52,7 +53,7 @@ public class PnLGraphGUI extends JPanel {
         List<Point> graphPoints = new ArrayList<>();
         for (int i = 0; i < pnlValues.size(); i++) {
             int x1 = (int) (i * xscale + padding + labelPadding);
-            int y1 = (int) ((getMaxValue() - pnlValues.get(i)) * yscale + padding);
+            int y1 = (int) ((getMaxValue() - pnlValues.getDouble(i)) * yscale + padding);
             graphPoints.add(new Point(x1, y1));
         }
 
@@ -142,8 +143,8 @@ public class PnLGraphGUI extends JPanel {
     // EFFECTS: Gets minimum value stored in pnlValues
     private double getMinValue() {
         double minScore = Double.MAX_VALUE;
-        for (Double score : pnlValues) {
-            minScore = Math.min(minScore, score);
+        for (int i = 0; i < pnlValues.size(); i++) {
+            minScore = Math.min(minScore, pnlValues.getDouble(i));
         }
         return minScore;
     }
@@ -151,8 +152,8 @@ public class PnLGraphGUI extends JPanel {
     // EFFECTS: Gets maximum value stored in pnlValues
     private double getMaxValue() {
         double maxScore = Double.MIN_VALUE;
-        for (Double score : pnlValues) {
-            maxScore = Math.max(maxScore, score);
+        for (int i = 0; i < pnlValues.size(); i++) {
+            maxScore = Math.max(maxScore, pnlValues.getDouble(i));
         }
         return maxScore;
     }
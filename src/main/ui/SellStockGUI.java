@@ -1,5 +1,8 @@
 package ui;
 
+import model.Order;
+import model.OrderSide;
+import model.OrderType;
 import model.StockPortfolio;
 
 import javax.swing.*;
@@ -13,6 +16,8 @@ import java.text.DecimalFormat;
 /*
 Represents a Stock Selling GUI, has:
 - Dropdown with current stock portfolio's stocks that is used in order to select which stock to sell
+- Dropdown with the order type: a market sale sells all shares at once, a limit or stop order sells the given number
+  of shares once the price triggers it
 - Submit button, used to conclude stock's sale
  */
 public class SellStockGUI extends JFrame implements ActionListener {
@@ -23,11 +28,17 @@ public class SellStockGUI extends JFrame implements ActionListener {
 
     // Components:
     JComboBox possibleSellStocks;
+    JComboBox<String> orderTypes;
     JButton confirmSellStockButton;
     HeaderGUI headerBar = new HeaderGUI();
 
     // labels:
     JLabel sellLabel;
+    JLabel orderLabel;
+
+    // fields:
+    JTextField numberOfSharesField;
+    JTextField priceField;
 
     // Support Colors:
     Color bgColor = new Color(50, 50, 50);
@@ -76,6 +87,14 @@ public class SellStockGUI extends JFrame implements ActionListener {
         sellStockPanel.add(Box.createRigidArea(space));
         sellStockPanel.add(possibleSellStocks);
         sellStockPanel.add(Box.createRigidArea(space));
+        sellStockPanel.add(orderLabel);
+        sellStockPanel.add(Box.createRigidArea(space));
+        sellStockPanel.add(orderTypes);
+        sellStockPanel.add(Box.createRigidArea(space));
+        sellStockPanel.add(numberOfSharesField);
+        sellStockPanel.add(Box.createRigidArea(space));
+        sellStockPanel.add(priceField);
+        sellStockPanel.add(Box.createRigidArea(space));
         sellStockPanel.add(confirmSellStockButton);
 
         return sellStockPanel;
@@ -96,12 +115,34 @@ public class SellStockGUI extends JFrame implements ActionListener {
         confirmSellStockButton.setMinimumSize(new Dimension(250, 50));
         confirmSellStockButton.setMaximumSize(new Dimension(250, 50));
         confirmSellStockButton.addActionListener(this);
+
+        initOrderComponents();
+    }
+
+    // EFFECTS: initializes the order type dropdown and the shares and limit / stop price fields
+    private void initOrderComponents() {
+        orderLabel = new JLabel("Order type, then shares and limit / stop price (not used for market sales):");
+        orderLabel.setForeground(new Color(200, 200, 200));
+        orderLabel.setHorizontalAlignment(JLabel.CENTER);
+
+        orderTypes = new JComboBox<>(new String[] {"Market", "Limit", "Stop"});
+        orderTypes.setMaximumSize(new Dimension(300, 25));
+
+        numberOfSharesField = new JTextField();
+        numberOfSharesField.setMaximumSize(new Dimension(300, 25));
+
+        priceField = new JTextField();
+        priceField.setMaximumSize(new Dimension(300, 25));
     }
 
     // EFFECTS: recenters all components to the center of the x-axis
     private void recenterComponents() {
         sellLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         possibleSellStocks.setAlignmentX(Component.CENTER_ALIGNMENT);
+        orderLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        orderTypes.setAlignmentX(Component.CENTER_ALIGNMENT);
+        numberOfSharesField.setAlignmentX(Component.CENTER_ALIGNMENT);
+        priceField.setAlignmentX(Component.CENTER_ALIGNMENT);
         confirmSellStockButton.setAlignmentX(Component.CENTER_ALIGNMENT);
     }
 
@@ -119,11 +160,33 @@ public class SellStockGUI extends JFrame implements ActionListener {
         }
     }
 
+    // MODIFIES: this, stockPortfolio
+    // EFFECTS: places a limit or stop sell order and reports whether it was filled at once, is resting or failed
+    private void placeSellOrderGUI(OrderType type) {
+        String toSell = possibleSellStocks.getSelectedItem().toString();
+        int numShares = Integer.parseInt(numberOfSharesField.getText());
+        double price = Double.parseDouble(priceField.getText());
+        Order order = stockPortfolio.placeOrder(toSell, OrderSide.SELL, type, price, numShares);
+        if (order == null) {
+            JOptionPane.showMessageDialog(null, "Could not place order.",
+                    "Failed to Place Order", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "Order " + order + " is " + order.getStatus()
+                            + ", your balance is: $" + df.format(stockPortfolio.getStockPortfolioBalance()),
+                    "Order Placed!", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
     // EFFECTS: handles button press to conclude sale
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == confirmSellStockButton) {
-            sellStockGUI();
+            String type = orderTypes.getSelectedItem().toString();
+            if (type.equals("Market")) {
+                sellStockGUI();
+            } else {
+                placeSellOrderGUI(OrderType.valueOf(type.toUpperCase()));
+            }
         }
     }
 }
@@ -2,6 +2,7 @@ package ui;
 
 import model.*;
 import model.Event;
+import persistence.EventJournalWriter;
 import persistence.JsonReader;
 import persistence.JsonWriter;
 import javax.swing.*;
@@ -31,8 +32,12 @@ public class TradingAppGUI extends JFrame implements ActionListener  {
     String nameInput;
     double valueInput;
     private static final String JSON_PATH = "./data/stock_portfolio.json";
+    private static final String EVENT_JOURNAL_PATH = "./data/events";
+    private static final long EVENT_SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final int EVENT_SEGMENTS_KEPT = 16;
     private JsonWriter jsonWriter;
     private JsonReader jsonReader;
+    private EventJournalWriter eventJournal; // writes the event log to disk as the app runs, or null
 
     DecimalFormat df = new DecimalFormat("0.00");
 
@@ -69,6 +74,7 @@ public class TradingAppGUI extends JFrame implements ActionListener  {
         stockPortfolio = new StockPortfolio("My Stock Portfolio");
         jsonWriter = new JsonWriter(JSON_PATH);
         jsonReader = new JsonReader(JSON_PATH);
+        startEventJournal();
 
         initButtons();
 
@@ -215,6 +221,7 @@ public class TradingAppGUI extends JFrame implements ActionListener  {
         } else if (e.getSource() == exitButton) {
             exitStockPortfolioGUI();
         }
+        checkEventJournal();
     }
 
     // EFFECTS: exits the application
@@ -223,9 +230,49 @@ public class TradingAppGUI extends JFrame implements ActionListener  {
                 "Thank you for using Trading Simulator! See you soon.",
                 "Goodbye!", JOptionPane.PLAIN_MESSAGE);
         printLoggedEvents(EventLog.getInstance());
+        closeEventJournal();
         System.exit(0);
     }
 
+    // MODIFIES: this
+    // EFFECTS: starts writing the event log to the event journal; the app runs without one if it can't be started
+    private void startEventJournal() {
+        eventJournal = new EventJournalWriter(EventLog.getInstance(), EVENT_JOURNAL_PATH, EVENT_SEGMENT_BYTES,
+                EVENT_SEGMENTS_KEPT);
+        try {
+            eventJournal.start();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null,
+                    "Unable to start the event journal in: " + EVENT_JOURNAL_PATH,
+                    "Failed to Start Event Journal", JOptionPane.ERROR_MESSAGE);
+            eventJournal = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the event journal stopped writing, reports it and closes it; the app then runs without one
+    private void checkEventJournal() {
+        if (eventJournal != null && eventJournal.getFailure() != null) {
+            closeEventJournal();
+            eventJournal = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the events still in the event log to the event journal and closes it
+    private void closeEventJournal() {
+        if (eventJournal == null) {
+            return;
+        }
+        try {
+            eventJournal.close();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null,
+                    "Unable to write the event journal in: " + EVENT_JOURNAL_PATH + "\n" + e.getMessage(),
+                    "Failed to Write Event Journal", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // EFFECTS: progresses to the next day, updates all fiels of the stock portfolio
     private void progressNextDayGUI() {
         this.stockPortfolio.progressDay();
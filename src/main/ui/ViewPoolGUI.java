@@ -69,8 +69,8 @@ public class ViewPoolGUI extends JFrame {
 
     // EFFECTS: creates labels for all stock in the stock portfolio's pool
     private void createAllLabels() {
-        List<Stock> stocks = stockPortfolio.getStockPool();
-        for (Stock s : stocks) {
+        List<StockSnapshot> stocks = stockPortfolio.getSnapshot().getStockPool();
+        for (StockSnapshot s : stocks) {
             JLabel label = new JLabel(
                     "Stock: " + s.getStockName() + " | "
                             + "Code: " + s.getStockCode() + " | "
@@ -1,7 +1,8 @@
 package ui;
 
-import model.Stock;
+import model.PortfolioSnapshot;
 import model.StockPortfolio;
+import model.StockSnapshot;
 
 import javax.swing.*;
 import java.awt.*;
@@ -17,6 +18,7 @@ Represents the visualization for the stock portfolio, shows:
  */
 public class ViewPortfolioGUI extends JFrame {
     private StockPortfolio stockPortfolio;
+    private PortfolioSnapshot snapshot; // the state shown, read once so that every label shows the same moment
     private Scanner input;
     String nameInput;
     double valueInput;
@@ -42,6 +44,7 @@ public class ViewPortfolioGUI extends JFrame {
     // Constructor
     public ViewPortfolioGUI(StockPortfolio stockPortfolio) {
         this.stockPortfolio = stockPortfolio;
+        this.snapshot = stockPortfolio.getSnapshot();
         JPanel header = createHeader();
         JPanel mainInfo = createTopComponent();
         JPanel mainContents = createGraphComponent();
@@ -116,7 +119,7 @@ public class ViewPortfolioGUI extends JFrame {
 
     // EFFECTS: creates labels to be used in the display of stock information for each stock in the portfolio
     private void createAllLabels() {
-        for (Stock s : stockPortfolio.getStockPortfolio()) {
+        for (StockSnapshot s : snapshot.getStockPortfolio()) {
             portfolioPanel.add(new JLabel(s.getStockName() + ":"));
             portfolioPanel.add(new JLabel("\t Stock code: " + s.getStockCode()));
             portfolioPanel.add(new JLabel("\t Stock sector: " + s.getStockSector()));
@@ -156,12 +159,12 @@ public class ViewPortfolioGUI extends JFrame {
     // EFFECTS: creates labels to be used in the top component
     private void createLabelsTopComponent() {
         tradingDayLabel = new JLabel("Trading day: "
-                + stockPortfolio.getTradingDay());
+                + snapshot.getTradingDay());
         tradingDayLabel.setFont(new Font("Arial", Font.BOLD, 13));
         tradingDayLabel.setForeground(textColor);
 
         totalBalanceLabel = new JLabel("Total balance: $"
-                + df.format(stockPortfolio.getStockPortfolioBalance()));
+                + df.format(snapshot.getStockPortfolioBalance()));
         stockPortfolio.calculateTotalPNL();
         totalBalanceLabel.setForeground(textColor);
         totalBalanceLabel.setFont(new Font("Arial", Font.BOLD, 13));
@@ -0,0 +1,167 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BacktesterTest {
+
+    StockPortfolio portfolio;
+    Strategy buyAndHold;
+
+    @BeforeEach
+    void runBefore() {
+        portfolio = new StockPortfolio("Backtest", 5L);
+        buyAndHold = new Strategy() {
+            @Override
+            public String getName() {
+                return "Buy and hold";
+            }
+
+            @Override
+            public void onStart(MarketView market) {
+                // nothing to prepare
+            }
+
+            @Override
+            public void onDay(MarketView market, TradeSink trades) {
+                int apple = market.indexOf("AAPL");
+                if (market.getSharesOwned(apple) == 0) {
+                    assertTrue(trades.buy(apple, 10));
+                }
+            }
+        };
+    }
+
+    @Test
+    void testReplayGeneratedPaths() {
+        Market generator = new Market(5L);
+        generator.progressDays(60);
+        PricePathModel paths = PricePathModel.fromHistories(generator.getStockPool());
+        assertEquals(60, paths.getDays());
+        double startingBalance = portfolio.getStockPortfolioBalance();
+        BacktestResult result = new Backtester(portfolio, buyAndHold).run(paths);
+
+        assertEquals("Buy and hold", result.getStrategyName());
+        assertEquals(60, result.getDays());
+        assertEquals(0, paths.getRemainingDays());
+        assertNull(portfolio.getMarket().getPriceModel());
+        Stock apple = portfolio.getStockFromPool("AAPL");
+        assertEquals(paths.getClose("AAPL", 60), apple.getCurrentPrice(), 1e-9);
+        double firstClose = paths.getClose("AAPL", 0);
+        assertEquals(startingBalance, result.getStartingEquity(), 1e-9);
+        assertEquals(10 * (paths.getClose("AAPL", 60) - firstClose), result.getPnL(), 1e-6);
+        assertEquals(1, result.getTrades());
+        assertEquals(10 * firstClose, result.getTradedValue(), 1e-9);
+        assertTrue(result.getDaysPerMillisecond() > 0);
+        assertThrows(IllegalStateException.class, () -> paths.nextVariations(generator.getStockPool(),
+                MarketRegime.NEUTRAL, null, new double[generator.getStockPool().size()]));
+    }
+
+    @Test
+    void testPathsFollowStocksOfSameList() {
+        Stock apple = new Stock("Apple", "AAPL", "Technology", 10.0);
+        Stock pepsi = new Stock("Pepsi Cola", "PEP", "Consumer Goods", 20.0);
+        Stock exxon = new Stock("Exxon", "XOM", "Energy", 40.0);
+        Map<String, double[]> closes = new HashMap<>();
+        closes.put("AAPL", new double[] {10.0, 11.0, 12.1});
+        closes.put("XOM", new double[] {40.0, 44.0, 48.4});
+        PricePathModel paths = new PricePathModel(closes);
+        List<Stock> pool = new ArrayList<>(Arrays.asList(apple, pepsi));
+        double[] variations = new double[2];
+        paths.nextVariations(pool, MarketRegime.NEUTRAL, null, variations);
+        assertEquals(0.1, variations[0], 1e-12);
+        assertEquals(0, variations[1]);
+
+        pool.set(0, exxon);
+        pool.set(1, apple);
+        apple.setCurrentPrice(11.0);
+        exxon.setCurrentPrice(44.0);
+        paths.nextVariations(pool, MarketRegime.NEUTRAL, null, variations);
+        assertEquals(0.1, variations[0], 1e-12);
+        assertEquals(0.1, variations[1], 1e-12);
+    }
+
+    @Test
+    void testDrawdownAndTurnover() {
+        double price = portfolio.getStockFromPool("AAPL").getCurrentPrice();
+        double start = portfolio.getStockPortfolioBalance();
+        Map<String, double[]> closes = new HashMap<>();
+        closes.put("AAPL", new double[] {price, price * 2, price, price * 1.5});
+        BacktestResult result = new Backtester(portfolio, buyAndHold).run(new PricePathModel(closes));
+
+        assertEquals(3, result.getDays());
+        assertEquals(5 * price, result.getPnL(), 1e-6);
+        assertEquals(10 * price, result.getMaxDrawdown(), 1e-6);
+        assertEquals(10 * price / (start + 10 * price), result.getMaxDrawdownPercent(), 1e-9);
+        assertEquals(10 * price / (start + 5 * price), result.getTurnover(), 1e-9);
+        assertEquals(portfolio.getStockFromPool("KO").getPriceHistory().get(0),
+                portfolio.getStockFromPool("KO").getCurrentPrice());
+    }
+
+    @Test
+    void testMovingAverageCross() {
+        MovingAverageCrossStrategy strategy = new MovingAverageCrossStrategy(5, 20, 3);
+        assertEquals("SMA cross(5/20)", strategy.getName());
+        Backtester backtester = new Backtester(portfolio, strategy);
+        assertSame(strategy, backtester.getStrategy());
+        BacktestResult result = backtester.run(300);
+        assertTrue(result.getTrades() > 0);
+        assertTrue(result.getTurnover() > 0);
+        double equity = portfolio.getStockPortfolioBalance();
+        for (Stock s : portfolio.getStockPortfolio()) {
+            assertEquals(3, s.getSharesOwned());
+            equity += s.getSharesOwned() * s.getCurrentPrice();
+        }
+        assertEquals(equity, result.getFinalEquity(), 1e-6);
+        assertTrue(result.getMaxDrawdown() >= 0);
+
+        StockPortfolio same = new StockPortfolio("Same", 5L);
+        BacktestResult again = new Backtester(same, new MovingAverageCrossStrategy(5, 20, 3)).run(300);
+        assertEquals(result.getPnL(), again.getPnL());
+        assertEquals(result.getTrades(), again.getTrades());
+    }
+
+    @Test
+    void testMarketView() {
+        new Backtester(portfolio, new ReaderStrategy()).run(5);
+        assertEquals(5, portfolio.getTradingDay());
+    }
+
+    /*
+    Checks, every day, that the market view matches the portfolio it is backtesting.
+     */
+    private class ReaderStrategy implements Strategy {
+        @Override
+        public String getName() {
+            return "Reader";
+        }
+
+        @Override
+        public void onStart(MarketView market) {
+            assertEquals(11, market.getStockCount());
+            assertEquals(-1, market.indexOf("NOPE"));
+        }
+
+        @Override
+        public void onDay(MarketView market, TradeSink trades) {
+            int cocaCola = market.indexOf("KO");
+            Stock stock = portfolio.getStockFromPool("KO");
+            assertEquals("KO", market.getStockCode(cocaCola));
+            assertEquals(stock.getStockSector(), market.getStockSector(cocaCola));
+            assertEquals(stock.getCurrentPrice(), market.getClose(cocaCola, 0));
+            assertEquals(stock.getStockDailyVariation(), market.getDailyVariation(cocaCola));
+            assertEquals(portfolio.getTradingDay(), market.getTradingDay());
+            assertEquals(portfolio.getMarketRegime(), market.getMarketRegime());
+            assertEquals(portfolio.getStockPortfolioBalance(), market.getBalance());
+            assertTrue(Double.isNaN(market.getIndicatorValue(cocaCola, "SMA(3)")));
+            assertFalse(trades.sell(cocaCola, 1));
+        }
+    }
+}
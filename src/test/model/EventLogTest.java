@@ -0,0 +1,192 @@
+package model;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+
+    static final int PRODUCERS = 4;
+    static final int EVENTS_PER_PRODUCER = 20000;
+
+    @Test
+    void testSingleton() throws InterruptedException {
+        List<EventLog> seen = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> seen.add(EventLog.getInstance()));
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        for (EventLog log : seen) {
+            assertSame(EventLog.getInstance(), log);
+        }
+        assertEquals(EventLog.OverflowPolicy.OVERWRITE, EventLog.getInstance().getOverflowPolicy());
+    }
+
+    @Test
+    void testOverwriteOldest() {
+        EventLog log = new EventLog(3, EventLog.OverflowPolicy.OVERWRITE);
+        assertEquals(4, log.getCapacity());
+        assertEquals(1, new EventLog(1, EventLog.OverflowPolicy.DROP).getCapacity());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(log.logEvent(new Event("event " + i)));
+        }
+        assertEquals(10, log.getLoggedCount());
+        assertEquals(6, log.getOverwrittenCount());
+        assertEquals(0, log.getDroppedCount());
+        assertEquals(descriptions("event 6", "event 7", "event 8", "event 9"), descriptions(log));
+
+        assertEquals("event 6", log.poll().getLogDescription());
+        log.logEvent(new Event("event 10"));
+        assertEquals(6, log.getOverwrittenCount());
+        log.logEvent(new Event("event 11"));
+        assertEquals(7, log.getOverwrittenCount());
+        List<Event> drained = new ArrayList<>();
+        assertEquals(2, log.drainTo(drained, 2));
+        assertEquals("event 8", drained.get(0).getLogDescription());
+        assertEquals("event 9", drained.get(1).getLogDescription());
+        assertEquals(2, log.drainTo(drained, 10));
+        assertNull(log.poll());
+        assertEquals(descriptions("event 8", "event 9", "event 10", "event 11"), descriptions(log));
+    }
+
+    @Test
+    void testDropWhenFull() {
+        EventLog log = new EventLog(4, EventLog.OverflowPolicy.DROP);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(log.logEvent(new Event("event " + i)));
+        }
+        assertFalse(log.logEvent(new Event("dropped")));
+        assertEquals(1, log.getDroppedCount());
+        assertEquals("event 0", log.poll().getLogDescription());
+        assertTrue(log.logEvent(new Event("event 4")));
+        assertEquals(descriptions("event 1", "event 2", "event 3", "event 4"), descriptions(log));
+        assertEquals(0, log.getOverwrittenCount());
+        assertEquals(5, log.getLoggedCount());
+    }
+
+    @Test
+    void testConfiguration() {
+        EventLog log = EventLog.fromProperties(" 100 ", "drop");
+        assertEquals(128, log.getCapacity());
+        assertEquals(EventLog.OverflowPolicy.DROP, log.getOverflowPolicy());
+        log = EventLog.fromProperties("2000000000", "sometimes");
+        assertEquals(16384, log.getCapacity());
+        assertEquals(EventLog.OverflowPolicy.OVERWRITE, log.getOverflowPolicy());
+        assertEquals(16384, EventLog.fromProperties("lots", null).getCapacity());
+        assertEquals(16384, EventLog.fromProperties("-3", null).getCapacity());
+        assertEquals(16384, EventLog.fromProperties(null, null).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(0, EventLog.OverflowPolicy.DROP));
+        assertThrows(IllegalArgumentException.class, () -> new EventLog((1 << 30) + 1, EventLog.OverflowPolicy.DROP));
+    }
+
+    @Test
+    void testClear() {
+        EventLog log = new EventLog(8, EventLog.OverflowPolicy.OVERWRITE);
+        log.logEvent(new Event("before"));
+        log.clear();
+        assertEquals(descriptions("Cleared events log"), descriptions(log));
+        assertEquals("before", log.poll().getLogDescription());
+        Iterator<Event> iterator = new EventLog(2, EventLog.OverflowPolicy.DROP).iterator();
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void testConcurrentDrop() throws InterruptedException {
+        EventLog log = new EventLog(256, EventLog.OverflowPolicy.DROP);
+        Map<Event, Integer> consumed = runProducersAndConsumers(log);
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, consumed.size() + log.getDroppedCount());
+        assertEquals(consumed.size(), log.getLoggedCount());
+    }
+
+    @Test
+    void testConcurrentOverwrite() throws InterruptedException {
+        EventLog log = new EventLog(256, EventLog.OverflowPolicy.OVERWRITE);
+        Map<Event, Integer> consumed = runProducersAndConsumers(log);
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, consumed.size() + log.getOverwrittenCount());
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, log.getLoggedCount());
+        int count = 0;
+        for (Event e : log) {
+            count++;
+        }
+        assertTrue(count <= log.getCapacity());
+    }
+
+    // EFFECTS: logs events from several producers to log while two consumers poll them until every producer is
+    // done and the log is empty; returns the events polled, each mapped to the number of times it was polled
+    private Map<Event, Integer> runProducersAndConsumers(EventLog log) throws InterruptedException {
+        AtomicInteger producing = new AtomicInteger(PRODUCERS);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            threads.add(new Thread(() -> produce(log, producing)));
+        }
+        Map<Event, Integer> consumed = new IdentityHashMap<>();
+        for (int c = 0; c < 2; c++) {
+            threads.add(new Thread(() -> consume(log, producing, consumed)));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        for (int times : consumed.values()) {
+            assertEquals(1, times);
+        }
+        return consumed;
+    }
+
+    // MODIFIES: log, producing
+    // EFFECTS: logs EVENTS_PER_PRODUCER events to log, then counts this producer as done
+    private void produce(EventLog log, AtomicInteger producing) {
+        for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+            log.logEvent(new Event("event"));
+        }
+        producing.decrementAndGet();
+    }
+
+    // MODIFIES: log, consumed
+    // EFFECTS: polls events from log, counting each in consumed, until no producer is left and the log is empty
+    private void consume(EventLog log, AtomicInteger producing, Map<Event, Integer> consumed) {
+        while (true) {
+            boolean done = producing.get() == 0;
+            Event e = log.poll();
+            if (e == null && done) {
+                return;
+            } else if (e != null) {
+                synchronized (consumed) {
+                    consumed.merge(e, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    // EFFECTS: returns the descriptions of the events in log, oldest first
+    private List<String> descriptions(EventLog log) {
+        List<String> descriptions = new ArrayList<>();
+        for (Event e : log) {
+            descriptions.add(e.getLogDescription());
+        }
+        return descriptions;
+    }
+
+    // EFFECTS: returns the given descriptions as a list
+    private List<String> descriptions(String... descriptions) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, descriptions);
+        return list;
+    }
+}
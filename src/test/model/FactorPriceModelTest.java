@@ -0,0 +1,176 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactorPriceModelTest {
+
+    FactorPriceModel model;
+
+    @BeforeEach
+    void runBefore() {
+        model = FactorPriceModel.marketAndSectors(Arrays.asList("Technology", "Energy"), 0.02, 0.03, 0.01);
+    }
+
+    @Test
+    void testMarketAndSectors() {
+        assertEquals(3, model.getFactors());
+        assertEquals(0.02, model.getVolatility(0));
+        assertEquals(0.03, model.getVolatility(2));
+        assertArrayEquals(new double[] {1, 1, 0}, model.getLoadings("Technology"));
+        assertArrayEquals(new double[] {1, 0, 1}, model.getLoadings("Energy"));
+        assertArrayEquals(new double[] {1, 0, 0}, model.getLoadings("Healthcare"));
+        assertThrows(IllegalArgumentException.class, () -> model.setSectorLoadings("Energy", new double[] {1}));
+    }
+
+    @Test
+    void testCholeskyFactor() {
+        model.setCorrelation(0, 1, 0.5);
+        model.setCorrelation(1, 2, -0.3);
+        double[][] factor = model.getCholeskyFactor();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                double product = 0;
+                for (int k = 0; k < 3; k++) {
+                    product += factor[i][k] * factor[j][k];
+                }
+                double covariance = model.getCorrelation(i, j) * model.getVolatility(i) * model.getVolatility(j);
+                assertEquals(covariance, product, 1e-15);
+            }
+            for (int j = i + 1; j < 3; j++) {
+                assertEquals(0, factor[i][j]);
+            }
+        }
+    }
+
+    @Test
+    void testCholeskyFactorCached() {
+        List<Stock> stocks = new SyntheticUniverse().generate(50, 4L);
+        double[] variations = new double[stocks.size()];
+        RandomSource random = new SplittableRandomSource(1L);
+        for (int day = 0; day < 20; day++) {
+            model.nextVariations(stocks, MarketRegime.NEUTRAL, random, variations);
+        }
+        assertEquals(1, model.getDecompositions());
+        model.setSectorLoadings("Technology", new double[] {0.5, 1, 0});
+        model.setIdiosyncraticVolatility(0.02);
+        model.nextVariations(stocks, MarketRegime.NEUTRAL, random, variations);
+        assertEquals(1, model.getDecompositions());
+        model.setVolatility(0, 0.04);
+        model.setCorrelation(1, 2, 0.2);
+        model.nextVariations(stocks, MarketRegime.NEUTRAL, random, variations);
+        model.nextVariations(stocks, MarketRegime.NEUTRAL, random, variations);
+        assertEquals(2, model.getDecompositions());
+    }
+
+    @Test
+    void testNotPositiveSemiDefinite() {
+        model.setCorrelation(0, 1, 0.9);
+        model.setCorrelation(0, 2, 0.9);
+        model.setCorrelation(1, 2, -0.9);
+        assertThrows(IllegalArgumentException.class, () -> model.getCholeskyFactor());
+    }
+
+    @Test
+    void testZeroVolatilityFactor() {
+        model.setVolatility(1, 0);
+        model.setCorrelation(1, 2, 0.5);
+        double[][] factor = model.getCholeskyFactor();
+        assertEquals(0, factor[1][1]);
+        assertEquals(0.03, factor[2][2], 1e-15);
+    }
+
+    @Test
+    void testFactorCorrelation() {
+        FactorPriceModel sectors = FactorPriceModel.marketAndSectors(Arrays.asList("Technology", "Energy"),
+                0, 0.02, 0);
+        sectors.setCorrelation(1, 2, 0.8);
+        List<Stock> stocks = new ArrayList<>();
+        stocks.add(new Stock("Stock A", "STKA", "Technology", 10.0));
+        stocks.add(new Stock("Stock B", "STKB", "Energy", 10.0));
+        double[][] draws = drawVariations(sectors, stocks, 20000);
+        double covariance = covariance(draws[0], draws[1]);
+        double varianceA = covariance(draws[0], draws[0]);
+        double varianceB = covariance(draws[1], draws[1]);
+        assertEquals(0.8, covariance / Math.sqrt(varianceA * varianceB), 0.02);
+        assertEquals(0.02, Math.sqrt(varianceA), 0.001);
+    }
+
+    // EFFECTS: returns the variations model draws for stocks over the given number of days, by stock then day
+    private double[][] drawVariations(FactorPriceModel model, List<Stock> stocks, int days) {
+        RandomSource random = new SplittableRandomSource(8L);
+        double[] variations = new double[stocks.size()];
+        double[][] draws = new double[stocks.size()][days];
+        for (int day = 0; day < days; day++) {
+            model.nextVariations(stocks, MarketRegime.NEUTRAL, random, variations);
+            for (int i = 0; i < variations.length; i++) {
+                draws[i][day] = variations[i];
+            }
+        }
+        return draws;
+    }
+
+    // REQUIRES: a.length == b.length > 0
+    // EFFECTS: returns the sample covariance of a and b
+    private double covariance(double[] a, double[] b) {
+        double sumA = 0;
+        double sumB = 0;
+        double sumAB = 0;
+        for (int i = 0; i < a.length; i++) {
+            sumA += a[i];
+            sumB += b[i];
+            sumAB += a[i] * b[i];
+        }
+        return sumAB / a.length - sumA * sumB / a.length / a.length;
+    }
+
+    @Test
+    void testMarketWithPriceModel() {
+        Market market = new Market(6L);
+        FactorPriceModel noNoise = FactorPriceModel.marketAndSectors(Arrays.asList("Technology", "Energy"),
+                0.02, 0.03, 0);
+        market.setPriceModel(noNoise);
+        assertSame(noNoise, market.getPriceModel());
+        market.setMarketRegime(MarketRegime.CONFIDENT);
+        market.progressDays(5);
+        Stock apple = market.getStock("AAPL");
+        Stock google = market.getStock("GOOGL");
+        Stock exxon = market.getStock("XOM");
+        assertEquals(6, apple.getPriceHistory().size());
+        assertEquals(apple.getStockDailyVariation(), google.getStockDailyVariation(), 1e-12);
+        assertNotEquals(apple.getStockDailyVariation(), exxon.getStockDailyVariation(), 1e-6);
+    }
+
+    @Test
+    void testPriceModelSameInBatchesAndParallel() {
+        List<Stock> universe = new SyntheticUniverse().generate(10000, 3L);
+        Market daily = marketOf(universe);
+        Market batched = marketOf(new SyntheticUniverse().generate(10000, 3L));
+        batched.setParallelProgression(new ParallelProgression(1000));
+        for (int day = 0; day < 5; day++) {
+            daily.progressDay();
+        }
+        batched.progressDays(5);
+        for (int i = 0; i < universe.size(); i += 97) {
+            PriceHistory expected = daily.getStockPool().get(i).getPriceHistory();
+            assertEquals(expected, batched.getStockPool().get(i).getPriceHistory());
+        }
+    }
+
+    // EFFECTS: returns a market over the given stocks, drawn by a market and sector factor model
+    private Market marketOf(List<Stock> stocks) {
+        Market market = new Market(12L);
+        market.loadStocks(stocks);
+        List<String> sectors = new ArrayList<>();
+        for (SectorIndex index : market.getSectorIndices()) {
+            sectors.add(index.getSector());
+        }
+        market.setPriceModel(FactorPriceModel.marketAndSectors(sectors, 0.01, 0.015, 0.02));
+        return market;
+    }
+}
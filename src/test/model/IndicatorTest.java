@@ -0,0 +1,158 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndicatorTest {
+
+    double[] prices;
+
+    @BeforeEach
+    void runBefore() {
+        RandomSource random = new SplittableRandomSource(3L);
+        prices = new double[500];
+        prices[0] = 50;
+        for (int i = 1; i < prices.length; i++) {
+            prices[i] = prices[i - 1] * (1 + random.nextDouble(-0.05, 0.05));
+        }
+    }
+
+    @Test
+    void testSimpleMovingAverage() {
+        Indicator sma = new SimpleMovingAverage(20);
+        assertEquals("SMA(20)", sma.getName());
+        for (int i = 0; i < prices.length; i++) {
+            sma.update(prices[i]);
+            if (i < 19) {
+                assertFalse(sma.isReady());
+                assertTrue(Double.isNaN(sma.getValue()));
+            } else {
+                assertEquals(mean(i - 19, i + 1), sma.getValue(), 1e-9);
+            }
+        }
+        sma.reset();
+        assertFalse(sma.isReady());
+    }
+
+    @Test
+    void testExponentialMovingAverage() {
+        Indicator ema = new ExponentialMovingAverage(10);
+        double expected = 0;
+        for (int i = 0; i < prices.length; i++) {
+            ema.update(prices[i]);
+            if (i == 9) {
+                expected = mean(0, 10);
+            } else if (i > 9) {
+                expected = expected + (2.0 / 11) * (prices[i] - expected);
+            }
+            assertEquals(i >= 9, ema.isReady());
+        }
+        assertEquals(expected, ema.getValue(), 1e-9);
+    }
+
+    @Test
+    void testRelativeStrengthIndex() {
+        Indicator rsi = new RelativeStrengthIndex(14);
+        for (int i = 0; i <= 14; i++) {
+            rsi.update(prices[i]);
+        }
+        double gains = 0;
+        double losses = 0;
+        for (int i = 1; i <= 14; i++) {
+            double change = prices[i] - prices[i - 1];
+            gains += Math.max(change, 0);
+            losses += Math.max(-change, 0);
+        }
+        assertTrue(rsi.isReady());
+        assertEquals(100 - 100 / (1 + gains / losses), rsi.getValue(), 1e-9);
+
+        Indicator rising = new RelativeStrengthIndex(3);
+        for (int i = 1; i <= 5; i++) {
+            rising.update(i);
+        }
+        assertEquals(100, rising.getValue());
+    }
+
+    @Test
+    void testBollingerBands() {
+        BollingerBands bands = new BollingerBands(20, 2);
+        for (double price : prices) {
+            bands.update(price);
+        }
+        double mean = mean(prices.length - 20, prices.length);
+        double variance = 0;
+        for (int i = prices.length - 20; i < prices.length; i++) {
+            variance += (prices[i] - mean) * (prices[i] - mean) / 20;
+        }
+        assertEquals(mean, bands.getValue(), 1e-9);
+        assertEquals(mean + 2 * Math.sqrt(variance), bands.getUpperBand(), 1e-9);
+        assertEquals(mean - 2 * Math.sqrt(variance), bands.getLowerBand(), 1e-9);
+    }
+
+    @Test
+    void testRollingVolatility() {
+        Indicator volatility = new RollingVolatility(30);
+        for (int i = 0; i < 30; i++) {
+            volatility.update(prices[i]);
+        }
+        assertFalse(volatility.isReady());
+        volatility.update(prices[30]);
+        assertTrue(volatility.isReady());
+        double[] returns = new double[30];
+        double mean = 0;
+        for (int i = 0; i < 30; i++) {
+            returns[i] = (prices[i + 1] - prices[i]) / prices[i];
+            mean += returns[i] / 30;
+        }
+        double variance = 0;
+        for (double r : returns) {
+            variance += (r - mean) * (r - mean) / 30;
+        }
+        assertEquals(Math.sqrt(variance), volatility.getValue(), 1e-12);
+    }
+
+    @Test
+    void testStockIndicators() {
+        Stock stock = new Stock("Stock A", "STKA", "Technology", 10.0);
+        stock.advanceDay(0.1);
+        stock.addIndicator(new SimpleMovingAverage(2));
+        assertEquals(10.5, stock.getIndicator("SMA(2)").getValue(), 1e-9);
+        stock.advanceDay(0.1);
+        assertEquals(11.55, stock.getIndicator("SMA(2)").getValue(), 1e-9);
+        stock.addIndicator(new SimpleMovingAverage(2));
+        assertEquals(1, stock.getIndicators().size());
+        stock.removeIndicator("SMA(2)");
+        assertNull(stock.getIndicator("SMA(2)"));
+    }
+
+    @Test
+    void testMarketIndicators() {
+        Market market = new Market(5L);
+        market.addIndicator(() -> new SimpleMovingAverage(5));
+        market.addIndicator(() -> new RelativeStrengthIndex(5));
+        StockPortfolio portfolio = new StockPortfolio("Player", market);
+        portfolio.buyStock("KO", 1);
+        market.progressDays(10);
+        market.addStock(new Stock("Moderna", "MRNA", "Healthcare", 20.0));
+        for (Stock s : market.getStockPool()) {
+            assertEquals(2, s.getIndicators().size());
+        }
+        Stock cocaCola = market.getStock("KO");
+        PriceHistory history = cocaCola.getPriceHistory();
+        double sum = 0;
+        for (int i = history.size() - 5; i < history.size(); i++) {
+            sum += history.getDouble(i);
+        }
+        assertEquals(sum / 5, cocaCola.getIndicator("SMA(5)").getValue(), 1e-9);
+        assertSame(cocaCola.getIndicator("RSI(5)"), portfolio.getStockFromPortfolio("KO").getIndicator("RSI(5)"));
+    }
+
+    private double mean(int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += prices[i];
+        }
+        return sum / (to - from);
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarketColumnsTest {
+
+    MarketColumns testMarket;
+    Stock stockA;
+    Stock stockB;
+    Stock stockC;
+
+    @BeforeEach
+    void runBefore() {
+        testMarket = new MarketColumns(1);
+        stockA = new Stock("Stock A", "STKA", "Technology", 10.0);
+        stockB = new Stock("Stock B", "STKB", "Energy", 20.0);
+        stockC = new Stock("Stock C", "STKC", "Healthcare", 40.0);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testMarket.size());
+        assertEquals(1, stockA.getMarket().size());
+        assertEquals(0, stockA.getRow());
+    }
+
+    @Test
+    void testMoveKeepsValues() {
+        stockA.buyShares(3);
+        stockA.setStockDailyVariation(0.25);
+        MarketColumns previous = stockA.getMarket();
+        stockA.moveTo(testMarket);
+        stockB.moveTo(testMarket);
+        stockC.moveTo(testMarket);
+        assertEquals(0, previous.size());
+        assertEquals(3, testMarket.size());
+        assertSame(testMarket, stockA.getMarket());
+        assertSame(stockC, testMarket.getStock(2));
+        assertEquals(10.0, stockA.getCurrentPrice());
+        assertEquals(10.0, stockA.getBuyPrice());
+        assertEquals(3, stockA.getSharesOwned());
+        assertEquals(0.25, stockA.getStockDailyVariation());
+        assertEquals(40.0, stockC.getCurrentPrice());
+    }
+
+    @Test
+    void testRemoveMovesLastRow() {
+        stockA.moveTo(testMarket);
+        stockB.moveTo(testMarket);
+        stockC.moveTo(testMarket);
+        stockA.detachFromMarket();
+        assertEquals(2, testMarket.size());
+        assertSame(stockC, testMarket.getStock(0));
+        assertEquals(0, stockC.getRow());
+        assertEquals(40.0, stockC.getCurrentPrice());
+        assertEquals(10.0, stockA.getCurrentPrice());
+        assertEquals(1, stockA.getMarket().size());
+    }
+
+    @Test
+    void testAdvanceMatchesStock() {
+        Stock single = new Stock("Stock D", "STKD", "Technology", 20.0);
+        stockA.moveTo(testMarket);
+        stockB.moveTo(testMarket);
+        stockB.buyShares(5);
+        single.buyShares(5);
+        testMarket.advance(new double[] {0.1, -0.3});
+        stockB.addPriceToHistory();
+        single.advanceDay(-0.3);
+        assertEquals(11.0, stockA.getCurrentPrice(), 1e-12);
+        assertEquals(single.getCurrentPrice(), stockB.getCurrentPrice());
+        assertEquals(single.getStockPotentialProfit(), stockB.getStockPotentialProfit());
+        assertEquals(single.getStockDailyVariation(), stockB.getStockDailyVariation());
+        assertEquals(single.getPriceHistory(), stockB.getPriceHistory());
+    }
+
+    @Test
+    void testSettleProfitsOfHeldRows() {
+        stockA.moveTo(testMarket);
+        stockB.moveTo(testMarket);
+        stockC.moveTo(testMarket);
+        stockA.buyShares(2);
+        stockC.buyShares(1);
+        stockA.setHeld(true);
+        stockC.setHeld(true);
+        assertEquals(2, testMarket.getHeldRows());
+        stockA.setCurrentPrice(15.0);
+        stockC.setCurrentPrice(30.0);
+        assertEquals(0.0, testMarket.settleProfits(1, 2));
+        assertEquals(0.0, testMarket.settleProfits(0, 3));
+        assertEquals(10.0, stockA.getStockPotentialProfit());
+        assertEquals(-10.0, stockC.getStockPotentialProfit());
+
+        stockA.detachFromMarket();
+        assertEquals(1, testMarket.getHeldRows());
+        assertTrue(stockA.getMarket().isHeld(0));
+        assertEquals(-10.0, testMarket.settleProfits(0, testMarket.size()));
+    }
+
+    @Test
+    void testHoldingsSettleAgainstInstrument() {
+        StockPortfolio portfolio = new StockPortfolio("Shared", new Market(3L));
+        assertTrue(portfolio.buyStock("KO", 4));
+        Stock holding = portfolio.getStockFromPortfolio("KO");
+        MarketColumns holdings = holding.getMarket();
+        assertEquals(1, holdings.getHeldRows());
+        holding.getInstrument().setCurrentPrice(holding.getBuyPrice() + 2.5);
+        assertEquals(10.0, holdings.settleProfits(0, holdings.size()), 1e-9);
+        assertTrue(portfolio.sellStock("KO"));
+        assertEquals(0, holdings.getHeldRows());
+    }
+}
@@ -0,0 +1,238 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarketTest {
+
+    Market testMarket;
+    StockPortfolio alice;
+    StockPortfolio bob;
+
+    @BeforeEach
+    void runBefore() {
+        testMarket = new Market(42L);
+        alice = new StockPortfolio("Alice", testMarket);
+        bob = new StockPortfolio("Bob", testMarket);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(11, testMarket.getStockPool().size());
+        assertEquals(MarketRegime.NEUTRAL, testMarket.getMarketRegime());
+        assertEquals(2, testMarket.getPortfolios().size());
+        assertSame(testMarket, alice.getMarket());
+        assertTrue(alice.isSharedMarket());
+        assertSame(testMarket.getStockPool(), bob.getStockPool());
+        assertFalse(new StockPortfolio("Solo", 1L).isSharedMarket());
+    }
+
+    @Test
+    void testHoldingsAreIndependent() {
+        assertTrue(alice.buyStock("AAPL", 10));
+        assertTrue(bob.buyStock("AAPL", 4));
+        Stock apple = testMarket.getStock("AAPL");
+        Stock aliceApple = alice.getStockFromPortfolio("AAPL");
+        Stock bobApple = bob.getStockFromPortfolio("AAPL");
+        assertNotSame(aliceApple, bobApple);
+        assertSame(apple, aliceApple.getInstrument());
+        assertSame(apple, apple.getInstrument());
+        assertSame(apple.getPriceHistory(), aliceApple.getPriceHistory());
+        assertEquals(0, apple.getSharesOwned());
+        assertEquals(10, aliceApple.getSharesOwned());
+        assertEquals(4, bobApple.getSharesOwned());
+        assertTrue(alice.buyStock("AAPL", 5));
+        assertSame(aliceApple, alice.getStockFromPortfolio("AAPL"));
+        assertEquals(15, aliceApple.getSharesOwned());
+
+        assertTrue(bob.sellStock("AAPL"));
+        assertNull(bob.getStockFromPortfolio("AAPL"));
+        assertEquals(15, aliceApple.getSharesOwned());
+    }
+
+    @Test
+    void testProgressDayAdvancesMarketOnce() {
+        alice.buyStock("AAPL", 10);
+        bob.buyStock("PFE", 20);
+        Stock apple = testMarket.getStock("AAPL");
+        Stock pfizer = testMarket.getStock("PFE");
+        testMarket.progressDay();
+        assertEquals(2, apple.getPriceHistory().size());
+        assertEquals(1, alice.getTradingDay());
+        assertEquals(1, bob.getTradingDay());
+        testMarket.progressDays(5);
+        assertEquals(7, apple.getPriceHistory().size());
+        assertEquals(6, alice.getTradingDay());
+        assertEquals(6, alice.getPnLHistory().size());
+        assertEquals(6, bob.getPnLHistory().size());
+
+        Stock aliceApple = alice.getStockFromPortfolio("AAPL");
+        Stock bobPfizer = bob.getStockFromPortfolio("PFE");
+        assertEquals((apple.getCurrentPrice() - aliceApple.getBuyPrice()) * 10, alice.getTotalPNL(), 1e-9);
+        assertEquals((pfizer.getCurrentPrice() - bobPfizer.getBuyPrice()) * 20, bob.getTotalPNL(), 1e-9);
+        assertEquals(aliceApple.getStockPotentialProfit(), alice.getTotalPNL(), 1e-9);
+        assertEquals(0, apple.getStockPotentialProfit());
+    }
+
+    @Test
+    void testPortfolioCannotMoveSharedMarket() {
+        alice.buyStock("AAPL", 10);
+        Stock apple = testMarket.getStock("AAPL");
+        Stock aliceApple = alice.getStockFromPortfolio("AAPL");
+        double price = apple.getCurrentPrice();
+        assertThrows(IllegalStateException.class, () -> alice.progressDay());
+        assertThrows(IllegalStateException.class, () -> bob.progressDays(3));
+        assertThrows(UnsupportedOperationException.class, () -> aliceApple.setCurrentPrice(1.0));
+        assertThrows(UnsupportedOperationException.class, () -> aliceApple.setStockName("Pear"));
+        assertThrows(UnsupportedOperationException.class, () -> aliceApple.updatePrice(0.5));
+        assertEquals(price, apple.getCurrentPrice());
+        assertEquals("Apple", apple.getStockName());
+        assertEquals(1, apple.getPriceHistory().size());
+        assertEquals(0, alice.getTradingDay());
+    }
+
+    @Test
+    void testSharedMarketMatchesSingleMarket() {
+        StockPortfolio single = new StockPortfolio("Single", 7L);
+        Market market = new Market(7L);
+        StockPortfolio shared = new StockPortfolio("Shared", market);
+        new StockPortfolio("Other", market);
+        single.buyStock("KO", 30);
+        shared.buyStock("KO", 30);
+        for (int day = 0; day < 10; day++) {
+            single.progressDay();
+            market.progressDay();
+        }
+        single.progressDays(20);
+        market.progressDays(20);
+        assertEquals(single.getStockFromPool("KO").getPriceHistory(), market.getStock("KO").getPriceHistory());
+        assertEquals(single.getPnLHistory(), shared.getPnLHistory());
+        assertEquals(single.getTotalPNL(), shared.getTotalPNL());
+    }
+
+    @Test
+    void testOrdersInSharedMarket() {
+        Stock apple = testMarket.getStock("AAPL");
+        Order buy = alice.placeOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, apple.getCurrentPrice() * 2, 5);
+        assertEquals(OrderStatus.FILLED, buy.getStatus());
+        assertEquals(5, alice.getStockFromPortfolio("AAPL").getSharesOwned());
+        assertNull(bob.getStockFromPortfolio("AAPL"));
+        Order sell = bob.placeOrder("AAPL", OrderSide.SELL, OrderType.LIMIT, apple.getCurrentPrice() / 2, 5);
+        assertEquals(OrderStatus.REJECTED, sell.getStatus());
+        Order aliceSell = alice.placeOrder("AAPL", OrderSide.SELL, OrderType.LIMIT, apple.getCurrentPrice() / 2, 2);
+        assertEquals(OrderStatus.FILLED, aliceSell.getStatus());
+        assertEquals(3, alice.getStockFromPortfolio("AAPL").getSharesOwned());
+    }
+
+    @Test
+    void testRemoveStockCancelsOrders() {
+        Stock apple = testMarket.getStock("AAPL");
+        Order aliceBuy = alice.placeOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, apple.getCurrentPrice() / 2, 5);
+        Order bobBuy = bob.placeOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, apple.getCurrentPrice() / 2, 5);
+        Order bobPfizer = bob.placeOrder("PFE", OrderSide.BUY, OrderType.LIMIT, 0.01, 5);
+        testMarket.addStock(new Stock("Apple", "AAPL", "Technology", 20.0));
+        assertEquals(OrderStatus.OPEN, aliceBuy.getStatus());
+        alice.removeStockFromPoolWithName("Apple");
+        assertEquals(OrderStatus.CANCELLED, aliceBuy.getStatus());
+        assertEquals(OrderStatus.CANCELLED, bobBuy.getStatus());
+        assertNull(alice.getOrderBook("AAPL"));
+        assertNull(bob.getOrderBook("AAPL"));
+        assertTrue(alice.getOpenOrders().isEmpty());
+        assertEquals(1, bob.getOpenOrders().size());
+        assertEquals(OrderStatus.OPEN, bobPfizer.getStatus());
+    }
+
+    @Test
+    void testRemovePortfolio() {
+        testMarket.removePortfolio(bob);
+        testMarket.progressDay();
+        assertEquals(1, alice.getTradingDay());
+        assertEquals(0, bob.getTradingDay());
+    }
+
+    @Test
+    void testSectorIndices() {
+        assertEquals(5, testMarket.getSectorIndices().size());
+        SectorIndex tech = testMarket.getSectorIndex("Technology");
+        assertEquals(3, tech.getConstituents());
+        assertEquals(SectorIndex.BASE_LEVEL, tech.getEqualWeightLevel());
+        Stock apple = testMarket.getStock("AAPL");
+        Stock google = testMarket.getStock("GOOGL");
+        Stock meta = testMarket.getStock("META");
+        double previousSum = apple.getCurrentPrice() + google.getCurrentPrice() + meta.getCurrentPrice();
+        testMarket.progressDay();
+        double returns = (apple.getStockDailyVariation() + google.getStockDailyVariation()
+                + meta.getStockDailyVariation()) / 3;
+        double sum = apple.getCurrentPrice() + google.getCurrentPrice() + meta.getCurrentPrice();
+        assertEquals(returns, tech.getEqualWeightReturn(), 1e-12);
+        assertEquals(100 * (1 + returns), tech.getEqualWeightLevel(), 1e-9);
+        assertEquals(sum / previousSum - 1, tech.getPriceWeightedReturn(), 1e-12);
+        assertEquals(100 * sum / previousSum, tech.getPriceWeightedLevel(), 1e-9);
+
+        testMarket.removeStockWithName("Pfizer");
+        testMarket.removeStockWithName("Astra Zeneca");
+        assertNull(testMarket.getSectorIndex("Healthcare"));
+        testMarket.addStock(new Stock("Moderna", "MRNA", "Healthcare", 20.0));
+        assertEquals(1, testMarket.getSectorIndex("Healthcare").getConstituents());
+    }
+
+    @Test
+    void testRemoveStockMovesLastIntoPlace() {
+        Stock pepsi = testMarket.getStock("PEP");
+        Stock cocaCola = testMarket.getStock("KO");
+        testMarket.removeStockWithName("Pfizer");
+        assertEquals(10, testMarket.getStockPool().size());
+        assertSame(pepsi, testMarket.getStockPool().get(3));
+        assertNull(testMarket.getStock("PFE"));
+        testMarket.removeStockWithName("Pepsi Cola");
+        testMarket.removeStockWithName("Pepsi Cola");
+        assertEquals(9, testMarket.getStockPool().size());
+        assertSame(cocaCola, testMarket.getStockPool().get(3));
+        testMarket.progressDay();
+        SectorIndex consumerGoods = testMarket.getSectorIndex("Consumer Goods");
+        assertEquals(1, consumerGoods.getConstituents());
+        assertEquals(cocaCola.getStockDailyVariation(), consumerGoods.getEqualWeightReturn(), 1e-12);
+        assertEquals(1, testMarket.getSectorIndex("Healthcare").getConstituents());
+    }
+
+    @Test
+    void testSectorIndicesSameInBatches() {
+        Market batched = new Market(42L);
+        for (int day = 0; day < 12; day++) {
+            testMarket.progressDay();
+        }
+        batched.progressDays(12);
+        for (SectorIndex index : testMarket.getSectorIndices()) {
+            SectorIndex other = batched.getSectorIndex(index.getSector());
+            assertEquals(index.getEqualWeightLevel(), other.getEqualWeightLevel());
+            assertEquals(index.getPriceWeightedLevel(), other.getPriceWeightedLevel());
+        }
+    }
+
+    @Test
+    void testSectorExposure() {
+        alice.buyStock("AAPL", 10);
+        alice.buyStock("GOOGL", 2);
+        alice.buyStock("XOM", 5);
+        Stock apple = testMarket.getStock("AAPL");
+        Stock google = testMarket.getStock("GOOGL");
+        Stock exxon = testMarket.getStock("XOM");
+        SectorExposure exposure = alice.getSectorExposure();
+        double tech = apple.getCurrentPrice() * 10 + google.getCurrentPrice() * 2;
+        assertEquals(tech, exposure.getExposure("Technology"), 1e-9);
+        assertEquals(exxon.getCurrentPrice() * 5, exposure.getExposure("Energy"), 1e-9);
+        assertEquals(0, exposure.getExposure("Healthcare"));
+        assertEquals(0, bob.getSectorExposure().getTotal());
+
+        testMarket.progressDays(3);
+        tech = apple.getCurrentPrice() * 10 + google.getCurrentPrice() * 2;
+        assertEquals(tech, exposure.getExposure("Technology"), 1e-9);
+        alice.sellStock("AAPL", 4);
+        tech = apple.getCurrentPrice() * 6 + google.getCurrentPrice() * 2;
+        assertEquals(tech, exposure.getExposure("Technology"), 1e-9);
+        alice.sellStock("XOM");
+        assertEquals(0, exposure.getExposure("Energy"), 1e-9);
+        assertEquals(tech, exposure.getTotal(), 1e-9);
+    }
+}
@@ -0,0 +1,96 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonteCarloSimulationTest {
+
+    StockPortfolio testPortfolio;
+
+    @BeforeEach
+    void runBefore() {
+        testPortfolio = new StockPortfolio("Test Portfolio", 11L);
+        testPortfolio.buyStock("AAPL", 10);
+        testPortfolio.buyStock("PFE", 20);
+        testPortfolio.progressDays(5);
+    }
+
+    @Test
+    void testZeroDays() {
+        MonteCarloResult result = new MonteCarloSimulation(testPortfolio).run(100, 0, 1L);
+        testPortfolio.calculateTotalPNL();
+        assertEquals(100, result.getNumPaths());
+        assertEquals(testPortfolio.getTotalPNL(), result.getMeanPnL(), 1e-9);
+        assertEquals(testPortfolio.getTotalPNL(), result.getPnLPercentile(50), 1e-9);
+        assertEquals(0, result.getProbabilityOfLoss());
+        double value = testPortfolio.getStockPortfolioBalance();
+        for (Stock s : testPortfolio.getStockPortfolio()) {
+            value += s.getCurrentPrice() * s.getSharesOwned();
+        }
+        assertEquals(value, result.getStartingBalance(), 1e-9);
+        assertEquals(value, result.getBalancePercentile(99), 1e-9);
+    }
+
+    @Test
+    void testPathSourcesIndependent() {
+        for (long path = 0; path < 100; path++) {
+            RandomSource first = SplittableRandomSource.forIndex(5L, path);
+            RandomSource second = SplittableRandomSource.forIndex(5L, path + 1);
+            long[] firstDraws = new long[8];
+            long[] secondDraws = new long[8];
+            for (int i = 0; i < 8; i++) {
+                firstDraws[i] = first.nextLong();
+                secondDraws[i] = second.nextLong();
+            }
+            for (int shift = -7; shift <= 7; shift++) {
+                assertFalse(shiftedCopies(firstDraws, secondDraws, shift));
+            }
+        }
+        RandomSource again = SplittableRandomSource.forIndex(5L, 3);
+        assertEquals(SplittableRandomSource.forIndex(5L, 3).nextLong(), again.nextLong());
+    }
+
+    @Test
+    void testDeterministicUnderSeed() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(testPortfolio);
+        MonteCarloResult result = simulation.run(2000, 30, 5L);
+        MonteCarloResult result2 = simulation.run(2000, 30, 5L);
+        assertEquals(result.getMeanPnL(), result2.getMeanPnL());
+        assertEquals(result.getBalancePercentile(5), result2.getBalancePercentile(5));
+        assertEquals(result.getProbabilityOfLoss(), result2.getProbabilityOfLoss());
+        assertTrue(result.getPnLPercentile(5) <= result.getPnLPercentile(50));
+        assertTrue(result.getPnLPercentile(50) <= result.getPnLPercentile(95));
+        assertTrue(result.getProbabilityOfLoss() >= 0 && result.getProbabilityOfLoss() <= 1);
+    }
+
+    @Test
+    void testDoesNotModifyPortfolio() {
+        double price = testPortfolio.getPriceFromCode("AAPL");
+        new MonteCarloSimulation(testPortfolio).run(500, 10, 2L);
+        assertEquals(price, testPortfolio.getPriceFromCode("AAPL"));
+        assertEquals(5, testPortfolio.getTradingDay());
+        assertEquals(6, testPortfolio.getStockFromPool("AAPL").getPriceHistory().size());
+    }
+
+    @Test
+    void testMarketRegimeDrivesOutcome() {
+        testPortfolio.setMarketRegime(MarketRegime.VERY_AFRAID);
+        MonteCarloResult afraid = new MonteCarloSimulation(testPortfolio).run(1000, 20, 3L);
+        testPortfolio.setMarketRegime(MarketRegime.VERY_CONFIDENT);
+        MonteCarloResult confident = new MonteCarloSimulation(testPortfolio).run(1000, 20, 3L);
+        assertTrue(afraid.getPnLPercentile(50) < confident.getPnLPercentile(50));
+        assertTrue(afraid.getProbabilityOfLoss() > confident.getProbabilityOfLoss());
+    }
+
+    // EFFECTS: returns true if the overlapping draws of first and second, with second moved shift draws along, are
+    // equal
+    private boolean shiftedCopies(long[] first, long[] second, int shift) {
+        for (int i = Math.max(0, shift); i < first.length && i - shift < second.length; i++) {
+            if (first[i] != second[i - shift]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
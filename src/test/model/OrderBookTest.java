@@ -0,0 +1,82 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderBookTest {
+
+    OrderBook testBook;
+
+    @BeforeEach
+    void runBefore() {
+        testBook = new OrderBook("AAPL");
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals("AAPL", testBook.getStockCode());
+        assertTrue(testBook.isEmpty());
+        assertTrue(Double.isNaN(testBook.getBestBid()));
+        assertTrue(Double.isNaN(testBook.getBestAsk()));
+    }
+
+    @Test
+    void testPriceTimePriority() {
+        Order first = new Order(1, "AAPL", OrderSide.BUY, OrderType.LIMIT, 10.0, 5);
+        Order higher = new Order(2, "AAPL", OrderSide.BUY, OrderType.LIMIT, 11.0, 5);
+        Order second = new Order(3, "AAPL", OrderSide.BUY, OrderType.LIMIT, 10.0, 5);
+        Order lower = new Order(4, "AAPL", OrderSide.BUY, OrderType.LIMIT, 9.0, 5);
+        testBook.add(first);
+        testBook.add(higher);
+        testBook.add(second);
+        testBook.add(lower);
+        assertEquals(11.0, testBook.getBestBid());
+        assertEquals(4, testBook.size());
+
+        List<Order> triggered = testBook.match(10.0);
+        assertEquals(3, triggered.size());
+        assertSame(higher, triggered.get(0));
+        assertSame(first, triggered.get(1));
+        assertSame(second, triggered.get(2));
+        assertEquals(1, testBook.size());
+        assertSame(lower, testBook.getOrder(4));
+        assertTrue(testBook.match(9.5).isEmpty());
+    }
+
+    @Test
+    void testMatchOrder() {
+        Order buyLimit = new Order(1, "AAPL", OrderSide.BUY, OrderType.LIMIT, 20.0, 1);
+        Order sellLimit = new Order(2, "AAPL", OrderSide.SELL, OrderType.LIMIT, 15.0, 1);
+        Order buyStop = new Order(3, "AAPL", OrderSide.BUY, OrderType.STOP, 12.0, 1);
+        Order sellStop = new Order(4, "AAPL", OrderSide.SELL, OrderType.STOP, 30.0, 1);
+        testBook.add(buyLimit);
+        testBook.add(sellLimit);
+        testBook.add(buyStop);
+        testBook.add(sellStop);
+        assertEquals(15.0, testBook.getBestAsk());
+        assertEquals(4, testBook.getOrders().size());
+
+        List<Order> triggered = testBook.match(18.0);
+        assertEquals(4, triggered.size());
+        assertSame(sellStop, triggered.get(0));
+        assertSame(sellLimit, triggered.get(1));
+        assertSame(buyLimit, triggered.get(2));
+        assertSame(buyStop, triggered.get(3));
+        assertTrue(testBook.isEmpty());
+    }
+
+    @Test
+    void testRemove() {
+        Order order = new Order(1, "AAPL", OrderSide.SELL, OrderType.STOP, 8.0, 3);
+        testBook.add(order);
+        assertFalse(order.triggersAt(8.5));
+        assertTrue(order.triggersAt(8.0));
+        assertNull(testBook.remove(2));
+        assertSame(order, testBook.remove(1));
+        assertTrue(testBook.isEmpty());
+        assertTrue(testBook.match(1.0).isEmpty());
+    }
+}
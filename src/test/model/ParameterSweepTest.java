@@ -0,0 +1,106 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParameterSweepTest {
+
+    PricePathModel paths;
+    ParameterSweep sweep;
+
+    @BeforeEach
+    void runBefore() {
+        Market generator = new Market(5L);
+        generator.progressDays(120);
+        paths = PricePathModel.fromHistories(generator.getStockPool());
+        sweep = new ParameterSweep(new ForkJoinPool(4), paths, () -> quietPortfolio(5L),
+                p -> new MovingAverageCrossStrategy((int) p[0], (int) p[1], 5));
+    }
+
+    @Test
+    void testParameterGrid() {
+        ParameterGrid grid = new ParameterGrid();
+        grid.addParameter("short", 2, 3, 5);
+        grid.addParameter("long", 10, 20);
+        assertEquals(Arrays.asList("short", "long"), grid.getNames());
+        assertEquals(6, grid.size());
+        assertArrayEquals(new double[] {2, 10}, grid.get(0));
+        assertArrayEquals(new double[] {2, 20}, grid.get(1));
+        assertArrayEquals(new double[] {5, 20}, grid.get(5));
+    }
+
+    @Test
+    void testRandomParameterSearch() {
+        RandomParameterSearch search = new RandomParameterSearch(1000, 3L);
+        search.addParameter("short", 2, 8);
+        search.addParameter("long", 10, 40);
+        assertEquals(1000, search.size());
+        for (long i = 0; i < search.size(); i++) {
+            double[] configuration = search.get(i);
+            assertTrue(configuration[0] >= 2 && configuration[0] < 8);
+            assertTrue(configuration[1] >= 10 && configuration[1] < 40);
+        }
+        assertArrayEquals(search.get(17), search.get(17));
+        assertFalse(Arrays.equals(search.get(17), search.get(18)));
+
+        RandomParameterSearch unit = new RandomParameterSearch(100, 3L);
+        unit.addParameter("a", 0, 1);
+        unit.addParameter("b", 0, 1);
+        unit.addParameter("c", 0, 1);
+        for (long i = 0; i + 1 < unit.size(); i++) {
+            double[] next = unit.get(i + 1);
+            assertFalse(Arrays.equals(Arrays.copyOfRange(unit.get(i), 1, 3), Arrays.copyOfRange(next, 0, 2)));
+        }
+    }
+
+    @Test
+    void testSweepMatchesSingleRuns() {
+        ParameterGrid grid = new ParameterGrid();
+        grid.addParameter("short", 2, 3, 5, 8);
+        grid.addParameter("long", 10, 15, 20, 30, 40);
+        BacktestResult[] results = new BacktestResult[(int) grid.size()];
+        int events = countEvents();
+        long run = sweep.run(grid, (index, parameters, result) -> {
+            assertNull(results[(int) index]);
+            assertArrayEquals(grid.get(index), parameters);
+            results[(int) index] = result;
+        });
+        assertEquals(20, run);
+        assertEquals(events, countEvents());
+        for (int i = 0; i < results.length; i++) {
+            BacktestResult single = sweep.runConfiguration(grid.get(i));
+            assertEquals(120, results[i].getDays());
+            assertEquals(single.getStrategyName(), results[i].getStrategyName());
+            assertEquals(single.getPnL(), results[i].getPnL());
+            assertEquals(single.getTrades(), results[i].getTrades());
+        }
+        assertEquals(120, paths.getRemainingDays());
+    }
+
+    @Test
+    void testSweepRejectsLoggingPortfolios() {
+        ParameterSweep logging = new ParameterSweep(paths, () -> new StockPortfolio("Sweep", 5L),
+                p -> new MovingAverageCrossStrategy((int) p[0], (int) p[1], 5));
+        assertThrows(IllegalStateException.class, () -> logging.runConfiguration(new double[] {2, 10}));
+    }
+
+    // EFFECTS: returns a portfolio seeded with seed, with event logging turned off before its pool is loaded
+    private StockPortfolio quietPortfolio(long seed) {
+        StockPortfolio portfolio = new StockPortfolio("Sweep", seed);
+        portfolio.setEventLogging(false);
+        return portfolio;
+    }
+
+    // EFFECTS: returns the number of events in the event log
+    private int countEvents() {
+        int count = 0;
+        for (Event e : EventLog.getInstance()) {
+            count++;
+        }
+        return count;
+    }
+}
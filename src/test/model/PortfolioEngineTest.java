@@ -0,0 +1,169 @@
+package model;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioEngineTest {
+
+    StockPortfolio portfolio;
+    PortfolioEngine engine;
+
+    @BeforeEach
+    void runBefore() {
+        portfolio = new StockPortfolio("Engine", 17L);
+        portfolio.setEventLogging(false);
+        portfolio.setSnapshotPublishing(true);
+        engine = new PortfolioEngine(portfolio, 64, 16);
+    }
+
+    @AfterEach
+    void runAfter() throws InterruptedException {
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(5000));
+    }
+
+    @Test
+    void testConcurrentWriters() throws Exception {
+        double price = portfolio.getStockFromPool("AAPL").getCurrentPrice();
+        double balance = portfolio.getStockPortfolioBalance();
+        List<CompletableFuture<Boolean>> buys = buyFromClients(8, 50);
+        int bought = 0;
+        for (CompletableFuture<Boolean> buy : buys) {
+            bought += buy.get() ? 1 : 0;
+        }
+        assertEquals(400, engine.getCommandsExecuted());
+        assertTrue(engine.getBatchesExecuted() <= 400);
+        assertEquals(bought, engine.submit(p -> p.getStockFromPortfolio("AAPL").getSharesOwned()).get());
+        assertEquals(balance - bought * price, portfolio.getSnapshot().getStockPortfolioBalance(), 1e-6);
+        assertEquals(bought, portfolio.getSnapshot().getHolding("AAPL").getSharesOwned());
+        assertEquals(1, engine.progressDay().get());
+    }
+
+    @Test
+    void testBatchPublishesOneSnapshot() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = submitBlocker(started, release);
+        started.await();
+        long version = portfolio.getSnapshot().getVersion();
+        List<CompletableFuture<Boolean>> buys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            buys.add(engine.buyStock("KO", 1));
+        }
+        release.countDown();
+        blocker.get();
+        for (CompletableFuture<Boolean> buy : buys) {
+            assertTrue(buy.get());
+        }
+        assertEquals(11, engine.getCommandsExecuted());
+        assertEquals(2, engine.getBatchesExecuted());
+        assertEquals(version + 2, portfolio.getSnapshot().getVersion());
+        assertEquals(10, portfolio.getSnapshot().getHolding("KO").getSharesOwned());
+    }
+
+    @Test
+    void testFailingCommand() throws Exception {
+        CompletableFuture<Object> failing = engine.submit(p -> {
+            throw new IllegalStateException("boom");
+        });
+        ExecutionException thrown = assertThrows(ExecutionException.class, failing::get);
+        assertTrue(thrown.getCause() instanceof IllegalStateException);
+        assertFalse(engine.sellStock("AAPL", 1).get());
+        assertTrue(engine.requestLoan().get() != null);
+        engine.submit(JournalCommand.buy("META", 2)).get();
+        assertEquals(2, portfolio.getSnapshot().getHolding("META").getSharesOwned());
+    }
+
+    @Test
+    void testErrorStopsWriter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = submitBlocker(started, release);
+        started.await();
+        CompletableFuture<Boolean> buy = engine.buyStock("KO", 1);
+        CompletableFuture<Object> fatal = engine.submit(p -> {
+            throw new Error("fatal");
+        });
+        release.countDown();
+        ExecutionException thrown = assertThrows(ExecutionException.class, fatal::get);
+        assertEquals("fatal", thrown.getCause().getMessage());
+        assertThrows(ExecutionException.class, buy::get);
+        assertTrue(engine.awaitTermination(5000));
+        assertTrue(engine.isTerminated());
+        assertSame(thrown.getCause(), engine.getFailure());
+        thrown = assertThrows(ExecutionException.class, () -> engine.sellStock("KO", 1).get());
+        assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+        assertSame(engine.getFailure(), thrown.getCause().getCause());
+        assertNull(blocker.get());
+    }
+
+    @Test
+    void testInterruptShutsDown() throws Exception {
+        engine.submit(p -> {
+            Thread.currentThread().interrupt();
+            return null;
+        }).get();
+        assertTrue(engine.awaitTermination(5000));
+        assertTrue(engine.isShutdown());
+        assertNull(engine.getFailure());
+    }
+
+    @Test
+    void testShutdown() throws Exception {
+        CompletableFuture<Integer> day = engine.progressDay();
+        engine.shutdown();
+        assertTrue(engine.isShutdown());
+        CompletableFuture<Boolean> late = engine.buyStock("AAPL", 1);
+        assertTrue(engine.awaitTermination(5000));
+        assertEquals(1, day.get());
+        ExecutionException thrown = assertThrows(ExecutionException.class, late::get);
+        assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+        assertSame(portfolio, engine.getPortfolio());
+    }
+
+    // EFFECTS: has the given number of client threads each buy one share of AAPL the given number of times through
+    // the engine, and returns the futures of every buy once the clients are done submitting
+    private List<CompletableFuture<Boolean>> buyFromClients(int threads, int buysPerThread)
+            throws InterruptedException {
+        List<CompletableFuture<Boolean>> buys = new ArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread client = new Thread(() -> {
+                for (int i = 0; i < buysPerThread; i++) {
+                    CompletableFuture<Boolean> buy = engine.buyStock("AAPL", 1);
+                    synchronized (buys) {
+                        buys.add(buy);
+                    }
+                }
+            });
+            clients.add(client);
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return buys;
+    }
+
+    // EFFECTS: submits a command that counts down started, then holds the writer until release is counted down
+    private CompletableFuture<Object> submitBlocker(CountDownLatch started, CountDownLatch release) {
+        return engine.submit(p -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+    }
+}
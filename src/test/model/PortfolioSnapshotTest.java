@@ -0,0 +1,167 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioSnapshotTest {
+
+    StockPortfolio portfolio;
+
+    @BeforeEach
+    void runBefore() {
+        portfolio = new StockPortfolio("Snapshots", 13L);
+    }
+
+    @Test
+    void testNotPublishingByDefault() {
+        assertFalse(portfolio.isSnapshotPublishing());
+        PortfolioSnapshot taken = portfolio.getSnapshot();
+        assertNotSame(taken, portfolio.getSnapshot());
+        assertTrue(portfolio.buyStock("AAPL", 10));
+        PortfolioSnapshot after = portfolio.getSnapshot();
+        assertEquals(0, taken.getStockPortfolio().size());
+        assertEquals(10, after.getHolding("AAPL").getSharesOwned());
+        assertEquals(portfolio.getStockPortfolioBalance(), after.getStockPortfolioBalance());
+    }
+
+    @Test
+    void testTradeSharesUnchangedStocks() {
+        portfolio.setSnapshotPublishing(true);
+        PortfolioSnapshot before = portfolio.getSnapshot();
+        assertEquals(1, before.getVersion());
+        assertSame(before, portfolio.getSnapshot());
+        double balance = portfolio.getStockPortfolioBalance();
+        assertTrue(portfolio.buyStock("AAPL", 10));
+        PortfolioSnapshot after = portfolio.getSnapshot();
+
+        assertEquals(2, after.getVersion());
+        assertSame(before.getStockFromPool("KO"), after.getStockFromPool("KO"));
+        assertSame(before.getStockFromPool("KO").getPriceHistory(), after.getStockFromPool("KO").getPriceHistory());
+        StockSnapshot apple = after.getHolding("AAPL");
+        assertEquals(10, apple.getSharesOwned());
+        assertEquals(apple.getCurrentPrice(), apple.getBuyPrice());
+        assertEquals(portfolio.getStockPortfolioBalance(), after.getStockPortfolioBalance());
+        assertEquals(after.getStockPortfolioBalance() + 10 * apple.getCurrentPrice(), after.getPortfolioValue(), 1e-9);
+
+        assertNull(before.getHolding("AAPL"));
+        assertEquals(balance, before.getStockPortfolioBalance());
+        assertFalse(portfolio.buyStock("NOPE", 1));
+        assertSame(after, portfolio.getSnapshot());
+    }
+
+    @Test
+    void testProgressExtendsHistories() {
+        portfolio.setSnapshotPublishing(true);
+        assertTrue(portfolio.buyStock("KO", 5));
+        PortfolioSnapshot before = portfolio.getSnapshot();
+        List<Double> koPrices = before.getStockFromPool("KO").getPriceHistory();
+        int days = koPrices.size();
+        portfolio.progressDay();
+        portfolio.progressDays(10);
+        PortfolioSnapshot after = portfolio.getSnapshot();
+
+        assertEquals(before.getTradingDay() + 11, after.getTradingDay());
+        for (int i = 0; i < before.getStockPool().size(); i++) {
+            assertNotSame(before.getStockPool().get(i), after.getStockPool().get(i));
+        }
+        List<Double> laterPrices = after.getStockFromPool("KO").getPriceHistory();
+        assertEquals(days, koPrices.size());
+        assertEquals(days + 11, laterPrices.size());
+        assertEquals(koPrices, laterPrices.subList(0, days));
+        assertEquals(portfolio.getPnLHistory(), after.getPnLHistory());
+        assertEquals(portfolio.getStockFromPool("KO").getPriceHistory(), laterPrices);
+        assertEquals(portfolio.getStockFromPool("KO").getCurrentPrice(), after.getHolding("KO").getCurrentPrice());
+        assertThrows(UnsupportedOperationException.class, () -> laterPrices.add(1.0));
+        assertThrows(UnsupportedOperationException.class, () -> after.getStockPool().clear());
+    }
+
+    @Test
+    void testStopPublishing() {
+        portfolio.setSnapshotPublishing(true);
+        assertSame(portfolio.getSnapshot(), portfolio.getSnapshot());
+        portfolio.setSnapshotPublishing(false);
+        assertFalse(portfolio.isSnapshotPublishing());
+        assertNotSame(portfolio.getSnapshot(), portfolio.getSnapshot());
+    }
+
+    @Test
+    void testOnlyChangedStocksTakenAgain() {
+        Market market = new Market(13L);
+        StockPortfolio shared = new StockPortfolio("Shared", market);
+        assertTrue(shared.buyStock("KO", 5));
+        shared.setSnapshotPublishing(true);
+        PortfolioSnapshot before = shared.getSnapshot();
+        assertTrue(shared.buyStock("KO", 5));
+        PortfolioSnapshot after = shared.getSnapshot();
+        assertSame(before.getStockPool(), after.getStockPool());
+        assertEquals(10, after.getHolding("KO").getSharesOwned());
+        shared.grantLoan();
+        assertEquals(after.getStockPortfolioBalance() + 2000, shared.getSnapshot().getStockPortfolioBalance());
+        assertSame(after.getStockPortfolio(), shared.getSnapshot().getStockPortfolio());
+        assertSame(after.getStockPool(), shared.getSnapshot().getStockPool());
+    }
+
+    @Test
+    void testOnlyRepricedStocksTakenAgain() {
+        Market market = new Market(13L);
+        StockPortfolio shared = new StockPortfolio("Shared", market);
+        assertTrue(shared.buyStock("KO", 5));
+        shared.setSnapshotPublishing(true);
+        PortfolioSnapshot after = shared.getSnapshot();
+        Stock pepsi = market.getStock("PEP");
+        pepsi.setCurrentPrice(pepsi.getCurrentPrice() * 2);
+        shared.publishSnapshot();
+        PortfolioSnapshot priced = shared.getSnapshot();
+        assertEquals(pepsi.getCurrentPrice(), priced.getStockFromPool("PEP").getCurrentPrice());
+        assertSame(after.getStockFromPool("KO"), priced.getStockFromPool("KO"));
+        assertSame(after.getStockPortfolio(), priced.getStockPortfolio());
+
+        Stock cocaCola = market.getStock("KO");
+        cocaCola.setCurrentPrice(cocaCola.getCurrentPrice() * 2);
+        shared.publishSnapshot();
+        assertEquals(cocaCola.getCurrentPrice(), shared.getSnapshot().getHolding("KO").getCurrentPrice());
+    }
+
+    @Test
+    void testRetentionWindowSlides() {
+        portfolio.setHistoryRetention(new RetentionPolicy(10, 4, 2));
+        portfolio.setSnapshotPublishing(true);
+        for (int day = 0; day < 40; day++) {
+            portfolio.progressDay();
+            StockSnapshot cocaCola = portfolio.getSnapshot().getStockFromPool("KO");
+            assertEquals(portfolio.getStockFromPool("KO").getPriceHistory(), cocaCola.getPriceHistory());
+        }
+        assertEquals(portfolio.getPnLHistory(), portfolio.getSnapshot().getPnLHistory());
+    }
+
+    @Test
+    void testReadersSeeConsistentSnapshots() throws InterruptedException {
+        portfolio.setSnapshotPublishing(true);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                PortfolioSnapshot snapshot = portfolio.getSnapshot();
+                for (StockSnapshot s : snapshot.getStockPool()) {
+                    List<Double> prices = s.getPriceHistory();
+                    if (prices.get(prices.size() - 1) != s.getCurrentPrice()) {
+                        failure.set(s.getStockCode() + " on day " + snapshot.getTradingDay());
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int day = 0; day < 300; day++) {
+            portfolio.progressDay();
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(300, portfolio.getSnapshot().getTradingDay());
+    }
+}
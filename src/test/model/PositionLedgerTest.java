@@ -0,0 +1,118 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionLedgerTest {
+
+    StockPortfolio portfolio;
+    List<Double> values;
+    List<Double> balances;
+    List<Double> applePnLs;
+    double appleRealized;
+
+    @BeforeEach
+    void runBefore() {
+        portfolio = new StockPortfolio("Ledger", 21L);
+        values = new ArrayList<>();
+        balances = new ArrayList<>();
+        applePnLs = new ArrayList<>();
+    }
+
+    @Test
+    void testPointInTimeQueries() {
+        playSession();
+        PositionLedger ledger = portfolio.getPositionLedger();
+        assertEquals(0, ledger.getFirstDay());
+        for (int day = 0; day <= portfolio.getTradingDay(); day++) {
+            assertEquals(values.get(day), ledger.getValue(day), 1e-9);
+            assertEquals(balances.get(day), ledger.getBalance(day), 1e-9);
+            assertEquals(applePnLs.get(day), ledger.getPositionPnL("AAPL", day), 1e-9);
+        }
+        assertEquals(10, ledger.getShares("AAPL", 0));
+        assertEquals(10, ledger.getShares("AAPL", 2));
+        assertEquals(15, ledger.getShares("AAPL", 3));
+        assertEquals(8, ledger.getShares("AAPL", 5));
+        assertEquals(20, ledger.getShares("KO", 5));
+        assertEquals(0, ledger.getShares("KO", 8));
+        assertEquals(3, ledger.getShares("PFE", 4));
+        assertEquals(0, ledger.getShares("PFE", 8));
+        assertEquals(0, ledger.getShares("XOM", 8));
+        assertEquals(appleRealized, ledger.getRealizedProfit("AAPL", 5));
+        assertEquals(appleRealized, ledger.getRealizedProfit("AAPL", 12));
+        assertEquals(0, ledger.getRealizedProfit("AAPL", 4));
+        assertThrows(IllegalArgumentException.class, () -> ledger.getValue(-1));
+    }
+
+    @Test
+    void testValueCurve() {
+        playSession();
+        PositionLedger ledger = portfolio.getPositionLedger();
+        double[] curve = ledger.getValueCurve(3, 10).toArray();
+        assertEquals(8, curve.length);
+        for (int i = 0; i < curve.length; i++) {
+            assertEquals(values.get(3 + i), curve[i], 1e-9);
+        }
+        assertEquals(13, ledger.getValueCurve(0, 12).count());
+    }
+
+    @Test
+    void testSharedMarketAndRestart() {
+        Market market = new Market(4L);
+        StockPortfolio alice = new StockPortfolio("Alice", market);
+        market.progressDays(3);
+        alice.buyStock("XOM", 7);
+        double xom = market.getStock("XOM").getCurrentPrice();
+        market.progressDays(2);
+        PositionLedger ledger = alice.getPositionLedger();
+        assertEquals(7, ledger.getShares("XOM", 3));
+        assertEquals(7 * market.getStock("XOM").getCurrentPrice() - 7 * xom, ledger.getPositionPnL("XOM", 5), 1e-9);
+        assertEquals(7 * xom + alice.getStockPortfolioBalance(), ledger.getValue(3), 1e-9);
+
+        alice.setTradingDay(5);
+        assertEquals(5, ledger.getFirstDay());
+        assertEquals(7, ledger.getShares("XOM", 5));
+        assertThrows(IllegalArgumentException.class, () -> ledger.getBalance(4));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: trades over days 0 to 12, noting the portfolio's value, balance and AAPL PnL at the end of each day
+    private void playSession() {
+        for (int day = 0; day <= 12; day++) {
+            if (day == 0) {
+                portfolio.buyStock("AAPL", 10);
+                portfolio.buyStock("KO", 20);
+            } else if (day == 3) {
+                portfolio.buyStock("AAPL", 5);
+                portfolio.buyStock("PFE", 3);
+            } else if (day == 5) {
+                portfolio.sellStock("AAPL", 7);
+                appleRealized = portfolio.getStockFromPortfolio("AAPL").getStockRealizedProfit();
+                portfolio.sellStock("PFE");
+            } else if (day == 8) {
+                portfolio.sellStock("KO");
+            }
+            note();
+            if (day < 12) {
+                portfolio.progressDay();
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: notes the portfolio's value, balance and AAPL PnL at the end of the current day
+    private void note() {
+        double value = portfolio.getStockPortfolioBalance();
+        for (Stock s : portfolio.getStockPortfolio()) {
+            value += s.getSharesOwned() * s.getCurrentPrice();
+        }
+        values.add(value);
+        balances.add(portfolio.getStockPortfolioBalance());
+        Stock apple = portfolio.getStockFromPortfolio("AAPL");
+        applePnLs.add((apple == null ? 0 : apple.getStockPotentialProfit()) + appleRealized);
+    }
+}
@@ -0,0 +1,99 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionTest {
+
+    Position testPosition;
+
+    @BeforeEach
+    void runBefore() {
+        testPosition = new Position();
+        testPosition.buy(10, 10.0);
+        testPosition.buy(10, 20.0);
+        testPosition.buy(10, 30.0);
+    }
+
+    @Test
+    void testConstructor() {
+        Position empty = new Position(CostBasisMethod.LIFO);
+        assertEquals(CostBasisMethod.LIFO, empty.getMethod());
+        assertEquals(0, empty.getShares());
+        assertEquals(0, empty.getAverageCost());
+        assertEquals(0, empty.getLotCount());
+        assertEquals(CostBasisMethod.FIFO, testPosition.getMethod());
+        assertEquals(30, testPosition.getShares());
+        assertEquals(600.0, testPosition.getCostBasis());
+        assertEquals(20.0, testPosition.getAverageCost());
+        assertEquals(3, testPosition.getLotCount());
+    }
+
+    @Test
+    void testBuyRejectsNonPositiveShares() {
+        assertThrows(IllegalArgumentException.class, () -> testPosition.buy(0, 10.0));
+        assertThrows(IllegalArgumentException.class, () -> testPosition.buy(-5, 10.0));
+        assertEquals(30, testPosition.getShares());
+        assertEquals(3, testPosition.getLotCount());
+    }
+
+    @Test
+    void testSellFifo() {
+        assertEquals(15 * 25.0 - (100 + 100), testPosition.sell(15, 25.0));
+        assertEquals(15, testPosition.getShares());
+        assertEquals(2, testPosition.getLotCount());
+        assertEquals(5, testPosition.getLotShares(0));
+        assertEquals(20.0, testPosition.getLotPrice(0));
+        assertEquals(400.0, testPosition.getCostBasis());
+        assertEquals(175.0, testPosition.getRealizedProfit());
+        assertEquals(-25.0, testPosition.sell(5, 15.0));
+        assertEquals(150.0, testPosition.getRealizedProfit());
+        assertEquals(30.0, testPosition.getAverageCost());
+    }
+
+    @Test
+    void testSellLifo() {
+        testPosition.setMethod(CostBasisMethod.LIFO);
+        assertEquals(15 * 25.0 - (300 + 100), testPosition.sell(15, 25.0));
+        assertEquals(2, testPosition.getLotCount());
+        assertEquals(5, testPosition.getLotShares(1));
+        assertEquals(20.0, testPosition.getLotPrice(1));
+        assertEquals(0.0, testPosition.sell(15, 20.0) - (15 * 20.0 - 100 - 100));
+        assertEquals(0, testPosition.getShares());
+        assertEquals(0, testPosition.getCostBasis());
+    }
+
+    @Test
+    void testAverageCost() {
+        testPosition.setMethod(CostBasisMethod.AVERAGE_COST);
+        assertEquals(1, testPosition.getLotCount());
+        assertEquals(20.0, testPosition.getAverageCost());
+        testPosition.buy(10, 40.0);
+        assertEquals(1, testPosition.getLotCount());
+        assertEquals(40, testPosition.getShares());
+        assertEquals(25.0, testPosition.getAverageCost());
+        assertEquals(50.0, testPosition.sell(10, 30.0));
+        assertEquals(25.0, testPosition.getAverageCost());
+    }
+
+    @Test
+    void testManyLots() {
+        Position position = new Position();
+        for (int i = 1; i <= 10000; i++) {
+            position.buy(1, i);
+            if (i % 2 == 0) {
+                position.sell(1, i);
+            }
+        }
+        assertEquals(5000, position.getShares());
+        assertEquals(5000, position.getLotCount());
+        assertEquals(5001.0, position.getLotPrice(0));
+        assertEquals(10000.0, position.getLotPrice(4999));
+        position.reset(7, 3.0);
+        assertEquals(1, position.getLotCount());
+        assertEquals(3.0, position.getAverageCost());
+        position.reset(0, 3.0);
+        assertEquals(0, position.getLotCount());
+    }
+}
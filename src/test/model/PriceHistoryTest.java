@@ -0,0 +1,165 @@
+package model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceHistoryTest {
+
+    PriceHistory testHistory;
+
+    @BeforeEach
+    void runBefore() {
+        testHistory = new PriceHistory(2);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testHistory.size());
+        assertTrue(testHistory.isEmpty());
+    }
+
+    @Test
+    void testAppendGrows() {
+        for (int i = 0; i < 100; i++) {
+            testHistory.append(i * 1.5);
+        }
+        assertEquals(100, testHistory.size());
+        assertEquals(0.0, testHistory.getDouble(0));
+        assertEquals(148.5, testHistory.last());
+        assertEquals(75.0, testHistory.get(50));
+    }
+
+    @Test
+    void testEqualsList() {
+        testHistory.append(111.0);
+        testHistory.append(222.0);
+        List<Double> expected = new ArrayList<>();
+        expected.add(111.0);
+        expected.add(222.0);
+        assertEquals(expected, testHistory);
+        assertEquals(testHistory, PriceHistory.copyOf(expected));
+    }
+
+    @Test
+    void testReadOnlyView() {
+        testHistory.append(1.0);
+        assertThrows(UnsupportedOperationException.class, () -> testHistory.add(2.0));
+        assertThrows(UnsupportedOperationException.class, () -> testHistory.set(0, 2.0));
+        assertThrows(UnsupportedOperationException.class, () -> testHistory.remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> testHistory.getDouble(1));
+    }
+
+    @Test
+    void testBulkCopy() {
+        testHistory.append(1.0);
+        testHistory.append(2.0);
+        testHistory.append(3.0);
+        assertArrayEquals(new double[] {1.0, 2.0, 3.0}, testHistory.toDoubleArray());
+        double[] dest = new double[3];
+        testHistory.copyTo(1, 3, dest, 1);
+        assertArrayEquals(new double[] {0.0, 2.0, 3.0}, dest);
+
+        PriceHistory copy = PriceHistory.copyOf(testHistory);
+        copy.append(4.0);
+        assertEquals(3, testHistory.size());
+        assertEquals(4, copy.size());
+    }
+
+    @Test
+    void testRetentionBoundsWindow() {
+        testHistory.setRetentionPolicy(new RetentionPolicy(10, 2, 3));
+        for (int day = 0; day < 1000; day++) {
+            testHistory.append(day);
+        }
+        assertEquals(10, testHistory.size());
+        assertEquals(1000, testHistory.getDayCount());
+        assertEquals(990, testHistory.getFirstRetainedDay());
+        assertEquals(990.0, testHistory.getDouble(0));
+        assertEquals(999.0, testHistory.last());
+        assertArrayEquals(new double[] {995, 996, 997, 998, 999},
+                Arrays.copyOfRange(testHistory.toDoubleArray(), 5, 10));
+        assertEquals(2, testHistory.getWeeklyBars().size());
+        assertEquals(3, testHistory.getMonthlyBars().size());
+    }
+
+    @Test
+    void testRetentionPriceAt() {
+        testHistory.setRetentionPolicy(new RetentionPolicy(10, 2, 3));
+        for (int day = 0; day < 100; day++) {
+            testHistory.append(day);
+        }
+        // days 90-99 at full resolution, 80-89 in weekly bars, 20-79 in monthly bars, older days dropped
+        assertEquals(95.0, testHistory.priceAt(95));
+        assertEquals(84.0, testHistory.priceAt(80));
+        assertEquals(89.0, testHistory.priceAt(87));
+        assertEquals(79.0, testHistory.priceAt(60));
+        assertEquals(39.0, testHistory.priceAt(20));
+        assertThrows(IndexOutOfBoundsException.class, () -> testHistory.priceAt(19));
+        assertThrows(IndexOutOfBoundsException.class, () -> testHistory.priceAt(100));
+
+        PriceBar week = testHistory.getWeeklyBars().get(0);
+        assertEquals(80, week.getFirstDay());
+        assertEquals(5, week.getDays());
+        assertEquals(80.0, week.getOpen());
+        assertEquals(84.0, week.getHigh());
+        assertEquals(80.0, week.getLow());
+        assertEquals(84.0, week.getClose());
+        PriceBar month = testHistory.getMonthlyBars().get(0);
+        assertEquals(20, month.getFirstDay());
+        assertEquals(20, month.getDays());
+        assertEquals(20.0, month.getOpen());
+        assertEquals(39.0, month.getClose());
+    }
+
+    @Test
+    void testRetentionAppliedToExistingHistory() {
+        for (int day = 0; day < 30; day++) {
+            testHistory.append(day);
+        }
+        assertTrue(testHistory.getWeeklyBars().isEmpty());
+        testHistory.setRetentionPolicy(new RetentionPolicy(7, 10, 10));
+        assertEquals(7, testHistory.size());
+        assertEquals(23.0, testHistory.getDouble(0));
+        assertEquals(22.0, testHistory.priceAt(21));
+        assertEquals(4.0, testHistory.priceAt(2));
+        testHistory.setRetentionPolicy(null);
+        assertNull(testHistory.getRetentionPolicy());
+        for (int day = 30; day < 60; day++) {
+            testHistory.append(day);
+        }
+        assertEquals(37, testHistory.size());
+        assertEquals(59.0, testHistory.priceAt(59));
+        assertThrows(IllegalArgumentException.class, () -> new RetentionPolicy(0, 1, 1));
+    }
+
+    @Test
+    void testRetentionReappliedKeepsBars() {
+        testHistory.setRetentionPolicy(new RetentionPolicy(10, 2, 3));
+        for (int day = 0; day < 100; day++) {
+            testHistory.append(day);
+        }
+        testHistory.setRetentionPolicy(new RetentionPolicy(10, 2, 3));
+        assertEquals(2, testHistory.getWeeklyBars().size());
+        assertEquals(3, testHistory.getMonthlyBars().size());
+        assertEquals(90, testHistory.getFirstRetainedDay());
+        assertEquals(79.0, testHistory.priceAt(60));
+
+        PriceHistory copy = PriceHistory.copyOf(testHistory);
+        assertEquals(90, copy.getFirstRetainedDay());
+        assertEquals(39.0, copy.priceAt(20));
+        assertEquals(testHistory.getWeeklyBars().size(), copy.getWeeklyBars().size());
+
+        testHistory.setRetentionPolicy(new RetentionPolicy(5, 1, 4));
+        assertEquals(95, testHistory.getFirstRetainedDay());
+        assertEquals(100, testHistory.getDayCount());
+        assertEquals(94.0, testHistory.priceAt(92));
+        assertEquals(89.0, testHistory.priceAt(85));
+        assertEquals(39.0, testHistory.priceAt(20));
+        assertEquals(4, testHistory.getMonthlyBars().size());
+    }
+}
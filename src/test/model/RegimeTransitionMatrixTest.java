@@ -0,0 +1,54 @@
+package model;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegimeTransitionMatrixTest {
+
+    @Test
+    void testUniform() {
+        RegimeTransitionMatrix matrix = RegimeTransitionMatrix.uniform();
+        for (MarketRegime from : MarketRegime.values()) {
+            for (MarketRegime to : MarketRegime.values()) {
+                assertEquals(0.2, matrix.getProbability(from, to), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void testStickyRegime() {
+        double[][] probabilities = new double[5][5];
+        for (int i = 0; i < 5; i++) {
+            probabilities[i][MarketRegime.AFRAID.ordinal()] = 1.0;
+        }
+        RegimeTransitionMatrix matrix = new RegimeTransitionMatrix(probabilities);
+        RandomSource random = new SplittableRandomSource(1L);
+        for (MarketRegime from : MarketRegime.values()) {
+            assertEquals(MarketRegime.AFRAID, matrix.next(from, random));
+        }
+        assertEquals(0.0, matrix.getProbability(MarketRegime.NEUTRAL, MarketRegime.VERY_AFRAID));
+    }
+
+    @Test
+    void testInvalidMatrix() {
+        assertThrows(IllegalArgumentException.class, () -> new RegimeTransitionMatrix(new double[4][5]));
+        assertThrows(IllegalArgumentException.class, () -> new RegimeTransitionMatrix(new double[5][4]));
+        assertThrows(IllegalArgumentException.class, () -> new RegimeTransitionMatrix(new double[5][5]));
+        double[][] negative = new double[5][5];
+        for (double[] row : negative) {
+            row[0] = 1.5;
+            row[1] = -0.5;
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RegimeTransitionMatrix(negative));
+    }
+
+    @Test
+    void testRegimeLabels() {
+        for (MarketRegime regime : MarketRegime.values()) {
+            assertEquals(regime, MarketRegime.fromLabel(regime.getLabel()));
+            assertTrue(regime.getMinVariation() < regime.getMaxVariation());
+        }
+        assertEquals("Very Afraid", MarketRegime.VERY_AFRAID.toString());
+        assertNull(MarketRegime.fromLabel("sample state"));
+    }
+}
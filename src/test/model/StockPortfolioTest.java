@@ -49,6 +49,22 @@ class StockPortfolioTest {
         assertEquals(0, testPortfolio.getStockPortfolio().size());
     }
 
+    @Test
+    void testRemoveStockMovesLastIntoPlace() {
+        assertTrue(testPortfolio.buyStock("AAPL", 1));
+        assertTrue(testPortfolio.buyStock("PFE", 1));
+        assertTrue(testPortfolio.buyStock("KO", 1));
+        assertTrue(testPortfolio.sellStock("AAPL"));
+        assertEquals(2, testPortfolio.getNumStocksInPortfolio());
+        assertSame(testPortfolio.getStockFromPortfolio("KO"), testPortfolio.getStockPortfolio().get(0));
+        assertFalse(testPortfolio.sellStock("AAPL"));
+        assertTrue(testPortfolio.sellStock("KO"));
+        assertTrue(testPortfolio.sellStock("PFE"));
+        assertEquals(0, testPortfolio.getNumStocksInPortfolio());
+        assertTrue(testPortfolio.buyStock("KO", 1));
+        assertEquals(1, testPortfolio.getNumStocksInPortfolio());
+    }
+
     @Test
     void testCreateNewStock() {
         testPortfolio.createNewStock("New Stock A", "NSA", "Technology");
@@ -68,6 +84,14 @@ class StockPortfolioTest {
         assertTrue(testPortfolio.getStockPortfolioBalance() < 5000);
     }
 
+    @Test
+    void testBuyNonPositiveShares() {
+        assertFalse(testPortfolio.buyStock("AAPL", 0));
+        assertFalse(testPortfolio.buyStock("AAPL", -10));
+        assertEquals(5000, testPortfolio.getStockPortfolioBalance());
+        assertEquals(0, testPortfolio.getNumStocksInPortfolio());
+    }
+
     @Test
     void testFailToCreate() {
         Stock stockTest = new Stock("Test Stock", "TSTS", "None");
@@ -279,4 +303,394 @@ class StockPortfolioTest {
                 || (testPortfolio.requestLoanReturnVal() == false
                 && testPortfolio.getStockPortfolioBalance() == 5000));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCodeIndexFollowsPool() {
+        Stock stockTest = new Stock("Test Stock", "TSTS", "None");
+        Stock stockTestReplacement = new Stock("Test Stock", "TSTR", "None");
+        testPortfolio.addStockToPool(stockTest);
+        assertEquals(stockTest, testPortfolio.getStockFromPool("TSTS"));
+        testPortfolio.addStockToPool(stockTestReplacement);
+        assertEquals(12, testPortfolio.getStockPool().size());
+        assertNull(testPortfolio.getStockFromPool("TSTS"));
+        assertEquals(stockTestReplacement, testPortfolio.getStockFromPool("TSTR"));
+        assertFalse(testPortfolio.buyStock("TSTS", 1));
+        testPortfolio.removeStockFromPoolWithName("Test Stock");
+        assertEquals(11, testPortfolio.getStockPool().size());
+        assertNull(testPortfolio.getStockFromPool("TSTR"));
+        assertEquals(0.0, testPortfolio.getPriceFromCode("TSTR"));
+    }
+
+    @Test
+    void testCodeIndexFollowsPortfolio() {
+        testPortfolio.buyStock("AAPL", 1);
+        testPortfolio.buyStock("AAPL", 2);
+        assertEquals(1, testPortfolio.getNumStocksInPortfolio());
+        assertEquals(3, testPortfolio.getStockFromPortfolio("AAPL").getSharesOwned());
+        assertTrue(testPortfolio.sellStock("AAPL"));
+        assertNull(testPortfolio.getStockFromPortfolio("AAPL"));
+        assertFalse(testPortfolio.sellStock("AAPL"));
+        assertTrue(testPortfolio.createNewStock("New Stock A", "NSA", "Technology"));
+        assertEquals(testPortfolio.getStockFromPool("NSA"), testPortfolio.getStockFromPortfolio("NSA"));
+    }
+
+    @Test
+    void testProgressDays() {
+        testPortfolio.buyStock("AAPL", 10);
+        testPortfolio.buyStock("KO", 5);
+        testPortfolio.progressDays(30);
+        assertEquals(30, testPortfolio.getTradingDay());
+        assertEquals(30, testPortfolio.getPnLHistory().size());
+        for (Stock s : testPortfolio.getStockPool()) {
+            PriceHistory prices = s.getPriceHistory();
+            assertEquals(31, prices.size());
+            assertEquals(s.getCurrentPrice(), prices.last());
+            assertEquals((prices.getDouble(30) - prices.getDouble(29)) / prices.getDouble(29),
+                    s.getStockDailyVariation());
+        }
+        Stock apple = testPortfolio.getStockFromPortfolio("AAPL");
+        Stock cocaCola = testPortfolio.getStockFromPortfolio("KO");
+        for (int day = 0; day < 30; day++) {
+            double expected = (apple.getPriceHistory().getDouble(day + 1) - apple.getBuyPrice()) * 10;
+            expected += (cocaCola.getPriceHistory().getDouble(day + 1) - cocaCola.getBuyPrice()) * 5;
+            assertEquals(expected, testPortfolio.getPnLHistory().getDouble(day), 1e-9);
+        }
+        double pnl = testPortfolio.getTotalPNL();
+        testPortfolio.calculateTotalPNL();
+        assertEquals(testPortfolio.getTotalPNL(), pnl);
+    }
+
+    @Test
+    void testProgressDaysThenProgressDay() {
+        Stock stockTest = new Stock("Test Stock", "TSTS", "None");
+        stockTest.setCurrentPrice(20.0);
+        stockTest.buyShares(10);
+        stockTest.setCurrentPrice(25.0);
+        testPortfolio.addStock(stockTest);
+        testPortfolio.progressDays(3);
+        testPortfolio.progressDay();
+        assertEquals(4, testPortfolio.getTradingDay());
+        assertEquals(4, testPortfolio.getPnLHistory().size());
+        assertEquals(1, stockTest.getPriceHistory().size());
+        for (int day = 0; day < 4; day++) {
+            assertEquals(50.0, testPortfolio.getPnLHistory().getDouble(day));
+        }
+    }
+
+    @Test
+    void testParallelProgression() {
+        for (int i = 0; i < 500; i++) {
+            testPortfolio.addStockToPool(new Stock("Stock " + i, "S" + i, "None"));
+        }
+        for (int i = 0; i < 500; i += 5) {
+            testPortfolio.buyStock("S" + i, 1);
+        }
+        testPortfolio.setParallelProgression(new ParallelProgression(16));
+        assertEquals(16, testPortfolio.getParallelProgression().getThreshold());
+        testPortfolio.progressDay();
+        testPortfolio.progressDays(4);
+        assertEquals(5, testPortfolio.getTradingDay());
+        assertEquals(5, testPortfolio.getPnLHistory().size());
+        for (Stock s : testPortfolio.getStockPool()) {
+            assertEquals(6, s.getPriceHistory().size());
+            assertEquals(s.getCurrentPrice(), s.getPriceHistory().last());
+        }
+        double pnl = testPortfolio.getTotalPNL();
+        testPortfolio.calculateTotalPNL();
+        assertEquals(testPortfolio.getTotalPNL(), pnl, 1e-6);
+    }
+
+    @Test
+    void testProgressDayWithHeldStockOutsidePool() {
+        testPortfolio.setPnLCheckEnabled(true);
+        assertTrue(testPortfolio.buyStock("AAPL", 10));
+        assertTrue(testPortfolio.buyStock("PFE", 10));
+        Stock apple = testPortfolio.getStockFromPortfolio("AAPL");
+        testPortfolio.removeStockFromPoolWithName("Apple");
+        testPortfolio.progressDay();
+        testPortfolio.progressDays(3);
+        assertTrue(testPortfolio.calculateTotalPNL());
+        assertEquals(apple.getStockPotentialProfit() + testPortfolio.getStockFromPortfolio("PFE")
+                .getStockPotentialProfit(), testPortfolio.getTotalPNL(), 1e-9);
+        assertEquals(4, testPortfolio.getPnLHistory().size());
+    }
+
+    @Test
+    void testSeededPortfoliosMatch() {
+        StockPortfolio seeded = new StockPortfolio("Seeded 1", 42L);
+        StockPortfolio seeded2 = new StockPortfolio("Seeded 2", 42L);
+        seeded.buyStock("AAPL", 10);
+        seeded2.buyStock("AAPL", 10);
+        for (int i = 0; i < 10; i++) {
+            seeded.progressDay();
+            seeded2.progressDay();
+        }
+        assertEquals(seeded.requestLoanReturnVal(), seeded2.requestLoanReturnVal());
+        assertEquals(seeded.getStockPortfolioBalance(), seeded2.getStockPortfolioBalance());
+        assertEquals(seeded.getPnLHistory(), seeded2.getPnLHistory());
+        for (int i = 0; i < seeded.getStockPool().size(); i++) {
+            assertEquals(seeded.getStockPool().get(i).getPriceHistory(),
+                    seeded2.getStockPool().get(i).getPriceHistory());
+        }
+    }
+
+    @Test
+    void testSeededProgressDaysMatchesProgressDay() {
+        StockPortfolio stepped = new StockPortfolio("Stepped", 7L);
+        StockPortfolio batched = new StockPortfolio("Batched", 7L);
+        StockPortfolio parallel = new StockPortfolio("Parallel", 7L);
+        parallel.setParallelProgression(new ParallelProgression(2));
+        stepped.buyStock("GOOGL", 3);
+        batched.buyStock("GOOGL", 3);
+        parallel.buyStock("GOOGL", 3);
+        for (int i = 0; i < 50; i++) {
+            stepped.progressDay();
+        }
+        batched.progressDays(50);
+        parallel.progressDays(50);
+        assertEquals(stepped.getPnLHistory(), batched.getPnLHistory());
+        assertEquals(stepped.getPnLHistory(), parallel.getPnLHistory());
+        assertEquals(stepped.getTotalPNL(), batched.getTotalPNL());
+        for (int i = 0; i < stepped.getStockPool().size(); i++) {
+            Stock s = stepped.getStockPool().get(i);
+            assertEquals(s.getPriceHistory(), batched.getStockPool().get(i).getPriceHistory());
+            assertEquals(s.getPriceHistory(), parallel.getStockPool().get(i).getPriceHistory());
+            assertEquals(s.getStockDailyVariation(), batched.getStockPool().get(i).getStockDailyVariation());
+        }
+    }
+
+    @Test
+    void testMarketRegime() {
+        assertEquals(MarketRegime.NEUTRAL, testPortfolio.getMarketRegime());
+        testPortfolio.setMarketState("Very Confident");
+        assertEquals(MarketRegime.VERY_CONFIDENT, testPortfolio.getMarketRegime());
+        testPortfolio.setMarketRegime(MarketRegime.AFRAID);
+        assertEquals("Afraid", testPortfolio.getMarketState());
+        assertThrows(IllegalArgumentException.class, () -> testPortfolio.setMarketState("sample state"));
+        assertEquals(0, testPortfolio.determineMinimumMarketRange("sample state"));
+        assertEquals("Afraid", testPortfolio.toJson().getString("market_state"));
+    }
+
+    @Test
+    void testMarketStateTransitions() {
+        double[][] probabilities = new double[5][5];
+        for (int i = 0; i < 5; i++) {
+            probabilities[i][(i + 1) % 5] = 1.0;
+        }
+        testPortfolio.setRegimeTransitions(new RegimeTransitionMatrix(probabilities));
+        assertTrue(testPortfolio.determineMarketState());
+        assertEquals(MarketRegime.AFRAID, testPortfolio.getMarketRegime());
+        assertTrue(testPortfolio.determineMarketState());
+        assertEquals(MarketRegime.VERY_AFRAID, testPortfolio.getMarketRegime());
+        assertTrue(testPortfolio.determineMarketState());
+        assertEquals(MarketRegime.VERY_CONFIDENT, testPortfolio.getMarketRegime());
+    }
+
+    @Test
+    void testRunningTotalPNL() {
+        testPortfolio.setPnLCheckEnabled(true);
+        assertTrue(testPortfolio.isPnLCheckEnabled());
+        testPortfolio.buyStock("AAPL", 10);
+        testPortfolio.buyStock("XOM", 4);
+        testPortfolio.progressDay();
+        testPortfolio.progressDays(3);
+        Stock apple = testPortfolio.getStockFromPortfolio("AAPL");
+        apple.updatePrice(0.5);
+        assertTrue(testPortfolio.calculateTotalPNL());
+        double expected = apple.getStockPotentialProfit()
+                + testPortfolio.getStockFromPortfolio("XOM").getStockPotentialProfit();
+        assertEquals(expected, testPortfolio.getTotalPNL(), 1e-9);
+        testPortfolio.sellStock("XOM");
+        testPortfolio.createNewStock("New Stock A", "NSA", "Technology");
+        testPortfolio.buyStock("AAPL", 5);
+        assertEquals(15, apple.getSharesOwned());
+        assertTrue(testPortfolio.calculateTotalPNL());
+        assertEquals(apple.getStockPotentialProfit(), testPortfolio.getTotalPNL(), 1e-9);
+        testPortfolio.setParallelProgression(new ParallelProgression(2));
+        testPortfolio.progressDay();
+        assertTrue(testPortfolio.calculateTotalPNL());
+    }
+
+    @Test
+    void testRunningTotalPNLCheckFails() {
+        testPortfolio.setPnLCheckEnabled(true);
+        Stock stockTest = new Stock("Test Stock", "TSTS", "None");
+        stockTest.setStockPotentialProfit(25.0);
+        testPortfolio.getStockPortfolio().add(stockTest);
+        assertThrows(IllegalStateException.class, () -> testPortfolio.calculateTotalPNL());
+        testPortfolio.setPnLCheckEnabled(false);
+        assertTrue(testPortfolio.calculateTotalPNL());
+        assertEquals(0, testPortfolio.getTotalPNL());
+    }
+
+    @Test
+    void testHistoryRetention() {
+        StockPortfolio stepped = new StockPortfolio("Stepped", 13L);
+        StockPortfolio batched = new StockPortfolio("Batched", 13L);
+        batched.setHistoryRetention(new RetentionPolicy(8, 4, 2));
+        assertEquals(8, batched.getHistoryRetention().getFullResolutionDays());
+        stepped.buyStock("JPM", 4);
+        batched.buyStock("JPM", 4);
+        for (int i = 0; i < 300; i++) {
+            stepped.progressDay();
+        }
+        batched.progressDays(300);
+        assertEquals(300, batched.getTradingDay());
+        assertEquals(8, batched.getPnLHistory().size());
+        assertEquals(300, batched.getPnLHistory().getDayCount());
+        PriceHistory steppedPrices = stepped.getStockFromPool("JPM").getPriceHistory();
+        PriceHistory batchedPrices = batched.getStockFromPool("JPM").getPriceHistory();
+        assertEquals(8, batchedPrices.size());
+        assertEquals(301, batchedPrices.getDayCount());
+        for (int day = 293; day <= 300; day++) {
+            assertEquals(steppedPrices.getDouble(day), batchedPrices.priceAt(day));
+            assertEquals(stepped.getPnLHistory().getDouble(day - 1), batched.getPnLHistory().priceAt(day - 1));
+        }
+        assertEquals(stepped.getTotalPNL(), batched.getTotalPNL());
+    }
+
+    @Test
+    void testHistoryRetentionAppliedToNewStocks() {
+        testPortfolio.setHistoryRetention(new RetentionPolicy(8, 4, 2));
+        Stock stockTest = new Stock("Test Stock", "TSTS", "None");
+        testPortfolio.addStockToPool(stockTest);
+        assertEquals(testPortfolio.getHistoryRetention(), stockTest.getPriceHistory().getRetentionPolicy());
+    }
+
+    @Test
+    void testPoolSharesMarketColumns() {
+        MarketColumns market = testPortfolio.getStockFromPool("AAPL").getMarket();
+        assertEquals(testPortfolio.getStockPool().size(), market.size());
+        for (Stock s : testPortfolio.getStockPool()) {
+            assertSame(market, s.getMarket());
+            assertSame(s, market.getStock(s.getRow()));
+        }
+        Stock apple = testPortfolio.getStockFromPool("AAPL");
+        double applePrice = apple.getCurrentPrice();
+        testPortfolio.removeStockFromPoolWithName("Apple");
+        assertNotSame(market, apple.getMarket());
+        assertEquals(testPortfolio.getStockPool().size(), market.size());
+        testPortfolio.progressDays(5);
+        assertEquals(applePrice, apple.getCurrentPrice());
+        assertEquals(1, apple.getPriceHistory().size());
+        for (Stock s : testPortfolio.getStockPool()) {
+            assertEquals(6, s.getPriceHistory().size());
+            assertEquals(s.getCurrentPrice(), s.getPriceHistory().last());
+        }
+    }
+
+    @Test
+    void testPlaceOrder() {
+        double price = testPortfolio.getPriceFromCode("AAPL");
+        assertNull(testPortfolio.placeOrder("NOPE", OrderSide.BUY, OrderType.LIMIT, 10.0, 1));
+        assertNull(testPortfolio.placeOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, 10.0, 0));
+
+        Order marketable = testPortfolio.placeOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, price * 2, 2);
+        assertEquals(OrderStatus.FILLED, marketable.getStatus());
+        assertEquals(price, marketable.getFillPrice());
+        assertEquals(2, testPortfolio.getStockFromPortfolio("AAPL").getSharesOwned());
+        assertEquals(5000 - price * 2, testPortfolio.getStockPortfolioBalance());
+
+        Order resting = testPortfolio.placeOrder("AAPL", OrderSide.BUY, OrderType.LIMIT, price / 2, 2);
+        assertEquals(OrderStatus.OPEN, resting.getStatus());
+        assertEquals(1, testPortfolio.getOpenOrders().size());
+        assertEquals(price / 2, testPortfolio.getOrderBook("AAPL").getBestBid());
+        assertTrue(testPortfolio.cancelOrder(resting.getOrderId()));
+        assertFalse(testPortfolio.cancelOrder(resting.getOrderId()));
+        assertEquals(OrderStatus.CANCELLED, resting.getStatus());
+        assertNull(testPortfolio.getOrderBook("AAPL"));
+
+        Order rejected = testPortfolio.placeOrder("GOOGL", OrderSide.SELL, OrderType.LIMIT, 0.01, 1);
+        assertEquals(OrderStatus.REJECTED, rejected.getStatus());
+        Order tooBig = testPortfolio.placeOrder("GOOGL", OrderSide.BUY, OrderType.STOP, 0.01, 1000000);
+        assertEquals(OrderStatus.REJECTED, tooBig.getStatus());
+    }
+
+    @Test
+    void testOrdersMatchOnProgressDay() {
+        StockPortfolio seeded = new StockPortfolio("Seeded", 5L);
+        seeded.setMarketRegime(MarketRegime.VERY_CONFIDENT);
+        seeded.setRegimeTransitions(new RegimeTransitionMatrix(new double[][] {
+                {1, 0, 0, 0, 0}, {1, 0, 0, 0, 0}, {1, 0, 0, 0, 0}, {1, 0, 0, 0, 0}, {1, 0, 0, 0, 0}}));
+        double price = seeded.getPriceFromCode("JPM");
+        seeded.buyStock("JPM", 10);
+        Order takeProfit = seeded.placeOrder("JPM", OrderSide.SELL, OrderType.LIMIT, price * 1.05, 4);
+        Order breakout = seeded.placeOrder("KO", OrderSide.BUY, OrderType.STOP, 0.5, 1);
+        assertEquals(OrderStatus.FILLED, breakout.getStatus());
+        assertEquals(OrderStatus.OPEN, takeProfit.getStatus());
+
+        seeded.progressDays(3);
+        assertEquals(OrderStatus.FILLED, takeProfit.getStatus());
+        assertEquals(4, takeProfit.getFilledShares());
+        assertTrue(takeProfit.getFillPrice() >= price * 1.05);
+        Stock jpm = seeded.getStockFromPortfolio("JPM");
+        assertEquals(6, jpm.getSharesOwned());
+        assertEquals(price, jpm.getBuyPrice());
+        assertEquals((takeProfit.getFillPrice() - price) * 4, jpm.getStockRealizedProfit(), 1e-9);
+        assertTrue(seeded.getOpenOrders().isEmpty());
+        assertEquals(3, seeded.getPnLHistory().size());
+    }
+
+    @Test
+    void testRestingOrdersKeepProgressDaysDeterministic() {
+        StockPortfolio stepped = new StockPortfolio("Stepped", 21L);
+        StockPortfolio batched = new StockPortfolio("Batched", 21L);
+        for (StockPortfolio p : new StockPortfolio[] {stepped, batched}) {
+            double price = p.getPriceFromCode("PFE");
+            p.placeOrder("PFE", OrderSide.BUY, OrderType.LIMIT, price * 0.97, 20);
+            p.placeOrder("PFE", OrderSide.BUY, OrderType.STOP, price * 1.03, 10);
+        }
+        for (int i = 0; i < 20; i++) {
+            stepped.progressDay();
+        }
+        batched.progressDays(20);
+        assertEquals(stepped.getPnLHistory(), batched.getPnLHistory());
+        assertEquals(stepped.getStockPortfolioBalance(), batched.getStockPortfolioBalance());
+        assertEquals(stepped.getOpenOrders().size(), batched.getOpenOrders().size());
+    }
+
+    @Test
+    void testPartialSellAndLots() {
+        Stock apple = testPortfolio.getStockFromPool("AAPL");
+        apple.setCurrentPrice(10.0);
+        testPortfolio.buyStock("AAPL", 10);
+        apple.setCurrentPrice(20.0);
+        testPortfolio.buyStock("AAPL", 10);
+        assertEquals(2, apple.getPosition().getLotCount());
+        assertEquals(15.0, apple.getBuyPrice());
+        assertEquals(4700, testPortfolio.getStockPortfolioBalance());
+
+        apple.setCurrentPrice(30.0);
+        assertFalse(testPortfolio.sellStock("AAPL", 21));
+        assertTrue(testPortfolio.sellStock("AAPL", 15));
+        assertEquals(5, apple.getSharesOwned());
+        assertEquals(20.0, apple.getBuyPrice());
+        assertEquals(250.0, apple.getStockRealizedProfit());
+        assertEquals(250.0, testPortfolio.getRealizedPNL());
+        assertEquals(5150, testPortfolio.getStockPortfolioBalance());
+        assertTrue(testPortfolio.calculateTotalPNL());
+        assertEquals(50.0, testPortfolio.getTotalPNL());
+
+        assertTrue(testPortfolio.sellStock("AAPL", 5));
+        assertNull(testPortfolio.getStockFromPortfolio("AAPL"));
+        assertEquals(300.0, testPortfolio.getRealizedPNL());
+        assertEquals(5300, testPortfolio.getStockPortfolioBalance());
+    }
+
+    @Test
+    void testCostBasisMethod() {
+        assertEquals(CostBasisMethod.FIFO, testPortfolio.getCostBasisMethod());
+        Stock apple = testPortfolio.getStockFromPool("AAPL");
+        apple.setCurrentPrice(10.0);
+        testPortfolio.buyStock("AAPL", 10);
+        apple.setCurrentPrice(20.0);
+        testPortfolio.buyStock("AAPL", 10);
+        testPortfolio.setCostBasisMethod(CostBasisMethod.LIFO);
+        assertEquals(CostBasisMethod.LIFO, apple.getPosition().getMethod());
+        assertTrue(testPortfolio.sellStock("AAPL", 10));
+        assertEquals(0.0, testPortfolio.getRealizedPNL());
+        assertEquals(10.0, apple.getBuyPrice());
+        testPortfolio.buyStock("KO", 1);
+        assertEquals(CostBasisMethod.LIFO, testPortfolio.getStockFromPortfolio("KO").getPosition().getMethod());
+    }
+}
@@ -90,6 +90,18 @@ public class StockTest {
         assertEquals(15, testStock.getCurrentPrice());
     }
 
+    @Test
+    void testProfitFollowsPrice() {
+        testStock.setCurrentPrice(10.0);
+        testStock.buyShares(3);
+        assertEquals(0, testStock.getStockPotentialProfit());
+        testStock.updatePrice(0.5);
+        assertEquals(15, testStock.getStockPotentialProfit());
+        testStock.sellShares();
+        assertEquals(15, testStock.getStockRealizedProfit());
+        assertEquals(0, testStock.getStockPotentialProfit());
+    }
+
     @Test
     void testUpdateProfitSoFar() {
         testStock.updateProfitSoFar();
@@ -119,4 +131,14 @@ public class StockTest {
         assertEquals(400, testStock2.getStockRealizedProfit());
     }
 
+    @Test
+    void testSeededConstructor() {
+        Stock seeded = new Stock("Stock D", "STKD", "Energy", new SplittableRandomSource(3L));
+        Stock seeded2 = new Stock("Stock E", "STKE", "Energy", new SplittableRandomSource(3L));
+        assertEquals(seeded.getOriginalPrice(), seeded2.getOriginalPrice());
+        assertTrue(seeded.getOriginalPrice() > 5 && seeded.getOriginalPrice() < 100);
+        RandomSource source = new SplittableRandomSource();
+        seeded.setRandomSource(source);
+        assertEquals(source, seeded.getRandomSource());
+    }
 }
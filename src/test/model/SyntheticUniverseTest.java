@@ -0,0 +1,86 @@
+package model;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyntheticUniverseTest {
+
+    @Test
+    void testGenerateDefault() {
+        List<Stock> stocks = new SyntheticUniverse().generate(5000, 1L);
+        assertEquals(5000, stocks.size());
+        Set<String> codes = new HashSet<>();
+        Set<String> sectors = new HashSet<>();
+        for (Stock s : stocks) {
+            codes.add(s.getStockCode());
+            sectors.add(s.getStockSector());
+            assertTrue(s.getOriginalPrice() >= 5 && s.getOriginalPrice() < 100);
+        }
+        assertEquals(5000, codes.size());
+        assertEquals(5, sectors.size());
+        assertEquals("SYN0000042", stocks.get(42).getStockCode());
+    }
+
+    @Test
+    void testGenerateDeterministic() {
+        List<Stock> stocks = new SyntheticUniverse().generate(100, 9L);
+        List<Stock> stocks2 = new SyntheticUniverse().generate(100, 9L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(stocks.get(i).getStockName(), stocks2.get(i).getStockName());
+            assertEquals(stocks.get(i).getOriginalPrice(), stocks2.get(i).getOriginalPrice());
+        }
+    }
+
+    @Test
+    void testStocksIndependent() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("Technology", 1.0);
+        weights.put("Energy", 1.0);
+        List<Stock> stocks = new SyntheticUniverse(weights).generate(2000, 4L);
+        double middlePrice = 52.5; // of the range [5, 100) original prices are drawn from
+        int matches = 0;
+        for (int i = 0; i + 1 < stocks.size(); i++) {
+            boolean lowPrice = stocks.get(i).getOriginalPrice() < middlePrice;
+            boolean technology = stocks.get(i + 1).getStockSector().equals("Technology");
+            if (lowPrice == technology) {
+                matches++;
+            }
+        }
+        assertTrue(matches > 850 && matches < 1150);
+    }
+
+    @Test
+    void testSectorWeights() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("Technology", 3.0);
+        weights.put("Utilities", 0.0);
+        weights.put("Energy", 1.0);
+        int technology = 0;
+        for (Stock s : new SyntheticUniverse(weights).generate(4000, 2L)) {
+            assertNotEquals("Utilities", s.getStockSector());
+            if (s.getStockSector().equals("Technology")) {
+                technology++;
+            }
+        }
+        assertTrue(technology > 2800 && technology < 3200);
+    }
+
+    @Test
+    void testLoadIntoPortfolio() {
+        StockPortfolio portfolio = new StockPortfolio("Large Portfolio", 4L);
+        portfolio.buyStock("AAPL", 1);
+        portfolio.loadStockPool(new SyntheticUniverse().generate(20000, 4L));
+        assertEquals(20000, portfolio.getStockPool().size());
+        assertEquals(1, portfolio.getNumStocksInPortfolio());
+        assertNull(portfolio.getStockFromPool("AAPL"));
+        assertTrue(portfolio.buyStock("SYN0019999", 1));
+        portfolio.progressDays(2);
+        assertEquals(3, portfolio.getStockFromPool("SYN0000000").getPriceHistory().size());
+    }
+}
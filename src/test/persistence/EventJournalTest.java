@@ -0,0 +1,170 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventJournalTest {
+
+    Path directory;
+    EventLog log;
+    List<Event> logged;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("events");
+        log = new EventLog(1024, EventLog.OverflowPolicy.DROP);
+        logged = new ArrayList<>();
+    }
+
+    @Test
+    void testWriteAndScan() throws IOException {
+        EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 256, 0);
+        writer.setBatchSize(16);
+        writer.setSyncPolicy(EventJournalWriter.SyncPolicy.EVERY_BATCH, 0);
+        assertEquals(EventJournalWriter.SyncPolicy.EVERY_BATCH, writer.getSyncPolicy());
+        writer.start();
+        logEvents(100, "trade");
+        writer.close();
+
+        assertEquals(100, writer.getEventsWritten());
+        assertTrue(writer.getBatchesWritten() >= 7);
+        assertTrue(EventJournalWriter.segmentIndexes(directory).size() > 1);
+        List<Event> read = new ArrayList<>();
+        EventJournalReader reader = new EventJournalReader(directory.toString());
+        assertEquals(100, reader.read(read::add));
+        assertEquals(logged, read);
+        assertEquals(0, reader.read(read::add));
+        assertEquals(100, reader.getEventsRead());
+    }
+
+    @Test
+    void testRestartAndRetention() throws IOException {
+        EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 0);
+        writer.start();
+        logEvents(10, "first run");
+        writer.close();
+        writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 0);
+        writer.setSyncPolicy(EventJournalWriter.SyncPolicy.INTERVAL, 1);
+        writer.start();
+        logEvents(10, "second run");
+        writer.close();
+        assertEquals(2, EventJournalWriter.segmentIndexes(directory).size());
+        List<Event> read = new ArrayList<>();
+        new EventJournalReader(directory.toString()).read(read::add);
+        assertEquals(logged, read);
+
+        writer = new EventJournalWriter(log, directory.toString(), 100, 3);
+        writer.start();
+        logEvents(50, "kept");
+        writer.close();
+        List<Long> segments = EventJournalWriter.segmentIndexes(directory);
+        assertEquals(3, segments.size());
+        read.clear();
+        new EventJournalReader(directory.toString()).read(read::add);
+        assertEquals(logged.get(logged.size() - 1), read.get(read.size() - 1));
+        assertTrue(read.size() < 50);
+    }
+
+    @Test
+    void testTail() throws Exception {
+        EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 200, 0);
+        EventJournalReader reader = new EventJournalReader(directory.toString());
+        List<Event> read = new ArrayList<>();
+        assertEquals(0, reader.read(read::add));
+        writer.start();
+        logEvents(20, "morning");
+        reader.tail(read::add, 1, () -> read.size() < 20);
+        logEvents(30, "afternoon");
+        reader.tail(read::add, 1, () -> read.size() < 50);
+        writer.close();
+        assertEquals(logged, read);
+        assertEquals(0, reader.read(read::add));
+    }
+
+    @Test
+    void testTornRecord() throws IOException {
+        EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 0);
+        writer.start();
+        logEvents(5, "before crash");
+        writer.close();
+        Path segment = EventJournalWriter.segmentPath(directory, 0);
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+        List<Event> read = new ArrayList<>();
+        EventJournalReader reader = new EventJournalReader(directory.toString());
+        assertEquals(5, reader.read(read::add));
+
+        Files.write(segment, new byte[] {3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23,
+            24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42}, StandardOpenOption.APPEND);
+        assertEquals(0, reader.read(read::add));
+        writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 0);
+        writer.start();
+        logEvents(2, "after crash");
+        writer.close();
+        assertEquals(2, reader.read(read::add));
+        assertEquals(logged, read);
+    }
+
+    @Test
+    void testStartPrunesSegments() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 0);
+            writer.start();
+            logEvents(1, "run " + i);
+            writer.close();
+        }
+        assertEquals(5, EventJournalWriter.segmentIndexes(directory).size());
+        EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 2);
+        writer.start();
+        assertEquals(2, EventJournalWriter.segmentIndexes(directory).size());
+        assertNull(writer.getFailure());
+        writer.close();
+        List<Event> read = new ArrayList<>();
+        new EventJournalReader(directory.toString()).read(read::add);
+        assertEquals(logged.subList(4, 5), read);
+    }
+
+    @Test
+    void testOversizedRecords() throws IOException {
+        EventJournalWriter writer = new EventJournalWriter(log, directory.toString(), 1 << 20, 0);
+        writer.start();
+        logEvents(2, "before");
+        char[] longDescription = new char[EventJournalWriter.MAX_PAYLOAD_BYTES];
+        Arrays.fill(longDescription, 'x');
+        assertTrue(log.logEvent(new Event(new String(longDescription))));
+        writer.close();
+        List<Event> read = new ArrayList<>();
+        assertEquals(3, new EventJournalReader(directory.toString()).read(read::add));
+        assertEquals(logged, read.subList(0, 2));
+        assertEquals(EventJournalWriter.MAX_PAYLOAD_BYTES - Long.BYTES, read.get(2).getLogDescription().length());
+
+        Path segment = EventJournalWriter.segmentPath(directory, 0);
+        Files.write(segment, new byte[] {0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0, 1, 2, 3},
+                StandardOpenOption.APPEND);
+        read.clear();
+        EventJournalReader reader = new EventJournalReader(directory.toString());
+        assertEquals(3, reader.read(read::add));
+        assertEquals(0, reader.read(read::add));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: logs n events with the given description, numbered, and keeps them
+    private void logEvents(int n, String description) {
+        for (int i = 0; i < n; i++) {
+            Event e = new Event(description + " " + i);
+            assertTrue(log.logEvent(e));
+            logged.add(e);
+        }
+    }
+}
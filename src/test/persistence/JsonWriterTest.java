@@ -1,5 +1,9 @@
 package persistence;
 
+import model.CostBasisMethod;
+import model.Position;
+import model.PriceHistory;
+import model.RetentionPolicy;
 import model.Stock;
 import model.StockPortfolio;
 import org.junit.jupiter.api.BeforeEach;
@@ -106,6 +110,68 @@ public class JsonWriterTest extends JsonTest {
         }
     }
 
+    @Test
+    void testWriterLotsAndRealizedPnL() {
+        try {
+            StockPortfolio stockPortfolio = new StockPortfolio("sample portfolio");
+            Stock apple = stockPortfolio.getStockFromPool("AAPL");
+            apple.setCurrentPrice(10.0);
+            stockPortfolio.buyStock("AAPL", 4);
+            apple.setCurrentPrice(20.0);
+            stockPortfolio.buyStock("AAPL", 6);
+            stockPortfolio.setCostBasisMethod(CostBasisMethod.LIFO);
+            stockPortfolio.sellStock("AAPL", 1);
+
+            stockPortfolio = writeAndRead(stockPortfolio, "./data/testWriterLotsPortfolio.json");
+            assertEquals(CostBasisMethod.LIFO, stockPortfolio.getCostBasisMethod());
+            assertEquals(0.0, stockPortfolio.getRealizedPNL());
+            Position position = stockPortfolio.getStockFromPortfolio("AAPL").getPosition();
+            assertEquals(2, position.getLotCount());
+            assertEquals(4, position.getLotShares(0));
+            assertEquals(10.0, position.getLotPrice(0));
+            assertEquals(5, position.getLotShares(1));
+            assertEquals(CostBasisMethod.LIFO, position.getMethod());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterHistoryRetention() {
+        try {
+            StockPortfolio stockPortfolio = new StockPortfolio("sample portfolio", 3L);
+            RetentionPolicy retention = new RetentionPolicy(5, 2, 2);
+            stockPortfolio.setHistoryRetention(retention);
+            stockPortfolio.progressDays(60);
+            PriceHistory apple = stockPortfolio.getStockFromPool("AAPL").getPriceHistory();
+
+            StockPortfolio read = writeAndRead(stockPortfolio, "./data/testWriterRetentionPortfolio.json");
+            assertEquals(retention, read.getHistoryRetention());
+            PriceHistory readApple = read.getStockFromPool("AAPL").getPriceHistory();
+            assertEquals(retention, readApple.getRetentionPolicy());
+            assertEquals(apple.getFirstRetainedDay(), readApple.getFirstRetainedDay());
+            assertEquals(apple.getDayCount(), readApple.getDayCount());
+            assertEquals(apple.priceAt(50), readApple.priceAt(50));
+            assertEquals(apple.priceAt(30), readApple.priceAt(30));
+            assertEquals(apple.getMonthlyBars().size(), readApple.getMonthlyBars().size());
+            assertEquals(stockPortfolio.getPnLHistory().getDayCount(), read.getPnLHistory().getDayCount());
+            assertEquals(stockPortfolio.getPnLHistory().getWeeklyBars().size(),
+                    read.getPnLHistory().getWeeklyBars().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    // EFFECTS: writes stockPortfolio to the file at path and returns the portfolio read back from it; throws
+    // IOException if the file can't be written or read
+    private StockPortfolio writeAndRead(StockPortfolio stockPortfolio, String path) throws IOException {
+        JsonWriter writer = new JsonWriter(path);
+        writer.open();
+        writer.write(stockPortfolio);
+        writer.close();
+        return new JsonReader(path).read();
+    }
+
     public Stock createSampleStock() {
         Stock sampleStock = new Stock("Stock 1", "S1", "Tech");
 
@@ -0,0 +1,128 @@
+package persistence;
+
+import model.CostBasisMethod;
+import model.Order;
+import model.OrderSide;
+import model.OrderType;
+import model.Stock;
+import model.StockPortfolio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioJournalTest {
+
+    Path directory;
+
+    String snapshotPath;
+    String journalPath;
+    StockPortfolio stockPortfolio;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        snapshotPath = directory.resolve("portfolio.json").toString();
+        journalPath = directory.resolve("portfolio.journal").toString();
+        stockPortfolio = new StockPortfolio("Journaled", 11L);
+    }
+
+    @Test
+    void testReplayMatchesPortfolio() throws IOException {
+        PortfolioJournal journal = new PortfolioJournal(snapshotPath, journalPath, 0);
+        journal.open(stockPortfolio);
+        playSession();
+        journal.close();
+        assertTrue(Files.size(directory.resolve("portfolio.journal")) < 1000);
+
+        StockPortfolio replayed = journal.replay();
+        assertEquals(stockPortfolio.getTradingDay(), replayed.getTradingDay());
+        assertEquals(journal.getSequence(), journal.getReplayedCommands());
+        assertTrue(journal.getReplayCommandsPerSecond() > 0);
+        assertSamePortfolio(stockPortfolio, replayed);
+    }
+
+    @Test
+    void testSnapshotsBoundReplay() throws IOException {
+        PortfolioJournal journal = new PortfolioJournal(snapshotPath, journalPath, 4);
+        journal.open(stockPortfolio);
+        playSession();
+        long recorded = journal.getSequence();
+        journal.close();
+
+        StockPortfolio replayed = journal.replay();
+        assertEquals(recorded, journal.getSequence());
+        assertTrue(journal.getReplayedCommands() < 4);
+        assertSamePortfolio(stockPortfolio, replayed);
+
+        journal.open(replayed);
+        replayed.progressDays(3);
+        journal.close();
+        StockPortfolio again = journal.replay();
+        assertEquals(1, journal.getReplayedCommands());
+        assertEquals(replayed.getTradingDay(), again.getTradingDay());
+    }
+
+    @Test
+    void testTruncatedRecordIgnored() throws IOException {
+        PortfolioJournal journal = new PortfolioJournal(snapshotPath, journalPath, 0);
+        journal.open(stockPortfolio);
+        stockPortfolio.buyStock("AAPL", 3);
+        stockPortfolio.progressDay();
+        stockPortfolio.buyStock("KO", 2);
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(journalPath, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        StockPortfolio replayed = journal.replay();
+        assertEquals(2, journal.getReplayedCommands());
+        assertEquals(3, replayed.getStockFromPortfolio("AAPL").getSharesOwned());
+        assertNull(replayed.getStockFromPortfolio("KO"));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plays a session touching every kind of command
+    private void playSession() {
+        stockPortfolio.buyStock("AAPL", 10);
+        stockPortfolio.buyStock("KO", 20);
+        stockPortfolio.progressDay();
+        stockPortfolio.setCostBasisMethod(CostBasisMethod.LIFO);
+        stockPortfolio.buyStock("AAPL", 5);
+        stockPortfolio.progressDays(5);
+        stockPortfolio.sellStock("AAPL", 7);
+        stockPortfolio.createNewStock("Venture", "VNT", "Technology");
+        Stock cocaCola = stockPortfolio.getStockFromPool("KO");
+        Order order = stockPortfolio.placeOrder("KO", OrderSide.SELL, OrderType.LIMIT,
+                cocaCola.getCurrentPrice() * 10, 5);
+        stockPortfolio.placeOrder("PFE", OrderSide.BUY, OrderType.LIMIT, 0.01, 5);
+        stockPortfolio.cancelOrder(order.getOrderId());
+        while (!stockPortfolio.requestLoanReturnVal()) {
+            stockPortfolio.progressDay();
+        }
+        stockPortfolio.progressDays(3);
+        stockPortfolio.sellStock("KO");
+    }
+
+    // EFFECTS: asserts that replayed is in the same state as expected
+    private void assertSamePortfolio(StockPortfolio expected, StockPortfolio replayed) {
+        assertEquals(expected.getStockPortfolioBalance(), replayed.getStockPortfolioBalance(), 1e-6);
+        assertEquals(expected.getTradingDay(), replayed.getTradingDay());
+        assertEquals(expected.getAllStockCodes(), replayed.getAllStockCodes());
+        assertEquals(expected.getAllStockCodesPool(), replayed.getAllStockCodesPool());
+        assertEquals(expected.getCostBasisMethod(), replayed.getCostBasisMethod());
+        assertEquals(expected.getOpenOrders().size(), replayed.getOpenOrders().size());
+        assertEquals(expected.getNextOrderId(), replayed.getNextOrderId());
+        for (Stock s : expected.getStockPool()) {
+            Stock other = replayed.getStockFromPool(s.getStockCode());
+            assertEquals(s.getPriceHistory(), other.getPriceHistory());
+            assertEquals(s.getSharesOwned(), other.getSharesOwned());
+        }
+        assertEquals(expected.getPnLHistory().size(), replayed.getPnLHistory().size());
+        assertEquals(expected.getTotalPNL(), replayed.getTotalPNL(), 1e-6);
+    }
+}
@@ -0,0 +1,81 @@
+package persistence;
+
+import model.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockUniverseReaderTest {
+
+    @Test
+    void testReaderNonExistentFile() {
+        StockUniverseReader reader = new StockUniverseReader("./data/noSuchFile.csv");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderInvalidLine() {
+        StockUniverseReader reader = new StockUniverseReader("./data/testStockUniverseInvalid.csv");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderInvalidPrice() {
+        try {
+            new StockUniverseReader("./data/testStockUniverseZeroPrice.csv").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("line 3"));
+        }
+        try {
+            new StockUniverseReader("./data/testStockUniverseNaNPrice.jsonl").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("line 3"));
+        }
+    }
+
+    @Test
+    void testReaderCsv() {
+        try {
+            checkUniverse(new StockUniverseReader("./data/testStockUniverse.csv").read());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderJsonLines() {
+        try {
+            checkUniverse(new StockUniverseReader("./data/testStockUniverse.jsonl").read());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    private void checkUniverse(List<Stock> stocks) {
+        assertEquals(3, stocks.size());
+        assertEquals("Apple", stocks.get(0).getStockName());
+        assertEquals("AAPL", stocks.get(0).getStockCode());
+        assertEquals("Technology", stocks.get(0).getStockSector());
+        assertEquals(150.5, stocks.get(0).getCurrentPrice());
+        assertEquals(1, stocks.get(0).getPriceHistory().size());
+        assertEquals("PFE", stocks.get(1).getStockCode());
+        assertTrue(stocks.get(1).getOriginalPrice() > 5 && stocks.get(1).getOriginalPrice() < 100);
+        assertEquals("Shell PLC", stocks.get(2).getStockName());
+        assertEquals(62.25, stocks.get(2).getOriginalPrice());
+    }
+}
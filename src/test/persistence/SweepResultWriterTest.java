@@ -0,0 +1,100 @@
+package persistence;
+
+import model.Market;
+import model.MovingAverageCrossStrategy;
+import model.ParameterGrid;
+import model.ParameterSweep;
+import model.PricePathModel;
+import model.StockPortfolio;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SweepResultWriterTest {
+
+    Path directory;
+    ParameterGrid grid;
+    ParameterSweep sweep;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("sweep");
+        grid = new ParameterGrid();
+        grid.addParameter("short", 2, 4);
+        grid.addParameter("long", 10, 20, 30);
+        Market generator = new Market(8L);
+        generator.progressDays(60);
+        sweep = new ParameterSweep(PricePathModel.fromHistories(generator.getStockPool()),
+                () -> {
+                    StockPortfolio portfolio = new StockPortfolio("Sweep", 8L);
+                    portfolio.setEventLogging(false);
+                    return portfolio;
+                }, p -> new MovingAverageCrossStrategy((int) p[0], (int) p[1], 2));
+    }
+
+    @Test
+    void testCloseUnopened() {
+        SweepResultWriter writer = new SweepResultWriter(directory.resolve("unopened.csv").toString(),
+                SweepResultWriter.Format.CSV, grid.getNames());
+        writer.close();
+        assertEquals(0, writer.getResultsWritten());
+        assertFalse(Files.exists(directory.resolve("unopened.csv")));
+    }
+
+    @Test
+    void testWriteCsv() throws IOException {
+        Path file = directory.resolve("sweep.csv");
+        SweepResultWriter writer = new SweepResultWriter(file.toString(), SweepResultWriter.Format.CSV,
+                grid.getNames());
+        writer.open();
+        sweep.run(grid, writer);
+        writer.close();
+        assertEquals(6, writer.getResultsWritten());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(7, lines.size());
+        assertEquals("index,short,long,strategy,days,pnl,max_drawdown,max_drawdown_percent,turnover,trades,"
+                + "final_equity", lines.get(0));
+        Set<String> indices = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            assertEquals(11, fields.length);
+            double[] parameters = grid.get(Long.parseLong(fields[0]));
+            assertEquals(parameters[0], Double.parseDouble(fields[1]));
+            assertEquals("SMA cross(" + (int) parameters[0] + "/" + (int) parameters[1] + ")", fields[3]);
+            assertEquals(60, Integer.parseInt(fields[4]));
+            indices.add(fields[0]);
+        }
+        assertEquals(6, indices.size());
+    }
+
+    @Test
+    void testWriteJsonLines() throws IOException {
+        Path file = directory.resolve("sweep.jsonl");
+        SweepResultWriter writer = new SweepResultWriter(file.toString(), SweepResultWriter.Format.JSON_LINES,
+                grid.getNames());
+        writer.open();
+        sweep.run(grid, writer);
+        writer.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(6, lines.size());
+        for (String line : lines) {
+            JSONObject json = new JSONObject(line);
+            double[] parameters = grid.get(json.getLong("index"));
+            JSONObject values = json.getJSONObject("parameters");
+            assertEquals(parameters[1], values.getDouble("long"));
+            double pnl = sweep.runConfiguration(parameters).getPnL();
+            assertEquals(pnl, json.getDouble("pnl"), 1e-9);
+        }
+    }
+}